@@ -0,0 +1,145 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.distribution;
+
+import io.crate.Streamer;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.util.BigArrays;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares buffering rows in a {@link PagedRowBucket} with buffering them as Object[] rows,
+ * the way the repeated side of a nested loop join is iterated.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PagedRowBucketBenchmark {
+
+    private static final int NUM_ROWS = 100_000;
+    private static final int NUM_REPEATS = 10;
+
+    private List<Row> rows;
+    private Streamer<?>[] streamers;
+    private List<Object[]> objectRows;
+    private PagedRowBucket pagedRows;
+
+    @Setup
+    public void prepareData() {
+        List<DataType> types = Arrays.asList(DataTypes.INTEGER, DataTypes.STRING, DataTypes.LONG, DataTypes.DOUBLE);
+        streamers = DataTypes.getStreamers(types);
+        rows = new ArrayList<>(NUM_ROWS);
+        for (int i = 0; i < NUM_ROWS; i++) {
+            rows.add(new RowN(new Object[]{i, new BytesRef("name-" + i), (long) i * 31, i / 3.0d}));
+        }
+        objectRows = new ArrayList<>(NUM_ROWS);
+        for (Row row : rows) {
+            objectRows.add(row.materialize());
+        }
+        pagedRows = new PagedRowBucket(streamers, BigArrays.NON_RECYCLING_INSTANCE, null);
+        for (Row row : rows) {
+            pagedRows.add(row);
+        }
+    }
+
+    @TearDown
+    public void releasePages() {
+        pagedRows.close();
+    }
+
+    @Benchmark
+    public void measureBufferObjectArrayRows(Blackhole blackhole) {
+        List<Object[]> buffer = new ArrayList<>();
+        for (Row row : rows) {
+            buffer.add(row.materialize());
+        }
+        blackhole.consume(buffer);
+    }
+
+    @Benchmark
+    public void measureBufferPagedRows(Blackhole blackhole) {
+        try (PagedRowBucket buffer = new PagedRowBucket(streamers, BigArrays.NON_RECYCLING_INSTANCE, null)) {
+            for (Row row : rows) {
+                buffer.add(row);
+            }
+            blackhole.consume(buffer.size());
+        }
+    }
+
+    @Benchmark
+    public void measureRepeatObjectArrayRowsReadOneColumn(Blackhole blackhole) {
+        for (int i = 0; i < NUM_REPEATS; i++) {
+            for (Object[] row : objectRows) {
+                blackhole.consume(row[0]);
+            }
+        }
+    }
+
+    @Benchmark
+    public void measureRepeatPagedRowsReadOneColumn(Blackhole blackhole) {
+        for (int i = 0; i < NUM_REPEATS; i++) {
+            for (Row row : pagedRows) {
+                blackhole.consume(row.get(0));
+            }
+        }
+    }
+
+    @Benchmark
+    public void measureRepeatObjectArrayRowsReadAllColumns(Blackhole blackhole) {
+        for (int i = 0; i < NUM_REPEATS; i++) {
+            for (Object[] row : objectRows) {
+                for (Object value : row) {
+                    blackhole.consume(value);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void measureRepeatPagedRowsReadAllColumns(Blackhole blackhole) {
+        for (int i = 0; i < NUM_REPEATS; i++) {
+            for (Row row : pagedRows) {
+                for (int c = 0; c < row.numColumns(); c++) {
+                    blackhole.consume(row.get(c));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression.scalar;
+
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.collect.InputCollectExpression;
+import io.crate.expression.FunctionExpression;
+import io.crate.expression.InputFactory;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.LikeOperator;
+import io.crate.expression.scalar.arithmetic.ArithmeticFunctions;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Functions;
+import io.crate.metadata.Scalar;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+
+/**
+ * Compares the evaluation of {@code a * 2 + b > c AND d LIKE 'x%'} using the compiled inputs created by the
+ * {@link InputFactory} with the evaluation using nested {@link FunctionExpression}s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CompiledExpressionBenchmark {
+
+    private final Row row = new RowN(new Object[]{5L, 3L, 12L, new BytesRef("xyz")});
+
+    private Input<?> compiled;
+    private List<CollectExpression<Row, ?>> compiledExpressions;
+
+    private Input<?> interpreted;
+    private List<CollectExpression<Row, ?>> interpretedExpressions;
+
+    @Setup
+    public void setupExpressions() {
+        Functions functions = getFunctions();
+        Function arithmetic = ArithmeticFunctions.of(
+            ArithmeticFunctions.Names.ADD,
+            ArithmeticFunctions.of(
+                ArithmeticFunctions.Names.MULTIPLY,
+                new InputColumn(0, DataTypes.LONG),
+                Literal.of(2L),
+                FunctionInfo.DETERMINISTIC_ONLY),
+            new InputColumn(1, DataTypes.LONG),
+            FunctionInfo.DETERMINISTIC_AND_COMPARISON_REPLACEMENT);
+        Function gt = new Function(
+            new FunctionInfo(
+                new FunctionIdent(GtOperator.NAME, Arrays.asList(DataTypes.LONG, DataTypes.LONG)), DataTypes.BOOLEAN),
+            Arrays.asList(arithmetic, new InputColumn(2, DataTypes.LONG)));
+        Function like = new Function(
+            new FunctionInfo(
+                new FunctionIdent(LikeOperator.NAME, Arrays.asList(DataTypes.STRING, DataTypes.STRING)), DataTypes.BOOLEAN),
+            Arrays.asList(new InputColumn(3, DataTypes.STRING), Literal.of("x%")));
+        Function condition = AndOperator.of(gt, like);
+
+        InputFactory.Context<CollectExpression<Row, ?>> ctx = new InputFactory(functions).ctxForInputColumns();
+        compiled = ctx.add(condition);
+        compiledExpressions = ctx.expressions();
+
+        interpretedExpressions = new ArrayList<>();
+        interpreted = interpret(functions, condition, interpretedExpressions);
+    }
+
+    private static Input<?> interpret(Functions functions, Symbol symbol, List<CollectExpression<Row, ?>> expressions) {
+        if (symbol instanceof Function) {
+            Function function = (Function) symbol;
+            Scalar<?, ?> scalar = (Scalar<?, ?>) functions.getQualified(function.info().ident());
+            Input[] args = new Input[function.arguments().size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = interpret(functions, function.arguments().get(i), expressions);
+            }
+            return new FunctionExpression<>(scalar.compile(function.arguments()), args);
+        }
+        if (symbol instanceof InputColumn) {
+            InputCollectExpression expression = new InputCollectExpression(((InputColumn) symbol).index());
+            expressions.add(expression);
+            return expression;
+        }
+        return (Literal) symbol;
+    }
+
+    @Benchmark
+    public Object measureCompiled() {
+        for (int i = 0; i < compiledExpressions.size(); i++) {
+            compiledExpressions.get(i).setNextRow(row);
+        }
+        return compiled.value();
+    }
+
+    @Benchmark
+    public Object measureFunctionExpressions() {
+        for (int i = 0; i < interpretedExpressions.size(); i++) {
+            interpretedExpressions.get(i).setNextRow(row);
+        }
+        return interpreted.value();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.types.BooleanType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.IntegerType;
+import io.crate.types.StringType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.lucene.util.BytesRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the rows per second which can be encoded as postgres DataRow messages, for rows with
+ * {@link #NUM_COLUMNS} columns of the same type.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class DataRowEncodingBenchmark {
+
+    private static final int NUM_COLUMNS = 10;
+
+    @Param({"integer", "long", "double", "timestamp", "string", "boolean"})
+    public String type;
+
+    @Param({"TEXT", "BINARY"})
+    public FormatCodes.FormatCode formatCode;
+
+    private Row row;
+    private PGType[] columnTypes;
+    private FormatCodes.FormatCode[] formatCodes;
+    private ByteBuf buffer;
+
+    @Setup
+    public void createRow() {
+        DataType dataType = DataTypes.ofName(type);
+        Object[] cells = new Object[NUM_COLUMNS];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = value(dataType, i);
+        }
+        row = new RowN(cells);
+        columnTypes = PGTypes.get(Collections.nCopies(NUM_COLUMNS, dataType));
+        formatCodes = new FormatCodes.FormatCode[]{formatCode};
+        buffer = Unpooled.buffer(1024);
+    }
+
+    private static Object value(DataType dataType, int i) {
+        switch (dataType.id()) {
+            case BooleanType.ID:
+                return i % 2 == 0;
+            case StringType.ID:
+                return new BytesRef("value_" + i);
+            case DoubleType.ID:
+                return i * 1234.5678d;
+            case IntegerType.ID:
+                return i * 123_456;
+            default:
+                return 1514764800000L + i * 123_456_789L;
+        }
+    }
+
+    @TearDown
+    public void releaseBuffer() {
+        buffer.release();
+    }
+
+    @Benchmark
+    public ByteBuf measureWriteDataRow() {
+        buffer.clear();
+        Messages.writeDataRow(buffer, row, columnTypes, formatCodes);
+        return buffer;
+    }
+}
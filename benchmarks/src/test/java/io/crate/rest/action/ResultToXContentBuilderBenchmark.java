@@ -0,0 +1,117 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.types.BooleanType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.IntegerType;
+import io.crate.types.StringType;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the rows per second which can be written as JSON by the HTTP endpoint, for rows with
+ * {@link #NUM_COLUMNS} columns of the same type.
+ * The output is discarded, so that only the encoding is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class ResultToXContentBuilderBenchmark {
+
+    private static final int NUM_COLUMNS = 10;
+
+    @Param({"integer", "long", "double", "timestamp", "string", "boolean"})
+    public String type;
+
+    private Row row;
+    private ResultToXContentBuilder.ValueWriter[] valueWriters;
+    private ResultToXContentBuilder builder;
+
+    @Setup
+    public void createBuilder() throws IOException {
+        DataType dataType = DataTypes.ofName(type);
+        Object[] cells = new Object[NUM_COLUMNS];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = value(dataType, i);
+        }
+        row = new RowN(cells);
+        valueWriters = ResultToXContentBuilder.valueWriters(Collections.nCopies(NUM_COLUMNS, dataType));
+        XContentBuilder xContentBuilder = new XContentBuilder(JsonXContent.jsonXContent, new NullOutputStream());
+        builder = ResultToXContentBuilder.builder(xContentBuilder).startRows();
+    }
+
+    private static Object value(DataType dataType, int i) {
+        switch (dataType.id()) {
+            case BooleanType.ID:
+                return i % 2 == 0;
+            case StringType.ID:
+                return new BytesRef("value_" + i);
+            case DoubleType.ID:
+                return i * 1234.5678d;
+            case IntegerType.ID:
+                return i * 123_456;
+            default:
+                return 1514764800000L + i * 123_456_789L;
+        }
+    }
+
+    @Benchmark
+    public ResultToXContentBuilder measureAddRowWithValueWriters() throws IOException {
+        return builder.addRow(row, valueWriters);
+    }
+
+    @Benchmark
+    public ResultToXContentBuilder measureAddRowGeneric() throws IOException {
+        return builder.addRow(row, NUM_COLUMNS);
+    }
+
+    private static class NullOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
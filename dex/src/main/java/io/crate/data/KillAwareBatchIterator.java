@@ -0,0 +1,97 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data;
+
+import io.crate.exceptions.Exceptions;
+
+import javax.annotation.Nonnull;
+import java.util.Comparator;
+
+/**
+ * BatchIterator which remembers if it has been killed.
+ * <p>
+ * Operations which consume all rows of a source before they produce their result, like sorting or grouping,
+ * use it to notice a kill while they're working on the consumed rows, instead of relying on the source to
+ * raise the kill on its next {@link #moveNext()}.
+ * The kill is checked every {@link #CHECK_INTERVAL} rows or comparisons to keep the overhead negligible.
+ */
+public class KillAwareBatchIterator<T> extends ForwardingBatchIterator<T> {
+
+    static final int CHECK_INTERVAL = 1024;
+
+    private final BatchIterator<T> delegate;
+    private volatile Throwable killed;
+    private int numRows = 0;
+
+    public KillAwareBatchIterator(BatchIterator<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    protected BatchIterator<T> delegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean moveNext() {
+        if (++numRows % CHECK_INTERVAL == 0) {
+            raiseIfKilled();
+        }
+        return delegate.moveNext();
+    }
+
+    @Override
+    public void kill(@Nonnull Throwable throwable) {
+        killed = throwable;
+        delegate.kill(throwable);
+    }
+
+    /**
+     * Raises the reason of the kill if the iterator has been killed.
+     */
+    public void raiseIfKilled() {
+        Throwable throwable = killed;
+        if (throwable != null) {
+            Exceptions.rethrowUnchecked(throwable);
+        }
+    }
+
+    /**
+     * @return a comparator which delegates to {@code comparator} and raises the reason of the kill once the iterator
+     *         has been killed, so that sorting many rows can be interrupted.
+     */
+    public <C> Comparator<C> killAware(Comparator<C> comparator) {
+        return new Comparator<C>() {
+
+            private int numComparisons = 0;
+
+            @Override
+            public int compare(C o1, C o2) {
+                if (++numComparisons % CHECK_INTERVAL == 0) {
+                    raiseIfKilled();
+                }
+                return comparator.compare(o1, o2);
+            }
+        };
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+package io.crate.data;
+
+import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.TestingBatchIterators;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class KillAwareBatchIteratorTest {
+
+    @Test
+    public void testKillAwareBatchIterator() throws Exception {
+        List<Object[]> expectedResult = IntStream.range(0, 10)
+            .mapToObj(i -> new Object[]{i})
+            .collect(Collectors.toList());
+        BatchIteratorTester tester = new BatchIteratorTester(
+            () -> new KillAwareBatchIterator<>(TestingBatchIterators.range(0, 10))
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void testKillAwareComparatorRaisesKillReason() throws Exception {
+        KillAwareBatchIterator<Row> it = new KillAwareBatchIterator<>(TestingBatchIterators.range(0, 10));
+        Comparator<Integer> comparator = it.killAware(Comparator.naturalOrder());
+        List<Integer> values = new ArrayList<>();
+        for (int i = KillAwareBatchIterator.CHECK_INTERVAL * 2; i > 0; i--) {
+            values.add(i);
+        }
+        values.sort(comparator);
+        assertThat(values.get(0), is(1));
+
+        it.kill(new InterruptedException("KILLED"));
+        try {
+            values.sort(comparator.reversed());
+            fail("sort should have been interrupted by the kill");
+        } catch (Exception e) {
+            assertThat(e.getMessage(), is("KILLED"));
+        }
+    }
+}
@@ -19,13 +19,23 @@
 package io.crate.module;
 
 import io.crate.expression.AbstractFunctionModule;
-import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.metadata.FunctionImplementation;
+import io.crate.operation.aggregation.ApproxTopKAggregation;
+import io.crate.operation.aggregation.HllMergeAggregation;
+import io.crate.operation.aggregation.HllSketchAggregation;
 import io.crate.operation.aggregation.HyperLogLogDistinctAggregation;
+import io.crate.operation.scalar.HllCardinalityFunction;
+import io.crate.operation.scalar.HllUnionFunction;
 
-public class HyperLogLogModule extends AbstractFunctionModule<AggregationFunction> {
+public class HyperLogLogModule extends AbstractFunctionModule<FunctionImplementation> {
 
     @Override
     public void configureFunctions() {
         HyperLogLogDistinctAggregation.register(this);
+        ApproxTopKAggregation.register(this);
+        HllSketchAggregation.register(this);
+        HllMergeAggregation.register(this);
+        HllCardinalityFunction.register(this);
+        HllUnionFunction.register(this);
     }
 }
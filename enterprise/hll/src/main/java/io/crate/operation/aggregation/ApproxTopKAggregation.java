@@ -0,0 +1,503 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+
+package io.crate.operation.aggregation;
+
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.data.Input;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.module.HyperLogLogModule;
+import io.crate.types.ArrayType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.util.BigArrays;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximates the k most frequent values using the Space-Saving algorithm.
+ *
+ * The state monitors a fixed number of values ({@link #CAPACITY_FACTOR} * k). If a value which isn't monitored
+ * is added once all counters are in use, it replaces the value with the lowest count and inherits its count.
+ * The memory used is therefore independent of the number of distinct values.
+ * States are merged by adding up the counters of both states and keeping the highest ones.
+ */
+public class ApproxTopKAggregation extends AggregationFunction<ApproxTopKAggregation.TopKState, Object[]> {
+
+    static final String NAME = "approx_top_k";
+    static final String ITEM = "item";
+    static final String FREQUENCY = "frequency";
+
+    static final int DEFAULT_K = 10;
+    static final int MAX_K = 10_000;
+    static final int CAPACITY_FACTOR = 10;
+
+    /**
+     * estimated size of a counter without the value: slot in the arrays and the entry in the HashMap
+     */
+    private static final long COUNTER_OVERHEAD = 96L;
+
+    private static final DataType<?> RETURN_TYPE = new ArrayType(DataTypes.OBJECT);
+
+    static {
+        DataTypes.register(TopKStateType.ID, () -> TopKStateType.INSTANCE);
+    }
+
+    public static void register(HyperLogLogModule mod) {
+        for (DataType<?> t : DataTypes.PRIMITIVE_TYPES) {
+            mod.register(new ApproxTopKAggregation(new FunctionInfo(
+                new FunctionIdent(NAME, Collections.singletonList(t)), RETURN_TYPE,
+                FunctionInfo.Type.AGGREGATE),
+                t));
+            mod.register(new ApproxTopKAggregation(new FunctionInfo(
+                new FunctionIdent(NAME, Arrays.asList(t, DataTypes.INTEGER)), RETURN_TYPE,
+                FunctionInfo.Type.AGGREGATE),
+                t));
+        }
+    }
+
+    private final FunctionInfo info;
+    private final DataType dataType;
+
+    private ApproxTopKAggregation(FunctionInfo info, DataType dataType) {
+        this.info = info;
+        this.dataType = dataType;
+    }
+
+    @Nullable
+    @Override
+    public TopKState newState(RamAccountingContext ramAccountingContext,
+                              Version indexVersionCreated,
+                              BigArrays bigArrays) {
+        return new TopKState(dataType);
+    }
+
+    @Override
+    public TopKState iterate(RamAccountingContext ramAccountingContext, TopKState state, Input... args) throws CircuitBreakingException {
+        if (state.isInitialized() == false) {
+            int k = DEFAULT_K;
+            if (args.length > 1) {
+                Integer value = DataTypes.INTEGER.value(args[1].value());
+                if (value == null) {
+                    throw new IllegalArgumentException("The k argument of " + NAME + " must not be null");
+                }
+                if (value < 1 || value > MAX_K) {
+                    throw new IllegalArgumentException("k must be >= 1 and <= " + MAX_K);
+                }
+                k = value;
+            }
+            ramAccountingContext.addBytes(COUNTER_OVERHEAD * k * CAPACITY_FACTOR);
+            state.init(k);
+        }
+        Object value = args[0].value();
+        if (value != null) {
+            state.add(value, ramAccountingContext);
+        }
+        return state;
+    }
+
+    @Override
+    public TopKState reduce(RamAccountingContext ramAccountingContext, TopKState state1, TopKState state2) {
+        // states received from other nodes haven't been accounted yet
+        ramAccountingContext.addBytes(state1.takeUnaccountedBytes() + state2.takeUnaccountedBytes());
+        if (state1.isInitialized() == false) {
+            return state2;
+        }
+        if (state2.isInitialized()) {
+            long bytes = state1.merge(state2);
+            if (bytes > 0) {
+                ramAccountingContext.addBytes(bytes);
+            }
+        }
+        return state1;
+    }
+
+    @Override
+    public Object[] terminatePartial(RamAccountingContext ramAccountingContext, TopKState state) {
+        if (state.isInitialized()) {
+            return state.topK();
+        }
+        return null;
+    }
+
+    @Override
+    public DataType partialType() {
+        return TopKStateType.INSTANCE;
+    }
+
+    @Override
+    public FunctionInfo info() {
+        return info;
+    }
+
+    public static class TopKState implements Comparable<TopKState>, Writeable {
+
+        private final DataType dataType;
+        private final SizeEstimator<Object> sizeEstimator;
+        private final Map<Object, Integer> slotByItem = new HashMap<>();
+
+        private int k;
+        private int size;
+
+        // counters by slot
+        private Object[] items;
+        private long[] counts;
+        private long[] errors;
+        private long[] accountedBytes;
+
+        // min-heap on the counts; heap contains slots, positions maps a slot to its index in the heap
+        private int[] heap;
+        private int[] positions;
+
+        // bytes of a state read from a stream, they're accounted once the state is reduced
+        private long unaccountedBytes = 0L;
+
+        TopKState(DataType dataType) {
+            this.dataType = dataType;
+            this.sizeEstimator = SizeEstimatorFactory.create(dataType);
+        }
+
+        TopKState(StreamInput in) throws IOException {
+            this(DataTypes.fromStream(in));
+            if (in.readBoolean()) {
+                init(in.readVInt());
+                Streamer streamer = dataType.streamer();
+                int numCounters = in.readVInt();
+                unaccountedBytes = COUNTER_OVERHEAD * capacity();
+                for (int i = 0; i < numCounters; i++) {
+                    int slot = addCounter(streamer.readValueFrom(in), in.readVLong(), in.readVLong());
+                    unaccountedBytes += accountItem(slot);
+                }
+            }
+        }
+
+        /**
+         * @return the bytes used by a state read from a stream which haven't been accounted yet;
+         *         subsequent calls return 0
+         */
+        long takeUnaccountedBytes() {
+            long bytes = unaccountedBytes;
+            unaccountedBytes = 0L;
+            return bytes;
+        }
+
+        void init(int k) {
+            assert items == null : "state was already initialized";
+            this.k = k;
+            int capacity = k * CAPACITY_FACTOR;
+            items = new Object[capacity];
+            counts = new long[capacity];
+            errors = new long[capacity];
+            accountedBytes = new long[capacity];
+            heap = new int[capacity];
+            positions = new int[capacity];
+        }
+
+        boolean isInitialized() {
+            return items != null;
+        }
+
+        private int capacity() {
+            return items.length;
+        }
+
+        private long minCount() {
+            return size < capacity() ? 0L : counts[heap[0]];
+        }
+
+        void add(Object value, @Nullable RamAccountingContext ramAccountingContext) {
+            Integer slot = slotByItem.get(value);
+            if (slot != null) {
+                counts[slot]++;
+                siftDown(positions[slot]);
+                return;
+            }
+            if (size < capacity()) {
+                slot = addCounter(copy(value), 1L, 0L);
+            } else {
+                // replace the value with the lowest count, the count of the new value is at most min + 1
+                slot = heap[0];
+                long min = counts[slot];
+                slotByItem.remove(items[slot]);
+                items[slot] = copy(value);
+                counts[slot] = min + 1;
+                errors[slot] = min;
+                slotByItem.put(items[slot], slot);
+                siftDown(0);
+            }
+            long bytes = accountItem(slot);
+            if (ramAccountingContext != null && bytes > 0) {
+                ramAccountingContext.addBytes(bytes);
+            }
+        }
+
+        /**
+         * Updates the bytes accounted for the item of a slot; the slot keeps the size of the largest item it held.
+         *
+         * @return the bytes which need to be added to the accounting
+         */
+        private long accountItem(int slot) {
+            long bytes = sizeEstimator.estimateSize(items[slot]);
+            if (bytes > accountedBytes[slot]) {
+                long delta = bytes - accountedBytes[slot];
+                accountedBytes[slot] = bytes;
+                return delta;
+            }
+            return 0L;
+        }
+
+        private int addCounter(Object item, long count, long error) {
+            int slot = size;
+            size++;
+            items[slot] = item;
+            counts[slot] = count;
+            errors[slot] = error;
+            slotByItem.put(item, slot);
+            heap[slot] = slot;
+            positions[slot] = slot;
+            siftUp(slot);
+            return slot;
+        }
+
+        /**
+         * @return the difference of the bytes used by the items of this state after the merge
+         */
+        long merge(TopKState other) {
+            // Values which aren't monitored by a state may have occurred up to minCount() times
+            long minCount = minCount();
+            long otherMinCount = other.minCount();
+            List<Counter> counters = new ArrayList<>(size + other.size);
+            for (int slot = 0; slot < size; slot++) {
+                Integer otherSlot = other.slotByItem.get(items[slot]);
+                if (otherSlot == null) {
+                    counters.add(new Counter(
+                        items[slot], counts[slot] + otherMinCount, errors[slot] + otherMinCount));
+                } else {
+                    counters.add(new Counter(
+                        items[slot], counts[slot] + other.counts[otherSlot], errors[slot] + other.errors[otherSlot]));
+                }
+            }
+            for (int otherSlot = 0; otherSlot < other.size; otherSlot++) {
+                Object item = other.items[otherSlot];
+                if (slotByItem.containsKey(item) == false) {
+                    counters.add(new Counter(
+                        item, other.counts[otherSlot] + minCount, other.errors[otherSlot] + minCount));
+                }
+            }
+            counters.sort((c1, c2) -> Long.compare(c2.count, c1.count));
+
+            long bytesBefore = 0L;
+            for (int slot = 0; slot < size; slot++) {
+                bytesBefore += accountedBytes[slot];
+            }
+            slotByItem.clear();
+            size = 0;
+            Arrays.fill(accountedBytes, 0L);
+            long bytesAfter = 0L;
+            int numCounters = Math.min(counters.size(), capacity());
+            for (int i = 0; i < numCounters; i++) {
+                Counter counter = counters.get(i);
+                int slot = addCounter(counter.item, counter.count, counter.error);
+                bytesAfter += accountItem(slot);
+            }
+            return bytesAfter - bytesBefore;
+        }
+
+        /**
+         * @return the k values with the highest counts, ordered by count
+         */
+        Object[] topK() {
+            Integer[] slots = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                slots[i] = i;
+            }
+            Arrays.sort(slots, (s1, s2) -> Long.compare(counts[s2], counts[s1]));
+            int numResults = Math.min(k, size);
+            Object[] result = new Object[numResults];
+            for (int i = 0; i < numResults; i++) {
+                int slot = slots[i];
+                Map<String, Object> entry = new LinkedHashMap<>(2);
+                Object item = items[slot];
+                entry.put(ITEM, item instanceof BytesRef ? ((BytesRef) item).utf8ToString() : item);
+                entry.put(FREQUENCY, counts[slot]);
+                result[i] = entry;
+            }
+            return result;
+        }
+
+        private long totalCount() {
+            long total = 0;
+            for (int slot = 0; slot < size; slot++) {
+                total += counts[slot];
+            }
+            return total;
+        }
+
+        private static Object copy(Object value) {
+            if (value instanceof BytesRef) {
+                return BytesRef.deepCopyOf((BytesRef) value);
+            }
+            return value;
+        }
+
+        private void siftUp(int idx) {
+            while (idx > 0) {
+                int parent = (idx - 1) >>> 1;
+                if (counts[heap[idx]] >= counts[heap[parent]]) {
+                    return;
+                }
+                swap(idx, parent);
+                idx = parent;
+            }
+        }
+
+        private void siftDown(int idx) {
+            while (true) {
+                int smallest = idx;
+                int left = 2 * idx + 1;
+                int right = left + 1;
+                if (left < size && counts[heap[left]] < counts[heap[smallest]]) {
+                    smallest = left;
+                }
+                if (right < size && counts[heap[right]] < counts[heap[smallest]]) {
+                    smallest = right;
+                }
+                if (smallest == idx) {
+                    return;
+                }
+                swap(idx, smallest);
+                idx = smallest;
+            }
+        }
+
+        private void swap(int idx1, int idx2) {
+            int slot1 = heap[idx1];
+            int slot2 = heap[idx2];
+            heap[idx1] = slot2;
+            heap[idx2] = slot1;
+            positions[slot2] = idx1;
+            positions[slot1] = idx2;
+        }
+
+        @Override
+        public int compareTo(TopKState o) {
+            return Long.compare(totalCount(), o.totalCount());
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            DataTypes.toStream(dataType, out);
+            if (isInitialized()) {
+                out.writeBoolean(true);
+                out.writeVInt(k);
+                Streamer streamer = dataType.streamer();
+                out.writeVInt(size);
+                for (int slot = 0; slot < size; slot++) {
+                    streamer.writeValueTo(out, items[slot]);
+                    out.writeVLong(counts[slot]);
+                    out.writeVLong(errors[slot]);
+                }
+            } else {
+                out.writeBoolean(false);
+            }
+        }
+
+        private static class Counter {
+
+            private final Object item;
+            private final long count;
+            private final long error;
+
+            Counter(Object item, long count, long error) {
+                this.item = item;
+                this.count = count;
+                this.error = error;
+            }
+        }
+    }
+
+    public static class TopKStateType extends DataType<TopKState> implements Streamer<TopKState> {
+
+        static final int ID = 17001;
+        static final TopKStateType INSTANCE = new TopKStateType();
+
+        @Override
+        public int id() {
+            return ID;
+        }
+
+        @Override
+        public Precedence precedence() {
+            return Precedence.Custom;
+        }
+
+        @Override
+        public String getName() {
+            return "top_k_state";
+        }
+
+        @Override
+        public Streamer<?> streamer() {
+            return this;
+        }
+
+        @Override
+        public TopKState value(Object value) throws IllegalArgumentException, ClassCastException {
+            return (TopKState) value;
+        }
+
+        @Override
+        public int compareValueTo(TopKState val1, TopKState val2) {
+            if (val1 == null) {
+                return -1;
+            } else {
+                return val1.compareTo(val2);
+            }
+        }
+
+        @Override
+        public TopKState readValueFrom(StreamInput in) throws IOException {
+            return new TopKState(in);
+        }
+
+        @Override
+        public void writeValueTo(StreamOutput out, Object v) throws IOException {
+            ((TopKState) v).writeTo(out);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+
+package io.crate.operation.aggregation;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Input;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.module.HyperLogLogModule;
+import io.crate.operation.aggregation.HyperLogLogDistinctAggregation.HllState;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.search.aggregations.metrics.cardinality.HyperLogLogPlusPlus;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+
+/**
+ * Combines HyperLogLog sketches created by {@link HllSketchAggregation} into a single sketch.
+ */
+public class HllMergeAggregation extends AggregationFunction<HllState, BytesRef> {
+
+    static final String NAME = "hll_merge";
+
+    public static void register(HyperLogLogModule mod) {
+        mod.register(new HllMergeAggregation(new FunctionInfo(
+            new FunctionIdent(NAME, Collections.singletonList(DataTypes.STRING)), DataTypes.STRING,
+            FunctionInfo.Type.AGGREGATE)));
+    }
+
+    private final FunctionInfo info;
+
+    private HllMergeAggregation(FunctionInfo info) {
+        this.info = info;
+    }
+
+    @Nullable
+    @Override
+    public HllState newState(RamAccountingContext ramAccountingContext,
+                             Version indexVersionCreated,
+                             BigArrays bigArrays) {
+        return new HllState(bigArrays, DataTypes.STRING);
+    }
+
+    @Override
+    public HllState iterate(RamAccountingContext ramAccountingContext, HllState state, Input... args) throws CircuitBreakingException {
+        BytesRef sketch = DataTypes.STRING.value(args[0].value());
+        if (sketch != null) {
+            HyperLogLogPlusPlus hyperLogLogPlusPlus = HllSketch.decode(sketch);
+            if (state.isInitialized() == false) {
+                ramAccountingContext.addBytes(HyperLogLogPlusPlus.memoryUsage(hyperLogLogPlusPlus.precision()));
+                state.init(hyperLogLogPlusPlus.precision());
+            }
+            state.merge(hyperLogLogPlusPlus);
+        }
+        return state;
+    }
+
+    @Override
+    public HllState reduce(RamAccountingContext ramAccountingContext, HllState state1, HllState state2) {
+        if (state1.isInitialized() == false) {
+            return state2;
+        }
+        if (state2.isInitialized()) {
+            state1.merge(state2);
+        }
+        return state1;
+    }
+
+    @Override
+    public BytesRef terminatePartial(RamAccountingContext ramAccountingContext, HllState state) {
+        if (state.isInitialized()) {
+            return state.toSketch();
+        }
+        return null;
+    }
+
+    @Override
+    public DataType partialType() {
+        return HyperLogLogDistinctAggregation.HllStateType.INSTANCE;
+    }
+
+    @Override
+    public FunctionInfo info() {
+        return info;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+
+package io.crate.operation.aggregation;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.search.aggregations.metrics.cardinality.HyperLogLogPlusPlus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Encodes a {@link HyperLogLogPlusPlus} as a string so that it can be stored in a table and merged later on.
+ *
+ * The sketch consists of a format version followed by the serialized {@link HyperLogLogPlusPlus}.
+ * As long as few values were added, only the hashes of the values are written (linear counting), otherwise
+ * the registers (2 ^ precision bytes).
+ */
+public final class HllSketch {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private HllSketch() {
+    }
+
+    public static BytesRef encode(HyperLogLogPlusPlus hyperLogLogPlusPlus) {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.writeByte(FORMAT_VERSION);
+            hyperLogLogPlusPlus.writeTo(0, out);
+            return new BytesRef(Base64.getEncoder().encode(BytesReference.toBytes(out.bytes())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static HyperLogLogPlusPlus decode(BytesRef sketch) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(
+                Arrays.copyOfRange(sketch.bytes, sketch.offset, sketch.offset + sketch.length));
+        } catch (IllegalArgumentException e) {
+            throw invalidSketch(sketch);
+        }
+        try (StreamInput in = StreamInput.wrap(bytes)) {
+            if (in.readByte() != FORMAT_VERSION) {
+                throw invalidSketch(sketch);
+            }
+            return HyperLogLogPlusPlus.readFrom(in, BigArrays.NON_RECYCLING_INSTANCE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw invalidSketch(sketch);
+        }
+    }
+
+    /**
+     * Merges two sketches into a new sketch which estimates the number of distinct values of both.
+     */
+    public static BytesRef union(BytesRef sketch1, BytesRef sketch2) {
+        HyperLogLogPlusPlus hyperLogLogPlusPlus = decode(sketch1);
+        HyperLogLogPlusPlus other = decode(sketch2);
+        if (hyperLogLogPlusPlus.precision() != other.precision()) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog sketches with a different precision");
+        }
+        hyperLogLogPlusPlus.merge(0, other, 0);
+        return encode(hyperLogLogPlusPlus);
+    }
+
+    private static IllegalArgumentException invalidSketch(BytesRef sketch) {
+        String value = sketch.utf8ToString();
+        if (value.length() > 20) {
+            value = value.substring(0, 20) + "...";
+        }
+        return new IllegalArgumentException("Invalid HyperLogLog sketch: \"" + value + "\"");
+    }
+}
@@ -177,7 +177,22 @@ public class HyperLogLogDistinctAggregation extends AggregationFunction<HyperLog
         }
 
         void merge(HllState state) {
-            hyperLogLogPlusPlus.merge(0, state.hyperLogLogPlusPlus, 0);
+            merge(state.hyperLogLogPlusPlus);
+        }
+
+        void merge(HyperLogLogPlusPlus other) {
+            if (hyperLogLogPlusPlus.precision() != other.precision()) {
+                throw new IllegalArgumentException("Cannot merge HyperLogLog sketches with a different precision");
+            }
+            hyperLogLogPlusPlus.merge(0, other, 0);
+        }
+
+        int precision() {
+            return hyperLogLogPlusPlus.precision();
+        }
+
+        BytesRef toSketch() {
+            return HllSketch.encode(hyperLogLogPlusPlus);
         }
 
         long value() {
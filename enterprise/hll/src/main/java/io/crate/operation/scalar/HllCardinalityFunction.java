@@ -0,0 +1,45 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+
+package io.crate.operation.scalar;
+
+import io.crate.expression.scalar.UnaryScalar;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.module.HyperLogLogModule;
+import io.crate.operation.aggregation.HllSketch;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+
+import java.util.Collections;
+
+/**
+ * Returns the approximate count of distinct values of a HyperLogLog sketch.
+ */
+public final class HllCardinalityFunction {
+
+    static final String NAME = "hll_cardinality";
+
+    public static void register(HyperLogLogModule module) {
+        FunctionIdent ident = new FunctionIdent(NAME, Collections.singletonList(DataTypes.STRING));
+        module.register(new UnaryScalar<Long, BytesRef>(
+            new FunctionInfo(ident, DataTypes.LONG),
+            sketch -> HllSketch.decode(sketch).cardinality(0)));
+    }
+}
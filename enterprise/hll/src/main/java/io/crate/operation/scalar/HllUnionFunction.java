@@ -0,0 +1,71 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+
+package io.crate.operation.scalar;
+
+import io.crate.data.Input;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Scalar;
+import io.crate.module.HyperLogLogModule;
+import io.crate.operation.aggregation.HllSketch;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+
+import java.util.Arrays;
+
+/**
+ * Merges two HyperLogLog sketches, e.g. to add the sketch of new rows to a stored sketch.
+ * If one of the sketches is NULL the other one is returned.
+ */
+public final class HllUnionFunction extends Scalar<BytesRef, BytesRef> {
+
+    static final String NAME = "hll_union";
+
+    public static void register(HyperLogLogModule module) {
+        module.register(new HllUnionFunction(new FunctionInfo(
+            new FunctionIdent(NAME, Arrays.asList(DataTypes.STRING, DataTypes.STRING)), DataTypes.STRING)));
+    }
+
+    private final FunctionInfo info;
+
+    private HllUnionFunction(FunctionInfo info) {
+        this.info = info;
+    }
+
+    @Override
+    public FunctionInfo info() {
+        return info;
+    }
+
+    @SafeVarargs
+    @Override
+    public final BytesRef evaluate(Input<BytesRef>... args) {
+        assert args.length == 2 : "hll_union expects exactly 2 arguments";
+        BytesRef sketch1 = args[0].value();
+        BytesRef sketch2 = args[1].value();
+        if (sketch1 == null) {
+            return sketch2;
+        }
+        if (sketch2 == null) {
+            return sketch1;
+        }
+        return HllSketch.union(sketch1, sketch2);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+
+package io.crate.operation.aggregation;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.metadata.Functions;
+import io.crate.module.HyperLogLogModule;
+import io.crate.types.ArrayType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.inject.ModulesBuilder;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class ApproxTopKAggregationTest extends AggregationTest {
+
+    @Before
+    public void prepareFunctions() throws Exception {
+        functions = new ModulesBuilder()
+            .add(new HyperLogLogModule())
+            .createInjector().getInstance(Functions.class);
+    }
+
+    /**
+     * value i occurs (i + 1) * 10 times
+     */
+    private static Object[][] createTestData(int numValues, Integer k) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < numValues; i++) {
+            for (int j = 0; j < (i + 1) * 10; j++) {
+                rows.add(new Object[]{(long) i, k});
+            }
+        }
+        Collections.shuffle(rows, random());
+        return rows.toArray(new Object[0][]);
+    }
+
+    @Test
+    public void testReturnTypeIsArrayOfObjects() {
+        assertEquals(new ArrayType(DataTypes.OBJECT),
+            functions.getBuiltin(ApproxTopKAggregation.NAME, ImmutableList.of(DataTypes.LONG)).info().returnType());
+        assertEquals(new ArrayType(DataTypes.OBJECT),
+            functions.getBuiltin(ApproxTopKAggregation.NAME, ImmutableList.of(DataTypes.STRING, DataTypes.INTEGER)).info().returnType());
+    }
+
+    @Test
+    public void testCallWithInvalidKResultsInAnError() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("k must be >= 1 and <= 10000");
+        executeAggregation(ApproxTopKAggregation.NAME, DataTypes.LONG, new Object[][]{{1L, 0}},
+            Arrays.asList(DataTypes.LONG, DataTypes.INTEGER));
+    }
+
+    @Test
+    public void testCallWithNullKResultsInAnError() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The k argument of approx_top_k must not be null");
+        executeAggregation(ApproxTopKAggregation.NAME, DataTypes.LONG, new Object[][]{{1L, null}},
+            Arrays.asList(DataTypes.LONG, DataTypes.INTEGER));
+    }
+
+    @Test
+    public void testTopKIsExactIfAllValuesAreMonitored() throws Exception {
+        Object[][] result = executeAggregation(ApproxTopKAggregation.NAME, DataTypes.LONG, createTestData(20, 3),
+            Arrays.asList(DataTypes.LONG, DataTypes.INTEGER));
+        assertThat((Object[]) result[0][0], arrayContaining(
+            ImmutableMap.of("item", 19L, "frequency", 200L),
+            ImmutableMap.of("item", 18L, "frequency", 190L),
+            ImmutableMap.of("item", 17L, "frequency", 180L)
+        ));
+    }
+
+    @Test
+    public void testHeavyHittersAreFoundWithMoreValuesThanCounters() throws Exception {
+        // 2 * 10 counters for 1002 distinct values, a value occurring more than 9000 / 20 times is always monitored
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new Object[]{(long) i, 2});
+        }
+        for (int i = 0; i < 5000; i++) {
+            rows.add(new Object[]{-1L, 2});
+        }
+        for (int i = 0; i < 3000; i++) {
+            rows.add(new Object[]{-2L, 2});
+        }
+        Collections.shuffle(rows, random());
+        Object[][] result = executeAggregation(ApproxTopKAggregation.NAME, DataTypes.LONG, rows.toArray(new Object[0][]),
+            Arrays.asList(DataTypes.LONG, DataTypes.INTEGER));
+        Object[] topK = (Object[]) result[0][0];
+        assertThat(topK.length, is(2));
+        assertThat(((Map) topK[0]).get("item"), is(-1L));
+        assertThat(((Map) topK[1]).get("item"), is(-2L));
+    }
+
+    @Test
+    public void testStringValuesAreReturnedAsString() throws Exception {
+        Object[][] result = executeAggregation(ApproxTopKAggregation.NAME, DataTypes.STRING, new Object[][]{
+            {new BytesRef("foo")}, {new BytesRef("bar")}, {new BytesRef("foo")}});
+        assertThat((Object[]) result[0][0], arrayContaining(
+            ImmutableMap.of("item", "foo", "frequency", 2L),
+            ImmutableMap.of("item", "bar", "frequency", 1L)
+        ));
+    }
+
+    @Test
+    public void testMergeAddsUpCounts() throws Exception {
+        ApproxTopKAggregation.TopKState state1 = new ApproxTopKAggregation.TopKState(DataTypes.LONG);
+        state1.init(1);
+        ApproxTopKAggregation.TopKState state2 = new ApproxTopKAggregation.TopKState(DataTypes.LONG);
+        state2.init(1);
+        for (long i = 0; i < 10; i++) {
+            state1.add(i, null);
+        }
+        state1.add(3L, null);
+        state2.add(3L, null);
+        state2.add(5L, null);
+
+        state1.merge(state2);
+        assertThat(state1.topK(), arrayContaining(ImmutableMap.of("item", 3L, "frequency", 3L)));
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        ApproxTopKAggregation.TopKState state1 = new ApproxTopKAggregation.TopKState(DataTypes.STRING);
+        state1.init(2);
+        state1.add(new BytesRef("foo"), null);
+        state1.add(new BytesRef("foo"), null);
+        state1.add(new BytesRef("bar"), null);
+        BytesStreamOutput out = new BytesStreamOutput();
+        Streamer streamer = ApproxTopKAggregation.TopKStateType.INSTANCE.streamer();
+        streamer.writeValueTo(out, state1);
+        StreamInput in = out.bytes().streamInput();
+        ApproxTopKAggregation.TopKState state2 = (ApproxTopKAggregation.TopKState) streamer.readValueFrom(in);
+
+        state1.add(new BytesRef("bar"), null);
+        state2.add(new BytesRef("bar"), null);
+        assertThat(state2.topK(), is(state1.topK()));
+    }
+
+    private static ApproxTopKAggregation.TopKState stringState(int k, String... values) {
+        ApproxTopKAggregation.TopKState state = new ApproxTopKAggregation.TopKState(DataTypes.STRING);
+        state.init(k);
+        for (String value : values) {
+            state.add(new BytesRef(value), null);
+        }
+        return state;
+    }
+
+    private static ApproxTopKAggregation.TopKState stream(ApproxTopKAggregation.TopKState state) throws Exception {
+        BytesStreamOutput out = new BytesStreamOutput();
+        Streamer streamer = ApproxTopKAggregation.TopKStateType.INSTANCE.streamer();
+        streamer.writeValueTo(out, state);
+        return (ApproxTopKAggregation.TopKState) streamer.readValueFrom(out.bytes().streamInput());
+    }
+
+    @Test
+    public void testMergeReturnsBytesOfMergedItems() throws Exception {
+        ApproxTopKAggregation.TopKState state1 = stringState(1, "a");
+        ApproxTopKAggregation.TopKState state2 = stringState(1, "a much longer value", "another long value");
+
+        assertThat(state1.merge(state2), greaterThan(0L));
+        // the items are accounted after the merge, merging a state without new items doesn't add bytes
+        assertThat(state1.merge(stringState(1, "a")), is(0L));
+    }
+
+    @Test
+    public void testStreamedStateReturnsItsBytesOnce() throws Exception {
+        ApproxTopKAggregation.TopKState state = stream(stringState(1, "foo", "bar"));
+
+        long bytes = state.takeUnaccountedBytes();
+        assertThat(bytes, greaterThan(0L));
+        assertThat(state.takeUnaccountedBytes(), is(0L));
+        // the streamed items are already accounted
+        state.add(new BytesRef("foo"), null);
+        assertThat(state.takeUnaccountedBytes(), is(0L));
+    }
+
+    @Test
+    public void testReduceAccountsStreamedAndMergedStates() throws Exception {
+        ApproxTopKAggregation impl = (ApproxTopKAggregation) functions.getBuiltin(
+            ApproxTopKAggregation.NAME, Collections.singletonList(DataTypes.STRING));
+        RamAccountingContext context = new RamAccountingContext("test", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+        ApproxTopKAggregation.TopKState state1 = stream(stringState(1, "foo"));
+        ApproxTopKAggregation.TopKState state2 = stream(stringState(1, "bar", "baz"));
+        long streamedBytes = state1.takeUnaccountedBytes() + state2.takeUnaccountedBytes();
+
+        impl.reduce(context, stream(stringState(1, "foo")), stream(stringState(1, "bar", "baz")));
+        assertThat(context.totalBytes(), greaterThan(streamedBytes));
+    }
+}
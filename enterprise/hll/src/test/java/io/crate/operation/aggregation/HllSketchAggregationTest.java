@@ -0,0 +1,150 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+
+package io.crate.operation.aggregation;
+
+import io.crate.data.Input;
+import io.crate.expression.symbol.Literal;
+import io.crate.metadata.Functions;
+import io.crate.metadata.Scalar;
+import io.crate.module.HyperLogLogModule;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.inject.ModulesBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.is;
+
+public class HllSketchAggregationTest extends AggregationTest {
+
+    @Before
+    public void prepareFunctions() throws Exception {
+        functions = new ModulesBuilder()
+            .add(new HyperLogLogModule())
+            .createInjector().getInstance(Functions.class);
+    }
+
+    private BytesRef sketch(int from, int to, int precision) throws Exception {
+        Object[][] data = new Object[to - from][];
+        for (int i = from; i < to; i++) {
+            data[i - from] = new Object[]{(long) i, precision};
+        }
+        Object[][] result = executeAggregation(HllSketchAggregation.NAME, DataTypes.LONG, data,
+            Arrays.asList(DataTypes.LONG, DataTypes.INTEGER));
+        return (BytesRef) result[0][0];
+    }
+
+    private BytesRef merge(BytesRef... sketches) throws Exception {
+        Object[][] data = new Object[sketches.length][];
+        for (int i = 0; i < sketches.length; i++) {
+            data[i] = new Object[]{sketches[i]};
+        }
+        return (BytesRef) executeAggregation(HllMergeAggregation.NAME, DataTypes.STRING, data)[0][0];
+    }
+
+    @SuppressWarnings("unchecked")
+    private Long cardinality(BytesRef sketch) {
+        Scalar<Long, BytesRef> scalar = (Scalar<Long, BytesRef>) functions.getBuiltin(
+            "hll_cardinality", Collections.singletonList(DataTypes.STRING));
+        Input<BytesRef> input = Literal.of(sketch);
+        return scalar.evaluate(input);
+    }
+
+    @Test
+    public void testReturnTypes() {
+        assertEquals(DataTypes.STRING,
+            functions.getBuiltin(HllSketchAggregation.NAME, Collections.singletonList(DataTypes.INTEGER)).info().returnType());
+        assertEquals(DataTypes.STRING,
+            functions.getBuiltin(HllMergeAggregation.NAME, Collections.singletonList(DataTypes.STRING)).info().returnType());
+        assertEquals(DataTypes.LONG,
+            functions.getBuiltin("hll_cardinality", Collections.singletonList(DataTypes.STRING)).info().returnType());
+    }
+
+    @Test
+    public void testCardinalityOfSketchMatchesHyperLogLogDistinct() throws Exception {
+        Object[][] data = new Object[10_000][];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = new Object[]{(long) i};
+        }
+        Object[][] distinct = executeAggregation(HyperLogLogDistinctAggregation.NAME, DataTypes.LONG, data);
+        BytesRef sketch = (BytesRef) executeAggregation(HllSketchAggregation.NAME, DataTypes.LONG, data)[0][0];
+        assertThat(cardinality(sketch), is(distinct[0][0]));
+    }
+
+    @Test
+    public void testSparseSketchIsSmallerThanDenseSketch() throws Exception {
+        BytesRef sparse = sketch(0, 10, 14);
+        BytesRef dense = sketch(0, 100_000, 14);
+        assertThat(sparse.length < 100, is(true));
+        assertThat(dense.length > 1 << 14, is(true));
+        assertThat(cardinality(sparse), is(10L));
+    }
+
+    @Test
+    public void testMergedSketchesEqualSketchOfAllValues() throws Exception {
+        BytesRef merged = merge(sketch(0, 6_000, 14), sketch(4_000, 10_000, 14), null);
+        assertThat(cardinality(merged), is(cardinality(sketch(0, 10_000, 14))));
+    }
+
+    @SuppressWarnings("unchecked")
+    private BytesRef union(BytesRef sketch1, BytesRef sketch2) {
+        Scalar<BytesRef, BytesRef> scalar = (Scalar<BytesRef, BytesRef>) functions.getBuiltin(
+            "hll_union", Arrays.asList(DataTypes.STRING, DataTypes.STRING));
+        return scalar.evaluate(Literal.of(sketch1), Literal.of(sketch2));
+    }
+
+    @Test
+    public void testUnionOfTwoSketchesEqualsMergedSketch() throws Exception {
+        BytesRef union = union(sketch(0, 6_000, 14), sketch(4_000, 10_000, 14));
+        assertThat(cardinality(union), is(cardinality(sketch(0, 10_000, 14))));
+    }
+
+    @Test
+    public void testUnionWithNullReturnsOtherSketch() throws Exception {
+        BytesRef sketch = sketch(0, 10, 14);
+        assertThat(union(sketch, null), is(sketch));
+        assertThat(union(null, sketch), is(sketch));
+    }
+
+    @Test
+    public void testMergeSketchesWithDifferentPrecisionResultsInAnError() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Cannot merge HyperLogLog sketches with a different precision");
+        merge(sketch(0, 10, 14), sketch(0, 10, 12));
+    }
+
+    @Test
+    public void testNullPrecisionResultsInAnError() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The precision argument of hll_sketch must not be null");
+        executeAggregation(HllSketchAggregation.NAME, DataTypes.LONG, new Object[][]{{1L, null}},
+            Arrays.asList(DataTypes.LONG, DataTypes.INTEGER));
+    }
+
+    @Test
+    public void testCardinalityOfInvalidSketchResultsInAnError() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid HyperLogLog sketch: \"foo\"");
+        cardinality(new BytesRef("foo"));
+    }
+}
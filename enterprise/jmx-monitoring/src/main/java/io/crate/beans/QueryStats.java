@@ -90,11 +90,13 @@ public class QueryStats implements QueryStatsMBean {
         }
     };
 
+    private final JobsLogs jobsLogs;
     private final Supplier<Map<String, Metric>> metricByCommand;
 
     private volatile long lastUpdateTsInMillis = System.currentTimeMillis();
 
     public QueryStats(JobsLogs jobsLogs) {
+        this.jobsLogs = jobsLogs;
         metricByCommand = Suppliers.memoizeWithExpiration(
             () -> {
                 long currentTs = System.currentTimeMillis();
@@ -189,4 +191,18 @@ public class QueryStats implements QueryStatsMBean {
     public double getOverallQueryAverageDuration() {
         return metricByCommand.get().getOrDefault(Commands.TOTAL, DEFAULT_METRIC).avgDurationInMs();
     }
+
+    @Override
+    public long getKilledQueryCount() {
+        return jobsLogs.killedContexts();
+    }
+
+    @Override
+    public double getKilledQueryAverageTimeToCancel() {
+        long killedContexts = jobsLogs.killedContexts();
+        if (killedContexts == 0) {
+            return 0.0;
+        }
+        return jobsLogs.killDurationNanos() / (double) killedContexts / TimeUnit.MILLISECONDS.toNanos(1);
+    }
 }
@@ -48,4 +48,8 @@ public interface QueryStatsMBean {
     double getDeleteQueryAverageDuration();
 
     double getOverallQueryAverageDuration();
+
+    long getKilledQueryCount();
+
+    double getKilledQueryAverageTimeToCancel();
 }
@@ -18,8 +18,10 @@
 
 package io.crate.plugin;
 
+import io.crate.action.sql.QueryResultCache;
 import io.crate.action.sql.SQLOperations;
 import io.crate.beans.NodeStatus;
+import io.crate.beans.QueryResultCacheStats;
 import io.crate.beans.QueryStats;
 import io.crate.execution.engine.collect.stats.JobsLogs;
 import org.apache.logging.log4j.Logger;
@@ -41,10 +43,14 @@ public class CrateMonitor {
     private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
 
     @Inject
-    public CrateMonitor(JobsLogs jobsLogs, Settings settings, SQLOperations sqlOperations) {
+    public CrateMonitor(JobsLogs jobsLogs,
+                        Settings settings,
+                        SQLOperations sqlOperations,
+                        QueryResultCache queryResultCache) {
         logger = Loggers.getLogger(CrateMonitor.class, settings);
         registerMBean(QueryStats.NAME, new QueryStats(jobsLogs));
         registerMBean(NodeStatus.NAME, new NodeStatus(sqlOperations::isEnabled));
+        registerMBean(QueryResultCacheStats.NAME, new QueryResultCacheStats(queryResultCache));
     }
 
     private void registerMBean(String name, Object bean) {
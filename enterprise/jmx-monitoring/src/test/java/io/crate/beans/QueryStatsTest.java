@@ -27,6 +27,7 @@ import org.junit.Test;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
@@ -73,4 +74,17 @@ public class QueryStatsTest {
         assertThat(queryStats.getSelectQueryFrequency(), is(0.0));
         assertThat(queryStats.getSelectQueryAverageDuration(), is(0.0));
     }
+
+    @Test
+    public void testKilledQueries() throws Exception {
+        JobsLogs jobsLogs = new JobsLogs(() -> true);
+        QueryStats queryStats = new QueryStats(jobsLogs);
+        assertThat(queryStats.getKilledQueryCount(), is(0L));
+        assertThat(queryStats.getKilledQueryAverageTimeToCancel(), is(0.0));
+
+        jobsLogs.logKill(TimeUnit.MILLISECONDS.toNanos(10));
+        jobsLogs.logKill(TimeUnit.MILLISECONDS.toNanos(30));
+        assertThat(queryStats.getKilledQueryCount(), is(2L));
+        assertThat(queryStats.getKilledQueryAverageTimeToCancel(), is(20.0));
+    }
 }
@@ -36,6 +36,7 @@ import io.crate.analyze.CreateAnalyzerAnalyzedStatement;
 import io.crate.analyze.CreateBlobTableAnalyzedStatement;
 import io.crate.analyze.CreateFunctionAnalyzedStatement;
 import io.crate.analyze.CreateIngestionRuleAnalysedStatement;
+import io.crate.analyze.CreateMaterializedViewAnalyzedStatement;
 import io.crate.analyze.CreateRepositoryAnalyzedStatement;
 import io.crate.analyze.CreateSnapshotAnalyzedStatement;
 import io.crate.analyze.CreateTableAnalyzedStatement;
@@ -43,6 +44,7 @@ import io.crate.analyze.CreateUserAnalyzedStatement;
 import io.crate.analyze.DropBlobTableAnalyzedStatement;
 import io.crate.analyze.DropFunctionAnalyzedStatement;
 import io.crate.analyze.DropIngestionRuleAnalysedStatement;
+import io.crate.analyze.DropMaterializedViewAnalyzedStatement;
 import io.crate.analyze.DropRepositoryAnalyzedStatement;
 import io.crate.analyze.DropSnapshotAnalyzedStatement;
 import io.crate.analyze.DropTableAnalyzedStatement;
@@ -262,6 +264,31 @@ class StatementPrivilegeValidator implements StatementAuthorizedValidator {
             return null;
         }
 
+        @Override
+        public Void visitCreateMaterializedViewStatement(CreateMaterializedViewAnalyzedStatement analysis, User user) {
+            Privileges.ensureUserHasPrivilege(
+                Privilege.Type.DDL,
+                Privilege.Clazz.SCHEMA,
+                analysis.definition().ident().schema(),
+                user);
+            Privileges.ensureUserHasPrivilege(
+                Privilege.Type.DQL,
+                Privilege.Clazz.TABLE,
+                analysis.definition().sourceTable().ident().toString(),
+                user);
+            return null;
+        }
+
+        @Override
+        public Void visitDropMaterializedViewStatement(DropMaterializedViewAnalyzedStatement analysis, User user) {
+            Privileges.ensureUserHasPrivilege(
+                Privilege.Type.DDL,
+                Privilege.Clazz.TABLE,
+                analysis.ident().toString(),
+                user);
+            return null;
+        }
+
         @Override
         protected Void visitDropTableStatement(DropTableAnalyzedStatement analysis, User user) {
             Privileges.ensureUserHasPrivilege(
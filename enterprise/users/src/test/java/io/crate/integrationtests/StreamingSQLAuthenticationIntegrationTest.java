@@ -0,0 +1,68 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+package io.crate.auth;
+
+import io.crate.integrationtests.SQLTransportIntegrationTest;
+
+package io.crate.integrationtests;
+
+import org.apache.http.Header;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+public class StreamingSQLAuthenticationIntegrationTest extends SQLHttpIntegrationTest {
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal) {
+        return Settings.builder()
+            .put(super.nodeSettings(nodeOrdinal))
+            .put("auth.host_based.enabled", true)
+            .put("auth.host_based.config",
+                "a", new String[]{"user", "method", "address"}, new String[]{"crate", "trust", "127.0.0.1"})
+            .build();
+    }
+
+    @Test
+    public void testStreamingRequestOfUnknownUserIsRejected() throws Exception {
+        CloseableHttpResponse resp = postStreaming(
+            "{\"stmt\": \"select name from sys.cluster\"}",
+            new Header[]{new BasicHeader("User", "unknown")});
+
+        assertThat(resp.getStatusLine().getStatusCode(), is(401));
+        assertThat(EntityUtils.toString(resp.getEntity()),
+            containsString("No valid auth.host_based.config entry found"));
+    }
+
+    @Test
+    public void testStreamingRequestOfTrustedUserIsStreamed() throws Exception {
+        CloseableHttpResponse resp = postStreaming(
+            "{\"stmt\": \"select name from sys.cluster\"}",
+            new Header[]{new BasicHeader("User", "crate")});
+
+        assertThat(resp.getStatusLine().getStatusCode(), is(200));
+        assertThat(resp.getFirstHeader("Transfer-Encoding").getValue(), is("chunked"));
+        assertThat(EntityUtils.toString(resp.getEntity()), containsString("\"rowcount\":1"));
+    }
+}
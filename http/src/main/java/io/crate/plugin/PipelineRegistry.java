@@ -44,10 +44,12 @@ import java.util.function.Supplier;
 public class PipelineRegistry {
 
     private final List<ChannelPipelineItem> addBeforeList;
+    private final List<AddAfterItem> addAfterList;
     private Provider<SslContext> sslContextProvider;
 
     public PipelineRegistry() {
         this.addBeforeList = new ArrayList<>();
+        this.addAfterList = new ArrayList<>();
     }
 
     /**
@@ -85,6 +87,17 @@ public class PipelineRegistry {
         }
     }
 
+    /**
+     * Adds an item directly after its base handler, once all items of {@link #addBefore(ChannelPipelineItem)}
+     * are part of the pipeline. If the base handler is not part of the pipeline, e.g. because it is provided
+     * by a module which isn't loaded, the item is added before the {@code fallbackBase} handler instead.
+     */
+    public void addAfter(ChannelPipelineItem item, String fallbackBase) {
+        synchronized (addAfterList) {
+            addAfterList.add(new AddAfterItem(item, fallbackBase));
+        }
+    }
+
     public void registerSslContextProvider(Provider<SslContext> sslContextProvider) {
         this.sslContextProvider = sslContextProvider;
     }
@@ -93,6 +106,14 @@ public class PipelineRegistry {
         for (PipelineRegistry.ChannelPipelineItem item : addBeforeList) {
             pipeline.addBefore(item.base, item.name, item.handlerFactory.get());
         }
+        for (AddAfterItem addAfterItem : addAfterList) {
+            ChannelPipelineItem item = addAfterItem.item;
+            if (pipeline.get(item.base) == null) {
+                pipeline.addBefore(addAfterItem.fallbackBase, item.name, item.handlerFactory.get());
+            } else {
+                pipeline.addAfter(item.base, item.name, item.handlerFactory.get());
+            }
+        }
 
         if (sslContextProvider != null) {
             SslContext sslContext = sslContextProvider.get();
@@ -107,6 +128,17 @@ public class PipelineRegistry {
         return addBeforeList;
     }
 
+    private static class AddAfterItem {
+
+        private final ChannelPipelineItem item;
+        private final String fallbackBase;
+
+        AddAfterItem(ChannelPipelineItem item, String fallbackBase) {
+            this.item = item;
+            this.fallbackBase = fallbackBase;
+        }
+    }
+
     /**
      * Add a new {@link ChannelPipelineItem} to an existing list.
      * An item has base on which it depends on and after which it must be added to the pipeline.
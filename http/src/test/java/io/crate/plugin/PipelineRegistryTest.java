@@ -23,10 +23,16 @@
 package io.crate.plugin;
 
 import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerAdapter;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.embedded.EmbeddedChannel;
 import org.elasticsearch.common.settings.Settings;
 import org.junit.Test;
 
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -69,4 +75,37 @@ public class PipelineRegistryTest {
         }
         assertThat(names, is(new String[]{"b", "c", "d", "e"}));
     }
+
+    private static List<String> registerItems(PipelineRegistry pipelineRegistry) {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        ChannelPipeline pipeline = channel.pipeline();
+        pipeline.addLast("aggregator", new ChannelHandlerAdapter() {});
+        pipelineRegistry.registerItems(pipeline);
+        List<String> names = pipeline.names();
+        channel.close();
+        return names;
+    }
+
+    @Test
+    public void testAddAfterIsAddedAfterBaseRegardlessOfRegistrationOrder() throws Exception {
+        PipelineRegistry pipelineRegistry = new PipelineRegistry();
+
+        pipelineRegistry.addAfter(channelPipelineItem("auth_handler", "sql_stream_handler"), "aggregator");
+        pipelineRegistry.addBefore(channelPipelineItem("aggregator", "blob_handler"));
+        pipelineRegistry.addBefore(channelPipelineItem("blob_handler", "auth_handler"));
+
+        assertThat(registerItems(pipelineRegistry).subList(0, 4),
+            contains("auth_handler", "sql_stream_handler", "blob_handler", "aggregator"));
+    }
+
+    @Test
+    public void testAddAfterIsAddedBeforeFallbackIfBaseIsMissing() throws Exception {
+        PipelineRegistry pipelineRegistry = new PipelineRegistry();
+
+        pipelineRegistry.addAfter(channelPipelineItem("auth_handler", "sql_stream_handler"), "aggregator");
+        pipelineRegistry.addBefore(channelPipelineItem("aggregator", "blob_handler"));
+
+        assertThat(registerItems(pipelineRegistry).subList(0, 3),
+            contains("blob_handler", "sql_stream_handler", "aggregator"));
+    }
 }
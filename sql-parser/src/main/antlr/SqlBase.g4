@@ -76,6 +76,7 @@ statement
         '(' (functionArgument (',' functionArgument)*)? ')'                          #dropFunction
     | DROP USER (IF EXISTS)? name=ident                                              #dropUser
     | DROP INGEST RULE (IF EXISTS)? rule_name=ident                                  #dropIngestRule
+    | DROP MATERIALIZED VIEW (IF EXISTS)? name=qname                                 #dropMaterializedView
     | GRANT ( privilegeTypes | ALL (PRIVILEGES)? )
       (ON clazz  ( qname (',' qname)* ))?
       TO userNames                                                                   #grantPrivilege
@@ -411,6 +412,7 @@ createStmt
         ON source_ident=ident
         (where)?
         INTO table_ident=qname                                                       #createIngestRule
+    | CREATE MATERIALIZED VIEW name=qname AS query                                   #createMaterializedView
     ;
 
 functionArgument
@@ -37,11 +37,13 @@ import io.crate.sql.tree.CopyFrom;
 import io.crate.sql.tree.CrateTableOption;
 import io.crate.sql.tree.CreateFunction;
 import io.crate.sql.tree.CreateIngestRule;
+import io.crate.sql.tree.CreateMaterializedView;
 import io.crate.sql.tree.CreateSnapshot;
 import io.crate.sql.tree.CreateTable;
 import io.crate.sql.tree.CreateUser;
 import io.crate.sql.tree.DenyPrivilege;
 import io.crate.sql.tree.DropIngestRule;
+import io.crate.sql.tree.DropMaterializedView;
 import io.crate.sql.tree.DropRepository;
 import io.crate.sql.tree.DropUser;
 import io.crate.sql.tree.Explain;
@@ -711,6 +713,25 @@ public final class SqlFormatter {
             return null;
         }
 
+        @Override
+        public Void visitCreateMaterializedView(CreateMaterializedView node, Integer indent) {
+            builder.append("CREATE MATERIALIZED VIEW ")
+                .append(quoteIdentifierIfNeeded(node.name().toString()))
+                .append(" AS\n");
+            process(node.query(), indent);
+            return null;
+        }
+
+        @Override
+        public Void visitDropMaterializedView(DropMaterializedView node, Integer indent) {
+            builder.append("DROP MATERIALIZED VIEW ");
+            if (node.ifExists()) {
+                builder.append("IF EXISTS ");
+            }
+            builder.append(quoteIdentifierIfNeeded(node.name().toString()));
+            return null;
+        }
+
         private Void appendPrivilegesList(List<String> privilegeTypes) {
             int j = 0;
             for (String privilegeType : privilegeTypes) {
@@ -64,6 +64,7 @@ import io.crate.sql.tree.CreateAnalyzer;
 import io.crate.sql.tree.CreateBlobTable;
 import io.crate.sql.tree.CreateFunction;
 import io.crate.sql.tree.CreateIngestRule;
+import io.crate.sql.tree.CreateMaterializedView;
 import io.crate.sql.tree.CreateRepository;
 import io.crate.sql.tree.CreateSnapshot;
 import io.crate.sql.tree.CreateTable;
@@ -76,6 +77,7 @@ import io.crate.sql.tree.DoubleLiteral;
 import io.crate.sql.tree.DropBlobTable;
 import io.crate.sql.tree.DropFunction;
 import io.crate.sql.tree.DropIngestRule;
+import io.crate.sql.tree.DropMaterializedView;
 import io.crate.sql.tree.DropRepository;
 import io.crate.sql.tree.DropSnapshot;
 import io.crate.sql.tree.DropTable;
@@ -1404,6 +1406,16 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
             visitIfPresent(ctx.where(), Expression.class));
     }
 
+    @Override
+    public Node visitCreateMaterializedView(SqlBaseParser.CreateMaterializedViewContext ctx) {
+        return new CreateMaterializedView(getQualifiedName(ctx.name), (Query) visit(ctx.query()));
+    }
+
+    @Override
+    public Node visitDropMaterializedView(SqlBaseParser.DropMaterializedViewContext ctx) {
+        return new DropMaterializedView(getQualifiedName(ctx.name), ctx.EXISTS() != null);
+    }
+
     // Data types
 
     @Override
@@ -560,4 +560,12 @@ public abstract class AstVisitor<R, C> {
     public R visitDropIngestRule(DropIngestRule node, C context) {
         return visitStatement(node, context);
     }
+
+    public R visitCreateMaterializedView(CreateMaterializedView node, C context) {
+        return visitStatement(node, context);
+    }
+
+    public R visitDropMaterializedView(DropMaterializedView node, C context) {
+        return visitStatement(node, context);
+    }
 }
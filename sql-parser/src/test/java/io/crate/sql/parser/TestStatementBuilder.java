@@ -435,6 +435,20 @@ public class TestStatementBuilder {
         printStatement("DROP INGEST RULE IF EXISTS \"Nyan cat space übercool\"");
     }
 
+    @Test
+    public void testCreateMaterializedViewStmtBuilder() {
+        printStatement("CREATE MATERIALIZED VIEW v AS SELECT sensor_id, count(*) AS cnt FROM t GROUP BY sensor_id");
+        printStatement("CREATE MATERIALIZED VIEW my_schema.v AS " +
+                       "SELECT date_trunc('hour', ts) AS hour, sensor_id, sum(value) AS total, max(value) AS max_value " +
+                       "FROM my_schema.t WHERE value > 0 GROUP BY 1, 2");
+    }
+
+    @Test
+    public void testDropMaterializedViewStmtBuilder() {
+        printStatement("DROP MATERIALIZED VIEW v");
+        printStatement("DROP MATERIALIZED VIEW IF EXISTS my_schema.v");
+    }
+
 
     @Test
     public void testDenyPrivilegeStmtBuilder() {
@@ -1208,7 +1222,9 @@ public class TestStatementBuilder {
             statement instanceof DenyPrivilege ||
             statement instanceof RevokePrivilege ||
             statement instanceof CreateIngestRule ||
-            statement instanceof DropIngestRule) {
+            statement instanceof DropIngestRule ||
+            statement instanceof CreateMaterializedView ||
+            statement instanceof DropMaterializedView) {
             println(SqlFormatter.formatSql(statement));
             println("");
             assertFormattedSql(statement);
@@ -0,0 +1,556 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.MultiSourceSelect;
+import io.crate.analyze.QueriedSelectRelation;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.AnalyzedRelationVisitor;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.analyze.relations.JoinPair;
+import io.crate.analyze.relations.OrderedLimitedRelation;
+import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.analyze.relations.QueriedRelation;
+import io.crate.analyze.relations.UnionSelect;
+import io.crate.auth.user.User;
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.Streamer;
+import io.crate.data.BatchIterator;
+import io.crate.data.Bucket;
+import io.crate.data.ForwardingBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowConsumer;
+import io.crate.execution.engine.distribution.PagedRowBucket;
+import io.crate.expression.scalar.timestamp.CurrentTimestampFunction;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.metadata.RoutingProvider;
+import io.crate.sql.SqlFormatter;
+import io.crate.sql.tree.Statement;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.index.Index;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Cache for the results of queries on indices which cannot change, because they're blocked for writes.
+ *
+ * <p>
+ * The results are kept on the handler node, keyed by the formatted statement, the parameters, the session
+ * properties which can influence a result and the UUID and metadata version of every index which is queried.
+ * A result is only cached if all of these indices have a write block and if the query doesn't contain
+ * non-deterministic functions or system tables.
+ * </p>
+ *
+ * The rows of a result are stored in a {@link PagedRowBucket}.
+ * The size of the cache is bounded by {@link #SIZE_SETTING}, the least recently used results are evicted first.
+ * The memory of the cached results is accounted for by the {@link CrateCircuitBreakerService#QUERY_RESULT_CACHE}
+ * breaker. The cache is disabled if the size is set to 0.
+ */
+@Singleton
+public class QueryResultCache extends AbstractComponent implements ClusterStateListener {
+
+    public static final Setting<ByteSizeValue> SIZE_SETTING = Setting.memorySizeSetting(
+        "node.sql.result_cache.size", "0b", Setting.Property.NodeScope);
+
+    /**
+     * Pages of a cached result must not be recycled, because a result may still be read after it has been evicted.
+     */
+    private static final BigArrays BIG_ARRAYS = BigArrays.NON_RECYCLING_INSTANCE;
+
+    private final long maxSizeInBytes;
+    private final CircuitBreaker breaker;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeInBytes = 0L;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Inject
+    public QueryResultCache(Settings settings, ClusterService clusterService, CrateCircuitBreakerService breakerService) {
+        super(settings);
+        this.maxSizeInBytes = SIZE_SETTING.get(settings).getBytes();
+        this.breaker = breakerService.getBreaker(CrateCircuitBreakerService.QUERY_RESULT_CACHE);
+        if (isEnabled()) {
+            clusterService.addListener(this);
+        }
+    }
+
+    public boolean isEnabled() {
+        return maxSizeInBytes > 0;
+    }
+
+    /**
+     * @return the query which is passed to {@link #key(Query)} once the plan of the statement has been built or
+     *         null if the result of the statement must not be cached.
+     */
+    @Nullable
+    public Query query(ClusterState state,
+                       RoutingProvider routingProvider,
+                       Statement statement,
+                       AnalyzedStatement analyzedStatement,
+                       List<Object> params,
+                       SessionContext sessionContext,
+                       List<? extends DataType> outputTypes) {
+        if (!isEnabled()
+            || analyzedStatement instanceof QueriedRelation == false
+            || !CacheableRelationVisitor.INSTANCE.process((QueriedRelation) analyzedStatement, null)) {
+            return null;
+        }
+        return new Query(state, routingProvider, statement, params, sessionContext, outputTypes);
+    }
+
+    /**
+     * Must be called once the plan of the query has been built, because the queried indices are only known once
+     * their routings have been allocated.
+     *
+     * @return the key under which the result of the query is cached or null if the result must not be cached.
+     */
+    @Nullable
+    public Key key(Query query) {
+        Set<String> indices = query.routingProvider.routedIndices();
+        if (indices.isEmpty()) {
+            return null;
+        }
+        ClusterState state = query.state;
+        Map<Index, Long> indexVersions = new HashMap<>(indices.size());
+        for (String indexName : indices) {
+            IndexMetaData indexMetaData = state.metaData().index(indexName);
+            if (indexMetaData == null || !state.blocks().indexBlocked(ClusterBlockLevel.WRITE, indexName)) {
+                return null;
+            }
+            indexVersions.put(indexMetaData.getIndex(), indexMetaData.getVersion());
+        }
+        SessionContext sessionContext = query.sessionContext;
+        User user = sessionContext.user();
+        return new Key(
+            SqlFormatter.formatSql(query.statement),
+            query.params.toArray(),
+            user == null ? null : user.name(),
+            sessionContext.defaultSchema(),
+            sessionContext.defaultLimit(),
+            indexVersions
+        );
+    }
+
+    /**
+     * @return the cached result or null if there is no result cached for the key
+     */
+    @Nullable
+    public Bucket get(Key key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.rows;
+    }
+
+    /**
+     * @return a consumer which passes the rows to {@code consumer} and caches them under the key once all rows
+     *         have been consumed.
+     */
+    public RowConsumer cachingConsumer(Key key, List<? extends DataType> columnTypes, RowConsumer consumer) {
+        return new RowConsumer() {
+            @Override
+            public void accept(BatchIterator<Row> iterator, @Nullable Throwable failure) {
+                if (failure == null) {
+                    consumer.accept(new CachingBatchIterator(iterator, key, columnTypes), null);
+                } else {
+                    consumer.accept(iterator, failure);
+                }
+            }
+
+            @Override
+            public boolean requiresScroll() {
+                return consumer.requiresScroll();
+            }
+        };
+    }
+
+    private void put(Key key, PagedRowBucket rows) {
+        long bytes = rows.ramBytesUsed();
+        synchronized (entries) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (sizeInBytes + bytes > maxSizeInBytes && it.hasNext()) {
+                evict(it);
+            }
+            while (true) {
+                try {
+                    breaker.addEstimateBytesAndMaybeBreak(bytes, CrateCircuitBreakerService.QUERY_RESULT_CACHE);
+                    break;
+                } catch (CircuitBreakingException e) {
+                    if (!it.hasNext()) {
+                        rows.close();
+                        return;
+                    }
+                    evict(it);
+                }
+            }
+            Entry previous = entries.put(key, new Entry(rows, bytes));
+            if (previous != null) {
+                release(previous);
+            }
+            sizeInBytes += bytes;
+        }
+    }
+
+    private void evict(Iterator<Entry> it) {
+        release(it.next());
+        it.remove();
+        evictions.increment();
+    }
+
+    private void release(Entry entry) {
+        sizeInBytes -= entry.bytes;
+        breaker.addWithoutBreaking(-entry.bytes);
+        entry.rows.close();
+    }
+
+    /**
+     * Removes the results of indices which have been deleted, changed or unblocked.
+     */
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (!event.metaDataChanged() && !event.blocksChanged()) {
+            return;
+        }
+        ClusterState state = event.state();
+        synchronized (entries) {
+            Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Key, Entry> entry = it.next();
+                if (!entry.getKey().isValid(state)) {
+                    release(entry.getValue());
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public long hits() {
+        return hits.longValue();
+    }
+
+    public long misses() {
+        return misses.longValue();
+    }
+
+    public long evictions() {
+        return evictions.longValue();
+    }
+
+    public long sizeInBytes() {
+        synchronized (entries) {
+            return sizeInBytes;
+        }
+    }
+
+    public int numEntries() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * A statement whose result can be cached, if the indices it queries turn out to be blocked for writes.
+     */
+    public static final class Query {
+
+        private final ClusterState state;
+        private final RoutingProvider routingProvider;
+        private final Statement statement;
+        private final List<Object> params;
+        private final SessionContext sessionContext;
+        private final List<? extends DataType> outputTypes;
+
+        private Query(ClusterState state,
+                      RoutingProvider routingProvider,
+                      Statement statement,
+                      List<Object> params,
+                      SessionContext sessionContext,
+                      List<? extends DataType> outputTypes) {
+            this.state = state;
+            this.routingProvider = routingProvider;
+            this.statement = statement;
+            this.params = params;
+            this.sessionContext = sessionContext;
+            this.outputTypes = outputTypes;
+        }
+
+        public List<? extends DataType> outputTypes() {
+            return outputTypes;
+        }
+    }
+
+    public static final class Key {
+
+        private final String statement;
+        private final Object[] params;
+        @Nullable
+        private final String user;
+        private final String defaultSchema;
+        private final int defaultLimit;
+        private final Map<Index, Long> indexVersions;
+        private final int hashCode;
+
+        Key(String statement,
+            Object[] params,
+            @Nullable String user,
+            String defaultSchema,
+            int defaultLimit,
+            Map<Index, Long> indexVersions) {
+            this.statement = statement;
+            this.params = params;
+            this.user = user;
+            this.defaultSchema = defaultSchema;
+            this.defaultLimit = defaultLimit;
+            this.indexVersions = indexVersions;
+            this.hashCode = Objects.hash(statement, Arrays.deepHashCode(params), user, defaultSchema, defaultLimit,
+                indexVersions);
+        }
+
+        private boolean isValid(ClusterState state) {
+            MetaData metaData = state.metaData();
+            for (Map.Entry<Index, Long> entry : indexVersions.entrySet()) {
+                IndexMetaData indexMetaData = metaData.index(entry.getKey());
+                if (indexMetaData == null
+                    || indexMetaData.getVersion() != entry.getValue()
+                    || !state.blocks().indexBlocked(ClusterBlockLevel.WRITE, entry.getKey().getName())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return defaultLimit == key.defaultLimit &&
+                   statement.equals(key.statement) &&
+                   Arrays.deepEquals(params, key.params) &&
+                   Objects.equals(user, key.user) &&
+                   Objects.equals(defaultSchema, key.defaultSchema) &&
+                   indexVersions.equals(key.indexVersions);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static final class Entry {
+
+        private final PagedRowBucket rows;
+        private final long bytes;
+
+        Entry(PagedRowBucket rows, long bytes) {
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Copies the rows which are consumed from the source and caches them once the source is exhausted.
+     * Nothing is cached if the consumer stops early or if the rows don't fit into the cache.
+     */
+    private final class CachingBatchIterator extends ForwardingBatchIterator<Row> {
+
+        private final BatchIterator<Row> delegate;
+        private final Key key;
+        private final Streamer<?>[] streamers;
+
+        @Nullable
+        private PagedRowBucket rows;
+
+        CachingBatchIterator(BatchIterator<Row> delegate, Key key, List<? extends DataType> columnTypes) {
+            this.delegate = delegate;
+            this.key = key;
+            this.streamers = DataTypes.getStreamers(columnTypes);
+            this.rows = new PagedRowBucket(streamers, BIG_ARRAYS, null);
+        }
+
+        @Override
+        protected BatchIterator<Row> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public void moveToStart() {
+            super.moveToStart();
+            if (rows != null) {
+                rows.close();
+                rows = new PagedRowBucket(streamers, BIG_ARRAYS, null);
+            }
+        }
+
+        @Override
+        public boolean moveNext() {
+            boolean moved = delegate.moveNext();
+            if (rows == null) {
+                return moved;
+            }
+            if (moved) {
+                rows.add(delegate.currentElement());
+                if (rows.ramBytesUsed() > maxSizeInBytes) {
+                    rows.close();
+                    rows = null;
+                }
+            } else if (delegate.allLoaded()) {
+                put(key, rows);
+                rows = null;
+            }
+            return moved;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            if (rows != null) {
+                rows.close();
+                rows = null;
+            }
+        }
+    }
+
+    /**
+     * Checks that a relation only queries doc tables and doesn't contain functions whose result may change
+     * between executions.
+     */
+    private static final class CacheableRelationVisitor extends AnalyzedRelationVisitor<Void, Boolean> {
+
+        private static final CacheableRelationVisitor INSTANCE = new CacheableRelationVisitor();
+
+        private static final Predicate<Symbol> NOT_CACHEABLE = symbol -> {
+            if (symbol instanceof Function) {
+                Function function = (Function) symbol;
+                return !function.info().isDeterministic()
+                       || function.info().ident().name().equals(CurrentTimestampFunction.NAME);
+            }
+            if (symbol instanceof SelectSymbol) {
+                return !INSTANCE.process(((SelectSymbol) symbol).relation(), null);
+            }
+            return false;
+        };
+
+        @Override
+        protected Boolean visitAnalyzedRelation(AnalyzedRelation relation, Void context) {
+            return false;
+        }
+
+        @Override
+        public Boolean visitDocTableRelation(DocTableRelation relation, Void context) {
+            return true;
+        }
+
+        @Override
+        public Boolean visitQueriedDocTable(QueriedDocTable table, Void context) {
+            return symbolsCacheable(table);
+        }
+
+        @Override
+        public Boolean visitQueriedSelectRelation(QueriedSelectRelation relation, Void context) {
+            return symbolsCacheable(relation) && process(relation.subRelation(), context);
+        }
+
+        @Override
+        public Boolean visitOrderedLimitedRelation(OrderedLimitedRelation relation, Void context) {
+            return symbolsCacheable(relation) && process(relation.childRelation(), context);
+        }
+
+        @Override
+        public Boolean visitUnionSelect(UnionSelect unionSelect, Void context) {
+            return process(unionSelect.left(), context) && process(unionSelect.right(), context);
+        }
+
+        @Override
+        public Boolean visitMultiSourceSelect(MultiSourceSelect multiSourceSelect, Void context) {
+            if (!symbolsCacheable(multiSourceSelect)) {
+                return false;
+            }
+            for (JoinPair joinPair : multiSourceSelect.joinPairs()) {
+                if (joinPair.condition() != null && SymbolVisitors.any(NOT_CACHEABLE, joinPair.condition())) {
+                    return false;
+                }
+            }
+            for (AnalyzedRelation source : multiSourceSelect.sources().values()) {
+                if (!process(source, context)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean symbolsCacheable(QueriedRelation relation) {
+            boolean[] cacheable = new boolean[] { true };
+            relation.visitSymbols(symbol -> {
+                if (cacheable[0] && SymbolVisitors.any(NOT_CACHEABLE, symbol)) {
+                    cacheable[0] = false;
+                }
+            });
+            return cacheable[0];
+        }
+    }
+}
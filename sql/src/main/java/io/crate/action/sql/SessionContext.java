@@ -28,6 +28,8 @@ import io.crate.metadata.Schemas;
 import io.crate.auth.user.ExceptionAuthorizedValidator;
 import io.crate.auth.user.StatementAuthorizedValidator;
 import io.crate.auth.user.User;
+import io.crate.execution.jobs.WorkloadClass;
+import io.crate.expression.scalar.regex.RegexEngine;
 
 import javax.annotation.Nullable;
 import java.util.Objects;
@@ -44,6 +46,9 @@ public class SessionContext implements StatementAuthorizedValidator, ExceptionAu
 
     private String defaultSchema;
     private boolean semiJoinsRewriteEnabled;
+    private boolean materializedViewRewriteEnabled;
+    private RegexEngine regexEngine = RegexEngine.BACKTRACKING;
+    private WorkloadClass workloadClass = WorkloadClass.DEFAULT;
 
     public SessionContext(@Nullable String defaultSchema,
                           @Nullable User user,
@@ -97,6 +102,30 @@ public class SessionContext implements StatementAuthorizedValidator, ExceptionAu
         return semiJoinsRewriteEnabled;
     }
 
+    public void setMaterializedViewRewriteEnabled(boolean flag) {
+        this.materializedViewRewriteEnabled = flag;
+    }
+
+    public boolean getMaterializedViewRewriteEnabled() {
+        return materializedViewRewriteEnabled;
+    }
+
+    public void setRegexEngine(RegexEngine regexEngine) {
+        this.regexEngine = Objects.requireNonNull(regexEngine, "Regex engine must not be null");
+    }
+
+    public RegexEngine regexEngine() {
+        return regexEngine;
+    }
+
+    public void setWorkloadClass(WorkloadClass workloadClass) {
+        this.workloadClass = Objects.requireNonNull(workloadClass, "Workload class must not be null");
+    }
+
+    public WorkloadClass workloadClass() {
+        return workloadClass;
+    }
+
     @Nullable
     public User user() {
         return user;
@@ -131,6 +131,11 @@ class AlterTableAddColumnAnalyzer {
                 throw new UnsupportedOperationException(
                     "Adding an index using ALTER TABLE ADD COLUMN is not supported");
             }
+            if (column.isTrigramIndexed()) {
+                // the analyzer of the trigram index must be part of the index settings
+                throw new UnsupportedOperationException(
+                    "Adding a column with a trigram index using ALTER TABLE ADD COLUMN is not supported");
+            }
             ensureNoIndexDefinitions(column.children());
         }
     }
@@ -28,6 +28,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import io.crate.analyze.ddl.GeoSettingsApplier;
+import io.crate.lucene.TrigramIndex;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
 import io.crate.sql.tree.Expression;
@@ -81,6 +82,7 @@ public class AnalyzedColumnDefinition {
     private ArrayList<String> copyToTargets;
     private boolean isParentColumn;
     private boolean columnStore = true;
+    private boolean trigramIndex = false;
 
     @Nullable
     private String formattedGeneratedExpression;
@@ -113,6 +115,15 @@ public class AnalyzedColumnDefinition {
         return indexType;
     }
 
+    void trigramIndex() {
+        this.trigramIndex = true;
+        this.analyzerSettings = TrigramIndex.ANALYZER_SETTINGS;
+    }
+
+    boolean isTrigramIndexed() {
+        return trigramIndex;
+    }
+
     void geoTree(String geoTree) {
         this.geoTree = geoTree;
     }
@@ -185,6 +196,10 @@ public class AnalyzedColumnDefinition {
                     ident.sqlFqn()
                 ));
         }
+        if (trigramIndex && !"string".equals(dataType)) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "INDEX USING TRIGRAM cannot be used on columns of type \"%s\"", dataType));
+        }
         if (indexType != null && UNSUPPORTED_INDEX_TYPES.contains(dataType)) {
             throw new IllegalArgumentException(String.format(Locale.ENGLISH,
                 "INDEX constraint cannot be used on columns of type \"%s\"", dataType));
@@ -229,6 +244,9 @@ public class AnalyzedColumnDefinition {
         if (copyToTargets != null) {
             mapping.put("copy_to", copyToTargets);
         }
+        if (trigramIndex) {
+            mapping.put("fields", TrigramIndex.fieldsMapping());
+        }
 
         if ("array".equals(collectionType)) {
             Map<String, Object> outerMapping = new HashMap<>();
@@ -191,6 +191,14 @@ public class AnalyzedStatementVisitor<C, R> {
         return visitDCLStatement(analysis, context);
     }
 
+    public R visitCreateMaterializedViewStatement(CreateMaterializedViewAnalyzedStatement analysis, C context) {
+        return visitDDLStatement(analysis, context);
+    }
+
+    public R visitDropMaterializedViewStatement(DropMaterializedViewAnalyzedStatement analysis, C context) {
+        return visitDDLStatement(analysis, context);
+    }
+
     protected R visitRerouteMoveShard(RerouteMoveShardAnalyzedStatement analysis, C context) {
         return visitDDLStatement(analysis, context);
     }
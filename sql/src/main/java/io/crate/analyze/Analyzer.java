@@ -29,7 +29,9 @@ import io.crate.execution.ddl.RepositoryService;
 import io.crate.metadata.FulltextAnalyzerResolver;
 import io.crate.metadata.Functions;
 import io.crate.metadata.Schemas;
+import io.crate.metadata.TableIdent;
 import io.crate.metadata.TransactionContext;
+import io.crate.metadata.view.MaterializedViews;
 import io.crate.sql.tree.AlterBlobTable;
 import io.crate.sql.tree.AlterClusterRerouteRetryFailed;
 import io.crate.sql.tree.AlterTable;
@@ -46,6 +48,7 @@ import io.crate.sql.tree.CreateAnalyzer;
 import io.crate.sql.tree.CreateBlobTable;
 import io.crate.sql.tree.CreateFunction;
 import io.crate.sql.tree.CreateIngestRule;
+import io.crate.sql.tree.CreateMaterializedView;
 import io.crate.sql.tree.CreateRepository;
 import io.crate.sql.tree.CreateSnapshot;
 import io.crate.sql.tree.CreateTable;
@@ -55,6 +58,7 @@ import io.crate.sql.tree.DenyPrivilege;
 import io.crate.sql.tree.DropBlobTable;
 import io.crate.sql.tree.DropFunction;
 import io.crate.sql.tree.DropIngestRule;
+import io.crate.sql.tree.DropMaterializedView;
 import io.crate.sql.tree.DropRepository;
 import io.crate.sql.tree.DropSnapshot;
 import io.crate.sql.tree.DropTable;
@@ -121,6 +125,7 @@ public class Analyzer {
     private final DropFunctionAnalyzer dropFunctionAnalyzer;
     private final PrivilegesAnalyzer privilegesAnalyzer;
     private final CreateIngestionRuleAnalyzer createIngestionRuleAnalyzer;
+    private final CreateMaterializedViewAnalyzer createMaterializedViewAnalyzer;
     private final AlterTableRerouteAnalyzer alterTableRerouteAnalyzer;
     private final CreateUserAnalyzer createUserAnalyzer;
     private final AlterUserAnalyzer alterUserAnalyzer;
@@ -131,7 +136,8 @@ public class Analyzer {
                     ClusterService clusterService,
                     AnalysisRegistry analysisRegistry,
                     RepositoryService repositoryService,
-                    RepositoryParamValidator repositoryParamValidator) {
+                    RepositoryParamValidator repositoryParamValidator,
+                    MaterializedViews materializedViews) {
         this.relationAnalyzer = new RelationAnalyzer(functions, schemas);
         this.dropTableAnalyzer = new DropTableAnalyzer(schemas);
         this.dropBlobTableAnalyzer = new DropBlobTableAnalyzer(schemas);
@@ -180,6 +186,7 @@ public class Analyzer {
         this.dropFunctionAnalyzer = new DropFunctionAnalyzer();
         this.privilegesAnalyzer = new PrivilegesAnalyzer(schemas);
         this.createIngestionRuleAnalyzer = new CreateIngestionRuleAnalyzer(schemas);
+        this.createMaterializedViewAnalyzer = new CreateMaterializedViewAnalyzer(schemas, materializedViews);
         this.createUserAnalyzer = new CreateUserAnalyzer(functions);
         this.alterUserAnalyzer = new AlterUserAnalyzer(functions);
     }
@@ -454,5 +461,18 @@ public class Analyzer {
             return createIngestionRuleAnalyzer.analyze(node, context);
         }
 
+        @Override
+        public AnalyzedStatement visitCreateMaterializedView(CreateMaterializedView node, Analysis context) {
+            return createMaterializedViewAnalyzer.analyze(node, context);
+        }
+
+        @Override
+        public AnalyzedStatement visitDropMaterializedView(DropMaterializedView node, Analysis context) {
+            return new DropMaterializedViewAnalyzedStatement(
+                TableIdent.of(node.name(), context.sessionContext().defaultSchema()),
+                node.ifExists()
+            );
+        }
+
     }
 }
@@ -0,0 +1,51 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.exceptions.TableAlreadyExistsException;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.view.MaterializedViews;
+import io.crate.sql.SqlFormatter;
+import io.crate.sql.tree.CreateMaterializedView;
+
+class CreateMaterializedViewAnalyzer {
+
+    private final Schemas schemas;
+    private final MaterializedViews materializedViews;
+
+    CreateMaterializedViewAnalyzer(Schemas schemas, MaterializedViews materializedViews) {
+        this.schemas = schemas;
+        this.materializedViews = materializedViews;
+    }
+
+    CreateMaterializedViewAnalyzedStatement analyze(CreateMaterializedView node, Analysis context) {
+        TableIdent ident = TableIdent.of(node.name(), context.sessionContext().defaultSchema());
+        if (schemas.tableExists(ident)) {
+            throw new TableAlreadyExistsException(ident);
+        }
+        // the definition is stored as text and analyzed again by every node which maintains the view
+        String definition = SqlFormatter.formatSql(node.query());
+        return new CreateMaterializedViewAnalyzedStatement(materializedViews.analyze(ident, definition));
+    }
+}
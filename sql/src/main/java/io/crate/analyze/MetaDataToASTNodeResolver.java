@@ -21,6 +21,7 @@
 
 package io.crate.analyze;
 
+import io.crate.lucene.TrigramIndex;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.FulltextAnalyzerResolver;
 import io.crate.metadata.GeneratedReference;
@@ -148,6 +149,8 @@ public class MetaDataToASTNodeResolver {
                         properties.add(new GenericProperty(FulltextAnalyzerResolver.CustomType.ANALYZER.getName(), new StringLiteral(analyzer)));
                     }
                     constraints.add(new IndexColumnConstraint("fulltext", properties));
+                } else if (tableInfo.isTrigramIndexed(ident)) {
+                    constraints.add(new IndexColumnConstraint(TrigramIndex.INDEX_METHOD, GenericProperties.EMPTY));
                 } else if (info.valueType().equals(DataTypes.GEO_SHAPE)) {
                     GeoReference geoReference = (GeoReference) info;
                     GenericProperties properties = new GenericProperties();
@@ -24,6 +24,7 @@ package io.crate.analyze;
 import io.crate.analyze.expressions.ExpressionToColumnIdentVisitor;
 import io.crate.analyze.expressions.ExpressionToStringVisitor;
 import io.crate.data.Row;
+import io.crate.lucene.TrigramIndex;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.FulltextAnalyzerResolver;
 import io.crate.metadata.Reference;
@@ -254,6 +255,9 @@ public class TableElementsAnalyzer {
                 setAnalyzer(node.properties(), context, node.indexMethod());
             } else if (node.indexMethod().equalsIgnoreCase("plain")) {
                 context.analyzedColumnDefinition.indexConstraint(Reference.IndexType.NOT_ANALYZED);
+            } else if (node.indexMethod().equalsIgnoreCase(TrigramIndex.INDEX_METHOD)) {
+                context.analyzedColumnDefinition.indexConstraint(Reference.IndexType.NOT_ANALYZED);
+                context.analyzedColumnDefinition.trigramIndex();
             } else if (node.indexMethod().equalsIgnoreCase("OFF")) {
                 context.analyzedColumnDefinition.indexConstraint(Reference.IndexType.NO);
             } else if (node.indexMethod().equals("quadtree") || node.indexMethod().equals("geohash")) {
@@ -71,6 +71,9 @@ import io.crate.expression.scalar.arithmetic.ArrayFunction;
 import io.crate.expression.scalar.arithmetic.MapFunction;
 import io.crate.expression.scalar.cast.CastFunctionResolver;
 import io.crate.expression.scalar.conditional.IfFunction;
+import io.crate.expression.scalar.regex.MatchesFunction;
+import io.crate.expression.scalar.regex.RegexEngine;
+import io.crate.expression.scalar.regex.ReplaceFunction;
 import io.crate.expression.scalar.timestamp.CurrentTimestampFunction;
 import io.crate.sql.ExpressionFormatter;
 import io.crate.sql.parser.SqlParser;
@@ -118,6 +121,7 @@ import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import io.crate.types.SingleColumnTableType;
 import io.crate.types.UndefinedType;
+import org.elasticsearch.common.lucene.BytesRefs;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -249,10 +253,42 @@ public class ExpressionAnalyzer {
                     "unknown function %s(DISTINCT %s)", name, arguments.get(0).valueType()), ex);
             }
         } else {
+            if (schema == null && transactionContext.sessionContext().regexEngine() == RegexEngine.LINEAR) {
+                arguments = withLinearRegexFlag(name, arguments);
+            }
             return allocateBuiltinOrUdfFunction(schema, name, arguments, context);
         }
     }
 
+    /**
+     * Adds the flag which selects the linear regex engine to the flags argument of the regular expression
+     * functions. Flags which aren't a literal are left untouched.
+     */
+    private static List<Symbol> withLinearRegexFlag(String functionName, List<Symbol> arguments) {
+        int flagsIndex;
+        if (functionName.equals(MatchesFunction.NAME)) {
+            flagsIndex = 2;
+        } else if (functionName.equals(ReplaceFunction.NAME)) {
+            flagsIndex = 3;
+        } else {
+            return arguments;
+        }
+        if (arguments.size() == flagsIndex) {
+            List<Symbol> newArguments = new ArrayList<>(arguments);
+            newArguments.add(Literal.of(String.valueOf(RegexEngine.LINEAR_FLAG)));
+            return newArguments;
+        }
+        if (arguments.size() == flagsIndex + 1 && arguments.get(flagsIndex) instanceof Literal) {
+            String flags = BytesRefs.toString(((Literal) arguments.get(flagsIndex)).value());
+            if (flags != null && flags.indexOf(RegexEngine.LINEAR_FLAG) == -1) {
+                List<Symbol> newArguments = new ArrayList<>(arguments);
+                newArguments.set(flagsIndex, Literal.of(flags + RegexEngine.LINEAR_FLAG));
+                return newArguments;
+            }
+        }
+        return arguments;
+    }
+
     public ExpressionAnalyzer copyForOperation(Operation operation) {
         return new ExpressionAnalyzer(
             functions,
@@ -983,10 +1019,23 @@ public class ExpressionAnalyzer {
 
         Comparison normalize(ExpressionAnalysisContext context) {
             swapIfNecessary();
+            selectRegexEngine();
             rewriteNegatingOperators(context);
             return this;
         }
 
+        /**
+         * use the variants of the regular expression operators which match the regex engine of the session
+         */
+        private void selectRegexEngine() {
+            RegexEngine engine = transactionContext.sessionContext().regexEngine();
+            if (comparisonExpressionType == ComparisonExpression.Type.REGEX_MATCH) {
+                operatorName = RegexpMatchOperator.name(engine);
+            } else if (comparisonExpressionType == ComparisonExpression.Type.REGEX_MATCH_CI) {
+                operatorName = RegexpMatchCaseInsensitiveOperator.name(engine);
+            }
+        }
+
         /**
          * swaps the comparison so that references and fields are on the left side.
          * e.g.:
@@ -1020,10 +1069,10 @@ public class ExpressionAnalyzer {
                     opName = EqOperator.NAME;
                     break;
                 case REGEX_NO_MATCH:
-                    opName = RegexpMatchOperator.NAME;
+                    opName = RegexpMatchOperator.name(transactionContext.sessionContext().regexEngine());
                     break;
                 case REGEX_NO_MATCH_CI:
-                    opName = RegexpMatchCaseInsensitiveOperator.NAME;
+                    opName = RegexpMatchCaseInsensitiveOperator.name(transactionContext.sessionContext().regexEngine());
                     break;
 
                 default:
@@ -231,15 +231,16 @@ public class WhereClauseAnalyzer {
             return new PartitionResult(
                 entry.getKey(), Lists2.copyAndReplace(entry.getValue(), ValueSymbolVisitor.STRING.function));
         } else if (queryPartitionMap.size() > 0) {
-            return tieBreakPartitionQueries(normalizer, queryPartitionMap, transactionContext);
+            return tieBreakPartitionQueries(normalizer, query, queryPartitionMap, transactionContext);
         } else {
             return new PartitionResult(Literal.BOOLEAN_FALSE, Collections.emptyList());
         }
     }
 
     private static PartitionResult tieBreakPartitionQueries(EvaluatingNormalizer normalizer,
+                                                            Symbol query,
                                                             Map<Symbol, List<Literal>> queryPartitionMap,
-                                                            TransactionContext transactionContext) throws UnsupportedOperationException {
+                                                            TransactionContext transactionContext) {
         /*
          * Got multiple normalized queries which all could match.
          * This might be the case if one partition resolved to null
@@ -259,16 +260,18 @@ public class WhereClauseAnalyzer {
          *  null and true   -> can't match
          *  true and true   -> can match, can use this query + partition
          *
-         * If there is still more than 1 query that can match it's not possible to execute the query :(
+         * If there is still more than 1 query that can match (e.g. `ts > ? or x = 1`), the partitions are pruned to
+         * the union of all partitions which can match and the original query is used. The partition columns within
+         * it are resolved on shard level.
          */
 
         List<Tuple<Symbol, List<Literal>>> canMatch = new ArrayList<>();
         SymbolToTrueVisitor symbolToTrueVisitor = new SymbolToTrueVisitor();
         for (Map.Entry<Symbol, List<Literal>> entry : queryPartitionMap.entrySet()) {
-            Symbol query = entry.getKey();
+            Symbol partitionQuery = entry.getKey();
             List<Literal> partitions = entry.getValue();
 
-            Symbol symbol = symbolToTrueVisitor.process(query, null);
+            Symbol symbol = symbolToTrueVisitor.process(partitionQuery, null);
             Symbol normalized = normalizer.normalize(symbol, transactionContext);
 
             assert normalized instanceof Literal :
@@ -276,17 +279,24 @@ public class WhereClauseAnalyzer {
 
             Object value = ((Literal) normalized).value();
             if (value != null && (Boolean) value) {
-                canMatch.add(new Tuple<>(query, partitions));
+                canMatch.add(new Tuple<>(partitionQuery, partitions));
             }
         }
+        if (canMatch.isEmpty()) {
+            return new PartitionResult(Literal.BOOLEAN_FALSE, Collections.emptyList());
+        }
         if (canMatch.size() == 1) {
             Tuple<Symbol, List<Literal>> symbolListTuple = canMatch.get(0);
             return new PartitionResult(
                 symbolListTuple.v1(),
                 Lists2.copyAndReplace(symbolListTuple.v2(), ValueSymbolVisitor.STRING.function));
         }
-        throw new UnsupportedOperationException(
-            "logical conjunction of the conditions in the WHERE clause which " +
-            "involve partitioned columns led to a query that can't be executed.");
+        List<String> partitions = new ArrayList<>();
+        for (Tuple<Symbol, List<Literal>> symbolListTuple : canMatch) {
+            for (Literal partition : symbolListTuple.v2()) {
+                partitions.add(ValueSymbolVisitor.STRING.process(partition));
+            }
+        }
+        return new PartitionResult(query, partitions);
     }
 }
@@ -60,6 +60,10 @@ public class CrateCircuitBreakerService extends CircuitBreakerService {
     public static final CrateSetting<Double> OPERATIONS_LOG_CIRCUIT_BREAKER_OVERHEAD_SETTING = CrateSetting.of(Setting.doubleSetting(
         "stats.breaker.log.operations.overhead", 1.0d, 0.0d, Setting.Property.Dynamic, Setting.Property.NodeScope), DataTypes.DOUBLE);
 
+    public static final String QUERY_RESULT_CACHE = "query_result_cache";
+    public static final CrateSetting<ByteSizeValue> QUERY_RESULT_CACHE_CIRCUIT_BREAKER_LIMIT_SETTING = CrateSetting.of(Setting.memorySizeSetting(
+        "indices.breaker.query_result_cache.limit", "5%", Setting.Property.Dynamic, Setting.Property.NodeScope), DataTypes.STRING);
+
     static final String BREAKING_EXCEPTION_MESSAGE =
         "[query] Data too large, data for [%s] would be larger than limit of [%d/%s]";
 
@@ -67,6 +71,7 @@ public class CrateCircuitBreakerService extends CircuitBreakerService {
     private volatile BreakerSettings queryBreakerSettings;
     private volatile BreakerSettings logJobsBreakerSettings;
     private volatile BreakerSettings logOperationsBreakerSettings;
+    private volatile BreakerSettings queryResultCacheBreakerSettings;
 
     @Inject
     public CrateCircuitBreakerService(Settings settings,
@@ -91,9 +96,15 @@ public class CrateCircuitBreakerService extends CircuitBreakerService {
             OPERATIONS_LOG_CIRCUIT_BREAKER_OVERHEAD_SETTING.setting().get(settings),
             CircuitBreaker.Type.MEMORY);
 
+        queryResultCacheBreakerSettings = new BreakerSettings(QUERY_RESULT_CACHE,
+            QUERY_RESULT_CACHE_CIRCUIT_BREAKER_LIMIT_SETTING.setting().get(settings).getBytes(),
+            1.0d,
+            CircuitBreaker.Type.MEMORY);
+
         registerBreaker(queryBreakerSettings);
         registerBreaker(logJobsBreakerSettings);
         registerBreaker(logOperationsBreakerSettings);
+        registerBreaker(queryResultCacheBreakerSettings);
 
         clusterSettings.addSettingsUpdateConsumer(QUERY_CIRCUIT_BREAKER_LIMIT_SETTING.setting(), QUERY_CIRCUIT_BREAKER_OVERHEAD_SETTING.setting(),
             (newLimit, newOverhead) ->
@@ -104,6 +115,9 @@ public class CrateCircuitBreakerService extends CircuitBreakerService {
         clusterSettings.addSettingsUpdateConsumer(OPERATIONS_LOG_CIRCUIT_BREAKER_LIMIT_SETTING.setting(),
             (newLimit) ->
                 setQueryBreakerLimit(logOperationsBreakerSettings, OPERATIONS_LOG, s -> this.logOperationsBreakerSettings = s, newLimit, null));
+        clusterSettings.addSettingsUpdateConsumer(QUERY_RESULT_CACHE_CIRCUIT_BREAKER_LIMIT_SETTING.setting(),
+            (newLimit) ->
+                setQueryBreakerLimit(queryResultCacheBreakerSettings, QUERY_RESULT_CACHE, s -> this.queryResultCacheBreakerSettings = s, newLimit, null));
     }
 
     @Override
@@ -22,22 +22,32 @@
 
 package io.crate.execution;
 
+import io.crate.execution.dml.delete.ShardDeleteRequest;
 import io.crate.execution.dml.delete.TransportShardDeleteAction;
+import io.crate.execution.dml.ShardResponse;
+import io.crate.execution.dml.upsert.MaterializedViewMaintainer;
+import io.crate.execution.dml.upsert.ShardUpsertRequest;
 import io.crate.execution.dml.upsert.TransportShardUpsertAction;
 import io.crate.execution.jobs.transport.TransportJobAction;
 import io.crate.execution.engine.fetch.TransportFetchNodeAction;
 import io.crate.execution.jobs.kill.TransportKillAllNodeAction;
 import io.crate.execution.jobs.kill.TransportKillJobsNodeAction;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.cluster.settings.TransportClusterUpdateSettingsAction;
 import org.elasticsearch.action.admin.cluster.snapshots.create.TransportCreateSnapshotAction;
 import org.elasticsearch.action.admin.cluster.snapshots.delete.TransportDeleteSnapshotAction;
 import org.elasticsearch.action.admin.cluster.snapshots.get.TransportGetSnapshotsAction;
 import org.elasticsearch.action.admin.cluster.snapshots.restore.TransportRestoreSnapshotAction;
 import org.elasticsearch.action.admin.indices.create.TransportCreatePartitionsAction;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexResponse;
 import org.elasticsearch.action.admin.indices.delete.TransportDeleteIndexAction;
+import org.elasticsearch.action.bulk.BulkRequestExecutor;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Provider;
 
+import java.util.function.BiConsumer;
+
 public class TransportActionProvider {
 
     private final Provider<TransportFetchNodeAction> transportFetchNodeActionProvider;
@@ -47,6 +57,7 @@ public class TransportActionProvider {
     private final Provider<TransportShardDeleteAction> transportShardDeleteActionProvider;
 
     private final Provider<TransportShardUpsertAction> transportShardUpsertActionProvider;
+    private final Provider<MaterializedViewMaintainer> materializedViewMaintainerProvider;
     private final Provider<TransportCreatePartitionsAction> transportBulkCreateIndicesActionProvider;
 
     private final Provider<TransportJobAction> transportJobInitActionProvider;
@@ -71,7 +82,8 @@ public class TransportActionProvider {
                                    Provider<TransportDeleteSnapshotAction> transportDeleteSnapshotActionProvider,
                                    Provider<TransportCreateSnapshotAction> transportCreateSnapshotActionProvider,
                                    Provider<TransportRestoreSnapshotAction> transportRestoreSnapshotActionProvider,
-                                   Provider<TransportGetSnapshotsAction> transportGetSnapshotsActionPovider) {
+                                   Provider<TransportGetSnapshotsAction> transportGetSnapshotsActionPovider,
+                                   Provider<MaterializedViewMaintainer> materializedViewMaintainerProvider) {
         this.transportDeleteIndexActionProvider = transportDeleteIndexActionProvider;
         this.transportClusterUpdateSettingsActionProvider = transportClusterUpdateSettingsActionProvider;
         this.transportShardDeleteActionProvider = transportShardDeleteActionProvider;
@@ -85,6 +97,7 @@ public class TransportActionProvider {
         this.transportCreateSnapshotActionProvider = transportCreateSnapshotActionProvider;
         this.transportRestoreSnapshotActionProvider = transportRestoreSnapshotActionProvider;
         this.transportGetSnapshotsActionProvider = transportGetSnapshotsActionPovider;
+        this.materializedViewMaintainerProvider = materializedViewMaintainerProvider;
     }
 
     public TransportCreatePartitionsAction transportBulkCreateIndicesAction() {
@@ -103,6 +116,34 @@ public class TransportActionProvider {
         return transportShardUpsertActionProvider.get();
     }
 
+    /**
+     * Executor for shard requests which insert or update rows; inserted rows are folded into the materialized
+     * views of the target table, other writes mark the views stale.
+     */
+    public BulkRequestExecutor<ShardUpsertRequest> shardUpsertExecutor() {
+        TransportShardUpsertAction action = transportShardUpsertActionProvider.get();
+        MaterializedViewMaintainer maintainer = materializedViewMaintainerProvider.get();
+        return (request, listener) -> maintainer.execute(request, listener, action::execute);
+    }
+
+    /**
+     * Executor for shard requests which delete rows; the materialized views of the target table are marked stale.
+     */
+    public BulkRequestExecutor<ShardDeleteRequest> shardDeleteExecutor() {
+        TransportShardDeleteAction action = transportShardDeleteActionProvider.get();
+        MaterializedViewMaintainer maintainer = materializedViewMaintainerProvider.get();
+        return (request, listener) -> maintainer.execute(request, listener, action::execute);
+    }
+
+    /**
+     * Executor for requests which delete partitions; the materialized views of the tables are marked stale.
+     */
+    public BiConsumer<DeleteIndexRequest, ActionListener<DeleteIndexResponse>> partitionDeleteExecutor() {
+        TransportDeleteIndexAction action = transportDeleteIndexActionProvider.get();
+        MaterializedViewMaintainer maintainer = materializedViewMaintainerProvider.get();
+        return (request, listener) -> maintainer.execute(request, listener, action::execute);
+    }
+
     public TransportShardDeleteAction transportShardDeleteAction() {
         return transportShardDeleteActionProvider.get();
     }
@@ -24,6 +24,7 @@ package io.crate.execution;
 
 import io.crate.execution.dml.delete.TransportShardDeleteAction;
 import io.crate.execution.dml.upsert.TransportShardUpsertAction;
+import io.crate.execution.engine.collect.stats.NodeStatsSnapshotService;
 import io.crate.execution.engine.collect.stats.TransportNodeStatsAction;
 import io.crate.execution.jobs.ContextPreparer;
 import io.crate.execution.jobs.transport.TransportJobAction;
@@ -53,6 +54,7 @@ public class TransportExecutorModule extends AbstractModule {
         bind(TransportKillAllNodeAction.class).asEagerSingleton();
         bind(TransportKillJobsNodeAction.class).asEagerSingleton();
         bind(TransportNodeStatsAction.class).asEagerSingleton();
+        bind(NodeStatsSnapshotService.class).asEagerSingleton();
         bind(TransportRenameTableAction.class).asEagerSingleton();
         bind(TransportOpenCloseTableOrPartitionAction.class).asEagerSingleton();
         bind(TransportDropTableAction.class).asEagerSingleton();
@@ -33,12 +33,14 @@ import io.crate.analyze.AnalyzedStatement;
 import io.crate.analyze.AnalyzedStatementVisitor;
 import io.crate.analyze.CreateBlobTableAnalyzedStatement;
 import io.crate.analyze.CreateFunctionAnalyzedStatement;
+import io.crate.analyze.CreateMaterializedViewAnalyzedStatement;
 import io.crate.analyze.CreateRepositoryAnalyzedStatement;
 import io.crate.analyze.CreateSnapshotAnalyzedStatement;
 import io.crate.analyze.CreateTableAnalyzedStatement;
 import io.crate.analyze.CreateUserAnalyzedStatement;
 import io.crate.analyze.DropBlobTableAnalyzedStatement;
 import io.crate.analyze.DropFunctionAnalyzedStatement;
+import io.crate.analyze.DropMaterializedViewAnalyzedStatement;
 import io.crate.analyze.DropRepositoryAnalyzedStatement;
 import io.crate.analyze.DropSnapshotAnalyzedStatement;
 import io.crate.analyze.DropUserAnalyzedStatement;
@@ -52,6 +54,7 @@ import io.crate.analyze.RerouteRetryFailedAnalyzedStatement;
 import io.crate.analyze.RestoreSnapshotAnalyzedStatement;
 import io.crate.blob.v2.BlobAdminClient;
 import io.crate.data.Row;
+import io.crate.execution.ddl.views.MaterializedViewDDLClient;
 import io.crate.metadata.Functions;
 import io.crate.expression.udf.UserDefinedFunctionDDLClient;
 import io.crate.auth.user.UserManager;
@@ -94,6 +97,7 @@ public class DDLStatementDispatcher implements BiFunction<AnalyzedStatement, Row
     private final RepositoryService repositoryService;
     private final SnapshotRestoreDDLDispatcher snapshotRestoreDDLDispatcher;
     private final UserDefinedFunctionDDLClient udfDDLClient;
+    private final MaterializedViewDDLClient materializedViewDDLClient;
     private final Provider<TransportUpgradeAction> transportUpgradeActionProvider;
     private final Provider<TransportForceMergeAction> transportForceMergeActionProvider;
     private final Provider<TransportRefreshAction> transportRefreshActionProvider;
@@ -111,6 +115,7 @@ public class DDLStatementDispatcher implements BiFunction<AnalyzedStatement, Row
                                   RepositoryService repositoryService,
                                   SnapshotRestoreDDLDispatcher snapshotRestoreDDLDispatcher,
                                   UserDefinedFunctionDDLClient udfDDLClient,
+                                  MaterializedViewDDLClient materializedViewDDLClient,
                                   TransportClusterRerouteAction rerouteAction,
                                   Provider<UserManager> userManagerProvider,
                                   Provider<TransportUpgradeAction> transportUpgradeActionProvider,
@@ -123,6 +128,7 @@ public class DDLStatementDispatcher implements BiFunction<AnalyzedStatement, Row
         this.repositoryService = repositoryService;
         this.snapshotRestoreDDLDispatcher = snapshotRestoreDDLDispatcher;
         this.udfDDLClient = udfDDLClient;
+        this.materializedViewDDLClient = materializedViewDDLClient;
         this.transportUpgradeActionProvider = transportUpgradeActionProvider;
         this.transportForceMergeActionProvider = transportForceMergeActionProvider;
         this.transportRefreshActionProvider = transportRefreshActionProvider;
@@ -254,6 +260,18 @@ public class DDLStatementDispatcher implements BiFunction<AnalyzedStatement, Row
             return udfDDLClient.execute(analysis);
         }
 
+        @Override
+        public CompletableFuture<Long> visitCreateMaterializedViewStatement(CreateMaterializedViewAnalyzedStatement analysis,
+                                                                            Row parameters) {
+            return materializedViewDDLClient.execute(analysis);
+        }
+
+        @Override
+        public CompletableFuture<Long> visitDropMaterializedViewStatement(DropMaterializedViewAnalyzedStatement analysis,
+                                                                          Row parameters) {
+            return materializedViewDDLClient.execute(analysis);
+        }
+
         @Override
         protected CompletableFuture<Long> visitCreateUserStatement(CreateUserAnalyzedStatement analysis, Row parameters) {
             SecureHash secureHash;
@@ -0,0 +1,244 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.ddl;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import io.crate.analyze.SymbolEvaluator;
+import io.crate.data.Row;
+import io.crate.expression.scalar.DateTruncFunction;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.RefReplacer;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.Functions;
+import io.crate.metadata.GeneratedReference;
+import io.crate.metadata.PartitionName;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.doc.DocSchemaInfo;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.table.SchemaInfo;
+import io.crate.metadata.table.TableInfo;
+import io.crate.settings.CrateSetting;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.admin.indices.create.CreatePartitionsRequest;
+import org.elasticsearch.action.admin.indices.create.TransportCreatePartitionsAction;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.lucene.BytesRefs;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the next partition of partitioned tables before the first row of it is inserted.
+ * <p>
+ * This is done for tables which are partitioned by a single generated column with an expression like
+ * <code>date_trunc('day', ts)</code>: the interval is a literal argument of the expression, so the value of the next
+ * partition can be computed by evaluating the expression for a timestamp within the next interval.
+ * <p>
+ * Only the elected master creates partitions. They are created with the {@link TransportCreatePartitionsAction},
+ * so a partition which is created by an insert at the same time is only requested once.
+ */
+@Singleton
+public class PartitionPreCreationService extends AbstractComponent implements Runnable {
+
+    public static final CrateSetting<TimeValue> PRE_CREATION_INTERVAL_SETTING = CrateSetting.of(Setting.timeSetting(
+        "cluster.partitions.pre_creation_interval", TimeValue.timeValueMillis(0),
+        Setting.Property.NodeScope, Setting.Property.Dynamic),
+        DataTypes.STRING);
+
+    /**
+     * The longest possible length of each interval, including a possible daylight saving time shift.
+     * Adding it to the start of an interval always results in a timestamp within the next interval.
+     * Intervals shorter than an hour are not supported, partitions of them would be outdated as soon as they exist.
+     */
+    private static final Map<BytesRef, Long> MAX_INTERVAL_LENGTHS = ImmutableMap.<BytesRef, Long>builder()
+        .put(new BytesRef("year"), TimeUnit.DAYS.toMillis(366) + TimeUnit.HOURS.toMillis(1))
+        .put(new BytesRef("quarter"), TimeUnit.DAYS.toMillis(92) + TimeUnit.HOURS.toMillis(1))
+        .put(new BytesRef("month"), TimeUnit.DAYS.toMillis(31) + TimeUnit.HOURS.toMillis(1))
+        .put(new BytesRef("week"), TimeUnit.DAYS.toMillis(7) + TimeUnit.HOURS.toMillis(1))
+        .put(new BytesRef("day"), TimeUnit.DAYS.toMillis(1) + TimeUnit.HOURS.toMillis(1))
+        .put(new BytesRef("hour"), TimeUnit.HOURS.toMillis(1))
+        .build();
+
+    private final ClusterService clusterService;
+    private final ThreadPool threadPool;
+    private final Schemas schemas;
+    private final Functions functions;
+    private final TransportCreatePartitionsAction createPartitionsAction;
+
+    @VisibleForTesting
+    ThreadPool.Cancellable scheduledTask = null;
+    @VisibleForTesting
+    TimeValue interval;
+
+    @Inject
+    public PartitionPreCreationService(Settings settings,
+                                       ClusterService clusterService,
+                                       ThreadPool threadPool,
+                                       Schemas schemas,
+                                       Functions functions,
+                                       TransportCreatePartitionsAction createPartitionsAction) {
+        super(settings);
+        this.clusterService = clusterService;
+        this.threadPool = threadPool;
+        this.schemas = schemas;
+        this.functions = functions;
+        this.createPartitionsAction = createPartitionsAction;
+        interval = PRE_CREATION_INTERVAL_SETTING.setting().get(settings);
+        scheduledTask = schedule(interval);
+
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+            PRE_CREATION_INTERVAL_SETTING.setting(), this::setInterval);
+    }
+
+    @Override
+    public void run() {
+        ClusterState state = clusterService.state();
+        if (state.nodes().isLocalNodeElectedMaster() == false) {
+            return;
+        }
+        List<String> partitions = new ArrayList<>();
+        try {
+            long now = System.currentTimeMillis();
+            for (SchemaInfo schemaInfo : schemas) {
+                if (schemaInfo instanceof DocSchemaInfo == false) {
+                    continue;
+                }
+                for (TableInfo tableInfo : schemaInfo) {
+                    DocTableInfo table = (DocTableInfo) tableInfo;
+                    if (table.isClosed()) {
+                        continue;
+                    }
+                    PartitionName partitionName = nextPartition(functions, table, now);
+                    if (partitionName != null && state.metaData().hasIndex(partitionName.asIndexName()) == false) {
+                        partitions.add(partitionName.asIndexName());
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            logger.error("error resolving the partitions to pre-create", t);
+            return;
+        }
+        if (partitions.isEmpty()) {
+            return;
+        }
+        createPartitionsAction.execute(
+            new CreatePartitionsRequest(partitions, UUID.randomUUID()),
+            ActionListener.wrap(
+                r -> logger.debug("pre-created partitions {}", partitions),
+                e -> logger.warn("error pre-creating partitions " + partitions, e))
+        );
+    }
+
+    /**
+     * Returns the partition of {@code table} which follows the partition that {@code now} belongs to,
+     * or null if the partition column of the table isn't a generated column of the form
+     * <code>date_trunc(interval, [timezone,] column)</code> with a literal interval of an hour or longer.
+     */
+    @Nullable
+    @VisibleForTesting
+    static PartitionName nextPartition(Functions functions, DocTableInfo table, long now) {
+        if (table.partitionedByColumns().size() != 1) {
+            return null;
+        }
+        Reference partitionColumn = table.partitionedByColumns().get(0);
+        if (partitionColumn instanceof GeneratedReference == false || isTimestamp(partitionColumn.valueType()) == false) {
+            return null;
+        }
+        Symbol expression = ((GeneratedReference) partitionColumn).generatedExpression();
+        Long maxIntervalLength = maxIntervalLength(expression);
+        if (maxIntervalLength == null) {
+            return null;
+        }
+        Long current = evaluate(functions, expression, now);
+        if (current == null) {
+            return null;
+        }
+        Long next = evaluate(functions, expression, current + maxIntervalLength);
+        return new PartitionName(table.ident(), Collections.singletonList(BytesRefs.toBytesRef(next)));
+    }
+
+    @Nullable
+    private static Long maxIntervalLength(Symbol expression) {
+        if (expression instanceof Function == false) {
+            return null;
+        }
+        Function function = (Function) expression;
+        if (function.info().ident().name().equals(DateTruncFunction.NAME) == false) {
+            return null;
+        }
+        List<Symbol> arguments = function.arguments();
+        Symbol interval = arguments.get(0);
+        Symbol timestamp = arguments.get(arguments.size() - 1);
+        if (interval instanceof Literal == false
+            || (arguments.size() == 3 && arguments.get(1) instanceof Literal == false)
+            || timestamp instanceof Reference == false
+            || isTimestamp(timestamp.valueType()) == false) {
+            return null;
+        }
+        return MAX_INTERVAL_LENGTHS.get(BytesRefs.toBytesRef(((Literal) interval).value()));
+    }
+
+    @Nullable
+    private static Long evaluate(Functions functions, Symbol expression, long timestamp) {
+        Symbol bound = RefReplacer.replaceRefs(expression, r -> Literal.of(r.valueType(), r.valueType().value(timestamp)));
+        return DataTypes.TIMESTAMP.value(SymbolEvaluator.evaluate(functions, bound, Row.EMPTY, Collections.emptyMap()));
+    }
+
+    private static boolean isTimestamp(DataType type) {
+        return type.equals(DataTypes.TIMESTAMP) || type.equals(DataTypes.LONG);
+    }
+
+    private ThreadPool.Cancellable schedule(TimeValue newInterval) {
+        if (newInterval.millis() > 0) {
+            return threadPool.scheduleWithFixedDelay(this, newInterval, ThreadPool.Names.GENERIC);
+        }
+        return null;
+    }
+
+    private void setInterval(TimeValue newInterval) {
+        if (scheduledTask != null) {
+            scheduledTask.cancel();
+        }
+        scheduledTask = schedule(newInterval);
+        interval = newInterval;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.ddl.views;
+
+import org.elasticsearch.action.ActionRequestValidationException;
+import org.elasticsearch.action.ValidateActions;
+import org.elasticsearch.action.support.master.AcknowledgedRequest;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MarkMaterializedViewsStaleRequest extends AcknowledgedRequest<MarkMaterializedViewsStaleRequest> {
+
+    private List<String> names;
+
+    MarkMaterializedViewsStaleRequest() {
+    }
+
+    /**
+     * @param names the fully qualified names of the views
+     */
+    public MarkMaterializedViewsStaleRequest(List<String> names) {
+        this.names = names;
+    }
+
+    public List<String> names() {
+        return names;
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        if (names == null || names.isEmpty()) {
+            return ValidateActions.addValidationError("Materialized views are missing", null);
+        }
+        return null;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        int numNames = in.readVInt();
+        names = new ArrayList<>(numNames);
+        for (int i = 0; i < numNames; i++) {
+            names.add(in.readString());
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeVInt(names.size());
+        for (String name : names) {
+            out.writeString(name);
+        }
+    }
+}
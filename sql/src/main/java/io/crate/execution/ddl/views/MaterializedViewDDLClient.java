@@ -0,0 +1,143 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.ddl.views;
+
+import io.crate.action.FutureActionListener;
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.SQLOperations;
+import io.crate.action.sql.Session;
+import io.crate.analyze.CreateMaterializedViewAnalyzedStatement;
+import io.crate.analyze.DropMaterializedViewAnalyzedStatement;
+import io.crate.analyze.TableParameterInfo;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.view.MaterializedView;
+import io.crate.metadata.view.MaterializedViewDefinition;
+import io.crate.metadata.view.MaterializedViewsMetaData;
+import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static io.crate.concurrent.CompletableFutures.failedFuture;
+
+/**
+ * Creates and drops materialized views.
+ *
+ * A view is stored in a regular table which is created and populated using SQL statements while writes to the
+ * source table are blocked. Dropping the table removes the view from the cluster state.
+ */
+@Singleton
+public class MaterializedViewDDLClient {
+
+    private final ClusterService clusterService;
+    private final SQLOperations sqlOperations;
+    private final TransportCreateMaterializedViewAction createMaterializedViewAction;
+
+    @Inject
+    public MaterializedViewDDLClient(ClusterService clusterService,
+                                     SQLOperations sqlOperations,
+                                     TransportCreateMaterializedViewAction createMaterializedViewAction) {
+        this.clusterService = clusterService;
+        this.sqlOperations = sqlOperations;
+        this.createMaterializedViewAction = createMaterializedViewAction;
+    }
+
+    public CompletableFuture<Long> execute(CreateMaterializedViewAnalyzedStatement statement) {
+        MaterializedViewDefinition definition = statement.definition();
+        DocTableInfo sourceTable = definition.sourceTable();
+        MaterializedView view = new MaterializedView(
+            definition.ident().fqn(), sourceTable.ident().fqn(), definition.definition());
+        String schema = definition.ident().schema();
+
+        // Rows inserted once the view is registered are folded into it, rows inserted before are part of the
+        // population. Writes to the source table are blocked in between, so that no row is counted twice.
+        boolean isWriteBlocked = Boolean.TRUE.equals(sourceTable.tableParameters().get(TableParameterInfo.BLOCKS_WRITE));
+        if (isWriteBlocked) {
+            return create(schema, view, definition);
+        }
+        return setWriteBlock(schema, sourceTable, true)
+            .thenCompose(r -> create(schema, view, definition)
+                .handle((result, t) -> setWriteBlock(schema, sourceTable, false).thenApply(ignored -> {
+                    if (t != null) {
+                        throw new CompletionException(SQLExceptions.unwrap(t));
+                    }
+                    return result;
+                }))
+                .thenCompose(f -> f));
+    }
+
+    private CompletableFuture<Long> create(String schema, MaterializedView view, MaterializedViewDefinition definition) {
+        return execute(schema, definition.createTableStmt())
+            .thenCompose(r -> registerAndPopulate(schema, view, definition)
+                .exceptionally(t -> {
+                    // an incomplete view must not be used, dropping the table removes the view as well
+                    execute(schema, "DROP TABLE IF EXISTS " + definition.ident().sqlFqn());
+                    throw new CompletionException(SQLExceptions.unwrap(t));
+                }));
+    }
+
+    private CompletableFuture<Long> registerAndPopulate(String schema,
+                                                        MaterializedView view,
+                                                        MaterializedViewDefinition definition) {
+        FutureActionListener<CreateMaterializedViewResponse, Long> listener =
+            new FutureActionListener<>(response -> 1L);
+        createMaterializedViewAction.execute(new CreateMaterializedViewRequest(view), listener);
+        return listener
+            .thenCompose(r -> execute(schema, "REFRESH TABLE " + definition.sourceTable().ident().sqlFqn()))
+            .thenCompose(r -> execute(schema, definition.populateStmt()))
+            .thenApply(r -> 1L);
+    }
+
+    private CompletableFuture<?> setWriteBlock(String schema, DocTableInfo table, boolean blocked) {
+        return execute(schema, "ALTER TABLE " + table.ident().sqlFqn() + " SET (\"blocks.write\" = " + blocked + ")");
+    }
+
+    public CompletableFuture<Long> execute(DropMaterializedViewAnalyzedStatement statement) {
+        TableIdent ident = statement.ident();
+        MaterializedViewsMetaData metaData = clusterService.state().metaData().custom(MaterializedViewsMetaData.TYPE);
+        if (metaData == null || !metaData.views().containsKey(ident.fqn())) {
+            if (statement.ifExists()) {
+                return CompletableFuture.completedFuture(0L);
+            }
+            return failedFuture(new ResourceNotFoundException("Materialized view " + ident.fqn() + " doesn't exist"));
+        }
+        return execute(ident.schema(), "DROP TABLE " + ident.sqlFqn()).thenApply(r -> 1L);
+    }
+
+    private CompletableFuture<?> execute(String defaultSchema, String stmt) {
+        BaseResultReceiver resultReceiver = new BaseResultReceiver();
+        try {
+            sqlOperations.createSystemExecutor(defaultSchema, Session.UNNAMED, stmt, 0)
+                .execute(resultReceiver, Collections.emptyList());
+        } catch (Throwable t) {
+            return failedFuture(t);
+        }
+        return resultReceiver.completionFuture();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.ddl.views;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.view.MaterializedView;
+import io.crate.metadata.view.MaterializedViewsMetaData;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.master.TransportMasterNodeAction;
+import org.elasticsearch.cluster.AckedClusterStateUpdateTask;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlockException;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.Priority;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexNotFoundException;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+/**
+ * Registers a materialized view in the cluster state. The table storing the view must already exist.
+ */
+@Singleton
+public class TransportCreateMaterializedViewAction
+    extends TransportMasterNodeAction<CreateMaterializedViewRequest, CreateMaterializedViewResponse> {
+
+    private static final String ACTION_NAME = "crate/sql/create_materialized_view";
+
+    @Inject
+    public TransportCreateMaterializedViewAction(Settings settings,
+                                                 TransportService transportService,
+                                                 ClusterService clusterService,
+                                                 ThreadPool threadPool,
+                                                 ActionFilters actionFilters,
+                                                 IndexNameExpressionResolver indexNameExpressionResolver) {
+        super(settings, ACTION_NAME, transportService, clusterService, threadPool, actionFilters,
+            indexNameExpressionResolver, CreateMaterializedViewRequest::new);
+    }
+
+    @Override
+    protected String executor() {
+        // no need to use a thread pool, we go async right away
+        return ThreadPool.Names.SAME;
+    }
+
+    @Override
+    protected CreateMaterializedViewResponse newResponse() {
+        return new CreateMaterializedViewResponse();
+    }
+
+    @Override
+    protected void masterOperation(CreateMaterializedViewRequest request,
+                                   ClusterState state,
+                                   ActionListener<CreateMaterializedViewResponse> listener) throws Exception {
+        clusterService.submitStateUpdateTask("create_materialized_view",
+            new AckedClusterStateUpdateTask<CreateMaterializedViewResponse>(Priority.IMMEDIATE, request, listener) {
+
+                @Override
+                public ClusterState execute(ClusterState currentState) throws Exception {
+                    MetaData.Builder mdBuilder = MetaData.builder(currentState.metaData());
+                    createView(mdBuilder, request.view());
+                    return ClusterState.builder(currentState).metaData(mdBuilder).build();
+                }
+
+                @Override
+                protected CreateMaterializedViewResponse newResponse(boolean acknowledged) {
+                    return new CreateMaterializedViewResponse(acknowledged);
+                }
+            });
+    }
+
+    @VisibleForTesting
+    static void createView(MetaData.Builder mdBuilder, MaterializedView view) {
+        // the table may have been dropped concurrently, the view would never be removed then
+        String indexName = TableIdent.fromIndexName(view.name()).indexName();
+        if (mdBuilder.get(indexName) == null) {
+            throw new IndexNotFoundException(indexName);
+        }
+        // create a new instance of the metadata, to guarantee the cluster changed action.
+        MaterializedViewsMetaData newMetaData = MaterializedViewsMetaData.copyOf(
+            (MaterializedViewsMetaData) mdBuilder.getCustom(MaterializedViewsMetaData.TYPE));
+        newMetaData.createView(view);
+        mdBuilder.putCustom(MaterializedViewsMetaData.TYPE, newMetaData);
+    }
+
+    @Override
+    protected ClusterBlockException checkBlock(CreateMaterializedViewRequest request, ClusterState state) {
+        return state.blocks().globalBlockedException(ClusterBlockLevel.METADATA_WRITE);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.ddl.views;
+
+import io.crate.metadata.view.MaterializedViewsMetaData;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.master.TransportMasterNodeAction;
+import org.elasticsearch.cluster.AckedClusterStateUpdateTask;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlockException;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.Priority;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+/**
+ * Marks materialized views as stale, so they are neither maintained nor used to answer queries anymore.
+ * Views which don't exist (anymore) are ignored.
+ */
+@Singleton
+public class TransportMarkMaterializedViewsStaleAction
+    extends TransportMasterNodeAction<MarkMaterializedViewsStaleRequest, MarkMaterializedViewsStaleResponse> {
+
+    private static final String ACTION_NAME = "crate/sql/mark_materialized_views_stale";
+
+    @Inject
+    public TransportMarkMaterializedViewsStaleAction(Settings settings,
+                                                     TransportService transportService,
+                                                     ClusterService clusterService,
+                                                     ThreadPool threadPool,
+                                                     ActionFilters actionFilters,
+                                                     IndexNameExpressionResolver indexNameExpressionResolver) {
+        super(settings, ACTION_NAME, transportService, clusterService, threadPool, actionFilters,
+            indexNameExpressionResolver, MarkMaterializedViewsStaleRequest::new);
+    }
+
+    @Override
+    protected String executor() {
+        // no need to use a thread pool, we go async right away
+        return ThreadPool.Names.SAME;
+    }
+
+    @Override
+    protected MarkMaterializedViewsStaleResponse newResponse() {
+        return new MarkMaterializedViewsStaleResponse();
+    }
+
+    @Override
+    protected void masterOperation(MarkMaterializedViewsStaleRequest request,
+                                   ClusterState state,
+                                   ActionListener<MarkMaterializedViewsStaleResponse> listener) throws Exception {
+        clusterService.submitStateUpdateTask("mark_materialized_views_stale",
+            new AckedClusterStateUpdateTask<MarkMaterializedViewsStaleResponse>(Priority.URGENT, request, listener) {
+
+                @Override
+                public ClusterState execute(ClusterState currentState) throws Exception {
+                    MaterializedViewsMetaData metaData = currentState.metaData().custom(MaterializedViewsMetaData.TYPE);
+                    if (metaData == null) {
+                        return currentState;
+                    }
+                    // create a new instance of the metadata, to guarantee the cluster changed action.
+                    MaterializedViewsMetaData newMetaData = MaterializedViewsMetaData.copyOf(metaData);
+                    boolean changed = false;
+                    for (String name : request.names()) {
+                        if (newMetaData.views().containsKey(name)) {
+                            changed |= newMetaData.markStale(name);
+                        }
+                    }
+                    if (changed == false) {
+                        return currentState;
+                    }
+                    MetaData.Builder mdBuilder = MetaData.builder(currentState.metaData())
+                        .putCustom(MaterializedViewsMetaData.TYPE, newMetaData);
+                    return ClusterState.builder(currentState).metaData(mdBuilder).build();
+                }
+
+                @Override
+                protected MarkMaterializedViewsStaleResponse newResponse(boolean acknowledged) {
+                    return new MarkMaterializedViewsStaleResponse(acknowledged);
+                }
+            });
+    }
+
+    @Override
+    protected ClusterBlockException checkBlock(MarkMaterializedViewsStaleRequest request, ClusterState state) {
+        return state.blocks().globalBlockedException(ClusterBlockLevel.METADATA_WRITE);
+    }
+}
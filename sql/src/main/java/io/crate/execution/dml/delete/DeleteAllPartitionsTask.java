@@ -27,18 +27,22 @@ import io.crate.data.Row1;
 import io.crate.data.RowConsumer;
 import io.crate.execution.support.OneRowActionListener;
 import io.crate.planner.node.ddl.DeleteAllPartitions;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
-import org.elasticsearch.action.admin.indices.delete.TransportDeleteIndexAction;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexResponse;
 import org.elasticsearch.action.support.IndicesOptions;
 
+import java.util.function.BiConsumer;
+
 import static io.crate.data.SentinelRow.SENTINEL;
 
 public final class DeleteAllPartitionsTask {
 
-    private final TransportDeleteIndexAction deleteIndexAction;
+    private final BiConsumer<DeleteIndexRequest, ActionListener<DeleteIndexResponse>> deleteIndexAction;
     private final DeleteIndexRequest request;
 
-    public DeleteAllPartitionsTask(DeleteAllPartitions plan, TransportDeleteIndexAction deleteIndexAction) {
+    public DeleteAllPartitionsTask(DeleteAllPartitions plan,
+                                   BiConsumer<DeleteIndexRequest, ActionListener<DeleteIndexResponse>> deleteIndexAction) {
         this.request = new DeleteIndexRequest(plan.partitions().toArray(new String[0]));
         /*
          * table is partitioned, in case of concurrent "delete from partitions"
@@ -53,7 +57,7 @@ public final class DeleteAllPartitionsTask {
         if (request.indices().length == 0) {
             consumer.accept(InMemoryBatchIterator.of(new Row1(0L), SENTINEL), null);
         } else {
-            deleteIndexAction.execute(
+            deleteIndexAction.accept(
                 request, new OneRowActionListener<>(consumer, r -> Row1.ROW_COUNT_UNKNOWN));
         }
     }
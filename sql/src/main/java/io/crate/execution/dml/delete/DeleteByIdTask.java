@@ -29,6 +29,7 @@ import io.crate.execution.dml.ShardRequestExecutor;
 import io.crate.metadata.Functions;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
 import io.crate.planner.node.dml.DeleteById;
+import org.elasticsearch.action.bulk.BulkRequestExecutor;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.shard.ShardId;
@@ -45,7 +46,7 @@ public class DeleteByIdTask {
     public DeleteByIdTask(UUID jobId,
                           ClusterService clusterService,
                           Functions functions,
-                          TransportShardDeleteAction deleteAction,
+                          BulkRequestExecutor<ShardDeleteRequest> deleteAction,
                           DeleteById deleteById) {
         TimeValue requestTimeout = ShardingUpsertExecutor.BULK_REQUEST_TIMEOUT_SETTING
             .setting().get(clusterService.state().metaData().settings());
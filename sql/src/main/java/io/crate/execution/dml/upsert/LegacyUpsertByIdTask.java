@@ -25,15 +25,27 @@ package io.crate.execution.dml.upsert;
 import io.crate.action.FutureActionListener;
 import io.crate.action.LimitedExponentialBackoff;
 import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
 import io.crate.data.Row1;
 import io.crate.data.RowConsumer;
+import io.crate.data.RowN;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.execution.dml.ShardResponse;
+import io.crate.execution.engine.collect.InputCollectExpression;
+import io.crate.execution.engine.collect.RowShardResolver;
+import io.crate.execution.engine.indexing.ShardDMLExecutor;
+import io.crate.execution.engine.pipeline.TableSettingsResolver;
+import io.crate.execution.jobs.NodeJobsCounter;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Functions;
 import io.crate.metadata.IndexParts;
 import io.crate.execution.support.RetryListener;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
+import io.crate.metadata.TableIdent;
 import io.crate.planner.node.dml.LegacyUpsertById;
 import io.crate.planner.node.dml.UpdateById;
+import io.crate.types.DataTypes;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.create.CreatePartitionsRequest;
@@ -56,15 +68,19 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static io.crate.concurrent.CompletableFutures.failedFuture;
 import static io.crate.data.SentinelRow.SENTINEL;
@@ -74,6 +90,12 @@ public class LegacyUpsertByIdTask {
     private static final Logger LOGGER = Loggers.getLogger(UpdateById.class);
     private static final BackoffPolicy BACK_OFF_POLICY = LimitedExponentialBackoff.limitedExponential(1000);
 
+    private static final int ITEM_ROW_ID = 0;
+    private static final int ITEM_ROW_ROUTING = 1;
+    private static final int ITEM_ROW_INDEX = 2;
+    private static final int ITEM_ROW_POSITION = 3;
+    private static final List<ColumnIdent> ITEM_ROW_ID_COLUMN = Collections.singletonList(new ColumnIdent("id"));
+
     private final ClusterService clusterService;
     private final ShardUpsertRequest.Builder reqBuilder;
     private final TransportCreatePartitionsAction createIndicesAction;
@@ -86,6 +108,7 @@ public class LegacyUpsertByIdTask {
     private final boolean isDebugEnabled;
     private final boolean isPartitioned;
     private final UUID jobId;
+    private final TableIdent tableIdent;
 
     public LegacyUpsertByIdTask(UUID jobId,
                                 LegacyUpsertById upsertById,
@@ -105,6 +128,7 @@ public class LegacyUpsertByIdTask {
         this.isUpdate = upsertById.insertColumns() == null;
         this.isDebugEnabled = LOGGER.isDebugEnabled();
         this.isPartitioned = upsertById.isPartitioned();
+        this.tableIdent = upsertById.tableIdent();
 
         reqBuilder = new ShardUpsertRequest.Builder(
             ShardingUpsertExecutor.BULK_REQUEST_TIMEOUT_SETTING.setting().get(settings),
@@ -127,11 +151,25 @@ public class LegacyUpsertByIdTask {
         });
     }
 
-    public List<CompletableFuture<Long>> executeBulk() {
+    /**
+     * Executes the items of all bulk arguments as one stream of rows through the {@link ShardingUpsertExecutor}.
+     * The items are sent in requests of at most {@link ShardDMLExecutor#DEFAULT_BULK_SIZE} items grouped by shard,
+     * partitions are created as they are encountered and further requests are delayed while a node is busy.
+     */
+    public List<CompletableFuture<Long>> executeBulk(Functions functions,
+                                                     NodeJobsCounter nodeJobsCounter,
+                                                     Executor executor) {
         final List<CompletableFuture<Long>> results = prepareResultList(numBulkResponses);
-        doExecute().whenComplete((responses, f) -> {
+        CompletableFuture<BitSet> responses;
+        try {
+            responses = createUpsertExecutor(functions, nodeJobsCounter, executor)
+                .executeAndCollectSuccessfulRows(InMemoryBatchIterator.of(itemRows(), SENTINEL));
+        } catch (Throwable t) {
+            responses = failedFuture(t);
+        }
+        responses.whenComplete((successfulItems, f) -> {
             if (f == null) {
-                long[] resultRowCount = createBulkResponse(responses);
+                long[] resultRowCount = createBulkResponse(successfulItems);
                 for (int i = 0; i < numBulkResponses; i++) {
                     results.get(i).complete(resultRowCount[i]);
                 }
@@ -144,6 +182,55 @@ public class LegacyUpsertByIdTask {
         return results;
     }
 
+    private ShardingUpsertExecutor<ShardUpsertRequest, ShardUpsertRequest.Item> createUpsertExecutor(
+        Functions functions,
+        NodeJobsCounter nodeJobsCounter,
+        Executor executor) {
+
+        RowShardResolver rowShardResolver = new RowShardResolver(
+            functions,
+            ITEM_ROW_ID_COLUMN,
+            Collections.singletonList(new InputColumn(ITEM_ROW_ID, DataTypes.STRING)),
+            null,
+            new InputColumn(ITEM_ROW_ROUTING, DataTypes.STRING)
+        );
+        InputCollectExpression indexName = new InputCollectExpression(ITEM_ROW_INDEX);
+        InputCollectExpression position = new InputCollectExpression(ITEM_ROW_POSITION);
+        Function<String, ShardUpsertRequest.Item> itemFactory = id -> {
+            LegacyUpsertById.Item item = items.get((int) position.value());
+            return new ShardUpsertRequest.Item(id, item.updateAssignments(), item.insertValues(), item.version());
+        };
+        return new ShardingUpsertExecutor<>(
+            clusterService,
+            nodeJobsCounter,
+            scheduler,
+            executor,
+            ShardDMLExecutor.DEFAULT_BULK_SIZE,
+            jobId,
+            rowShardResolver,
+            itemFactory,
+            reqBuilder::newRequest,
+            Arrays.asList(indexName, position),
+            () -> (String) indexName.value(),
+            isPartitioned,
+            upsertAction,
+            createIndicesAction,
+            TableSettingsResolver.get(clusterService.state().getMetaData(), tableIdent, isPartitioned)
+        );
+    }
+
+    /**
+     * Rows with the values required to route the items; the position of a row matches the position of its item.
+     */
+    private Iterable<Row> itemRows() {
+        return () -> IntStream.range(0, items.size())
+            .mapToObj(i -> {
+                LegacyUpsertById.Item item = items.get(i);
+                return (Row) new RowN(new Object[]{item.id(), item.routing(), item.index(), i});
+            })
+            .iterator();
+    }
+
     /**
      * Create bulk-response depending on number of bulk responses
      * <pre>
@@ -0,0 +1,472 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.dml.upsert;
+
+import io.crate.action.FutureActionListener;
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.SQLOperations;
+import io.crate.action.sql.Session;
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Input;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.execution.ddl.views.MarkMaterializedViewsStaleRequest;
+import io.crate.execution.ddl.views.MarkMaterializedViewsStaleResponse;
+import io.crate.execution.ddl.views.TransportMarkMaterializedViewsStaleAction;
+import io.crate.execution.dml.ShardResponse;
+import io.crate.execution.dml.delete.ShardDeleteRequest;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.expression.InputFactory;
+import io.crate.expression.reference.ReferenceResolver;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.RefReplacer;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Functions;
+import io.crate.metadata.GeneratedReference;
+import io.crate.metadata.PartitionName;
+import io.crate.metadata.Reference;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.view.MaterializedViewDefinition;
+import io.crate.metadata.view.MaterializedViews;
+import io.crate.types.DataType;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexResponse;
+import org.elasticsearch.action.bulk.BulkRequestExecutor;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Provider;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+import static io.crate.concurrent.CompletableFutures.failedFuture;
+
+/**
+ * Folds rows which are inserted into a table into the materialized views of the table.
+ *
+ * The successfully inserted rows of a shard request are grouped and aggregated like the view definition
+ * does, the resulting states are merged into the stored states of the view using an upsert.
+ * Only requests which insert new rows can be folded. Updates, deletes, upserts of existing rows and deleted
+ * partitions mark the views of the table stale before they are executed, as does a failure to fold inserted rows.
+ */
+@Singleton
+public class MaterializedViewMaintainer {
+
+    private static final Logger LOGGER = Loggers.getLogger(MaterializedViewMaintainer.class);
+
+    private final MaterializedViews materializedViews;
+    private final Functions functions;
+    private final Provider<SQLOperations> sqlOperationsProvider;
+    private final CircuitBreaker circuitBreaker;
+    private final InputFactory inputFactory;
+    private final Provider<TransportMarkMaterializedViewsStaleAction> markStaleActionProvider;
+
+    @Inject
+    public MaterializedViewMaintainer(MaterializedViews materializedViews,
+                                      Functions functions,
+                                      Provider<SQLOperations> sqlOperationsProvider,
+                                      CrateCircuitBreakerService breakerService,
+                                      Provider<TransportMarkMaterializedViewsStaleAction> markStaleActionProvider) {
+        this.materializedViews = materializedViews;
+        this.markStaleActionProvider = markStaleActionProvider;
+        this.functions = functions;
+        this.sqlOperationsProvider = sqlOperationsProvider;
+        this.circuitBreaker = breakerService.getBreaker(CrateCircuitBreakerService.QUERY);
+        this.inputFactory = new InputFactory(functions);
+    }
+
+    /**
+     * Executes a shard request which writes into a table. Inserted rows are folded into the views of the table
+     * once the request succeeded. Any other write marks the views of the table stale before it is executed.
+     * Views whose definition cannot be analyzed cannot be maintained and are marked stale by any write.
+     */
+    public void execute(ShardUpsertRequest request,
+                        ActionListener<ShardResponse> listener,
+                        BulkRequestExecutor<ShardUpsertRequest> action) {
+        TableIdent table = TableIdent.fromIndexName(request.index());
+        List<String> names = materializedViews.viewNamesOf(table);
+        if (names.isEmpty()) {
+            action.execute(request, listener);
+        } else if (isInsertOnly(request)) {
+            List<MaterializedViewDefinition> views = materializedViews.viewsOf(table);
+            List<String> unmaintainable = new ArrayList<>(names);
+            for (MaterializedViewDefinition view : views) {
+                unmaintainable.remove(view.ident().fqn());
+            }
+            Runnable write = () -> action.execute(request, foldingListener(views, request, listener));
+            if (unmaintainable.isEmpty()) {
+                write.run();
+            } else {
+                markStaleAndExecute(unmaintainable, write, listener);
+            }
+        } else {
+            markStaleAndExecute(names, () -> action.execute(request, listener), listener);
+        }
+    }
+
+    /**
+     * Executes a shard request which deletes rows, the views of the table are marked stale before.
+     */
+    public void execute(ShardDeleteRequest request,
+                        ActionListener<ShardResponse> listener,
+                        BulkRequestExecutor<ShardDeleteRequest> action) {
+        List<String> names = materializedViews.viewNamesOf(TableIdent.fromIndexName(request.index()));
+        if (names.isEmpty()) {
+            action.execute(request, listener);
+        } else {
+            markStaleAndExecute(names, () -> action.execute(request, listener), listener);
+        }
+    }
+
+    /**
+     * Executes a request which deletes partitions, the views of the tables of the partitions are marked stale before.
+     */
+    public void execute(DeleteIndexRequest request,
+                        ActionListener<DeleteIndexResponse> listener,
+                        BiConsumer<DeleteIndexRequest, ActionListener<DeleteIndexResponse>> action) {
+        Set<TableIdent> tables = new HashSet<>();
+        for (String index : request.indices()) {
+            tables.add(TableIdent.fromIndexName(index));
+        }
+        List<String> names = new ArrayList<>();
+        for (TableIdent table : tables) {
+            names.addAll(materializedViews.viewNamesOf(table));
+        }
+        if (names.isEmpty()) {
+            action.accept(request, listener);
+        } else {
+            markStaleAndExecute(names, () -> action.accept(request, listener), listener);
+        }
+    }
+
+    private void markStaleAndExecute(List<String> names, Runnable write, ActionListener<?> listener) {
+        // the views must not be used to answer queries anymore once the rows are changed, so the write fails
+        // if the views cannot be marked
+        markStale(names).whenComplete((r, t) -> {
+            if (t == null) {
+                write.run();
+            } else {
+                Throwable cause = SQLExceptions.unwrap(t);
+                listener.onFailure(cause instanceof Exception ? (Exception) cause : new ElasticsearchException(cause));
+            }
+        });
+    }
+
+    private CompletableFuture<Void> markStale(List<String> names) {
+        FutureActionListener<MarkMaterializedViewsStaleResponse, Void> listener = new FutureActionListener<>(r -> null);
+        markStaleActionProvider.get().execute(new MarkMaterializedViewsStaleRequest(names), listener);
+        return listener;
+    }
+
+    private static List<String> names(List<MaterializedViewDefinition> views) {
+        List<String> names = new ArrayList<>(views.size());
+        for (MaterializedViewDefinition view : views) {
+            names.add(view.ident().fqn());
+        }
+        return names;
+    }
+
+    /**
+     * Returns a listener which folds the inserted rows into the views before the given listener is completed.
+     * Views which cannot be updated are marked stale, the request doesn't fail.
+     */
+    private ActionListener<ShardResponse> foldingListener(List<MaterializedViewDefinition> views,
+                                                          ShardUpsertRequest request,
+                                                          ActionListener<ShardResponse> listener) {
+        return new ActionListener<ShardResponse>() {
+            @Override
+            public void onResponse(ShardResponse response) {
+                List<CompletableFuture<?>> futures = new ArrayList<>(views.size());
+                List<MaterializedViewDefinition> failedViews = Collections.synchronizedList(new ArrayList<>());
+                for (MaterializedViewDefinition view : views) {
+                    CompletableFuture<?> future;
+                    try {
+                        future = fold(view, request, response);
+                    } catch (Exception e) {
+                        future = failedFuture(e);
+                    }
+                    futures.add(future.whenComplete((r, t) -> {
+                        if (t != null) {
+                            LOGGER.warn("Couldn't update the materialized view " + view.ident().fqn() +
+                                        ", it is marked stale", t);
+                            failedViews.add(view);
+                        }
+                    }));
+                }
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .handle((r, t) -> failedViews.isEmpty()
+                        ? CompletableFuture.<Void>completedFuture(null)
+                        : markStale(names(failedViews)))
+                    .thenCompose(f -> f)
+                    .whenComplete((r, t) -> {
+                        if (t != null) {
+                            LOGGER.error("Couldn't mark the materialized views which failed to update stale", t);
+                        }
+                        listener.onResponse(response);
+                    });
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                // some of the rows may have been written nevertheless
+                markStale(names(views)).whenComplete((r, t) -> {
+                    if (t != null) {
+                        LOGGER.error("Couldn't mark the materialized views of a failed insert stale", t);
+                    }
+                    listener.onFailure(e);
+                });
+            }
+        };
+    }
+
+    private static boolean isInsertOnly(ShardUpsertRequest request) {
+        return request.insertColumns() != null
+               && (request.updateColumns() == null || request.updateColumns().length == 0)
+               && !request.overwriteDuplicates();
+    }
+
+    private CompletableFuture<?> fold(MaterializedViewDefinition view, ShardUpsertRequest request, ShardResponse response) {
+        if (view.where().noMatch()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Set<Integer> insertedLocations = new HashSet<>();
+        for (int i = 0; i < response.itemIndices().size(); i++) {
+            if (response.failures().get(i) == null) {
+                insertedLocations.add(response.itemIndices().get(i));
+            }
+        }
+        if (insertedLocations.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        RowResolver rowResolver = new RowResolver(view.sourceTable(), request);
+        InputFactory.Context<Input<?>> ctx = inputFactory.ctxForRefs(rowResolver);
+        Input<?> condition = view.where().hasQuery() ? ctx.add(rowResolver.resolveGenerated(view.where().query())) : null;
+        List<Input<?>> keyInputs = new ArrayList<>(view.keys().size());
+        for (Symbol key : view.keys()) {
+            keyInputs.add(ctx.add(rowResolver.resolveGenerated(key)));
+        }
+        List<AggregationFunction> aggregations = new ArrayList<>(view.aggregates().size());
+        List<Input[]> aggregationInputs = new ArrayList<>(view.aggregates().size());
+        for (Function aggregate : view.aggregates()) {
+            aggregations.add((AggregationFunction) functions.getQualified(aggregate.info().ident()));
+            Input[] inputs = new Input[aggregate.arguments().size()];
+            for (int i = 0; i < inputs.length; i++) {
+                inputs[i] = ctx.add(rowResolver.resolveGenerated(aggregate.arguments().get(i)));
+            }
+            aggregationInputs.add(inputs);
+        }
+
+        RamAccountingContext ramAccountingContext =
+            new RamAccountingContext("materialized-view-" + view.ident().fqn(), circuitBreaker);
+        try {
+            Map<List<Object>, Object[]> groups = new LinkedHashMap<>();
+            for (ShardUpsertRequest.Item item : request.items()) {
+                if (!insertedLocations.contains(item.location())) {
+                    continue;
+                }
+                rowResolver.setNextItem(item);
+                if (condition != null && !Boolean.TRUE.equals(condition.value())) {
+                    continue;
+                }
+                Object[] key = new Object[keyInputs.size()];
+                boolean hasNullKey = false;
+                for (int i = 0; i < key.length; i++) {
+                    key[i] = keyInputs.get(i).value();
+                    hasNullKey |= key[i] == null;
+                }
+                if (hasNullKey) {
+                    // the keys are the primary key of the view, groups with null keys cannot be stored
+                    continue;
+                }
+                Object[] states = groups.computeIfAbsent(Arrays.asList(key), k -> newStates(aggregations, ramAccountingContext));
+                for (int i = 0; i < states.length; i++) {
+                    //noinspection unchecked
+                    states[i] = aggregations.get(i).iterate(ramAccountingContext, states[i], aggregationInputs.get(i));
+                }
+            }
+            if (groups.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            List<Object> params = new ArrayList<>(groups.size() * (keyInputs.size() + aggregations.size()));
+            for (Map.Entry<List<Object>, Object[]> group : groups.entrySet()) {
+                for (Object keyValue : group.getKey()) {
+                    params.add(toParam(keyValue));
+                }
+                Object[] states = group.getValue();
+                for (int i = 0; i < states.length; i++) {
+                    //noinspection unchecked
+                    params.add(toParam(aggregations.get(i).terminatePartial(ramAccountingContext, states[i])));
+                }
+            }
+            return execute(view, view.upsertStmt(groups.size()), params);
+        } finally {
+            ramAccountingContext.close();
+        }
+    }
+
+    private static Object[] newStates(List<AggregationFunction> aggregations, RamAccountingContext ramAccountingContext) {
+        Object[] states = new Object[aggregations.size()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = aggregations.get(i).newState(ramAccountingContext, Version.CURRENT, BigArrays.NON_RECYCLING_INSTANCE);
+        }
+        return states;
+    }
+
+    private static Object toParam(Object value) {
+        if (value instanceof BytesRef) {
+            return ((BytesRef) value).utf8ToString();
+        }
+        return value;
+    }
+
+    private CompletableFuture<?> execute(MaterializedViewDefinition view, String stmt, List<Object> params) {
+        BaseResultReceiver resultReceiver = new BaseResultReceiver();
+        try {
+            sqlOperationsProvider.get()
+                .createSystemExecutor(view.ident().schema(), Session.UNNAMED, stmt, 0)
+                .execute(resultReceiver, params);
+        } catch (Throwable t) {
+            return failedFuture(t);
+        }
+        return resultReceiver.completionFuture();
+    }
+
+    /**
+     * Resolves the columns of the source table to the values of the current item.
+     * Columns which are neither inserted nor part of the partition are NULL unless they are generated.
+     */
+    private static class RowResolver implements ReferenceResolver<Input<?>> {
+
+        private final ShardUpsertRequest request;
+        private final Map<ColumnIdent, Integer> insertColumns = new LinkedHashMap<>();
+        private final Map<ColumnIdent, BytesRef> partitionValues = new LinkedHashMap<>();
+        private Object[] insertValues;
+        private Map<String, Object> source;
+
+        RowResolver(DocTableInfo table, ShardUpsertRequest request) {
+            this.request = request;
+            Reference[] columns = request.insertColumns();
+            for (int i = 0; i < columns.length; i++) {
+                insertColumns.put(columns[i].column(), i);
+            }
+            if (table.isPartitioned()) {
+                List<BytesRef> values = PartitionName.fromIndexOrTemplate(request.index()).values();
+                List<ColumnIdent> partitionedBy = table.partitionedBy();
+                for (int i = 0; i < partitionedBy.size(); i++) {
+                    partitionValues.put(partitionedBy.get(i), values.get(i));
+                }
+            }
+        }
+
+        void setNextItem(ShardUpsertRequest.Item item) {
+            insertValues = item.insertValues();
+            source = null;
+            if (request.isRawSourceInsert()) {
+                BytesRef rawSource = (BytesRef) insertValues[0];
+                source = XContentHelper.convertToMap(new BytesArray(rawSource), false, XContentType.JSON).v2();
+            }
+        }
+
+        /**
+         * Replaces generated columns which are neither inserted nor part of the partition by their expression.
+         */
+        Symbol resolveGenerated(Symbol symbol) {
+            return RefReplacer.replaceRefs(symbol, ref -> {
+                if (ref instanceof GeneratedReference && !isProvided(ref.column())) {
+                    return resolveGenerated(((GeneratedReference) ref).generatedExpression());
+                }
+                return ref;
+            });
+        }
+
+        private boolean isProvided(ColumnIdent column) {
+            if (partitionValues.containsKey(column)) {
+                return true;
+            }
+            if (request.isRawSourceInsert()) {
+                return false;
+            }
+            return insertColumns.containsKey(column) || insertColumns.containsKey(column.getRoot());
+        }
+
+        @Override
+        public Input<?> getImplementation(Reference ref) {
+            ColumnIdent column = ref.column();
+            DataType type = ref.valueType();
+            BytesRef partitionValue = partitionValues.get(column);
+            if (partitionValue != null) {
+                Object value = type.value(partitionValue);
+                return () -> value;
+            }
+            if (request.isRawSourceInsert()) {
+                String path = column.fqn();
+                return () -> type.value(XContentMapValues.extractValue(path, source));
+            }
+            Integer index = insertColumns.get(column);
+            if (index != null) {
+                int i = index;
+                return () -> type.value(insertValues[i]);
+            }
+            Integer rootIndex = insertColumns.get(column.getRoot());
+            if (rootIndex != null) {
+                int i = rootIndex;
+                List<String> path = column.path();
+                return () -> type.value(extractValue(insertValues[i], path));
+            }
+            return () -> null;
+        }
+
+        private static Object extractValue(Object value, List<String> path) {
+            for (String key : path) {
+                if (!(value instanceof Map)) {
+                    return null;
+                }
+                value = ((Map) value).get(key);
+            }
+            return value;
+        }
+    }
+}
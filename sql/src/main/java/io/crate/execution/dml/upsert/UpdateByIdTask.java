@@ -32,6 +32,7 @@ import io.crate.metadata.Functions;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
 import io.crate.planner.node.dml.UpdateById;
+import org.elasticsearch.action.bulk.BulkRequestExecutor;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.index.shard.ShardId;
 
@@ -46,7 +47,7 @@ public class UpdateByIdTask {
 
     private final ClusterService clusterService;
     private final Functions functions;
-    private final TransportShardUpsertAction shardUpsertAction;
+    private final BulkRequestExecutor<ShardUpsertRequest> shardUpsertAction;
     private final UpdateById updateById;
     private final Function<Boolean, ShardUpsertRequest.Builder> createBuilder;
     private final Assignments assignments;
@@ -54,7 +55,7 @@ public class UpdateByIdTask {
     public UpdateByIdTask(UUID jobId,
                           ClusterService clusterService,
                           Functions functions,
-                          TransportShardUpsertAction shardUpsertAction,
+                          BulkRequestExecutor<ShardUpsertRequest> shardUpsertAction,
                           UpdateById updateById) {
         this.clusterService = clusterService;
         this.functions = functions;
@@ -39,7 +39,9 @@ import io.crate.execution.jobs.ExecutionSubContext;
 import io.crate.execution.jobs.JobContextService;
 import io.crate.execution.jobs.JobExecutionContext;
 import io.crate.execution.jobs.PageBucketReceiver;
+import io.crate.execution.jobs.QueryAdmissionController;
 import io.crate.execution.jobs.SharedShardContexts;
+import io.crate.execution.jobs.WorkloadClass;
 import io.crate.execution.jobs.kill.TransportKillJobsNodeAction;
 import io.crate.execution.jobs.transport.JobRequest;
 import io.crate.execution.jobs.transport.TransportJobAction;
@@ -108,6 +110,9 @@ public class ExecutionPhasesTask {
     private ContextPreparer contextPreparer;
     private final JobContextService jobContextService;
     private final IndicesService indicesService;
+    private final QueryAdmissionController admissionController;
+    private final long estimatedBytes;
+    private final WorkloadClass workloadClass;
 
     private boolean hasDirectResponse;
 
@@ -118,6 +123,9 @@ public class ExecutionPhasesTask {
                                IndicesService indicesService,
                                TransportJobAction transportJobAction,
                                TransportKillJobsNodeAction transportKillJobsNodeAction,
+                               QueryAdmissionController admissionController,
+                               long estimatedBytes,
+                               WorkloadClass workloadClass,
                                List<NodeOperationTree> nodeOperationTrees) {
         this.jobId = jobId;
         this.clusterService = clusterService;
@@ -126,6 +134,9 @@ public class ExecutionPhasesTask {
         this.indicesService = indicesService;
         this.transportJobAction = transportJobAction;
         this.transportKillJobsNodeAction = transportKillJobsNodeAction;
+        this.admissionController = admissionController;
+        this.estimatedBytes = estimatedBytes;
+        this.workloadClass = workloadClass;
         this.nodeOperationTrees = nodeOperationTrees;
 
         for (NodeOperationTree nodeOperationTree : nodeOperationTrees) {
@@ -145,11 +156,7 @@ public class ExecutionPhasesTask {
 
         List<ExecutionPhase> handlerPhases = Collections.singletonList(nodeOperationTree.leaf());
         List<RowConsumer> handlerConsumers = Collections.singletonList(consumer);
-        try {
-            setupContext(operationByServer, handlerPhases, handlerConsumers);
-        } catch (Throwable throwable) {
-            consumer.accept(null, throwable);
-        }
+        admitAndSetupContext(operationByServer, handlerPhases, handlerConsumers);
     }
 
     public List<CompletableFuture<Long>> executeBulk() {
@@ -173,14 +180,35 @@ public class ExecutionPhasesTask {
             results.add(consumer.resultFuture());
             handlerPhases.add(nodeOperationTree.leaf());
         }
-        try {
-            setupContext(operationByServer, handlerPhases, handlerConsumers);
-        } catch (Throwable throwable) {
-            return Collections.singletonList(CompletableFutures.failedFuture(throwable));
-        }
+        admitAndSetupContext(operationByServer, handlerPhases, handlerConsumers);
         return results;
     }
 
+    /**
+     * Sets up the job once it has been admitted by the {@link QueryAdmissionController}.
+     * The memory reserved for the job is released once the local job context is closed.
+     */
+    private void admitAndSetupContext(Map<String, Collection<NodeOperation>> operationByServer,
+                                      List<ExecutionPhase> handlerPhases,
+                                      List<RowConsumer> handlerConsumers) {
+        admissionController.admit(jobId, estimatedBytes).whenComplete((ignored, admissionFailure) -> {
+            if (admissionFailure != null) {
+                for (RowConsumer consumer : handlerConsumers) {
+                    consumer.accept(null, admissionFailure);
+                }
+                return;
+            }
+            try {
+                setupContext(operationByServer, handlerPhases, handlerConsumers);
+            } catch (Throwable throwable) {
+                admissionController.release(jobId);
+                for (RowConsumer consumer : handlerConsumers) {
+                    consumer.accept(null, throwable);
+                }
+            }
+        });
+    }
+
     private void setupContext(Map<String, Collection<NodeOperation>> operationByServer,
                               List<ExecutionPhase> handlerPhases,
                               List<RowConsumer> handlerConsumers) throws Throwable {
@@ -198,9 +226,11 @@ public class ExecutionPhasesTask {
             handlerPhases, handlerConsumers, initializationTracker);
 
         JobExecutionContext.Builder builder = jobContextService.newBuilder(jobId, localNodeId, operationByServer.keySet());
+        builder.workloadClass(workloadClass);
         List<CompletableFuture<Bucket>> directResponseFutures = contextPreparer.prepareOnHandler(
             localNodeOperations, builder, handlerPhaseAndReceiver, new SharedShardContexts(indicesService));
         JobExecutionContext localJobContext = jobContextService.createContext(builder);
+        localJobContext.completionFuture().whenComplete((r, f) -> admissionController.release(jobId));
 
         List<PageBucketReceiver> pageBucketReceivers = getHandlerBucketReceivers(localJobContext, handlerPhaseAndReceiver);
         int bucketIdx = 0;
@@ -273,7 +303,7 @@ public class ExecutionPhasesTask {
                                  InitializationTracker initializationTracker) {
         for (Map.Entry<String, Collection<NodeOperation>> entry : operationByServer.entrySet()) {
             String serverNodeId = entry.getKey();
-            JobRequest request = new JobRequest(jobId, localNodeId, entry.getValue());
+            JobRequest request = new JobRequest(jobId, localNodeId, entry.getValue(), workloadClass);
             if (hasDirectResponse) {
                 transportJobAction.execute(serverNodeId, request,
                     BucketForwarder.asActionListener(pageBucketReceivers, bucketIdx, initializationTracker));
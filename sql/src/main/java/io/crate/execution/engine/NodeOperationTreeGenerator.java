@@ -38,6 +38,7 @@ import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.CountPlan;
 import io.crate.planner.node.dql.QueryThenFetch;
 import io.crate.planner.node.dql.join.NestedLoop;
+import io.crate.planner.operators.Union;
 
 import javax.annotation.Nullable;
 import java.util.ArrayDeque;
@@ -233,24 +234,27 @@ public final class NodeOperationTreeGenerator extends ExecutionPlanVisitor<NodeO
     /**
      * Generates the {@link NodeOperation}s for executing Union.
      *
-     * We branch off for both sides of the Union with different input ids. In contrast
+     * We branch off for each source of the Union with different input ids. In contrast
      * to the {@code visitNestedLoop}, we don't have a special iterator which merges the
-     * result from both sides. The {@link DistributingConsumerFactory}
+     * result from all sources. The {@link DistributingConsumerFactory}
      * generates buckets ids based on the input id and the node id which creates all
-     * buckets required to merge the results of both branches.
+     * buckets required to merge the results of all branches.
      */
     @Override
     public Void visitUnionPlan(UnionExecutionPlan unionExecutionPlan, NodeOperationTreeContext context) {
         context.addPhase(unionExecutionPlan.mergePhase());
 
-        context.branch((byte) 0);
-        process(unionExecutionPlan.left(), context);
-        context.leaveBranch();
-
-        context.branch((byte) 1);
-        process(unionExecutionPlan.right(), context);
-        context.leaveBranch();
-
+        List<ExecutionPlan> sources = unionExecutionPlan.sources();
+        if (sources.size() > Union.MAX_SOURCES) {
+            // the planner splits larger unions into nested ones
+            throw new IllegalArgumentException(
+                "A union can have at most " + Union.MAX_SOURCES + " sources, got " + sources.size());
+        }
+        for (int i = 0; i < sources.size(); i++) {
+            context.branch((byte) i);
+            process(sources.get(i), context);
+            context.leaveBranch();
+        }
         return null;
     }
 
@@ -23,10 +23,14 @@
 package io.crate.execution.engine;
 
 import io.crate.execution.jobs.ContextPreparer;
+import io.crate.execution.jobs.JobMemoryEstimator;
+import io.crate.execution.jobs.QueryAdmissionController;
+import io.crate.execution.jobs.WorkloadClass;
 import io.crate.execution.jobs.transport.TransportJobAction;
 import io.crate.execution.jobs.kill.TransportKillJobsNodeAction;
 import io.crate.execution.jobs.JobContextService;
 import io.crate.execution.dsl.phases.NodeOperationTree;
+import io.crate.planner.TableStats;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
@@ -44,6 +48,8 @@ public final class PhasesTaskFactory {
     private final IndicesService indicesService;
     private final TransportJobAction jobAction;
     private final TransportKillJobsNodeAction killJobsNodeAction;
+    private final QueryAdmissionController admissionController;
+    private final TableStats tableStats;
 
     @Inject
     public PhasesTaskFactory(ClusterService clusterService,
@@ -51,16 +57,25 @@ public final class PhasesTaskFactory {
                              JobContextService jobContextService,
                              IndicesService indicesService,
                              TransportJobAction jobAction,
-                             TransportKillJobsNodeAction killJobsNodeAction) {
+                             TransportKillJobsNodeAction killJobsNodeAction,
+                             QueryAdmissionController admissionController,
+                             TableStats tableStats) {
         this.clusterService = clusterService;
         this.contextPreparer = contextPreparer;
         this.jobContextService = jobContextService;
         this.indicesService = indicesService;
         this.jobAction = jobAction;
         this.killJobsNodeAction = killJobsNodeAction;
+        this.admissionController = admissionController;
+        this.tableStats = tableStats;
     }
 
-    public ExecutionPhasesTask create(UUID jobId, List<NodeOperationTree> nodeOperationTreeList) {
+    public ExecutionPhasesTask create(UUID jobId,
+                                      WorkloadClass workloadClass,
+                                      List<NodeOperationTree> nodeOperationTreeList) {
+        long estimatedBytes = admissionController.isEnabled()
+            ? JobMemoryEstimator.estimate(nodeOperationTreeList, tableStats)
+            : 0L;
         return new ExecutionPhasesTask(
             jobId,
             clusterService,
@@ -69,6 +84,9 @@ public final class PhasesTaskFactory {
             indicesService,
             jobAction,
             killJobsNodeAction,
+            admissionController,
+            estimatedBytes,
+            workloadClass,
             nodeOperationTreeList
         );
     }
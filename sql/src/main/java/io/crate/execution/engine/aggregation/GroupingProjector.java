@@ -27,6 +27,7 @@ import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
+import io.crate.data.KillAwareBatchIterator;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.execution.engine.collect.CollectExpression;
@@ -95,7 +96,8 @@ public class GroupingProjector implements Projector {
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        // rows are aggregated until the source is exhausted, the wrapper allows to interrupt this with a kill
+        return CollectingBatchIterator.newInstance(new KillAwareBatchIterator<>(batchIterator), collector);
     }
 
     @Override
@@ -0,0 +1,247 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation.impl;
+
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.StringHelper;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Set of string or ip values.
+ *
+ * The values are appended to a single byte array, each prefixed by its length as vInt.
+ * Up to {@link #MAX_INLINE_VALUES} values are found by scanning this array; larger sets use a hash table with
+ * linear probing which holds the offsets of the values plus one, empty slots are 0.
+ */
+final class BytesRefCollectSetState extends CollectSetState {
+
+    private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(BytesRefCollectSetState.class);
+    private static final int INITIAL_TABLE_CAPACITY = 32;
+
+    static boolean supports(DataType type) {
+        return type.equals(DataTypes.STRING) || type.equals(DataTypes.IP);
+    }
+
+    private byte[] bytes = BytesRef.EMPTY_BYTES;
+    private int bytesUsed = 0;
+    private int[] table = null;
+    private int size = 0;
+
+    BytesRefCollectSetState(DataType innerType) {
+        super(innerType);
+    }
+
+    @Override
+    long ramBytesUsed() {
+        return SHALLOW_SIZE + sizeOfByteArray(bytes.length) + (table == null ? 0L : sizeOfIntArray(table.length));
+    }
+
+    @Override
+    long add(Object value) {
+        BytesRef bytesRef = (BytesRef) value;
+        return add(bytesRef.bytes, bytesRef.offset, bytesRef.length);
+    }
+
+    @Override
+    long addAll(CollectSetState other) {
+        BytesRefCollectSetState otherSet = (BytesRefCollectSetState) other;
+        long bytesAllocated = 0L;
+        int offset = 0;
+        while (offset < otherSet.bytesUsed) {
+            int length = readVInt(otherSet.bytes, offset);
+            int start = offset + vIntSize(length);
+            bytesAllocated += add(otherSet.bytes, start, length);
+            offset = start + length;
+        }
+        return bytesAllocated;
+    }
+
+    private long add(byte[] value, int valueOffset, int valueLength) {
+        int hash = 0;
+        if (table == null) {
+            int offset = 0;
+            while (offset < bytesUsed) {
+                if (equalsAt(offset, value, valueOffset, valueLength)) {
+                    return 0L;
+                }
+                offset = nextOffset(offset);
+            }
+        } else {
+            hash = hash(value, valueOffset, valueLength);
+            int mask = table.length - 1;
+            int slot = hash & mask;
+            while (table[slot] != 0) {
+                if (equalsAt(table[slot] - 1, value, valueOffset, valueLength)) {
+                    return 0L;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        long bytesBefore = ramBytesUsed();
+        int offset = append(value, valueOffset, valueLength);
+        size++;
+        if (table != null) {
+            insert(table, offset, hash);
+            // the table must keep at least 1/4 of its slots empty
+            if (size > table.length - (table.length >> 2)) {
+                rehash(table.length << 1);
+            }
+        } else if (size > MAX_INLINE_VALUES) {
+            rehash(INITIAL_TABLE_CAPACITY);
+        }
+        return ramBytesUsed() - bytesBefore;
+    }
+
+    private int append(byte[] value, int valueOffset, int valueLength) {
+        int offset = bytesUsed;
+        int required = offset + vIntSize(valueLength) + valueLength;
+        if (required > bytes.length) {
+            bytes = ArrayUtil.grow(bytes, required);
+        }
+        int pos = writeVInt(bytes, offset, valueLength);
+        System.arraycopy(value, valueOffset, bytes, pos, valueLength);
+        bytesUsed = required;
+        return offset;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        int offset = 0;
+        while (offset < bytesUsed) {
+            int length = readVInt(bytes, offset);
+            int start = offset + vIntSize(length);
+            insert(table, offset, hash(bytes, start, length));
+            offset = start + length;
+        }
+    }
+
+    private static void insert(int[] table, int offset, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = offset + 1;
+    }
+
+    private boolean equalsAt(int offset, byte[] value, int valueOffset, int valueLength) {
+        int length = readVInt(bytes, offset);
+        if (length != valueLength) {
+            return false;
+        }
+        int start = offset + vIntSize(length);
+        for (int i = 0; i < length; i++) {
+            if (bytes[start + i] != value[valueOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int nextOffset(int offset) {
+        int length = readVInt(bytes, offset);
+        return offset + vIntSize(length) + length;
+    }
+
+    private static int hash(byte[] value, int offset, int length) {
+        return StringHelper.murmurhash3_x86_32(value, offset, length, StringHelper.GOOD_FAST_HASH_SEED);
+    }
+
+    private static int vIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeVInt(byte[] dest, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            dest[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        dest[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static int readVInt(byte[] src, int pos) {
+        byte b = src[pos++];
+        int value = b & 0x7F;
+        for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            b = src[pos++];
+            value |= (b & 0x7F) << shift;
+        }
+        return value;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    Set<Object> toSet() {
+        Set<Object> set = new HashSet<>(size);
+        int offset = 0;
+        while (offset < bytesUsed) {
+            int length = readVInt(bytes, offset);
+            int start = offset + vIntSize(length);
+            set.add(new BytesRef(bytes, start, length));
+            offset = start + length;
+        }
+        return set;
+    }
+
+    @Override
+    void writeValues(StreamOutput out) throws IOException {
+        out.writeVInt(size);
+        out.writeVInt(bytesUsed);
+        out.writeBytes(bytes, 0, bytesUsed);
+    }
+
+    @Override
+    void readValues(StreamInput in) throws IOException {
+        size = in.readVInt();
+        bytesUsed = in.readVInt();
+        bytes = new byte[bytesUsed];
+        in.readBytes(bytes, 0, bytesUsed);
+        if (size > MAX_INLINE_VALUES) {
+            int capacity = INITIAL_TABLE_CAPACITY;
+            while (size > capacity - (capacity >> 2)) {
+                capacity <<= 1;
+            }
+            rehash(capacity);
+        }
+    }
+}
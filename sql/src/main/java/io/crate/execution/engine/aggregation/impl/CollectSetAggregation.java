@@ -23,12 +23,10 @@ package io.crate.execution.engine.aggregation.impl;
 
 import com.google.common.collect.ImmutableList;
 import io.crate.breaker.RamAccountingContext;
-import io.crate.breaker.SizeEstimator;
-import io.crate.breaker.SizeEstimatorFactory;
 import io.crate.data.Input;
+import io.crate.execution.engine.aggregation.AggregationFunction;
 import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
-import io.crate.execution.engine.aggregation.AggregationFunction;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import io.crate.types.SetType;
@@ -37,14 +35,17 @@ import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.util.BigArrays;
 
 import javax.annotation.Nullable;
-import java.util.HashSet;
 import java.util.Set;
 
-public class CollectSetAggregation extends AggregationFunction<Set<Object>, Set<Object>> {
+public class CollectSetAggregation extends AggregationFunction<CollectSetState, Set<Object>> {
 
     public static final String NAME = "collect_set";
-    private final SizeEstimator<Object> innerTypeEstimator;
 
+    static {
+        DataTypes.register(CollectSetStateType.ID, () -> CollectSetStateType.INSTANCE);
+    }
+
+    private final DataType innerType;
     private FunctionInfo info;
 
     public static void register(AggregationImplModule mod) {
@@ -56,7 +57,8 @@ public class CollectSetAggregation extends AggregationFunction<Set<Object>, Set<
     }
 
     CollectSetAggregation(FunctionInfo info) {
-        this.innerTypeEstimator = SizeEstimatorFactory.create(((SetType) info.returnType()).innerType());
+        this.innerType = ((SetType) info.returnType()).innerType();
+        assert CollectSetState.supports(innerType) : "collect_set doesn't support values of type " + innerType;
         this.info = info;
     }
 
@@ -66,47 +68,50 @@ public class CollectSetAggregation extends AggregationFunction<Set<Object>, Set<
     }
 
     @Override
-    public Set<Object> iterate(RamAccountingContext ramAccountingContext, Set<Object> state, Input... args) throws CircuitBreakingException {
+    public CollectSetState iterate(RamAccountingContext ramAccountingContext, CollectSetState state, Input... args) throws CircuitBreakingException {
         Object value = args[0].value();
         if (value == null) {
             return state;
         }
-        if (state.add(value)) {
-            ramAccountingContext.addBytes(
-                RamAccountingContext.roundUp(innerTypeEstimator.estimateSize(value) + 36L) // values size + 32 bytes for entry, 4 bytes for increased capacity
-            );
+        long bytes = state.add(value);
+        if (bytes > 0L) {
+            ramAccountingContext.addBytes(bytes);
         }
         return state;
     }
 
     @Nullable
     @Override
-    public Set<Object> newState(RamAccountingContext ramAccountingContext,
-                                Version indexVersionCreated,
-                                BigArrays bigArrays) {
-        ramAccountingContext.addBytes(RamAccountingContext.roundUp(64L)); // overhead for HashSet: 32 * 0 + 16 * 4 bytes
-        return new HashSet<>();
+    public CollectSetState newState(RamAccountingContext ramAccountingContext,
+                                    Version indexVersionCreated,
+                                    BigArrays bigArrays) {
+        CollectSetState state = CollectSetState.newState(innerType);
+        ramAccountingContext.addBytes(state.ramBytesUsed());
+        return state;
     }
 
     @Override
     public DataType partialType() {
-        return info.returnType();
+        return CollectSetStateType.INSTANCE;
     }
 
     @Override
-    public Set<Object> reduce(RamAccountingContext ramAccountingContext, Set<Object> state1, Set<Object> state2) {
-        for (Object newValue : state2) {
-            if (state1.add(newValue)) {
-                ramAccountingContext.addBytes(
-                    RamAccountingContext.roundUp(innerTypeEstimator.estimateSize(newValue) + 36L) // value size + 32 bytes for entry + 4 bytes for increased capacity
-                );
-            }
+    public CollectSetState reduce(RamAccountingContext ramAccountingContext, CollectSetState state1, CollectSetState state2) {
+        // merge the smaller set into the larger one to add as few values as possible
+        if (state2.size() > state1.size()) {
+            CollectSetState tmp = state1;
+            state1 = state2;
+            state2 = tmp;
+        }
+        long bytes = state1.addAll(state2);
+        if (bytes > 0L) {
+            ramAccountingContext.addBytes(bytes);
         }
         return state1;
     }
 
     @Override
-    public Set<Object> terminatePartial(RamAccountingContext ramAccountingContext, Set<Object> state) {
-        return state;
+    public Set<Object> terminatePartial(RamAccountingContext ramAccountingContext, CollectSetState state) {
+        return state.toSet();
     }
 }
@@ -0,0 +1,131 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation.impl;
+
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * State of the collect_set aggregation.
+ *
+ * Values are stored unboxed; numeric, boolean and timestamp values as longs and string and ip values as bytes.
+ * Sets with few values are stored in a single array which is scanned linearly, larger sets use open addressing.
+ * The methods which add values return the number of bytes which were allocated to store them,
+ * this allows an exact ram accounting.
+ */
+abstract class CollectSetState {
+
+    /**
+     * Number of values up to which a set is stored as an array without a hash table
+     */
+    static final int MAX_INLINE_VALUES = 8;
+
+    final DataType innerType;
+
+    CollectSetState(DataType innerType) {
+        this.innerType = innerType;
+    }
+
+    static boolean supports(DataType innerType) {
+        return LongCollectSetState.encodingOf(innerType) != null || BytesRefCollectSetState.supports(innerType);
+    }
+
+    static CollectSetState newState(DataType innerType) {
+        if (BytesRefCollectSetState.supports(innerType)) {
+            return new BytesRefCollectSetState(innerType);
+        }
+        return new LongCollectSetState(innerType);
+    }
+
+    /**
+     * @return the number of bytes the state uses
+     */
+    abstract long ramBytesUsed();
+
+    /**
+     * Adds a value which must not be null.
+     *
+     * @return the number of bytes which were allocated to add the value
+     */
+    abstract long add(Object value);
+
+    /**
+     * Adds all values of the other state, which must be of the same type.
+     *
+     * @return the number of bytes which were allocated to add the values
+     */
+    abstract long addAll(CollectSetState other);
+
+    abstract int size();
+
+    /**
+     * @return the values of the set as values of the inner type
+     */
+    abstract Set<Object> toSet();
+
+    abstract void writeValues(StreamOutput out) throws IOException;
+
+    abstract void readValues(StreamInput in) throws IOException;
+
+    static void write(CollectSetState state, StreamOutput out) throws IOException {
+        DataTypes.toStream(state.innerType, out);
+        state.writeValues(out);
+    }
+
+    static CollectSetState read(StreamInput in) throws IOException {
+        CollectSetState state = newState(DataTypes.fromStream(in));
+        state.readValues(in);
+        return state;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CollectSetState that = (CollectSetState) o;
+        return innerType.equals(that.innerType) && toSet().equals(that.toSet());
+    }
+
+    @Override
+    public int hashCode() {
+        return toSet().hashCode();
+    }
+
+    static long sizeOfLongArray(int length) {
+        return RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) Long.BYTES * length);
+    }
+
+    static long sizeOfIntArray(int length) {
+        return RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) Integer.BYTES * length);
+    }
+
+    static long sizeOfByteArray(int length) {
+        return RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) length);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation.impl;
+
+import io.crate.Streamer;
+import io.crate.types.DataType;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+class CollectSetStateType extends DataType<CollectSetState> implements Streamer<CollectSetState> {
+
+    static final int ID = 5121;
+    static final CollectSetStateType INSTANCE = new CollectSetStateType();
+
+    private CollectSetStateType() {
+    }
+
+    @Override
+    public CollectSetState readValueFrom(StreamInput in) throws IOException {
+        return CollectSetState.read(in);
+    }
+
+    @Override
+    public void writeValueTo(StreamOutput out, Object v) throws IOException {
+        CollectSetState.write((CollectSetState) v, out);
+    }
+
+    @Override
+    public int id() {
+        return ID;
+    }
+
+    @Override
+    public Precedence precedence() {
+        return Precedence.Custom;
+    }
+
+    @Override
+    public String getName() {
+        return "collect_set_state";
+    }
+
+    @Override
+    public Streamer<?> streamer() {
+        return this;
+    }
+
+    @Override
+    public CollectSetState value(Object value) throws IllegalArgumentException, ClassCastException {
+        return (CollectSetState) value;
+    }
+
+    @Override
+    public int compareValueTo(CollectSetState val1, CollectSetState val2) {
+        return 0;
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation.impl;
+
+import com.carrotsearch.hppc.BitMixer;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Set of values which can be encoded as longs.
+ *
+ * Up to {@link #MAX_INLINE_VALUES} values are stored in insertion order at the start of {@link #values}.
+ * Larger sets use {@link #values} as hash table with linear probing, empty slots are 0.
+ * A 0 value is tracked by {@link #containsZero} in this case.
+ */
+final class LongCollectSetState extends CollectSetState {
+
+    private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(LongCollectSetState.class);
+    private static final int INITIAL_INLINE_CAPACITY = 2;
+    private static final int INITIAL_TABLE_CAPACITY = 32;
+
+    enum Encoding {
+        INTEGRAL {
+            @Override
+            long encode(Object value) {
+                return ((Number) value).longValue();
+            }
+
+            @Override
+            Object decode(DataType type, long value) {
+                return type.value(value);
+            }
+
+            @Override
+            void write(StreamOutput out, long value) throws IOException {
+                out.writeZLong(value);
+            }
+
+            @Override
+            long read(StreamInput in) throws IOException {
+                return in.readZLong();
+            }
+        },
+        BOOLEAN {
+            @Override
+            long encode(Object value) {
+                return (Boolean) value ? 1L : 0L;
+            }
+
+            @Override
+            Object decode(DataType type, long value) {
+                return value != 0L;
+            }
+
+            @Override
+            void write(StreamOutput out, long value) throws IOException {
+                out.writeByte((byte) value);
+            }
+
+            @Override
+            long read(StreamInput in) throws IOException {
+                return in.readByte();
+            }
+        },
+        FLOAT {
+            @Override
+            long encode(Object value) {
+                return Float.floatToIntBits(((Number) value).floatValue());
+            }
+
+            @Override
+            Object decode(DataType type, long value) {
+                return Float.intBitsToFloat((int) value);
+            }
+
+            @Override
+            void write(StreamOutput out, long value) throws IOException {
+                out.writeInt((int) value);
+            }
+
+            @Override
+            long read(StreamInput in) throws IOException {
+                return in.readInt();
+            }
+        },
+        DOUBLE {
+            @Override
+            long encode(Object value) {
+                return Double.doubleToLongBits(((Number) value).doubleValue());
+            }
+
+            @Override
+            Object decode(DataType type, long value) {
+                return Double.longBitsToDouble(value);
+            }
+
+            @Override
+            void write(StreamOutput out, long value) throws IOException {
+                out.writeLong(value);
+            }
+
+            @Override
+            long read(StreamInput in) throws IOException {
+                return in.readLong();
+            }
+        };
+
+        abstract long encode(Object value);
+
+        abstract Object decode(DataType type, long value);
+
+        abstract void write(StreamOutput out, long value) throws IOException;
+
+        abstract long read(StreamInput in) throws IOException;
+    }
+
+    @Nullable
+    static Encoding encodingOf(DataType type) {
+        if (type.equals(DataTypes.BYTE) || type.equals(DataTypes.SHORT) || type.equals(DataTypes.INTEGER)
+            || type.equals(DataTypes.LONG) || type.equals(DataTypes.TIMESTAMP)) {
+            return Encoding.INTEGRAL;
+        }
+        if (type.equals(DataTypes.BOOLEAN)) {
+            return Encoding.BOOLEAN;
+        }
+        if (type.equals(DataTypes.FLOAT)) {
+            return Encoding.FLOAT;
+        }
+        if (type.equals(DataTypes.DOUBLE)) {
+            return Encoding.DOUBLE;
+        }
+        return null;
+    }
+
+    private final Encoding encoding;
+    private long[] values = new long[INITIAL_INLINE_CAPACITY];
+    private boolean hashed = false;
+    private boolean containsZero = false;
+    private int size = 0;
+
+    LongCollectSetState(DataType innerType) {
+        super(innerType);
+        Encoding encoding = encodingOf(innerType);
+        if (encoding == null) {
+            throw new IllegalArgumentException("Values of type " + innerType + " cannot be encoded as long");
+        }
+        this.encoding = encoding;
+    }
+
+    @Override
+    long ramBytesUsed() {
+        return SHALLOW_SIZE + sizeOfLongArray(values.length);
+    }
+
+    @Override
+    long add(Object value) {
+        return addEncoded(encoding.encode(value));
+    }
+
+    @Override
+    long addAll(CollectSetState other) {
+        LongCollectSetState otherSet = (LongCollectSetState) other;
+        long bytes = 0L;
+        if (otherSet.hashed) {
+            if (otherSet.containsZero) {
+                bytes += addEncoded(0L);
+            }
+            for (long value : otherSet.values) {
+                if (value != 0L) {
+                    bytes += addEncoded(value);
+                }
+            }
+        } else {
+            for (int i = 0; i < otherSet.size; i++) {
+                bytes += addEncoded(otherSet.values[i]);
+            }
+        }
+        return bytes;
+    }
+
+    private long addEncoded(long value) {
+        if (hashed) {
+            return addToTable(value);
+        }
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return 0L;
+            }
+        }
+        if (size < values.length) {
+            values[size++] = value;
+            return 0L;
+        }
+        long bytesBefore = sizeOfLongArray(values.length);
+        if (values.length < MAX_INLINE_VALUES) {
+            long[] newValues = new long[Math.min(values.length * 2, MAX_INLINE_VALUES)];
+            System.arraycopy(values, 0, newValues, 0, size);
+            values = newValues;
+            values[size++] = value;
+        } else {
+            long[] inlineValues = values;
+            int inlineSize = size;
+            values = new long[INITIAL_TABLE_CAPACITY];
+            hashed = true;
+            size = 0;
+            for (int i = 0; i < inlineSize; i++) {
+                addToTable(inlineValues[i]);
+            }
+            addToTable(value);
+        }
+        return sizeOfLongArray(values.length) - bytesBefore;
+    }
+
+    private long addToTable(long value) {
+        if (value == 0L) {
+            if (containsZero) {
+                return 0L;
+            }
+            containsZero = true;
+            size++;
+            return 0L;
+        }
+        if (insert(values, value) == false) {
+            return 0L;
+        }
+        size++;
+        // the table must keep at least 1/4 of its slots empty
+        if (size > values.length - (values.length >> 2)) {
+            long bytesBefore = sizeOfLongArray(values.length);
+            long[] newValues = new long[values.length << 1];
+            for (long existing : values) {
+                if (existing != 0L) {
+                    insert(newValues, existing);
+                }
+            }
+            values = newValues;
+            return sizeOfLongArray(values.length) - bytesBefore;
+        }
+        return 0L;
+    }
+
+    /**
+     * @return true if the value was added, false if it was already in the table
+     */
+    private static boolean insert(long[] table, long value) {
+        int mask = table.length - 1;
+        int slot = (int) BitMixer.mix64(value) & mask;
+        while (table[slot] != 0L) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        return true;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    Set<Object> toSet() {
+        Set<Object> set = new HashSet<>(size);
+        if (hashed) {
+            if (containsZero) {
+                set.add(encoding.decode(innerType, 0L));
+            }
+            for (long value : values) {
+                if (value != 0L) {
+                    set.add(encoding.decode(innerType, value));
+                }
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                set.add(encoding.decode(innerType, values[i]));
+            }
+        }
+        return set;
+    }
+
+    @Override
+    void writeValues(StreamOutput out) throws IOException {
+        out.writeVInt(size);
+        if (hashed) {
+            if (containsZero) {
+                encoding.write(out, 0L);
+            }
+            for (long value : values) {
+                if (value != 0L) {
+                    encoding.write(out, value);
+                }
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                encoding.write(out, values[i]);
+            }
+        }
+    }
+
+    @Override
+    void readValues(StreamInput in) throws IOException {
+        int numValues = in.readVInt();
+        for (int i = 0; i < numValues; i++) {
+            addEncoded(encoding.read(in));
+        }
+    }
+}
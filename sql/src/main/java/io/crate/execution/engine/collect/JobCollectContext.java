@@ -31,6 +31,7 @@ import io.crate.execution.dsl.phases.CollectPhase;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.jobs.AbstractExecutionSubContext;
 import io.crate.execution.jobs.SharedShardContexts;
+import io.crate.execution.jobs.WorkloadClass;
 import io.crate.metadata.RowGranularity;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.common.StopWatch;
@@ -51,6 +52,7 @@ public class JobCollectContext extends AbstractExecutionSubContext {
     private final RamAccountingContext queryPhaseRamAccountingContext;
     private final ListenableRowConsumer consumer;
     private final SharedShardContexts sharedShardContexts;
+    private final WorkloadClass workloadClass;
 
     private final IntObjectHashMap<Engine.Searcher> searchers = new IntObjectHashMap<>();
     private final Object subContextLock = new Object();
@@ -62,15 +64,17 @@ public class JobCollectContext extends AbstractExecutionSubContext {
                              MapSideDataCollectOperation collectOperation,
                              RamAccountingContext queryPhaseRamAccountingContext,
                              RowConsumer consumer,
-                             SharedShardContexts sharedShardContexts) {
+                             SharedShardContexts sharedShardContexts,
+                             WorkloadClass workloadClass) {
         super(collectPhase.phaseId(), LOGGER);
         this.collectPhase = collectPhase;
         this.collectOperation = collectOperation;
         this.queryPhaseRamAccountingContext = queryPhaseRamAccountingContext;
         this.sharedShardContexts = sharedShardContexts;
+        this.workloadClass = workloadClass;
         this.consumer = new ListenableRowConsumer(consumer);
         this.consumer.completionFuture().whenComplete((result, ex) -> close(ex));
-        this.threadPoolName = threadPoolName(collectPhase);
+        this.threadPoolName = threadPoolName(collectPhase, workloadClass);
     }
 
     public void addSearcher(int searcherId, Engine.Searcher searcher) {
@@ -166,8 +170,12 @@ public class JobCollectContext extends AbstractExecutionSubContext {
         return sharedShardContexts;
     }
 
+    public WorkloadClass workloadClass() {
+        return workloadClass;
+    }
+
     @VisibleForTesting
-    static String threadPoolName(CollectPhase phase) {
+    static String threadPoolName(CollectPhase phase, WorkloadClass workloadClass) {
         if (phase instanceof RoutedCollectPhase) {
             RoutedCollectPhase collectPhase = (RoutedCollectPhase) phase;
             if (collectPhase.maxRowGranularity() == RowGranularity.NODE
@@ -178,6 +186,6 @@ public class JobCollectContext extends AbstractExecutionSubContext {
         }
 
         // Anything else like doc tables, INFORMATION_SCHEMA tables or sys.cluster table collector, partition collector
-        return ThreadPool.Names.SEARCH;
+        return workloadClass.executorName();
     }
 }
@@ -26,6 +26,8 @@ import io.crate.Constants;
 import io.crate.data.BatchIterator;
 import io.crate.data.InMemoryBatchIterator;
 import io.crate.planner.operators.PKAndVersion;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.VersionType;
@@ -35,49 +37,202 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardNotFoundException;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.threadpool.ThreadPool;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
+/**
+ * Looks up documents by their primary key on the shards of the local node.
+ *
+ * If {@link #COALESCE_WINDOW_SETTING} is set, lookups of concurrent statements which arrive within the window
+ * are executed together on the GET thread pool, so ids requested by more than one statement are only read once.
+ * The reads of a coalesced batch run concurrently, one task per shard.
+ */
 public final class PKLookupOperation {
 
-    private final IndicesService indicesService;
+    public static final Setting<TimeValue> COALESCE_WINDOW_SETTING = Setting.positiveTimeSetting(
+        "node.sql.pk_lookup.coalesce_window",
+        TimeValue.timeValueMillis(0),
+        Setting.Property.NodeScope);
+
+    /**
+     * Resolves a shard to a function which reads a document from it.
+     * Throws {@link IndexNotFoundException} or {@link ShardNotFoundException} if the shard is not available.
+     */
+    @FunctionalInterface
+    interface ShardReader {
+        Function<PKAndVersion, GetResult> forShard(ShardId shardId);
+    }
+
+    private final ShardReader shardReader;
+    private final ThreadPool threadPool;
+    private final TimeValue coalesceWindow;
+    private final Object pendingLock = new Object();
+    private List<PendingLookup> pendingLookups = new ArrayList<>();
+
+    public PKLookupOperation(IndicesService indicesService, ThreadPool threadPool, TimeValue coalesceWindow) {
+        this(shardId -> {
+            IndexShard shard = getShard(indicesService, shardId);
+            return pkAndVersion -> get(shard, pkAndVersion);
+        }, threadPool, coalesceWindow);
+    }
+
+    PKLookupOperation(ShardReader shardReader, ThreadPool threadPool, TimeValue coalesceWindow) {
+        this.shardReader = shardReader;
+        this.threadPool = threadPool;
+        this.coalesceWindow = coalesceWindow;
+    }
 
-    public PKLookupOperation(IndicesService indicesService) {
-        this.indicesService = indicesService;
+    public CompletableFuture<BatchIterator<GetResult>> lookup(boolean ignoreMissing,
+                                                              Map<ShardId, List<PKAndVersion>> idsByShard) {
+        if (coalesceWindow.millis() <= 0) {
+            return CompletableFuture.completedFuture(lookupNow(ignoreMissing, idsByShard));
+        }
+        PendingLookup lookup = new PendingLookup(ignoreMissing, idsByShard);
+        boolean isFirstOfBatch;
+        synchronized (pendingLock) {
+            isFirstOfBatch = pendingLookups.isEmpty();
+            pendingLookups.add(lookup);
+        }
+        if (isFirstOfBatch) {
+            threadPool.schedule(coalesceWindow, ThreadPool.Names.GET, this::executePendingLookups);
+        }
+        return lookup.result;
     }
 
-    public BatchIterator<GetResult> lookup(boolean ignoreMissing, Map<ShardId, List<PKAndVersion>> idsByShard) {
+    private BatchIterator<GetResult> lookupNow(boolean ignoreMissing, Map<ShardId, List<PKAndVersion>> idsByShard) {
         Stream<GetResult> getResultStream = idsByShard.entrySet().stream()
             .flatMap(entry -> {
-                ShardId shardId = entry.getKey();
-                IndexService indexService = indicesService.indexService(shardId.getIndex());
-                if (indexService == null) {
-                    if (ignoreMissing) {
-                        return Stream.empty();
-                    }
-                    throw new IndexNotFoundException(shardId.getIndex());
-                }
-                IndexShard shard = indexService.getShardOrNull(shardId.id());
-                if (shard == null) {
+                Function<PKAndVersion, GetResult> reader;
+                try {
+                    reader = shardReader.forShard(entry.getKey());
+                } catch (IndexNotFoundException | ShardNotFoundException e) {
                     if (ignoreMissing) {
                         return Stream.empty();
                     }
-                    throw new ShardNotFoundException(shardId);
+                    throw e;
                 }
                 return entry.getValue().stream()
-                    .map(pkAndVersion -> shard.getService().get(
-                        Constants.DEFAULT_MAPPING_TYPE,
-                        pkAndVersion.id(),
-                        new String[0],
-                        true,
-                        pkAndVersion.version(),
-                        VersionType.EXTERNAL,
-                        FetchSourceContext.FETCH_SOURCE
-                    ))
+                    .map(reader)
                     .filter(GetResult::isExists);
             });
         return InMemoryBatchIterator.of(getResultStream::iterator, null);
     }
+
+    private void executePendingLookups() {
+        List<PendingLookup> lookups;
+        synchronized (pendingLock) {
+            lookups = pendingLookups;
+            pendingLookups = new ArrayList<>();
+        }
+        Map<ShardId, Set<PKAndVersion>> idsByShard = new HashMap<>();
+        for (PendingLookup lookup : lookups) {
+            for (Map.Entry<ShardId, List<PKAndVersion>> entry : lookup.idsByShard.entrySet()) {
+                idsByShard.computeIfAbsent(entry.getKey(), k -> new LinkedHashSet<>()).addAll(entry.getValue());
+            }
+        }
+        Executor executor = threadPool.executor(ThreadPool.Names.GET);
+        Map<ShardId, CompletableFuture<Map<PKAndVersion, GetResult>>> resultsByShard = new HashMap<>();
+        for (Map.Entry<ShardId, Set<PKAndVersion>> entry : idsByShard.entrySet()) {
+            CompletableFuture<Map<PKAndVersion, GetResult>> shardResults;
+            try {
+                shardResults = CompletableFuture.supplyAsync(
+                    () -> readShard(entry.getKey(), entry.getValue()), executor);
+            } catch (Throwable t) {
+                shardResults = new CompletableFuture<>();
+                shardResults.completeExceptionally(t);
+            }
+            resultsByShard.put(entry.getKey(), shardResults);
+        }
+        CompletableFuture.allOf(resultsByShard.values().toArray(new CompletableFuture[0]))
+            .whenComplete((ignored, ignoredFailure) -> {
+                for (PendingLookup lookup : lookups) {
+                    lookup.complete(resultsByShard);
+                }
+            });
+    }
+
+    private Map<PKAndVersion, GetResult> readShard(ShardId shardId, Set<PKAndVersion> ids) {
+        Function<PKAndVersion, GetResult> reader = shardReader.forShard(shardId);
+        Map<PKAndVersion, GetResult> results = new HashMap<>(ids.size());
+        for (PKAndVersion pkAndVersion : ids) {
+            results.put(pkAndVersion, reader.apply(pkAndVersion));
+        }
+        return results;
+    }
+
+    private static IndexShard getShard(IndicesService indicesService, ShardId shardId) {
+        IndexService indexService = indicesService.indexService(shardId.getIndex());
+        if (indexService == null) {
+            throw new IndexNotFoundException(shardId.getIndex());
+        }
+        IndexShard shard = indexService.getShardOrNull(shardId.id());
+        if (shard == null) {
+            throw new ShardNotFoundException(shardId);
+        }
+        return shard;
+    }
+
+    private static GetResult get(IndexShard shard, PKAndVersion pkAndVersion) {
+        return shard.getService().get(
+            Constants.DEFAULT_MAPPING_TYPE,
+            pkAndVersion.id(),
+            new String[0],
+            true,
+            pkAndVersion.version(),
+            VersionType.EXTERNAL,
+            FetchSourceContext.FETCH_SOURCE
+        );
+    }
+
+    private static final class PendingLookup {
+
+        private final boolean ignoreMissing;
+        private final Map<ShardId, List<PKAndVersion>> idsByShard;
+        private final CompletableFuture<BatchIterator<GetResult>> result = new CompletableFuture<>();
+
+        PendingLookup(boolean ignoreMissing, Map<ShardId, List<PKAndVersion>> idsByShard) {
+            this.ignoreMissing = ignoreMissing;
+            this.idsByShard = idsByShard;
+        }
+
+        /**
+         * Completes the lookup from the results of all shards of the batch; must only be called once every
+         * shard future is done.
+         */
+        void complete(Map<ShardId, CompletableFuture<Map<PKAndVersion, GetResult>>> resultsByShard) {
+            List<GetResult> results = new ArrayList<>();
+            for (Map.Entry<ShardId, List<PKAndVersion>> entry : idsByShard.entrySet()) {
+                Map<PKAndVersion, GetResult> shardResults;
+                try {
+                    shardResults = resultsByShard.get(entry.getKey()).join();
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause();
+                    if (ignoreMissing
+                        && (cause instanceof IndexNotFoundException || cause instanceof ShardNotFoundException)) {
+                        continue;
+                    }
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                for (PKAndVersion pkAndVersion : entry.getValue()) {
+                    GetResult getResult = shardResults.get(pkAndVersion);
+                    if (getResult.isExists()) {
+                        results.add(getResult);
+                    }
+                }
+            }
+            result.complete(InMemoryBatchIterator.<GetResult>of(results, null));
+        }
+    }
 }
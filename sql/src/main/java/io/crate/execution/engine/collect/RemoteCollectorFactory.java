@@ -95,7 +95,7 @@ public class RemoteCollectorFactory {
             indicesService,
             getLocalCollectorProvider(shardCollectorProviderFactory, collectPhase, jobCollectContext, consumer),
             getRemoteCollectorProvider(childJobId, shardId, collectPhase, jobCollectContext, consumer),
-            threadPool.executor(ThreadPool.Names.SEARCH),
+            threadPool.executor(jobCollectContext.workloadClass().executorName()),
             threadPool.getThreadContext());
     }
 
@@ -38,6 +38,7 @@ import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TwoPhaseIterator;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.Bits;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
@@ -55,9 +56,15 @@ import java.util.concurrent.CompletionStage;
  * It supports filtering the data using a lucene {@link Query} or via {@code minScore}.
  * <p>
  * Row data depends on {@code inputs} and {@code expressions}. The data is unordered.
+ * <p>
+ * A kill is checked every {@link #KILL_CHECK_INTERVAL} inspected documents, so that a query which skips many
+ * documents, e.g. because of an expensive filter which is evaluated per document, can be interrupted without
+ * having to wait until the next matching document is found.
  */
 public class LuceneBatchIterator implements BatchIterator<Row> {
 
+    static final int KILL_CHECK_INTERVAL = 1024;
+
     private final IndexSearcher indexSearcher;
     private final Query query;
     private final CollectorContext collectorContext;
@@ -74,6 +81,9 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
     private LeafReaderContext currentLeaf;
     private Scorer currentScorer;
     private DocIdSetIterator currentDocIdSetIt;
+    @Nullable
+    private TwoPhaseIterator currentTwoPhaseIt;
+    private int numInspectedDocs = 0;
     private boolean closed = false;
     private volatile Throwable killed;
 
@@ -133,7 +143,10 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
             Bits liveDocs = reader.getLiveDocs();
             int doc;
             while ((doc = currentDocIdSetIt.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
-                if (docDeleted(liveDocs, doc) || belowMinScore(currentScorer)) {
+                if (++numInspectedDocs % KILL_CHECK_INTERVAL == 0) {
+                    raiseIfKilled();
+                }
+                if (docDeleted(liveDocs, doc) || noMatch(currentTwoPhaseIt) || belowMinScore(currentScorer)) {
                     continue;
                 }
                 onDoc(doc, reader);
@@ -145,6 +158,10 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
         return false;
     }
 
+    private static boolean noMatch(@Nullable TwoPhaseIterator twoPhaseIt) throws IOException {
+        return twoPhaseIt != null && twoPhaseIt.matches() == false;
+    }
+
     private boolean belowMinScore(Scorer currentScorer) throws IOException {
         return minScore != null && currentScorer.score() < minScore;
     }
@@ -161,7 +178,10 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
             }
             currentScorer = scorer;
             currentLeaf = leaf;
-            currentDocIdSetIt = scorer.iterator();
+            // iterate over the approximation and confirm the matches here, instead of within scorer.iterator(),
+            // so that a kill is also noticed while many approximated documents don't match
+            currentTwoPhaseIt = scorer.twoPhaseIterator();
+            currentDocIdSetIt = currentTwoPhaseIt == null ? scorer.iterator() : currentTwoPhaseIt.approximation();
             for (LuceneCollectorExpression expression : expressions) {
                 expression.setScorer(currentScorer);
                 expression.setNextReader(currentLeaf);
@@ -173,6 +193,7 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
 
     private void clearState() {
         currentDocIdSetIt = null;
+        currentTwoPhaseIt = null;
         currentScorer = null;
         currentLeaf = null;
     }
@@ -230,10 +251,15 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
         }
     }
 
-    private void raiseIfClosedOrKilled() {
-        if (killed != null) {
-            Exceptions.rethrowUnchecked(killed);
+    private void raiseIfKilled() {
+        Throwable throwable = killed;
+        if (throwable != null) {
+            Exceptions.rethrowUnchecked(throwable);
         }
+    }
+
+    private void raiseIfClosedOrKilled() {
+        raiseIfKilled();
         if (closed) {
             throw new IllegalStateException("BatchIterator is closed");
         }
@@ -53,6 +53,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -68,6 +69,7 @@ public class NodeStatsIterator implements BatchIterator<Row> {
     private final TransportNodeStatsAction transportStatTablesAction;
     private final RoutedCollectPhase collectPhase;
     private final Collection<DiscoveryNode> nodes;
+    private final Map<String, NodeStatsContext> snapshots;
     private final InputFactory inputFactory;
     private CompletableFuture<Iterable<Row>> loading;
     private Iterable<Row> rows = Collections.emptyList();
@@ -77,10 +79,12 @@ public class NodeStatsIterator implements BatchIterator<Row> {
     private NodeStatsIterator(TransportNodeStatsAction transportStatTablesAction,
                               RoutedCollectPhase collectPhase,
                               Collection<DiscoveryNode> nodes,
+                              Map<String, NodeStatsContext> snapshots,
                               InputFactory inputFactory) {
         this.transportStatTablesAction = transportStatTablesAction;
         this.collectPhase = collectPhase;
         this.nodes = nodes;
+        this.snapshots = snapshots;
         this.inputFactory = inputFactory;
     }
 
@@ -88,7 +92,19 @@ public class NodeStatsIterator implements BatchIterator<Row> {
                                                  RoutedCollectPhase collectPhase,
                                                  Collection<DiscoveryNode> nodes,
                                                  InputFactory inputFactory) {
-        NodeStatsIterator delegate = new NodeStatsIterator(transportStatTablesAction, collectPhase, nodes, inputFactory);
+        return newInstance(transportStatTablesAction, collectPhase, nodes, Collections.emptyMap(), inputFactory);
+    }
+
+    /**
+     * @param snapshots published statistics by node id. The statistics of these nodes are not requested.
+     */
+    public static BatchIterator<Row> newInstance(TransportNodeStatsAction transportStatTablesAction,
+                                                 RoutedCollectPhase collectPhase,
+                                                 Collection<DiscoveryNode> nodes,
+                                                 Map<String, NodeStatsContext> snapshots,
+                                                 InputFactory inputFactory) {
+        NodeStatsIterator delegate = new NodeStatsIterator(
+            transportStatTablesAction, collectPhase, nodes, snapshots, inputFactory);
         return new CloseAssertingBatchIterator<>(delegate);
     }
 
@@ -133,8 +149,21 @@ public class NodeStatsIterator implements BatchIterator<Row> {
     private CompletableFuture<List<NodeStatsContext>> getNodeStatsContextFromRemoteState(Set<ColumnIdent> toCollect) {
         final CompletableFuture<List<NodeStatsContext>> nodeStatsContextsFuture = new CompletableFuture<>();
         final List<NodeStatsContext> rows = Collections.synchronizedList(new ArrayList<NodeStatsContext>(nodes.size()));
-        final AtomicInteger remainingNodesToCollect = new AtomicInteger(nodes.size());
-        for (final DiscoveryNode node : nodes) {
+        final List<DiscoveryNode> nodesToRequest = new ArrayList<>(nodes.size());
+        for (DiscoveryNode node : nodes) {
+            NodeStatsContext snapshot = snapshots.get(node.getId());
+            if (snapshot == null) {
+                nodesToRequest.add(node);
+            } else {
+                rows.add(snapshot);
+            }
+        }
+        if (nodesToRequest.isEmpty()) {
+            nodeStatsContextsFuture.complete(rows);
+            return nodeStatsContextsFuture;
+        }
+        final AtomicInteger remainingNodesToCollect = new AtomicInteger(nodesToRequest.size());
+        for (final DiscoveryNode node : nodesToRequest) {
             final String nodeId = node.getId();
             final NodeStatsRequest request = new NodeStatsRequest(toCollect);
             transportStatTablesAction.execute(nodeId, request, new ActionListener<NodeStatsResponse>() {
@@ -168,7 +168,8 @@ public class RemoteCollector implements CrateCollector {
             pagingIterator,
             DataTypes.getStreamers(collectPhase.outputTypes()),
             ramAccountingContext,
-            1
+            1,
+            false
         ));
         return builder;
     }
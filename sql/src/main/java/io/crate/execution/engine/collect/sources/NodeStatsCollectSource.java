@@ -29,6 +29,7 @@ import io.crate.analyze.WhereClause;
 import io.crate.expression.symbol.Symbol;
 import io.crate.data.BatchIterator;
 import io.crate.data.RowConsumer;
+import io.crate.execution.engine.collect.stats.NodeStatsSnapshotService;
 import io.crate.execution.engine.collect.stats.TransportNodeStatsAction;
 import io.crate.metadata.Functions;
 import io.crate.metadata.LocalSysColReferenceResolver;
@@ -52,21 +53,27 @@ import org.elasticsearch.common.inject.Singleton;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Singleton
 public class NodeStatsCollectSource implements CollectSource {
 
     private final TransportNodeStatsAction nodeStatsAction;
+    private final NodeStatsSnapshotService nodeStatsSnapshotService;
     private final ClusterService clusterService;
     private final Functions functions;
     private final InputFactory inputFactory;
 
     @Inject
     public NodeStatsCollectSource(TransportNodeStatsAction nodeStatsAction,
+                                  NodeStatsSnapshotService nodeStatsSnapshotService,
                                   ClusterService clusterService,
                                   Functions functions) {
         this.nodeStatsAction = nodeStatsAction;
+        this.nodeStatsSnapshotService = nodeStatsSnapshotService;
         this.clusterService = clusterService;
         this.inputFactory = new InputFactory(functions);
         this.functions = functions;
@@ -88,6 +95,7 @@ public class NodeStatsCollectSource implements CollectSource {
             nodeStatsAction,
             collectPhase,
             nodes,
+            snapshots(collectPhase.whereClause(), nodes, nodeStatsSnapshotService::snapshot, functions),
             inputFactory
         );
         return BatchIteratorCollectorBridge.newInstance(nodeStatsIterator, consumer);
@@ -125,4 +133,38 @@ public class NodeStatsCollectSource implements CollectSource {
         }
         return newNodes;
     }
+
+    /**
+     * Returns the published statistics of the nodes which can be used instead of requesting the statistics.
+     * If the query filters on the age of the statistics, e.g. <code>stats_age &lt; 1000</code>, snapshots which
+     * don't match are not used, so that the current statistics of these nodes are requested instead.
+     */
+    static Map<String, NodeStatsContext> snapshots(WhereClause whereClause,
+                                                   Collection<DiscoveryNode> nodes,
+                                                   Function<String, NodeStatsContext> snapshotLookup,
+                                                   Functions functions) {
+        Map<String, NodeStatsContext> snapshots = new HashMap<>();
+        LocalSysColReferenceResolver statsAgeResolver = null;
+        EvaluatingNormalizer normalizer = null;
+        if (whereClause.hasQuery()) {
+            statsAgeResolver = new LocalSysColReferenceResolver(ImmutableList.of(SysNodesTableInfo.Columns.STATS_AGE));
+            normalizer = new EvaluatingNormalizer(functions, RowGranularity.DOC, statsAgeResolver, null);
+        }
+        for (DiscoveryNode node : nodes) {
+            NodeStatsContext snapshot = snapshotLookup.apply(node.getId());
+            if (snapshot == null) {
+                continue;
+            }
+            if (normalizer != null) {
+                for (RowCollectExpression<NodeStatsContext, ?> expression : statsAgeResolver.expressions()) {
+                    expression.setNextRow(snapshot);
+                }
+                if (!WhereClause.canMatch(normalizer.normalize(whereClause.query(), null))) {
+                    continue;
+                }
+            }
+            snapshots.put(node.getId(), snapshot);
+        }
+        return snapshots;
+    }
 }
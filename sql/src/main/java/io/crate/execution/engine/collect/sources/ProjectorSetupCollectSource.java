@@ -46,6 +46,7 @@ public class ProjectorSetupCollectSource implements CollectSource {
                 consumer,
                 collectPhase.projections(),
                 collectPhase.jobId(),
+                jobCollectContext.workloadClass(),
                 jobCollectContext.queryPhaseRamAccountingContext(),
                 projectorFactory),
             jobCollectContext
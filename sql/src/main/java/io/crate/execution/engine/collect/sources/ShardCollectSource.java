@@ -59,6 +59,7 @@ import io.crate.expression.reference.sys.node.local.NodeSysReferenceResolver;
 import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.execution.jobs.SharedShardContexts;
+import io.crate.execution.jobs.WorkloadClass;
 import io.crate.lucene.LuceneQueryBuilder;
 import io.crate.metadata.Functions;
 import io.crate.metadata.IndexParts;
@@ -93,6 +94,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -159,7 +161,7 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
     private final ClusterService clusterService;
     private final RemoteCollectorFactory remoteCollectorFactory;
     private final SystemCollectSource systemCollectSource;
-    private final Executor executor;
+    private final Map<WorkloadClass, Executor> executors = new EnumMap<>(WorkloadClass.class);
     private final EvaluatingNormalizer nodeNormalizer;
     private final ProjectorFactory sharedProjectorFactory;
 
@@ -187,7 +189,9 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
         this.clusterService = clusterService;
         this.remoteCollectorFactory = remoteCollectorFactory;
         this.systemCollectSource = systemCollectSource;
-        this.executor = new DirectFallbackExecutor(threadPool.executor(ThreadPool.Names.SEARCH));
+        for (WorkloadClass workloadClass : WorkloadClass.values()) {
+            executors.put(workloadClass, new DirectFallbackExecutor(threadPool.executor(workloadClass.executorName())));
+        }
         this.shardCollectorProviderFactory = new ShardCollectorProviderFactory(
             clusterService,
             settings,
@@ -298,6 +302,7 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
             lastConsumer,
             Projections.nodeProjections(normalizedPhase.projections()),
             collectPhase.jobId(),
+            jobCollectContext.workloadClass(),
             jobCollectContext.queryPhaseRamAccountingContext(),
             sharedProjectorFactory
         );
@@ -322,6 +327,7 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
         boolean hasShardProjections = Projections.hasAnyShardProjections(normalizedPhase.projections());
         Map<String, Map<String, List<Integer>>> locations = normalizedPhase.routing().locations();
         final List<CrateCollector.Builder> builders = new ArrayList<>(maxNumShards);
+        final Executor executor = executors.get(jobCollectContext.workloadClass());
 
         Map<String, List<Integer>> indexShards = locations.get(localNodeId);
         if (indexShards != null) {
@@ -397,7 +403,7 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
                     orderBy.reverseFlags(),
                     orderBy.nullsFirst()
                 ),
-                executor,
+                executors.get(jobCollectContext.workloadClass()),
                 consumer.requiresScroll()
             ),
             consumer
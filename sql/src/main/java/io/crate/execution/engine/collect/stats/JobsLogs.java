@@ -65,6 +65,8 @@ public class JobsLogs {
     final AtomicReference<LogSink<OperationContextLog>> operationsLog = new AtomicReference<>(NoopLogSink.instance());
 
     private final LongAdder activeRequests = new LongAdder();
+    private final LongAdder killedContexts = new LongAdder();
+    private final LongAdder killDurationNanos = new LongAdder();
     private final BooleanSupplier enabled;
 
     public JobsLogs(BooleanSupplier enabled) {
@@ -171,6 +173,30 @@ public class JobsLogs {
         return activeRequests.longValue();
     }
 
+    /**
+     * Record that a job execution context has been killed.
+     *
+     * @param durationNanos the time between the kill request and the completion of the context
+     */
+    public void logKill(long durationNanos) {
+        killedContexts.increment();
+        killDurationNanos.add(durationNanos);
+    }
+
+    /**
+     * @return the number of job execution contexts which have been killed on this node
+     */
+    public long killedContexts() {
+        return killedContexts.longValue();
+    }
+
+    /**
+     * @return the summed up time in nanoseconds it took the killed job execution contexts to complete
+     */
+    public long killDurationNanos() {
+        return killDurationNanos.longValue();
+    }
+
     void updateOperationsLog(LogSink<OperationContextLog> sink) {
         operationsLog.set(sink);
     }
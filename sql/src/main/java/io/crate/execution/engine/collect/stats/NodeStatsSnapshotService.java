@@ -0,0 +1,176 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.stats;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.crate.expression.reference.sys.node.NodeStatsContext;
+import io.crate.expression.reference.sys.node.NodeStatsContextFieldResolver;
+import io.crate.settings.CrateSetting;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.EmptyTransportResponseHandler;
+import org.elasticsearch.transport.TransportRequestOptions;
+import org.elasticsearch.transport.TransportResponse;
+import org.elasticsearch.transport.TransportService;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes the statistics of the local node periodically to all other nodes and keeps the latest statistics
+ * received from each node, so that <code>sys.nodes</code> can be queried without requesting the statistics from
+ * every node.
+ *
+ * <p>
+ * Publishing is disabled if the interval is set to 0. Snapshots which are older than
+ * {@link #MAX_AGE_INTERVALS} intervals, e.g. because a node stopped publishing, are not returned.
+ * </p>
+ */
+@Singleton
+public class NodeStatsSnapshotService extends AbstractComponent implements Runnable {
+
+    public static final CrateSetting<TimeValue> STATS_NODES_PUBLISH_INTERVAL_SETTING = CrateSetting.of(Setting.timeSetting(
+        "stats.nodes.publish_interval", TimeValue.timeValueSeconds(0L), Setting.Property.NodeScope, Setting.Property.Dynamic),
+        DataTypes.STRING);
+
+    private static final String ACTION_NAME = "crate/sql/sys/nodes/publish";
+    @VisibleForTesting
+    static final int MAX_AGE_INTERVALS = 3;
+
+    private final ClusterService clusterService;
+    private final TransportService transportService;
+    private final ThreadPool threadPool;
+    private final NodeStatsContextFieldResolver nodeContextFieldsResolver;
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private ThreadPool.Cancellable publishScheduledTask;
+    private volatile TimeValue publishInterval;
+
+    @Inject
+    public NodeStatsSnapshotService(Settings settings,
+                                    ClusterService clusterService,
+                                    TransportService transportService,
+                                    ThreadPool threadPool,
+                                    NodeStatsContextFieldResolver nodeContextFieldsResolver) {
+        super(settings);
+        this.clusterService = clusterService;
+        this.transportService = transportService;
+        this.threadPool = threadPool;
+        this.nodeContextFieldsResolver = nodeContextFieldsResolver;
+        transportService.registerRequestHandler(
+            ACTION_NAME,
+            PublishNodeStatsRequest::new,
+            ThreadPool.Names.SAME,
+            (request, channel) -> {
+                snapshots.put(request.nodeId(), new Snapshot(request.nodeStatsContext(), threadPool.relativeTimeInMillis()));
+                channel.sendResponse(TransportResponse.Empty.INSTANCE);
+            }
+        );
+        setPublishInterval(STATS_NODES_PUBLISH_INTERVAL_SETTING.setting().get(settings));
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+            STATS_NODES_PUBLISH_INTERVAL_SETTING.setting(), this::setPublishInterval);
+    }
+
+    @Override
+    public void run() {
+        DiscoveryNode localNode = clusterService.localNode();
+        if (localNode == null) {
+            return;
+        }
+        NodeStatsContext context;
+        try {
+            context = nodeContextFieldsResolver.forAllColumns();
+        } catch (Exception e) {
+            logger.warn("Could not collect node statistics", e);
+            return;
+        }
+        snapshots.put(localNode.getId(), new Snapshot(context, threadPool.relativeTimeInMillis()));
+
+        DiscoveryNodes nodes = clusterService.state().nodes();
+        snapshots.keySet().removeIf(nodeId -> !nodes.nodeExists(nodeId));
+
+        PublishNodeStatsRequest request = new PublishNodeStatsRequest(localNode.getId(), context);
+        TransportRequestOptions options = TransportRequestOptions.builder()
+            .withTimeout(publishInterval)
+            .build();
+        for (DiscoveryNode node : nodes) {
+            if (!node.equals(localNode)) {
+                transportService.sendRequest(node, ACTION_NAME, request, options,
+                    new EmptyTransportResponseHandler(ThreadPool.Names.SAME));
+            }
+        }
+    }
+
+    /**
+     * @return the latest statistics of the node, with their age set, or null if none are available
+     */
+    @Nullable
+    public NodeStatsContext snapshot(String nodeId) {
+        Snapshot snapshot = snapshots.get(nodeId);
+        if (snapshot == null || publishInterval.millis() == 0) {
+            return null;
+        }
+        long age = threadPool.relativeTimeInMillis() - snapshot.receivedAtMillis;
+        if (age > publishInterval.millis() * MAX_AGE_INTERVALS) {
+            return null;
+        }
+        return snapshot.context.withStatsAge(Math.max(0L, age));
+    }
+
+    private synchronized void setPublishInterval(TimeValue newPublishInterval) {
+        if (publishScheduledTask != null) {
+            publishScheduledTask.cancel();
+            publishScheduledTask = null;
+        }
+        publishInterval = newPublishInterval;
+        if (newPublishInterval.millis() > 0) {
+            publishScheduledTask = threadPool.scheduleWithFixedDelay(
+                this,
+                newPublishInterval,
+                ThreadPool.Names.MANAGEMENT);
+        } else {
+            snapshots.clear();
+        }
+    }
+
+    private static class Snapshot {
+
+        private final NodeStatsContext context;
+        private final long receivedAtMillis;
+
+        Snapshot(NodeStatsContext context, long receivedAtMillis) {
+            this.context = context;
+            this.receivedAtMillis = receivedAtMillis;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.stats;
+
+import io.crate.expression.reference.sys.node.NodeStatsContext;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.transport.TransportRequest;
+
+import java.io.IOException;
+
+/**
+ * Request sent by {@link NodeStatsSnapshotService} to publish the statistics of a node to the other nodes.
+ */
+public class PublishNodeStatsRequest extends TransportRequest {
+
+    private String nodeId;
+    private NodeStatsContext context;
+
+    public PublishNodeStatsRequest() {
+    }
+
+    PublishNodeStatsRequest(String nodeId, NodeStatsContext context) {
+        this.nodeId = nodeId;
+        this.context = context;
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    NodeStatsContext nodeStatsContext() {
+        return context;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        nodeId = in.readString();
+        context = new NodeStatsContext(true);
+        context.readFrom(in);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(nodeId);
+        context.writeTo(out);
+    }
+}
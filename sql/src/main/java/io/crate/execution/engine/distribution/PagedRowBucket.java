@@ -0,0 +1,266 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.distribution;
+
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Bucket;
+import io.crate.data.Row;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.ByteBufferStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.ByteArray;
+import org.elasticsearch.common.util.LongArray;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A bucket which stores its rows in a binary format in pages allocated by {@link BigArrays}, instead of keeping an
+ * {@code Object[]} with boxed values per row.
+ *
+ * <p>
+ * Every row starts with a header containing one int per column, the offset of the value relative to the start of
+ * the row, or -1 if the value is null. The header is followed by the values, encoded by the {@link Streamer}s of the
+ * column types. The start of every row is kept in a {@link LongArray}, so that a single value of any row can be
+ * read without decoding the other values of the row.
+ * </p>
+ *
+ * The rows returned by the iterator and by {@link #get(int)} are views which decode a value whenever
+ * {@link Row#get(int)} is called. The iterator returns the same view for every row, so rows must be consumed or
+ * materialized before the iterator is advanced. {@link #close()} must be called to release the pages.
+ */
+public final class PagedRowBucket implements Bucket, Releasable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NULL_OFFSET = -1;
+
+    private final Streamer<?>[] streamers;
+    private final BigArrays bigArrays;
+    @Nullable
+    private final RamAccountingContext ramAccountingContext;
+    private final BytesStreamOutput scratch = new BytesStreamOutput();
+    private final int[] valueOffsets;
+
+    private ByteArray bytes;
+    private LongArray rowOffsets;
+    private long numBytes = 0L;
+    private int size = 0;
+    private long accountedBytes = 0L;
+
+    /**
+     * @param ramAccountingContext if not null the memory of the allocated pages is accounted for by this context
+     */
+    public PagedRowBucket(Streamer<?>[] streamers,
+                          BigArrays bigArrays,
+                          @Nullable RamAccountingContext ramAccountingContext) {
+        this.streamers = streamers;
+        this.bigArrays = bigArrays;
+        this.ramAccountingContext = ramAccountingContext;
+        this.valueOffsets = new int[streamers.length];
+        boolean success = false;
+        try {
+            bytes = bigArrays.newByteArray(INITIAL_CAPACITY, false);
+            rowOffsets = bigArrays.newLongArray(INITIAL_CAPACITY / Long.BYTES, false);
+            success = true;
+        } finally {
+            if (!success) {
+                Releasables.close(bytes, rowOffsets);
+            }
+        }
+        accountForGrowth();
+    }
+
+    public void add(Row row) {
+        assert row.numColumns() == streamers.length : "number of columns must match the number of streamers";
+        long rowStart = numBytes;
+        scratch.reset();
+        try {
+            // reserve the header, it is filled in once the offsets of the values are known
+            for (int i = 0; i < streamers.length; i++) {
+                scratch.writeInt(NULL_OFFSET);
+            }
+            for (int i = 0; i < streamers.length; i++) {
+                Object value = row.get(i);
+                if (value == null) {
+                    valueOffsets[i] = NULL_OFFSET;
+                } else {
+                    valueOffsets[i] = (int) scratch.position();
+                    streamers[i].writeValueTo(scratch, value);
+                }
+            }
+            long rowEnd = scratch.position();
+            scratch.seek(0);
+            for (int valueOffset : valueOffsets) {
+                scratch.writeInt(valueOffset);
+            }
+            scratch.seek(rowEnd);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        BytesRef rowBytes = scratch.bytes().toBytesRef();
+        bytes = bigArrays.grow(bytes, rowStart + rowBytes.length);
+        bytes.set(rowStart, rowBytes.bytes, rowBytes.offset, rowBytes.length);
+        rowOffsets = bigArrays.grow(rowOffsets, size + 1);
+        rowOffsets.set(size, rowStart);
+        numBytes = rowStart + rowBytes.length;
+        size++;
+        accountForGrowth();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a view of the row at the given position
+     */
+    public Row get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Row " + index + " doesn't exist, bucket has " + size + " rows");
+        }
+        PagedRow row = new PagedRow();
+        row.moveTo(index);
+        return row;
+    }
+
+    /**
+     * @return the number of bytes of the allocated pages
+     */
+    public long ramBytesUsed() {
+        return bytes.ramBytesUsed() + rowOffsets.ramBytesUsed();
+    }
+
+    @Override
+    public Iterator<Row> iterator() {
+        return new Iterator<Row>() {
+
+            final PagedRow row = new PagedRow();
+            int pos = 0;
+
+            @Override
+            public boolean hasNext() {
+                return pos < size;
+            }
+
+            @Override
+            public Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("Iterator is exhausted");
+                }
+                row.moveTo(pos++);
+                return row;
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        Releasables.close(bytes, rowOffsets);
+    }
+
+    private void accountForGrowth() {
+        if (ramAccountingContext != null) {
+            long used = ramBytesUsed();
+            ramAccountingContext.addBytes(used - accountedBytes);
+            accountedBytes = used;
+        }
+    }
+
+    private long rowEnd(int index) {
+        return index + 1 < size ? rowOffsets.get(index + 1) : numBytes;
+    }
+
+    /**
+     * A view of a row. The header of the row is read once the row is accessed, values are decoded on every access.
+     * If the row lies within a single page the values are read directly from the page, rows which span multiple
+     * pages are copied first.
+     */
+    private final class PagedRow implements Row {
+
+        private final BytesRef rowRef = new BytesRef();
+        private final int[] offsets = new int[streamers.length];
+        private int index;
+        private int loadedIndex = -1;
+
+        private ByteBuffer buffer;
+        private StreamInput in;
+
+        void moveTo(int index) {
+            this.index = index;
+        }
+
+        private void load() {
+            if (loadedIndex == index) {
+                return;
+            }
+            long rowStart = rowOffsets.get(index);
+            bytes.get(rowStart, (int) (rowEnd(index) - rowStart), rowRef);
+            if (buffer == null || buffer.array() != rowRef.bytes) {
+                buffer = ByteBuffer.wrap(rowRef.bytes);
+                in = new ByteBufferStreamInput(buffer);
+            }
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = buffer.getInt(rowRef.offset + Integer.BYTES * i);
+            }
+            loadedIndex = index;
+        }
+
+        @Override
+        public int numColumns() {
+            return streamers.length;
+        }
+
+        @Override
+        public Object get(int column) {
+            load();
+            int valueOffset = offsets[column];
+            if (valueOffset == NULL_OFFSET) {
+                return null;
+            }
+            buffer.position(rowRef.offset + valueOffset);
+            try {
+                return streamers[column].readValueFrom(in);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public Object[] materialize() {
+            Object[] cells = new Object[streamers.length];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = get(i);
+            }
+            return cells;
+        }
+    }
+}
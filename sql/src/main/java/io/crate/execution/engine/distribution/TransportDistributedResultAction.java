@@ -52,12 +52,10 @@ public class TransportDistributedResultAction extends AbstractComponent implemen
 
     private static final String DISTRIBUTED_RESULT_ACTION = "crate/sql/node/merge/add_rows";
 
-    private static final String EXECUTOR_NAME = ThreadPool.Names.SEARCH;
-
     private final Transports transports;
     private final JobContextService jobContextService;
     private final ScheduledExecutorService scheduler;
-    private final Executor executor;
+    private final ThreadPool threadPool;
 
     @Inject
     public TransportDistributedResultAction(Transports transports,
@@ -68,7 +66,7 @@ public class TransportDistributedResultAction extends AbstractComponent implemen
         super(settings);
         this.transports = transports;
         this.jobContextService = jobContextService;
-        this.executor = threadPool.executor(EXECUTOR_NAME);
+        this.threadPool = threadPool;
         scheduler = threadPool.scheduler();
 
         transportService.registerRequestHandler(DISTRIBUTED_RESULT_ACTION,
@@ -115,6 +113,7 @@ public class TransportDistributedResultAction extends AbstractComponent implemen
             request.streamers(pageBucketReceiver.streamers());
             SendResponsePageResultListener pageResultListener = new SendResponsePageResultListener();
             try {
+                Executor executor = threadPool.executor(context.workloadClass().executorName());
                 executor.execute(() -> pageBucketReceiver.setBucket(
                     request.bucketIdx(),
                     request.rows(),
@@ -21,6 +21,7 @@
 
 package io.crate.execution.engine.distribution.merge;
 
+import io.crate.Streamer;
 import io.crate.breaker.RowAccounting;
 import io.crate.data.Row;
 import io.crate.execution.engine.sort.OrderingByPosition;
@@ -56,25 +57,25 @@ public interface PagingIterator<TKey, TRow> extends Iterator<TRow> {
     /**
      * Returns the suitable {@link PagingIterator} according to the use case.
      * If requiresRepeat is true then the PagingIterator is wrapped with {@link RamAccountingPageIterator}
-     * which calculates the memory usage and applies CircuitBreaker logic.
+     * which calculates the memory usage, applies CircuitBreaker logic and keeps the emitted rows for a repeat.
+     *
+     * @param streamers the streamers of the columns of the rows, used to buffer the rows if requiresRepeat is true
      */
     static PagingIterator<Integer, Row> create(int numUpstreams,
                                                boolean requiresRepeat,
                                                @Nullable PositionalOrderBy orderBy,
+                                               Streamer<?>[] streamers,
                                                Supplier<RowAccounting> rowAccountingSupplier) {
         PagingIterator<Integer, Row> pagingIterator;
+        // the repeat is served by the RamAccountingPageIterator, so the delegate never needs to repeat
         if (numUpstreams == 1 || orderBy == null) {
-            if (requiresRepeat) {
-                pagingIterator = PassThroughPagingIterator.repeatable();
-            } else {
-                pagingIterator = PassThroughPagingIterator.oneShot();
-            }
+            pagingIterator = PassThroughPagingIterator.oneShot();
         } else {
-            pagingIterator = new SortedPagingIterator<>(OrderingByPosition.rowOrdering(orderBy), requiresRepeat);
+            pagingIterator = new SortedPagingIterator<>(OrderingByPosition.rowOrdering(orderBy), false);
         }
 
         if (requiresRepeat) {
-            return new RamAccountingPageIterator(pagingIterator, rowAccountingSupplier.get());
+            return new RamAccountingPageIterator(pagingIterator, streamers, rowAccountingSupplier.get());
         }
         return pagingIterator;
     }
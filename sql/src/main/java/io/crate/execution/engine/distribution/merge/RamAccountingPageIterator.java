@@ -22,20 +22,37 @@
 package io.crate.execution.engine.distribution.merge;
 
 import com.google.common.annotations.VisibleForTesting;
+import io.crate.Streamer;
 import io.crate.breaker.RowAccounting;
 import io.crate.data.Row;
+import io.crate.execution.engine.distribution.PagedRowBucket;
+import org.elasticsearch.common.util.BigArrays;
+
+import javax.annotation.Nullable;
 
 /**
- * Wraps a PagingIterator and uses {@link io.crate.breaker.RamAccountingContext} to apply the circuit breaking logic
+ * Wraps a PagingIterator and uses {@link io.crate.breaker.RamAccountingContext} to apply the circuit breaking logic.
+ * <p>
+ * The rows emitted by the delegate are copied into a {@link PagedRowBucket} which serves {@link #repeat()}, so the
+ * delegate doesn't have to keep the pages or the order in which it emitted their rows. The rows are kept in a binary
+ * format instead of as objects, which are likely to end up in the old generation if they're repeated often, e.g. by
+ * a nested loop join.
  */
 class RamAccountingPageIterator implements PagingIterator<Integer, Row> {
 
     @VisibleForTesting
     final PagingIterator<Integer, Row> delegatePagingIterator;
+    private final Streamer<?>[] streamers;
     private final RowAccounting rowAccounting;
 
-    RamAccountingPageIterator(PagingIterator<Integer, Row> delegatePagingIterator, RowAccounting rowAccounting) {
+    @Nullable
+    private PagedRowBucket emittedRows;
+
+    RamAccountingPageIterator(PagingIterator<Integer, Row> delegatePagingIterator,
+                              Streamer<?>[] streamers,
+                              RowAccounting rowAccounting) {
         this.delegatePagingIterator = delegatePagingIterator;
+        this.streamers = streamers;
         this.rowAccounting = rowAccounting;
     }
 
@@ -60,9 +77,16 @@ class RamAccountingPageIterator implements PagingIterator<Integer, Row> {
         return delegatePagingIterator.exhaustedIterable();
     }
 
+    /**
+     * Returns the rows which have been emitted so far, followed by the rows the delegate can still emit.
+     */
     @Override
     public Iterable<Row> repeat() {
-        return delegatePagingIterator.repeat();
+        PagedRowBucket rows = emittedRows();
+        while (delegatePagingIterator.hasNext()) {
+            rows.add(delegatePagingIterator.next());
+        }
+        return rows;
     }
 
     @Override
@@ -72,6 +96,16 @@ class RamAccountingPageIterator implements PagingIterator<Integer, Row> {
 
     @Override
     public Row next() {
-        return delegatePagingIterator.next();
+        Row row = delegatePagingIterator.next();
+        emittedRows().add(row);
+        return row;
+    }
+
+    private PagedRowBucket emittedRows() {
+        if (emittedRows == null) {
+            // the pages are not recycled, so they don't need to be released once the iterator isn't used anymore
+            emittedRows = new PagedRowBucket(streamers, BigArrays.NON_RECYCLING_INSTANCE, null);
+        }
+        return emittedRows;
     }
 }
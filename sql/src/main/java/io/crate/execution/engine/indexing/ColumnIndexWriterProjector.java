@@ -114,7 +114,7 @@ public class ColumnIndexWriterProjector implements Projector {
             collectExpressions,
             indexNameResolver,
             autoCreateIndices,
-            transportActionProvider.transportShardUpsertAction()::execute,
+            transportActionProvider.shardUpsertExecutor(),
             transportActionProvider.transportBulkCreateIndicesAction(),
             tableSettings
         );
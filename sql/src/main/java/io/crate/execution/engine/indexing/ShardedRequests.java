@@ -38,37 +38,58 @@ public final class ShardedRequests<TReq extends ShardRequest<TReq, TItem>, TItem
 
     private final BiFunction<ShardId, String, TReq> requestFactory;
 
-    private int location = -1;
+    private int location;
 
     /**
      * @param requestFactory function to create a request, will receive the indexName and routing
      */
     public ShardedRequests(BiFunction<ShardId, String, TReq> requestFactory) {
+        this(requestFactory, 0);
+    }
+
+    /**
+     * @param requestFactory function to create a request, will receive the indexName and routing
+     * @param firstLocation the location of the first item; the items get consecutive locations in the order they
+     *                      are added, also if their shard can only be resolved after the index has been created.
+     */
+    public ShardedRequests(BiFunction<ShardId, String, TReq> requestFactory, int firstLocation) {
         this.requestFactory = requestFactory;
+        this.location = firstLocation - 1;
     }
 
     public void add(TItem item, String indexName, String routing) {
         List<ItemAndRouting<TItem>> items = itemsByMissingIndex.computeIfAbsent(indexName, k -> new ArrayList<>());
-        items.add(new ItemAndRouting<>(item, routing));
+        location++;
+        items.add(new ItemAndRouting<>(item, routing, location));
     }
 
     public void add(TItem item, ShardLocation shardLocation, String routing) {
+        location++;
+        add(item, location, shardLocation, routing);
+    }
+
+    void add(ItemAndRouting<TItem> itemAndRouting, ShardLocation shardLocation) {
+        add(itemAndRouting.item, itemAndRouting.location, shardLocation, itemAndRouting.routing);
+    }
+
+    private void add(TItem item, int itemLocation, ShardLocation shardLocation, String routing) {
         TReq req = itemsByShard.get(shardLocation);
         if (req == null) {
             req = requestFactory.apply(shardLocation.shardId, routing);
             itemsByShard.put(shardLocation, req);
         }
-        location++;
-        req.add(location, item);
+        req.add(itemLocation, item);
     }
 
     static class ItemAndRouting<TItem> {
         final TItem item;
         final String routing;
+        final int location;
 
-        ItemAndRouting(TItem item, String routing) {
+        ItemAndRouting(TItem item, String routing, int location) {
             this.item = item;
             this.routing = routing;
+            this.location = location;
         }
     }
 }
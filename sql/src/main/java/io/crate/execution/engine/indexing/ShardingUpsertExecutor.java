@@ -51,6 +51,7 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.shard.ShardId;
 
 import javax.annotation.Nullable;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -126,20 +127,20 @@ public class ShardingUpsertExecutor<TReq extends ShardRequest<TReq, TItem>, TIte
             clusterService.state().nodes().getDataNodes().size());
     }
 
-    public CompletableFuture<Long> execute(ShardedRequests<TReq, TItem> requests) {
+    private CompletableFuture<Long> execute(ShardedRequests<TReq, TItem> requests, @Nullable BitSet successfulRows) {
         if (requests.itemsByMissingIndex.isEmpty()) {
-            return execRequests(requests.itemsByShard);
+            return execRequests(requests.itemsByShard, successfulRows);
         }
         createPartitionsRequestOngoing = true;
         return createPartitions(requests.itemsByMissingIndex)
             .thenCompose(resp -> {
                 grouper.reResolveShardLocations(requests);
                 createPartitionsRequestOngoing = false;
-                return execRequests(requests.itemsByShard);
+                return execRequests(requests.itemsByShard, successfulRows);
             });
     }
 
-    private CompletableFuture<Long> execRequests(Map<ShardLocation, TReq> itemsByShard) {
+    private CompletableFuture<Long> execRequests(Map<ShardLocation, TReq> itemsByShard, @Nullable BitSet successfulRows) {
         final AtomicInteger numRequests = new AtomicInteger(itemsByShard.size());
         final AtomicLong rowCount = new AtomicLong(0L);
         final AtomicReference<Exception> interrupt = new AtomicReference<>(null);
@@ -153,7 +154,7 @@ public class ShardingUpsertExecutor<TReq extends ShardRequest<TReq, TItem>, TIte
             String nodeId = entry.getKey().nodeId;
             nodeJobsCounter.increment(nodeId);
             ActionListener<ShardResponse> listener =
-                new ShardResponseActionListener(nodeId, rowCount, numRequests, interrupt, rowCountFuture);
+                new ShardResponseActionListener(nodeId, rowCount, numRequests, interrupt, rowCountFuture, successfulRows);
 
             listener = new RetryListener<>(
                 scheduler,
@@ -195,22 +196,46 @@ public class ShardingUpsertExecutor<TReq extends ShardRequest<TReq, TItem>, TIte
 
     @Override
     public CompletableFuture<? extends Iterable<Row>> apply(BatchIterator<Row> batchIterator) {
-        BatchIterator<ShardedRequests<TReq, TItem>> reqBatchIterator =
-            BatchIterators.partition(batchIterator, bulkSize, () -> new ShardedRequests<>(requestFactory), grouper,
-                bulkShardCreationLimiter);
+        return consumeIteratorAndExecute(batchIterator, null)
+            .thenApply(rowCount -> Collections.singletonList(new Row1(rowCount)));
+    }
+
+    /**
+     * Like {@link #apply(BatchIterator)}, but the result contains the positions of the rows which have been written
+     * successfully instead of their count. Rows which failed, also due to a failure of a whole shard request,
+     * are not set.
+     */
+    public CompletableFuture<BitSet> executeAndCollectSuccessfulRows(BatchIterator<Row> batchIterator) {
+        BitSet successfulRows = new BitSet();
+        return consumeIteratorAndExecute(batchIterator, successfulRows).thenApply(rowCount -> successfulRows);
+    }
+
+    private CompletableFuture<Long> consumeIteratorAndExecute(BatchIterator<Row> batchIterator,
+                                                              @Nullable BitSet successfulRows) {
+        // the location of the items is the position of their row, the partitioning creates the next
+        // ShardedRequests after all rows of the previous one have been grouped
+        int[] numGroupedRows = new int[] { 0 };
+        BatchIterator<ShardedRequests<TReq, TItem>> reqBatchIterator = BatchIterators.partition(
+            batchIterator,
+            bulkSize,
+            () -> new ShardedRequests<>(requestFactory, numGroupedRows[0]),
+            (requests, row) -> {
+                grouper.accept(requests, row);
+                numGroupedRows[0]++;
+            },
+            bulkShardCreationLimiter);
 
         BatchIteratorBackpressureExecutor<ShardedRequests<TReq, TItem>, Long> executor = new BatchIteratorBackpressureExecutor<>(
             scheduler,
             this.executor,
             reqBatchIterator,
-            this::execute,
+            requests -> execute(requests, successfulRows),
             (a, b) -> a + b,
             0L,
             this::shouldPause,
             BACKOFF_POLICY
         );
-        return executor.consumeIteratorAndExecute()
-            .thenApply(rowCount -> Collections.singletonList(new Row1(rowCount)));
+        return executor.consumeIteratorAndExecute();
     }
 
     private class ShardResponseActionListener implements ActionListener<ShardResponse> {
@@ -219,23 +244,32 @@ public class ShardingUpsertExecutor<TReq extends ShardRequest<TReq, TItem>, TIte
         private final AtomicInteger numRequests;
         private final AtomicReference<Exception> interrupt;
         private final CompletableFuture<Long> rowCountFuture;
+        @Nullable
+        private final BitSet successfulRows;
 
         ShardResponseActionListener(String operationNodeId,
                                     AtomicLong rowCount,
                                     AtomicInteger numRequests,
                                     AtomicReference<Exception> interrupt,
-                                    CompletableFuture<Long> rowCountFuture) {
+                                    CompletableFuture<Long> rowCountFuture,
+                                    @Nullable BitSet successfulRows) {
             this.operationNodeId = operationNodeId;
             this.rowCount = rowCount;
             this.numRequests = numRequests;
             this.interrupt = interrupt;
             this.rowCountFuture = rowCountFuture;
+            this.successfulRows = successfulRows;
         }
 
         @Override
         public void onResponse(ShardResponse shardResponse) {
             nodeJobsCounter.decrement(operationNodeId);
             rowCount.addAndGet(shardResponse.successRowCount());
+            if (successfulRows != null) {
+                synchronized (successfulRows) {
+                    ShardResponse.markResponseItemsAndFailures(shardResponse, successfulRows);
+                }
+            }
             maybeSetInterrupt(shardResponse.failure());
             countdown();
         }
@@ -28,6 +28,7 @@ import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
 import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.jobs.WorkloadClass;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -61,15 +62,26 @@ public class ProjectingRowConsumer implements RowConsumer {
                                      UUID jobId,
                                      RamAccountingContext ramAccountingContext,
                                      ProjectorFactory projectorFactory) {
+        return create(lastConsumer, projections, jobId, WorkloadClass.DEFAULT, ramAccountingContext, projectorFactory);
+    }
+
+    public static RowConsumer create(RowConsumer lastConsumer,
+                                     Collection<? extends Projection> projections,
+                                     UUID jobId,
+                                     WorkloadClass workloadClass,
+                                     RamAccountingContext ramAccountingContext,
+                                     ProjectorFactory projectorFactory) {
         if (projections.isEmpty()) {
             return lastConsumer;
         }
-        return new ProjectingRowConsumer(lastConsumer, projections, jobId, ramAccountingContext, projectorFactory);
+        return new ProjectingRowConsumer(
+            lastConsumer, projections, jobId, workloadClass, ramAccountingContext, projectorFactory);
     }
 
     private ProjectingRowConsumer(RowConsumer consumer,
                                   Collection<? extends Projection> projections,
                                   UUID jobId,
+                                  WorkloadClass workloadClass,
                                   RamAccountingContext ramAccountingContext,
                                   ProjectorFactory projectorFactory) {
         this.consumer = consumer;
@@ -77,7 +89,7 @@ public class ProjectingRowConsumer implements RowConsumer {
 
         boolean projectorsSupportIndependentScrolling = false;
         for (Projection projection : projections) {
-            Projector projector = projectorFactory.create(projection, ramAccountingContext, jobId);
+            Projector projector = projectorFactory.create(projection, ramAccountingContext, jobId, workloadClass);
             projectors.add(projector);
 
             if (projector.providesIndependentScroll()) {
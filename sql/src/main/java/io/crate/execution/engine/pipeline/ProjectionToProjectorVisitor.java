@@ -74,6 +74,7 @@ import io.crate.expression.RowFilter;
 import io.crate.expression.reference.StaticTableDefinition;
 import io.crate.expression.reference.sys.SysRowUpdater;
 import io.crate.execution.jobs.NodeJobsCounter;
+import io.crate.execution.jobs.WorkloadClass;
 import io.crate.execution.TransportActionProvider;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Functions;
@@ -81,6 +82,7 @@ import io.crate.metadata.Reference;
 import io.crate.metadata.RowCollectExpression;
 import io.crate.metadata.TableIdent;
 import io.crate.metadata.TransactionContext;
+import io.crate.types.DataType;
 import io.crate.types.StringType;
 import org.elasticsearch.Version;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -115,6 +117,7 @@ public class ProjectionToProjectorVisitor
     private final Function<TableIdent, StaticTableDefinition<?>> staticTableDefinitionGetter;
     private final Version indexVersionCreated;
     private final BigArrays bigArrays;
+    private final long sortSpillThresholdInBytes;
     @Nullable
     private final ShardId shardId;
 
@@ -143,6 +146,7 @@ public class ProjectionToProjectorVisitor
         this.staticTableDefinitionGetter = staticTableDefinitionGetter;
         this.indexVersionCreated = indexVersionCreated;
         this.bigArrays = bigArrays;
+        this.sortSpillThresholdInBytes = SortingProjector.SPILL_THRESHOLD_SETTING.get(settings).getBytes();
         this.shardId = shardId;
     }
 
@@ -205,12 +209,18 @@ public class ProjectionToProjectorVisitor
                 projection.offset()
             );
         }
+        List<DataType> columnTypes = new ArrayList<>(inputs.size());
+        columnTypes.addAll(Symbols.typeView(projection.outputs()));
+        columnTypes.addAll(Symbols.typeView(projection.orderBy()));
         return new SortingProjector(
             inputs,
             ctx.expressions(),
+            columnTypes,
             numOutputs,
             OrderingByPosition.arrayOrdering(orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
-            projection.offset()
+            projection.offset(),
+            context.ramAccountingContext,
+            sortSpillThresholdInBytes
         );
     }
 
@@ -339,12 +349,12 @@ public class ProjectionToProjectorVisitor
             clusterService,
             nodeJobsCounter,
             threadPool.scheduler(),
-            threadPool.executor(ThreadPool.Names.SEARCH),
+            threadPool.executor(context.workloadClass.executorName()),
             functions,
             clusterService.state().metaData().settings(),
             tableSettings,
             transportActionProvider.transportBulkCreateIndicesAction(),
-            transportActionProvider.transportShardUpsertAction()::execute,
+            transportActionProvider.shardUpsertExecutor(),
             indexNameResolver,
             projection.rawSourceReference(),
             projection.primaryKeys(),
@@ -379,7 +389,7 @@ public class ProjectionToProjectorVisitor
             clusterService,
             nodeJobsCounter,
             threadPool.scheduler(),
-            threadPool.executor(ThreadPool.Names.SEARCH),
+            threadPool.executor(context.workloadClass.executorName()),
             functions,
             clusterService.state().metaData().settings(),
             tableSettings,
@@ -419,13 +429,13 @@ public class ProjectionToProjectorVisitor
         ShardDMLExecutor<ShardUpsertRequest, ShardUpsertRequest.Item> shardDMLExecutor = new ShardDMLExecutor<>(
             ShardDMLExecutor.DEFAULT_BULK_SIZE,
             threadPool.scheduler(),
-            threadPool.executor(ThreadPool.Names.SEARCH),
+            threadPool.executor(context.workloadClass.executorName()),
             resolveUidCollectExpression(projection.uidSymbol()),
             clusterService,
             nodeJobsCounter,
             () -> builder.newRequest(shardId, null),
             id -> new ShardUpsertRequest.Item(id, projection.assignments(), null, projection.requiredVersion()),
-            transportActionProvider.transportShardUpsertAction()::execute
+            transportActionProvider.shardUpsertExecutor()::execute
         );
 
         return new DMLProjector(shardDMLExecutor);
@@ -442,13 +452,13 @@ public class ProjectionToProjectorVisitor
         ShardDMLExecutor<ShardDeleteRequest, ShardDeleteRequest.Item> shardDMLExecutor = new ShardDMLExecutor<>(
             ShardDMLExecutor.DEFAULT_BULK_SIZE,
             threadPool.scheduler(),
-            threadPool.executor(ThreadPool.Names.SEARCH),
+            threadPool.executor(context.workloadClass.executorName()),
             resolveUidCollectExpression(projection.uidSymbol()),
             clusterService,
             nodeJobsCounter,
             () -> builder.newRequest(shardId),
             ShardDeleteRequest.Item::new,
-            transportActionProvider.transportShardDeleteAction()::execute
+            transportActionProvider.shardDeleteExecutor()::execute
         );
         return new DMLProjector(shardDMLExecutor);
     }
@@ -520,8 +530,11 @@ public class ProjectionToProjectorVisitor
     }
 
     @Override
-    public Projector create(Projection projection, RamAccountingContext ramAccountingContext, UUID jobId) {
-        return process(projection, new Context(ramAccountingContext, jobId));
+    public Projector create(Projection projection,
+                            RamAccountingContext ramAccountingContext,
+                            UUID jobId,
+                            WorkloadClass workloadClass) {
+        return process(projection, new Context(ramAccountingContext, jobId, workloadClass));
     }
 
     @Override
@@ -533,11 +546,13 @@ public class ProjectionToProjectorVisitor
 
         private final RamAccountingContext ramAccountingContext;
         private final UUID jobId;
+        private final WorkloadClass workloadClass;
         private final TransactionContext transactionContext = new TransactionContext(SessionContext.create());
 
-        public Context(RamAccountingContext ramAccountingContext, UUID jobId) {
+        public Context(RamAccountingContext ramAccountingContext, UUID jobId, WorkloadClass workloadClass) {
             this.ramAccountingContext = ramAccountingContext;
             this.jobId = jobId;
+            this.workloadClass = workloadClass;
         }
     }
 }
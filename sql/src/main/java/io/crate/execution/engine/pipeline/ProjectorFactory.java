@@ -25,10 +25,21 @@ package io.crate.execution.engine.pipeline;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.data.Projector;
 import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.jobs.WorkloadClass;
 
 import java.util.UUID;
 
 public interface ProjectorFactory {
 
-    Projector create(Projection projection, RamAccountingContext ramAccountingContext, UUID jobId);
+    default Projector create(Projection projection, RamAccountingContext ramAccountingContext, UUID jobId) {
+        return create(projection, ramAccountingContext, jobId, WorkloadClass.DEFAULT);
+    }
+
+    /**
+     * @param workloadClass the workload class of the job; projectors which run work asynchronously use its executor.
+     */
+    Projector create(Projection projection,
+                     RamAccountingContext ramAccountingContext,
+                     UUID jobId,
+                     WorkloadClass workloadClass);
 }
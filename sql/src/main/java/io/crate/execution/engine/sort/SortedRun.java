@@ -0,0 +1,137 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.sort;
+
+import io.crate.Streamer;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A file on local disk which contains sorted rows.
+ * <p>
+ * The values of a row are written one after another using the {@link Streamer}s of the column types,
+ * there is neither a header nor any per-row framing.
+ */
+final class SortedRun {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final Streamer<?>[] streamers;
+    private final int numRows;
+
+    private SortedRun(Path file, Streamer<?>[] streamers, int numRows) {
+        this.file = file;
+        this.streamers = streamers;
+        this.numRows = numRows;
+    }
+
+    /**
+     * Writes the rows, which must already be sorted, into a new temporary file.
+     */
+    static SortedRun write(List<Object[]> rows, Streamer<?>[] streamers) throws IOException {
+        Path file = Files.createTempFile("crate-sort-", ".run");
+        try (OutputStreamStreamOutput out = new OutputStreamStreamOutput(
+            new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+
+            for (Object[] row : rows) {
+                for (int i = 0; i < streamers.length; i++) {
+                    streamers[i].writeValueTo(out, row[i]);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new SortedRun(file, streamers, rows.size());
+    }
+
+    int numRows() {
+        return numRows;
+    }
+
+    Reader open() throws IOException {
+        return new Reader(new InputStreamStreamInput(
+            new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)));
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Reads the rows of the run in their sorted order. The file is closed once all rows have been read.
+     */
+    final class Reader implements Iterator<Object[]>, Closeable {
+
+        private final StreamInput in;
+        private int remaining = numRows;
+
+        private Reader(StreamInput in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public Object[] next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException("SortedRun has no more rows");
+            }
+            Object[] row = new Object[streamers.length];
+            try {
+                for (int i = 0; i < streamers.length; i++) {
+                    row[i] = streamers[i].readValueFrom(in);
+                }
+                remaining--;
+                if (remaining == 0) {
+                    in.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            remaining = 0;
+            in.close();
+        }
+    }
+}
@@ -23,31 +23,47 @@
 package io.crate.execution.engine.sort;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
-import io.crate.data.Bucket;
+import io.crate.data.Buckets;
 import io.crate.data.CollectingBatchIterator;
-import io.crate.data.CollectionBucket;
 import io.crate.data.Input;
+import io.crate.data.KillAwareBatchIterator;
+import io.crate.data.ListenableBatchIterator;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.types.DataType;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.unit.ByteSizeValue;
 
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collector;
-import java.util.stream.Collectors;
 
 /**
  * Sort rows by ordering criteria and process given offset before emitting.
  * <p>
  * Compared to {@link SortingTopNProjector} this projector does not support limiting,
  * while the {@link SortingTopNProjector} does not work WITHOUT a limit.
+ * <p>
+ * If the estimated size of the buffered rows exceeds {@link #SPILL_THRESHOLD_SETTING}, the rows are sorted in runs
+ * which are written to disk and merged afterwards, see {@link SpillingSorter}.
  */
 public class SortingProjector implements Projector {
 
+    public static final Setting<ByteSizeValue> SPILL_THRESHOLD_SETTING = Setting.memorySizeSetting(
+        "node.sql.sort.spill_threshold", "10%", Setting.Property.NodeScope);
+
     private final Collection<? extends Input<?>> inputs;
     private final Iterable<? extends CollectExpression<Row, ?>> collectExpressions;
+    private final List<? extends DataType> columnTypes;
+    private final RamAccountingContext ramAccountingContext;
+    private final long spillThresholdInBytes;
 
     private final Comparator<Object[]> comparator;
     private final int offset;
@@ -56,19 +72,28 @@ public class SortingProjector implements Projector {
     /**
      * @param inputs             contains output {@link Input}s and orderBy {@link Input}s
      * @param collectExpressions gathered from outputs and orderBy inputs
+     * @param columnTypes        the types of the <code>inputs</code>
      * @param numOutputs         <code>inputs</code> contains this much output {@link Input}s starting form index 0
      * @param comparator         ordering that is used to compare the rows
      * @param offset             the initial offset, this number of rows are skipped
+     * @param spillThresholdInBytes estimated size of the buffered rows at which they're written to disk,
+     *                              0 disables spilling
      */
     public SortingProjector(Collection<? extends Input<?>> inputs,
                             Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                            List<? extends DataType> columnTypes,
                             int numOutputs,
                             Comparator<Object[]> comparator,
-                            int offset) {
+                            int offset,
+                            RamAccountingContext ramAccountingContext,
+                            long spillThresholdInBytes) {
         Preconditions.checkArgument(offset >= 0, "invalid offset %s", offset);
         this.numOutputs = numOutputs;
         this.inputs = inputs;
         this.collectExpressions = collectExpressions;
+        this.columnTypes = columnTypes;
+        this.ramAccountingContext = ramAccountingContext;
+        this.spillThresholdInBytes = spillThresholdInBytes;
         this.comparator = comparator;
         this.offset = offset;
     }
@@ -76,10 +101,21 @@ public class SortingProjector implements Projector {
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        Collector<Row, ?, Bucket> collector = Collectors.mapping(
-            this::getCells,
-            Collectors.collectingAndThen(Collectors.toList(), this::sortAndCreateBucket));
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        KillAwareBatchIterator<Row> source = new KillAwareBatchIterator<>(batchIterator);
+        SpillingSorter sorter = new SpillingSorter(
+            source.killAware(comparator.reversed()), columnTypes, ramAccountingContext, spillThresholdInBytes);
+        Collector<Row, SpillingSorter, Iterable<Row>> collector = Collector.of(
+            () -> sorter,
+            (s, row) -> s.add(getCells(row)),
+            (s1, s2) -> {
+                throw new UnsupportedOperationException("Combine not supported");
+            },
+            this::createRows
+        );
+        // the runs are read while the result is consumed, so they're only deleted once the consumer closes the iterator
+        CompletableFuture<Void> closed = new CompletableFuture<>();
+        closed.whenComplete((r, t) -> sorter.close());
+        return new ListenableBatchIterator<>(CollectingBatchIterator.newInstance(source, collector), closed);
     }
 
     @Override
@@ -99,11 +135,8 @@ public class SortingProjector implements Projector {
         return newRow;
     }
 
-    private Bucket sortAndCreateBucket(List<Object[]> rows) {
-        rows.sort(comparator.reversed());
-        if (offset == 0) {
-            return new CollectionBucket(rows, numOutputs);
-        }
-        return new CollectionBucket(rows.subList(offset, rows.size()), numOutputs);
+    private Iterable<Row> createRows(SpillingSorter sorter) {
+        Iterable<Object[]> rows = Iterables.skip(sorter.sorted(), offset);
+        return () -> Iterators.transform(rows.iterator(), Buckets.arrayToRowFunction(numOutputs));
     }
 }
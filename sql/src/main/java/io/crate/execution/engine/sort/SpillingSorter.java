@@ -0,0 +1,198 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.sort;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.logging.Loggers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sorts rows in memory until their estimated size exceeds a threshold.
+ * <p>
+ * Once the threshold is exceeded, the buffered rows are sorted and written to disk as a {@link SortedRun} and the
+ * memory accounted for them is released. The sorted result is then produced by a k-way merge of all runs and the
+ * rows which are still buffered.
+ * <p>
+ * {@link #close()} must be called to delete the runs.
+ */
+final class SpillingSorter implements Closeable {
+
+    private static final Logger LOGGER = Loggers.getLogger(SpillingSorter.class);
+
+    private final Comparator<Object[]> comparator;
+    private final Streamer<?>[] streamers;
+    private final List<SizeEstimator<Object>> estimators;
+    private final RamAccountingContext ramAccountingContext;
+    private final long spillThresholdInBytes;
+    private final long rowOverhead;
+
+    private final List<SortedRun> runs = new ArrayList<>();
+    private final Set<SortedRun.Reader> openReaders = ConcurrentHashMap.newKeySet();
+
+    private List<Object[]> buffer = new ArrayList<>();
+    private long bufferedBytes = 0;
+
+    /**
+     * @param comparator            the order in which the rows are emitted
+     * @param columnTypes           the types of the columns of the rows
+     * @param spillThresholdInBytes the estimated size of the buffered rows at which they're written to disk,
+     *                              0 disables spilling
+     */
+    SpillingSorter(Comparator<Object[]> comparator,
+                   List<? extends DataType> columnTypes,
+                   RamAccountingContext ramAccountingContext,
+                   long spillThresholdInBytes) {
+        this.comparator = comparator;
+        this.streamers = DataTypes.getStreamers(columnTypes);
+        this.estimators = new ArrayList<>(columnTypes.size());
+        for (DataType columnType : columnTypes) {
+            estimators.add(SizeEstimatorFactory.create(columnType));
+        }
+        this.ramAccountingContext = ramAccountingContext;
+        this.spillThresholdInBytes = spillThresholdInBytes;
+        this.rowOverhead = RamUsageEstimator.alignObjectSize(
+            RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) RamUsageEstimator.NUM_BYTES_OBJECT_REF * columnTypes.size());
+    }
+
+    void add(Object[] row) {
+        long size = rowOverhead;
+        for (int i = 0; i < row.length; i++) {
+            size += estimators.get(i).estimateSize(row[i]);
+        }
+        if (spillThresholdInBytes > 0 && bufferedBytes + size > spillThresholdInBytes && buffer.isEmpty() == false) {
+            spill();
+        }
+        ramAccountingContext.addBytes(size);
+        bufferedBytes += size;
+        buffer.add(row);
+    }
+
+    int numRuns() {
+        return runs.size();
+    }
+
+    private void spill() {
+        buffer.sort(comparator);
+        try {
+            runs.add(SortedRun.write(buffer, streamers));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Wrote sorted run with {} rows ({} bytes estimated), runs={}",
+                buffer.size(), bufferedBytes, runs.size());
+        }
+        buffer = new ArrayList<>();
+        ramAccountingContext.addBytesWithoutBreaking(-bufferedBytes);
+        bufferedBytes = 0;
+    }
+
+    /**
+     * Sorts the remaining buffered rows.
+     *
+     * @return the rows in sorted order. The returned Iterable can be iterated multiple times;
+     *         if rows have been written to disk every iteration merges the runs again.
+     */
+    Iterable<Object[]> sorted() {
+        buffer.sort(comparator);
+        if (runs.isEmpty()) {
+            return buffer;
+        }
+        return this::merge;
+    }
+
+    private Iterator<Object[]> merge() {
+        PriorityQueue<PeekingIterator<Object[]>> queue = new PriorityQueue<>(
+            runs.size() + 1, (it1, it2) -> comparator.compare(it1.peek(), it2.peek()));
+        for (SortedRun run : runs) {
+            SortedRun.Reader reader;
+            try {
+                reader = run.open();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            openReaders.add(reader);
+            if (reader.hasNext()) {
+                queue.add(Iterators.peekingIterator(reader));
+            }
+        }
+        if (buffer.isEmpty() == false) {
+            queue.add(Iterators.peekingIterator(buffer.iterator()));
+        }
+        return new AbstractIterator<Object[]>() {
+            @Override
+            protected Object[] computeNext() {
+                PeekingIterator<Object[]> it = queue.poll();
+                if (it == null) {
+                    return endOfData();
+                }
+                Object[] row = it.next();
+                if (it.hasNext()) {
+                    queue.add(it);
+                }
+                return row;
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        for (SortedRun.Reader reader : openReaders) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                LOGGER.warn("Couldn't close sorted run", e);
+            }
+        }
+        openReaders.clear();
+        for (SortedRun run : runs) {
+            try {
+                run.delete();
+            } catch (IOException e) {
+                LOGGER.warn("Couldn't delete sorted run", e);
+            }
+        }
+        runs.clear();
+        buffer = new ArrayList<>();
+    }
+}
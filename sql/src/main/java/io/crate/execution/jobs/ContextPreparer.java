@@ -135,7 +135,8 @@ public class ContextPreparer extends AbstractComponent {
         this.collectOperation = collectOperation;
         this.clusterService = clusterService;
         this.countOperation = countOperation;
-        this.pkLookupOperation = new PKLookupOperation(indicesService);
+        this.pkLookupOperation = new PKLookupOperation(
+            indicesService, threadPool, PKLookupOperation.COALESCE_WINDOW_SETTING.get(settings));
         circuitBreaker = breakerService.getBreaker(CrateCircuitBreakerService.QUERY);
         this.distributingConsumerFactory = distributingConsumerFactory;
         innerPreparer = new InnerPreparer();
@@ -430,6 +431,10 @@ public class ContextPreparer extends AbstractComponent {
             return contextBuilder.jobId();
         }
 
+        WorkloadClass workloadClass() {
+            return contextBuilder.workloadClass();
+        }
+
         /**
          * Retrieve the rowReceiver of the downstream of phase
          */
@@ -547,6 +552,7 @@ public class ContextPreparer extends AbstractComponent {
                 context.getRowConsumer(pkLookupPhase, 0),
                 pkLookupPhase.projections(),
                 pkLookupPhase.jobId(),
+                context.workloadClass(),
                 RamAccountingContext.forExecutionPhase(circuitBreaker, pkLookupPhase),
                 projectorFactory
             );
@@ -574,6 +580,7 @@ public class ContextPreparer extends AbstractComponent {
                 consumer,
                 phase.projections(),
                 phase.jobId(),
+                context.workloadClass(),
                 ramAccountingContext,
                 projectorFactory
             );
@@ -594,12 +601,14 @@ public class ContextPreparer extends AbstractComponent {
                     phase.numUpstreams(),
                     false,
                     phase.orderByPositions(),
+                    DataTypes.getStreamers(phase.inputTypes()),
                     () -> new RowAccounting(
                         phase.inputTypes(),
                         RamAccountingContext.forExecutionPhase(circuitBreaker, phase))),
                 DataTypes.getStreamers(phase.inputTypes()),
                 ramAccountingContext,
-                phase.numUpstreams()
+                phase.numUpstreams(),
+                phase.numInputs() > 1 && phase.orderByPositions() == null
             ));
             return true;
         }
@@ -620,7 +629,8 @@ public class ContextPreparer extends AbstractComponent {
                 collectOperation,
                 ramAccountingContext,
                 consumer,
-                context.sharedShardContexts
+                context.sharedShardContexts,
+                context.workloadClass()
             ));
             return true;
         }
@@ -634,7 +644,8 @@ public class ContextPreparer extends AbstractComponent {
                 collectOperation,
                 ramAccountingContext,
                 consumer,
-                context.sharedShardContexts
+                context.sharedShardContexts,
+                context.workloadClass()
             ));
             return true;
         }
@@ -673,7 +684,12 @@ public class ContextPreparer extends AbstractComponent {
             RowConsumer lastConsumer = context.getRowConsumer(phase, Paging.PAGE_SIZE);
 
             RowConsumer firstConsumer = ProjectingRowConsumer.create(
-                lastConsumer, phase.projections(), phase.jobId(), ramAccountingContext, projectorFactory);
+                lastConsumer,
+                phase.projections(),
+                phase.jobId(),
+                context.workloadClass(),
+                ramAccountingContext,
+                projectorFactory);
             Predicate<Row> joinCondition = RowFilter.create(inputFactory, phase.joinCondition());
 
             NestedLoopOperation nestedLoopOperation = new NestedLoopOperation(
@@ -732,6 +748,7 @@ public class ContextPreparer extends AbstractComponent {
                     rowConsumer,
                     mergePhase.projections(),
                     mergePhase.jobId(),
+                    ctx.workloadClass(),
                     ramAccountingContext,
                     projectorFactory
                 );
@@ -746,12 +763,14 @@ public class ContextPreparer extends AbstractComponent {
                     mergePhase.numUpstreams(),
                     true,
                     mergePhase.orderByPositions(),
+                    DataTypes.getStreamers(mergePhase.inputTypes()),
                     () -> new RowAccounting(
                         mergePhase.inputTypes(),
                         RamAccountingContext.forExecutionPhase(circuitBreaker, mergePhase))),
                 StreamerVisitor.streamersFromOutputs(mergePhase),
                 ramAccountingContext,
-                mergePhase.numUpstreams()
+                mergePhase.numUpstreams(),
+                false
             );
         }
     }
@@ -171,6 +171,8 @@ public class JobContextService extends AbstractLifecycleComponent {
         for (UUID jobId : toKill) {
             JobExecutionContext ctx = activeContexts.get(jobId);
             if (ctx != null) {
+                long killStarted = System.nanoTime();
+                ctx.completionFuture().whenComplete((r, f) -> jobsLogs.logKill(System.nanoTime() - killStarted));
                 ctx.completionFuture().whenComplete(countDownFuture);
                 ctx.kill();
                 numKilled++;
@@ -57,6 +57,7 @@ public class JobExecutionContext implements CompletionListenable {
     private final CompletableFuture<Void> finishedFuture = new CompletableFuture<>();
     private final AtomicBoolean killSubContextsOngoing = new AtomicBoolean(false);
     private final Collection<String> participatedNodes;
+    private final WorkloadClass workloadClass;
     private volatile Throwable failure;
 
 
@@ -67,6 +68,7 @@ public class JobExecutionContext implements CompletionListenable {
         private final JobsLogs jobsLogs;
         private final List<ExecutionSubContext> subContexts = new ArrayList<>();
         private final Collection<String> participatingNodes;
+        private WorkloadClass workloadClass = WorkloadClass.DEFAULT;
 
         Builder(UUID jobId, String coordinatorNode, Collection<String> participatingNodes, JobsLogs jobsLogs) {
             this.jobId = jobId;
@@ -87,8 +89,16 @@ public class JobExecutionContext implements CompletionListenable {
             return jobId;
         }
 
+        public void workloadClass(WorkloadClass workloadClass) {
+            this.workloadClass = workloadClass;
+        }
+
+        public WorkloadClass workloadClass() {
+            return workloadClass;
+        }
+
         JobExecutionContext build() throws Exception {
-            return new JobExecutionContext(jobId, coordinatorNode, participatingNodes, jobsLogs, subContexts);
+            return new JobExecutionContext(jobId, coordinatorNode, participatingNodes, workloadClass, jobsLogs, subContexts);
         }
     }
 
@@ -96,10 +106,12 @@ public class JobExecutionContext implements CompletionListenable {
     private JobExecutionContext(UUID jobId,
                                 String coordinatorNodeId,
                                 Collection<String> participatingNodes,
+                                WorkloadClass workloadClass,
                                 JobsLogs jobsLogs,
                                 List<ExecutionSubContext> orderedContexts) throws Exception {
         this.coordinatorNodeId = coordinatorNodeId;
         this.participatedNodes = participatingNodes;
+        this.workloadClass = workloadClass;
         orderedContextIds = new IntArrayList(orderedContexts.size());
         this.jobId = jobId;
         this.jobsLogs = jobsLogs;
@@ -129,6 +141,10 @@ public class JobExecutionContext implements CompletionListenable {
         return jobId;
     }
 
+    public WorkloadClass workloadClass() {
+        return workloadClass;
+    }
+
     String coordinatorNodeId() {
         return coordinatorNodeId;
     }
@@ -0,0 +1,139 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+package io.crate.execution.jobs;
+
+import io.crate.execution.dsl.phases.AbstractProjectionsPhase;
+import io.crate.execution.dsl.phases.ExecutionPhase;
+import io.crate.execution.dsl.phases.NodeOperation;
+import io.crate.execution.dsl.phases.NodeOperationTree;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.AggregationProjection;
+import io.crate.execution.dsl.projection.GroupProjection;
+import io.crate.execution.dsl.projection.OrderedTopNProjection;
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.dsl.projection.TopNProjection;
+import io.crate.expression.symbol.Symbol;
+import io.crate.planner.TableStats;
+import io.crate.types.DataType;
+import io.crate.types.FixedWidthType;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates the memory a job requires from its execution phases and the number of documents of the collected tables.
+ *
+ * <p>
+ * Only projections which keep rows in memory are taken into account: grouping and ordering without limit hold
+ * all their input rows in the worst case, ordering with a limit holds up to limit + offset rows. The number of
+ * rows a merge phase receives is assumed to be the number of rows collected by all collect phases of the job.
+ * </p>
+ *
+ * The number of documents is taken per routed index, so only the partitions a query selects are counted.
+ * Indices without statistics (see {@link TableStats#numDocsOfIndex(String)}) don't contribute to the estimate.
+ */
+public final class JobMemoryEstimator {
+
+    /**
+     * Size assumed for values of types without fixed width, e.g. strings or objects
+     */
+    static final int VARIABLE_WIDTH_SIZE = 64;
+
+    private JobMemoryEstimator() {
+    }
+
+    public static long estimate(Iterable<NodeOperationTree> nodeOperationTrees, TableStats tableStats) {
+        long bytes = 0L;
+        for (NodeOperationTree nodeOperationTree : nodeOperationTrees) {
+            long collectedRows = 0L;
+            for (NodeOperation nodeOperation : nodeOperationTree.nodeOperations()) {
+                ExecutionPhase phase = nodeOperation.executionPhase();
+                if (phase instanceof RoutedCollectPhase) {
+                    collectedRows += numDocs((RoutedCollectPhase) phase, tableStats);
+                }
+            }
+            for (NodeOperation nodeOperation : nodeOperationTree.nodeOperations()) {
+                ExecutionPhase phase = nodeOperation.executionPhase();
+                long inputRows = phase instanceof RoutedCollectPhase
+                    ? numDocs((RoutedCollectPhase) phase, tableStats)
+                    : collectedRows;
+                bytes += estimate(phase, inputRows);
+            }
+            bytes += estimate(nodeOperationTree.leaf(), collectedRows);
+        }
+        return bytes;
+    }
+
+    private static long estimate(ExecutionPhase phase, long inputRows) {
+        if (!(phase instanceof AbstractProjectionsPhase)) {
+            return 0L;
+        }
+        long bytes = 0L;
+        long rows = inputRows;
+        for (Projection projection : ((AbstractProjectionsPhase) phase).projections()) {
+            if (projection instanceof GroupProjection) {
+                bytes += rows * rowSize(projection.outputs());
+            } else if (projection instanceof OrderedTopNProjection) {
+                OrderedTopNProjection topN = (OrderedTopNProjection) projection;
+                rows = limit(rows, topN.limit(), topN.offset());
+                bytes += rows * rowSize(projection.outputs());
+            } else if (projection instanceof TopNProjection) {
+                TopNProjection topN = (TopNProjection) projection;
+                rows = limit(rows, topN.limit(), topN.offset());
+            } else if (projection instanceof AggregationProjection) {
+                rows = 1L;
+            }
+        }
+        return bytes;
+    }
+
+    private static long limit(long rows, int limit, int offset) {
+        if (limit < 0) {
+            return rows;
+        }
+        return Math.min(rows, (long) limit + offset);
+    }
+
+    private static long numDocs(RoutedCollectPhase phase, TableStats tableStats) {
+        // an index can be routed to several nodes, one per shard location; count it once
+        Set<String> indices = new HashSet<>();
+        for (Map<String, List<Integer>> indicesOfNode : phase.routing().locations().values()) {
+            indices.addAll(indicesOfNode.keySet());
+        }
+        long numDocs = 0L;
+        for (String indexName : indices) {
+            numDocs += Math.max(0L, tableStats.numDocsOfIndex(indexName));
+        }
+        return numDocs;
+    }
+
+    private static long rowSize(List<? extends Symbol> outputs) {
+        long size = 0L;
+        for (Symbol output : outputs) {
+            DataType type = output.valueType();
+            size += type instanceof FixedWidthType ? ((FixedWidthType) type).fixedSize() : VARIABLE_WIDTH_SIZE;
+        }
+        return size;
+    }
+}
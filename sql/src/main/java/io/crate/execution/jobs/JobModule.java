@@ -29,5 +29,6 @@ public class JobModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(JobContextService.class).asEagerSingleton();
+        bind(QueryAdmissionController.class).asEagerSingleton();
     }
 }
@@ -23,7 +23,6 @@
 package io.crate.execution.jobs;
 
 import io.crate.expression.symbol.Symbol;
-import io.crate.data.BatchIterator;
 import io.crate.data.BatchIterators;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
@@ -40,8 +39,10 @@ import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.index.get.GetResult;
 import org.elasticsearch.index.shard.ShardId;
 
+import javax.annotation.Nonnull;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public final class PKLookupContext extends AbstractExecutionSubContext {
 
@@ -52,6 +53,7 @@ public final class PKLookupContext extends AbstractExecutionSubContext {
     private final RowConsumer consumer;
     private final InputRow inputRow;
     private final List<CollectExpression<GetResponse, ?>> expressions;
+    private final AtomicBoolean consumerCalled = new AtomicBoolean(false);
 
     public PKLookupContext(int phaseId,
                            InputFactory inputFactory,
@@ -75,9 +77,26 @@ public final class PKLookupContext extends AbstractExecutionSubContext {
 
     @Override
     protected void innerStart() {
-        BatchIterator<GetResult> batchIterator = pkLookupOperation.lookup(ignoreMissing, idsByShard);
-        consumer.accept(BatchIterators.map(batchIterator, this::resultToRow), null);
-        close(null);
+        pkLookupOperation.lookup(ignoreMissing, idsByShard).whenComplete((batchIterator, failure) -> {
+            if (!consumerCalled.compareAndSet(false, true)) {
+                // killed while the lookup was pending
+                return;
+            }
+            if (failure == null) {
+                consumer.accept(BatchIterators.map(batchIterator, this::resultToRow), null);
+                close(null);
+            } else {
+                consumer.accept(null, failure);
+                close(failure);
+            }
+        });
+    }
+
+    @Override
+    protected void innerKill(@Nonnull Throwable t) {
+        if (consumerCalled.compareAndSet(false, true)) {
+            consumer.accept(null, t);
+        }
     }
 
     private Row resultToRow(GetResult getResult) {
@@ -44,6 +44,11 @@ import java.util.Set;
 /**
  * A {@link DownstreamExecutionSubContext} which receives paged buckets from upstreams
  * and forwards the merged bucket results to the consumers for further processing.
+ *
+ * By default a page is complete once a bucket from each upstream has been received.
+ * If {@code mergeOnArrival} is set, buckets are forwarded to the consumer as soon as they arrive and
+ * more data is requested from each upstream individually once its bucket has been consumed.
+ * This requires a {@link PagingIterator} which doesn't need a bucket of all upstreams to determine the order.
  */
 public class PageDownstreamContext extends AbstractExecutionSubContext implements DownstreamExecutionSubContext, PageBucketReceiver {
 
@@ -61,10 +66,21 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
     private final Map<Integer, Bucket> bucketsByIdx;
     private final RowConsumer consumer;
     private final BatchPagingIterator<Integer> batchPagingIterator;
+    private final boolean mergeOnArrival;
 
     private Throwable lastThrowable = null;
     private volatile boolean receivingFirstPage = true;
 
+    /**
+     * Only used if {@link #mergeOnArrival} is true: Number of requested buckets which haven't been received yet
+     */
+    private int numPendingBuckets;
+
+    /**
+     * Only used if {@link #mergeOnArrival} is true: Whether the consumer is waiting for more data
+     */
+    private boolean consumerWaiting = true;
+
     public PageDownstreamContext(Logger logger,
                                  String nodeName,
                                  int id,
@@ -73,13 +89,16 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
                                  PagingIterator<Integer, Row> pagingIterator,
                                  Streamer<?>[] streamers,
                                  RamAccountingContext ramAccountingContext,
-                                 int numBuckets) {
+                                 int numBuckets,
+                                 boolean mergeOnArrival) {
         super(id, logger);
         this.nodeName = nodeName;
         this.name = name;
         this.streamers = streamers;
         this.ramAccountingContext = ramAccountingContext;
         this.numBuckets = numBuckets;
+        this.numPendingBuckets = numBuckets;
+        this.mergeOnArrival = mergeOnArrival;
         this.buckets = new HashSet<>(numBuckets);
         traceEnabled = logger.isTraceEnabled();
         this.exhausted = new HashSet<>(numBuckets);
@@ -106,11 +125,20 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
     }
 
     private boolean allUpstreamsExhausted() {
+        if (mergeOnArrival) {
+            synchronized (lock) {
+                return exhausted.size() == numBuckets && bucketsByIdx.isEmpty();
+            }
+        }
         return exhausted.size() == numBuckets;
     }
 
     @Override
     public void setBucket(int bucketIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
+        if (mergeOnArrival) {
+            setBucketOnArrival(bucketIdx, rows, isLast, pageResultListener);
+            return;
+        }
         synchronized (buckets) {
             buckets.add(bucketIdx);
             if (lastThrowable == null) {
@@ -141,6 +169,54 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
         }
     }
 
+    private void setBucketOnArrival(int bucketIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
+        boolean releaseListener = false;
+        boolean shouldTriggerConsumer = false;
+        synchronized (lock) {
+            traceLog("method=setBucket", bucketIdx);
+
+            // the listener must be registered together with the bucket, otherwise fetchMore could
+            // request the next bucket before this one has been merged
+            synchronized (buckets) {
+                buckets.add(bucketIdx);
+                if (lastThrowable == null) {
+                    listenersByBucketIdx.put(bucketIdx, pageResultListener);
+                } else {
+                    releaseListener = true;
+                }
+            }
+            if (bucketsByIdx.putIfAbsent(bucketIdx, rows) != null) {
+                kill(new IllegalStateException(String.format(Locale.ENGLISH,
+                    "Same bucket of a page set more than once. node=%s method=setBucket phaseId=%d bucket=%d",
+                    nodeName, id, bucketIdx)));
+            }
+            numPendingBuckets--;
+            if (isLast) {
+                exhausted.add(bucketIdx);
+            }
+            shouldTriggerConsumer = consumerWaitingAndReady();
+        }
+        if (releaseListener) {
+            pageResultListener.needMore(false);
+        }
+        if (shouldTriggerConsumer) {
+            mergeAndTriggerConsumer();
+        }
+    }
+
+    /**
+     * Must be called while holding {@link #lock}.
+     * On a failure the consumer is only triggered once all pending buckets have been received,
+     * because triggering it closes the context which the other upstreams still require.
+     */
+    private boolean consumerWaitingAndReady() {
+        if (consumerWaiting && (lastThrowable == null || numPendingBuckets == 0)) {
+            consumerWaiting = false;
+            return true;
+        }
+        return false;
+    }
+
     private void triggerConsumer() {
         boolean invokeConsumer = false;
         Throwable throwable;
@@ -189,6 +265,10 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
         if (allUpstreamsExhausted()) {
             return false;
         }
+        if (mergeOnArrival) {
+            fetchFromConsumed();
+            return true;
+        }
         if (exhaustedBucket == null || exhausted.contains(exhaustedBucket)) {
             fetchFromUnExhausted();
         } else {
@@ -222,6 +302,41 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
         }
     }
 
+    /**
+     * Requests more data from all upstreams whose bucket has already been consumed.
+     * Buckets which arrived while the consumer was busy are merged immediately,
+     * otherwise the consumer is triggered by the next bucket that arrives.
+     */
+    private void fetchFromConsumed() {
+        List<PageResultListener> toRequest = new ArrayList<>();
+        boolean triggerNow;
+        synchronized (lock) {
+            if (lastThrowable == null) {
+                synchronized (buckets) {
+                    for (Integer bucketIdx : buckets) {
+                        if (!exhausted.contains(bucketIdx) && !bucketsByIdx.containsKey(bucketIdx)) {
+                            PageResultListener resultListener = listenersByBucketIdx.remove(bucketIdx);
+                            if (resultListener != null) {
+                                toRequest.add(resultListener);
+                            }
+                        }
+                    }
+                }
+                numPendingBuckets += toRequest.size();
+                triggerNow = !bucketsByIdx.isEmpty();
+            } else {
+                triggerNow = numPendingBuckets == 0;
+            }
+            consumerWaiting = !triggerNow;
+        }
+        for (PageResultListener resultListener : toRequest) {
+            resultListener.needMore(true);
+        }
+        if (triggerNow) {
+            mergeAndTriggerConsumer();
+        }
+    }
+
     private void traceLog(String msg, int bucketIdx) {
         if (traceEnabled) {
             logger.trace("{} phaseId={} bucket={}", msg, id, bucketIdx);
@@ -276,6 +391,10 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
 
         lastThrowable = throwable;
         exhausted.add(bucketIdx);
+        if (mergeOnArrival) {
+            numPendingBuckets--;
+            return consumerWaitingAndReady();
+        }
         return bucketsByIdx.size() == numBuckets;
     }
 
@@ -0,0 +1,255 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+package io.crate.execution.jobs;
+
+import io.crate.exceptions.JobKilledException;
+import io.crate.execution.jobs.kill.KillAllListener;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Limits the estimated memory of the jobs which are coordinated by this node.
+ *
+ * <p>
+ * A job is admitted if its estimated memory fits into the remaining memory of {@link #MEMORY_LIMIT_SETTING},
+ * otherwise it is queued until enough memory has been released by finished jobs. Jobs which fit are admitted even
+ * if other jobs are queued, so small jobs like primary key lookups or queries on {@code sys} tables are not held
+ * up by a large one. Once memory is released, queued jobs which fit are admitted in the order they arrived.
+ * Queued jobs fail with an {@link EsRejectedExecutionException} if they are queued for longer than
+ * {@link #QUEUE_TIMEOUT_SETTING}. A job whose estimate exceeds the limit is admitted if no other job is running.
+ * </p>
+ *
+ * Admission control is disabled if the limit is set to 0.
+ */
+@Singleton
+public class QueryAdmissionController extends AbstractComponent implements KillAllListener {
+
+    public static final Setting<ByteSizeValue> MEMORY_LIMIT_SETTING = Setting.memorySizeSetting(
+        "node.sql.admission.memory_limit", "0b", Setting.Property.NodeScope);
+
+    public static final Setting<TimeValue> QUEUE_TIMEOUT_SETTING = Setting.positiveTimeSetting(
+        "node.sql.admission.queue_timeout", TimeValue.timeValueSeconds(30), Setting.Property.NodeScope);
+
+    private final ThreadPool threadPool;
+    private final long memoryLimit;
+    private final TimeValue queueTimeout;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<QueuedJob> queue = new ArrayDeque<>();
+    private final Map<UUID, Long> reservations = new HashMap<>();
+    private long reservedBytes = 0L;
+
+    @Inject
+    public QueryAdmissionController(Settings settings, ThreadPool threadPool, JobContextService jobContextService) {
+        super(settings);
+        this.threadPool = threadPool;
+        this.memoryLimit = MEMORY_LIMIT_SETTING.get(settings).getBytes();
+        this.queueTimeout = QUEUE_TIMEOUT_SETTING.get(settings);
+        jobContextService.addListener(this);
+    }
+
+    public boolean isEnabled() {
+        return memoryLimit > 0;
+    }
+
+    /**
+     * Reserves the estimated memory of a job.
+     *
+     * @return a future which is completed once the job has been admitted. The memory must be released using
+     *         {@link #release(UUID)} after the job finished.
+     */
+    public CompletableFuture<Void> admit(UUID jobId, long estimatedBytes) {
+        if (!isEnabled()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long bytes = Math.max(0L, Math.min(estimatedBytes, memoryLimit));
+        QueuedJob queuedJob;
+        synchronized (lock) {
+            if (fits(bytes)) {
+                reserve(jobId, bytes);
+                return CompletableFuture.completedFuture(null);
+            }
+            queuedJob = new QueuedJob(jobId, bytes, System.currentTimeMillis());
+            queue.add(queuedJob);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Job {} queued, estimatedBytes={} reservedBytes={} limit={}",
+                jobId, bytes, reservedBytes(), memoryLimit);
+        }
+        queuedJob.timeout = threadPool.schedule(queueTimeout, ThreadPool.Names.GENERIC, () -> onTimeout(queuedJob));
+        return queuedJob.future;
+    }
+
+    /**
+     * Releases the memory reserved for the job and admits queued jobs which fit into the released memory.
+     * Calling it for a job which holds no reservation has no effect.
+     */
+    public void release(UUID jobId) {
+        if (!isEnabled()) {
+            return;
+        }
+        List<QueuedJob> admitted = new ArrayList<>();
+        synchronized (lock) {
+            Long bytes = reservations.remove(jobId);
+            if (bytes == null) {
+                return;
+            }
+            reservedBytes -= bytes;
+            for (Iterator<QueuedJob> it = queue.iterator(); it.hasNext(); ) {
+                QueuedJob next = it.next();
+                if (fits(next.estimatedBytes)) {
+                    it.remove();
+                    reserve(next.jobId, next.estimatedBytes);
+                    admitted.add(next);
+                }
+            }
+        }
+        for (QueuedJob job : admitted) {
+            if (job.timeout != null) {
+                job.timeout.cancel(false);
+            }
+            // the job is set up by the thread completing the future; don't block the thread releasing the memory
+            threadPool.generic().execute(() -> job.future.complete(null));
+        }
+    }
+
+    /**
+     * @return a snapshot of the jobs which are waiting to be admitted, in the order they will be admitted
+     */
+    public List<QueuedJob> queuedJobs() {
+        synchronized (lock) {
+            return new ArrayList<>(queue);
+        }
+    }
+
+    public long reservedBytes() {
+        synchronized (lock) {
+            return reservedBytes;
+        }
+    }
+
+    @Override
+    public void killAllJobs() {
+        List<QueuedJob> killed;
+        synchronized (lock) {
+            killed = new ArrayList<>(queue);
+            queue.clear();
+        }
+        for (QueuedJob job : killed) {
+            fail(job, new JobKilledException());
+        }
+    }
+
+    @Override
+    public void killJob(UUID jobId) {
+        QueuedJob killed = null;
+        synchronized (lock) {
+            for (QueuedJob job : queue) {
+                if (job.jobId.equals(jobId)) {
+                    killed = job;
+                    break;
+                }
+            }
+            if (killed != null) {
+                queue.remove(killed);
+            }
+        }
+        if (killed != null) {
+            fail(killed, new JobKilledException());
+        }
+    }
+
+    private void onTimeout(QueuedJob job) {
+        synchronized (lock) {
+            if (!queue.remove(job)) {
+                return;
+            }
+        }
+        job.future.completeExceptionally(new EsRejectedExecutionException(String.format(Locale.ENGLISH,
+            "Job %s was not admitted within %s, the estimated memory of running queries exceeds %s",
+            job.jobId, queueTimeout, new ByteSizeValue(memoryLimit))));
+    }
+
+    private void fail(QueuedJob job, Exception e) {
+        if (job.timeout != null) {
+            job.timeout.cancel(false);
+        }
+        job.future.completeExceptionally(e);
+    }
+
+    private boolean fits(long bytes) {
+        assert Thread.holdsLock(lock) : "must hold lock";
+        return reservations.isEmpty() || reservedBytes + bytes <= memoryLimit;
+    }
+
+    private void reserve(UUID jobId, long bytes) {
+        assert Thread.holdsLock(lock) : "must hold lock";
+        Long existing = reservations.put(jobId, bytes);
+        assert existing == null : "job " + jobId + " is already admitted";
+        reservedBytes += bytes;
+    }
+
+    public static final class QueuedJob {
+
+        private final UUID jobId;
+        private final long estimatedBytes;
+        private final long queuedSince;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private volatile ScheduledFuture<?> timeout;
+
+        QueuedJob(UUID jobId, long estimatedBytes, long queuedSince) {
+            this.jobId = jobId;
+            this.estimatedBytes = estimatedBytes;
+            this.queuedSince = queuedSince;
+        }
+
+        public UUID jobId() {
+            return jobId;
+        }
+
+        public long estimatedBytes() {
+            return estimatedBytes;
+        }
+
+        public long queuedSince() {
+            return queuedSince;
+        }
+    }
+}
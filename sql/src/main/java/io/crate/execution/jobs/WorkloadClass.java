@@ -0,0 +1,79 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+package io.crate.execution.jobs;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.threadpool.ExecutorBuilder;
+import org.elasticsearch.threadpool.FixedExecutorBuilder;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.Locale;
+
+/**
+ * The class of the workload a job belongs to. It determines the thread pool which is used to collect and merge the
+ * rows of the job, so that long running analytical queries don't occupy the threads needed by latency critical ones.
+ *
+ * {@link #DEFAULT} uses the <code>search</code> thread pool, {@link #BATCH} uses its own bounded thread pool.
+ * The class of a job is chosen with the <code>workload_class</code> session setting.
+ */
+public enum WorkloadClass {
+
+    DEFAULT(ThreadPool.Names.SEARCH),
+    BATCH("sql_batch");
+
+    private final String executorName;
+
+    WorkloadClass(String executorName) {
+        this.executorName = executorName;
+    }
+
+    /**
+     * @return the name of the thread pool which executes the collect and merge operations of jobs of this class
+     */
+    public String executorName() {
+        return executorName;
+    }
+
+    public static WorkloadClass of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "Invalid workload class \"%s\", valid classes are \"default\" and \"batch\"", name));
+        }
+    }
+
+    /**
+     * The thread pool of the {@link #BATCH} class. Its size and queue size can be changed using the
+     * <code>thread_pool.sql_batch.size</code> and <code>thread_pool.sql_batch.queue_size</code> settings.
+     */
+    public static ExecutorBuilder<?> batchExecutorBuilder(Settings settings) {
+        int size = Math.max(1, EsExecutors.numberOfProcessors(settings) / 2);
+        return new FixedExecutorBuilder(settings, BATCH.executorName, size, 1000);
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -23,6 +23,7 @@
 package io.crate.execution.jobs.transport;
 
 import io.crate.execution.dsl.phases.NodeOperation;
+import io.crate.execution.jobs.WorkloadClass;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.transport.TransportRequest;
@@ -37,14 +38,23 @@ public class JobRequest extends TransportRequest {
     private UUID jobId;
     private String coordinatorNodeId;
     private Collection<? extends NodeOperation> nodeOperations;
+    private WorkloadClass workloadClass;
 
     public JobRequest() {
     }
 
     public JobRequest(UUID jobId, String coordinatorNodeId, Collection<? extends NodeOperation> nodeOperations) {
+        this(jobId, coordinatorNodeId, nodeOperations, WorkloadClass.DEFAULT);
+    }
+
+    public JobRequest(UUID jobId,
+                      String coordinatorNodeId,
+                      Collection<? extends NodeOperation> nodeOperations,
+                      WorkloadClass workloadClass) {
         this.jobId = jobId;
         this.coordinatorNodeId = coordinatorNodeId;
         this.nodeOperations = nodeOperations;
+        this.workloadClass = workloadClass;
     }
 
     public UUID jobId() {
@@ -59,6 +69,10 @@ public class JobRequest extends TransportRequest {
         return coordinatorNodeId;
     }
 
+    public WorkloadClass workloadClass() {
+        return workloadClass;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -72,6 +86,7 @@ public class JobRequest extends TransportRequest {
             nodeOperations.add(new NodeOperation(in));
         }
         this.nodeOperations = nodeOperations;
+        workloadClass = WorkloadClass.values()[in.readVInt()];
     }
 
     @Override
@@ -86,5 +101,6 @@ public class JobRequest extends TransportRequest {
         for (NodeOperation nodeOperation : nodeOperations) {
             nodeOperation.writeTo(out);
         }
+        out.writeVInt(workloadClass.ordinal());
     }
 }
@@ -41,13 +41,15 @@ import org.elasticsearch.transport.TransportService;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @Singleton
 public class TransportJobAction implements NodeAction<JobRequest, JobResponse> {
 
     private static final String ACTION_NAME = "crate/sql/job";
-    private static final String EXECUTOR = ThreadPool.Names.SEARCH;
 
+    private final ThreadPool threadPool;
     private final IndicesService indicesService;
     private final Transports transports;
     private final JobContextService jobContextService;
@@ -55,10 +57,12 @@ public class TransportJobAction implements NodeAction<JobRequest, JobResponse> {
 
     @Inject
     public TransportJobAction(TransportService transportService,
+                              ThreadPool threadPool,
                               IndicesService indicesService,
                               Transports transports,
                               JobContextService jobContextService,
                               ContextPreparer contextPreparer) {
+        this.threadPool = threadPool;
         this.indicesService = indicesService;
         this.transports = transports;
         this.jobContextService = jobContextService;
@@ -66,7 +70,7 @@ public class TransportJobAction implements NodeAction<JobRequest, JobResponse> {
         transportService.registerRequestHandler(
             ACTION_NAME,
             JobRequest::new,
-            EXECUTOR,
+            ThreadPool.Names.SAME, // <- dispatched in nodeOperation to the executor of the workload class
             new NodeActionRequestHandler<>(this));
     }
 
@@ -77,7 +81,17 @@ public class TransportJobAction implements NodeAction<JobRequest, JobResponse> {
 
     @Override
     public CompletableFuture<JobResponse> nodeOperation(final JobRequest request) {
+        Executor executor = threadPool.executor(request.workloadClass().executorName());
+        try {
+            return CompletableFuture.supplyAsync(() -> startJob(request), executor).thenCompose(f -> f);
+        } catch (RejectedExecutionException e) {
+            return CompletableFutures.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<JobResponse> startJob(JobRequest request) {
         JobExecutionContext.Builder contextBuilder = jobContextService.newBuilder(request.jobId(), request.coordinatorNodeId());
+        contextBuilder.workloadClass(request.workloadClass());
 
         SharedShardContexts sharedShardContexts = new SharedShardContexts(indicesService);
         List<CompletableFuture<Bucket>> directResponseFutures = contextPreparer.prepareOnRemote(
@@ -54,12 +54,16 @@ public class BaseImplementationSymbolVisitor<C> extends SymbolVisitor<C, Input<?
         final FunctionImplementation functionImplementation = functions.getQualified(ident);
         if (functionImplementation instanceof Scalar<?, ?>) {
             List<Symbol> arguments = function.arguments();
-            Scalar<?, ?> scalarImpl = ((Scalar) functionImplementation).compile(arguments);
             Input[] argumentInputs = new Input[arguments.size()];
             int i = 0;
             for (Symbol argument : function.arguments()) {
                 argumentInputs[i++] = process(argument, context);
             }
+            Input<?> compiled = ExpressionCompiler.tryCompile(function, argumentInputs);
+            if (compiled != null) {
+                return compiled;
+            }
+            Scalar<?, ?> scalarImpl = ((Scalar) functionImplementation).compile(arguments);
             return new FunctionExpression<>(scalarImpl, argumentInputs);
         } else {
             throw new UnsupportedFeatureException(
@@ -0,0 +1,855 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression;
+
+import io.crate.data.Input;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.GteOperator;
+import io.crate.expression.operator.LtOperator;
+import io.crate.expression.operator.LteOperator;
+import io.crate.expression.operator.OrOperator;
+import io.crate.expression.predicate.NotPredicate;
+import io.crate.expression.scalar.arithmetic.ArithmeticFunctions;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Literal;
+import io.crate.metadata.FunctionIdent;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Compiles arithmetic, comparison and logical functions on primitive types into specialized {@link Input}s.
+ *
+ * <p>
+ * A {@link FunctionExpression} calls {@link io.crate.metadata.Scalar#evaluate(Input[])} for each function of a tree,
+ * boxes every intermediate value and converts it again with {@link DataType#value(Object)}.
+ * The nodes created here instead pass primitive values and a null flag to their parent.
+ * Only leaves unbox values and only the root of a compiled tree boxes its result.
+ * </p>
+ *
+ * <p>
+ * Nested compilable functions are merged into a single tree of nodes, because the arguments are compiled
+ * before their parent function (see {@link BaseImplementationSymbolVisitor#visitFunction}).
+ * Any other input becomes a leaf of the tree.
+ * </p>
+ *
+ * <p>
+ * The results are the same as those of the scalar implementations, with the exception that {@code AND}
+ * and {@code OR} don't evaluate the right argument if the left argument already determines the result.
+ * </p>
+ */
+final class ExpressionCompiler {
+
+    private static final int ADD = 0;
+    private static final int SUBTRACT = 1;
+    private static final int MULTIPLY = 2;
+    private static final int DIVIDE = 3;
+    private static final int MODULUS = 4;
+
+    private static final int EQ = 0;
+    private static final int LT = 1;
+    private static final int LTE = 2;
+    private static final int GT = 3;
+    private static final int GTE = 4;
+
+    private enum Kind {
+        INT,
+        LONG,
+        FLOAT,
+        DOUBLE
+    }
+
+    private ExpressionCompiler() {
+    }
+
+    /**
+     * @return a compiled input for the function or null if the function isn't supported.
+     */
+    @Nullable
+    static Input<?> tryCompile(Function function, Input<?>[] args) {
+        FunctionIdent ident = function.info().ident();
+        if (ident.schema() != null) {
+            return null;
+        }
+        List<DataType> argTypes = ident.argumentTypes();
+        switch (ident.name()) {
+            case ArithmeticFunctions.Names.ADD:
+                return arithmetic(ADD, argTypes, args);
+            case ArithmeticFunctions.Names.SUBTRACT:
+                return arithmetic(SUBTRACT, argTypes, args);
+            case ArithmeticFunctions.Names.MULTIPLY:
+                return arithmetic(MULTIPLY, argTypes, args);
+            case ArithmeticFunctions.Names.DIVIDE:
+                return arithmetic(DIVIDE, argTypes, args);
+            case ArithmeticFunctions.Names.MODULUS:
+                return arithmetic(MODULUS, argTypes, args);
+
+            case EqOperator.NAME:
+                return comparison(EQ, argTypes, args);
+            case LtOperator.NAME:
+                return comparison(LT, argTypes, args);
+            case LteOperator.NAME:
+                return comparison(LTE, argTypes, args);
+            case GtOperator.NAME:
+                return comparison(GT, argTypes, args);
+            case GteOperator.NAME:
+                return comparison(GTE, argTypes, args);
+
+            case AndOperator.NAME:
+                return new And(toBool(args[0]), toBool(args[1]));
+            case OrOperator.NAME:
+                return new Or(toBool(args[0]), toBool(args[1]));
+            case NotPredicate.NAME:
+                return new Not(toBool(args[0]));
+
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Maps argument types to the type used for the computation, like the resolvers of the functions do.
+     * E.g. arithmetic on byte or short values is done on integers.
+     */
+    @Nullable
+    private static Kind kindOf(List<DataType> argTypes) {
+        if (argTypes.size() != 2 || argTypes.get(0).equals(argTypes.get(1)) == false) {
+            return null;
+        }
+        switch (argTypes.get(0).id()) {
+            case ByteType.ID:
+            case ShortType.ID:
+            case IntegerType.ID:
+                return Kind.INT;
+
+            case LongType.ID:
+            case TimestampType.ID:
+                return Kind.LONG;
+
+            case FloatType.ID:
+                return Kind.FLOAT;
+
+            case DoubleType.ID:
+                return Kind.DOUBLE;
+
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    private static Input<?> arithmetic(int op, List<DataType> argTypes, Input<?>[] args) {
+        Kind kind = kindOf(argTypes);
+        if (kind == null) {
+            return null;
+        }
+        switch (kind) {
+            case INT:
+                return new IntArithmetic(op, toInt(args[0]), toInt(args[1]));
+            case LONG:
+                return new LongArithmetic(op, toLong(args[0]), toLong(args[1]));
+            case FLOAT:
+                return new FloatArithmetic(op, toFloat(args[0]), toFloat(args[1]));
+            case DOUBLE:
+                return new DoubleArithmetic(op, toDouble(args[0]), toDouble(args[1]));
+            default:
+                throw new AssertionError("Unexpected kind: " + kind);
+        }
+    }
+
+    @Nullable
+    private static Input<?> comparison(int op, List<DataType> argTypes, Input<?>[] args) {
+        Kind kind = kindOf(argTypes);
+        if (kind == null) {
+            return null;
+        }
+        switch (kind) {
+            case INT:
+                return new IntComparison(op, toInt(args[0]), toInt(args[1]));
+            case LONG:
+                return new LongComparison(op, toLong(args[0]), toLong(args[1]));
+            case FLOAT:
+                return new FloatComparison(op, toFloat(args[0]), toFloat(args[1]));
+            case DOUBLE:
+                return new DoubleComparison(op, toDouble(args[0]), toDouble(args[1]));
+            default:
+                throw new AssertionError("Unexpected kind: " + kind);
+        }
+    }
+
+    private static boolean compare(int op, int comparisonResult) {
+        switch (op) {
+            case EQ:
+                return comparisonResult == 0;
+            case LT:
+                return comparisonResult < 0;
+            case LTE:
+                return comparisonResult <= 0;
+            case GT:
+                return comparisonResult > 0;
+            case GTE:
+                return comparisonResult >= 0;
+            default:
+                throw new AssertionError("Unexpected comparison: " + op);
+        }
+    }
+
+    private static IntNode toInt(Input<?> input) {
+        if (input instanceof IntNode) {
+            return (IntNode) input;
+        }
+        if (input instanceof Literal) {
+            Integer value = DataTypes.INTEGER.value(input.value());
+            return new IntConstant(value == null ? 0 : value, value == null);
+        }
+        return new IntLeaf(input);
+    }
+
+    private static LongNode toLong(Input<?> input) {
+        if (input instanceof LongNode) {
+            return (LongNode) input;
+        }
+        if (input instanceof Literal) {
+            Long value = DataTypes.LONG.value(input.value());
+            return new LongConstant(value == null ? 0L : value, value == null);
+        }
+        return new LongLeaf(input);
+    }
+
+    private static FloatNode toFloat(Input<?> input) {
+        if (input instanceof FloatNode) {
+            return (FloatNode) input;
+        }
+        if (input instanceof Literal) {
+            Float value = DataTypes.FLOAT.value(input.value());
+            return new FloatConstant(value == null ? 0f : value, value == null);
+        }
+        return new FloatLeaf(input);
+    }
+
+    private static DoubleNode toDouble(Input<?> input) {
+        if (input instanceof DoubleNode) {
+            return (DoubleNode) input;
+        }
+        if (input instanceof Literal) {
+            Double value = DataTypes.DOUBLE.value(input.value());
+            return new DoubleConstant(value == null ? 0d : value, value == null);
+        }
+        return new DoubleLeaf(input);
+    }
+
+    private static BoolNode toBool(Input<?> input) {
+        if (input instanceof BoolNode) {
+            return (BoolNode) input;
+        }
+        return new BoolLeaf(input);
+    }
+
+    /*
+     * Each node computes its primitive value in eval*() and sets `isNull` if the result is null.
+     * The value returned by eval*() is undefined if `isNull` is set.
+     */
+
+    abstract static class IntNode implements Input<Integer> {
+
+        boolean isNull;
+
+        abstract int evalInt();
+
+        @Override
+        public Integer value() {
+            int value = evalInt();
+            return isNull ? null : value;
+        }
+    }
+
+    abstract static class LongNode implements Input<Long> {
+
+        boolean isNull;
+
+        abstract long evalLong();
+
+        @Override
+        public Long value() {
+            long value = evalLong();
+            return isNull ? null : value;
+        }
+    }
+
+    abstract static class FloatNode implements Input<Float> {
+
+        boolean isNull;
+
+        abstract float evalFloat();
+
+        @Override
+        public Float value() {
+            float value = evalFloat();
+            return isNull ? null : value;
+        }
+    }
+
+    abstract static class DoubleNode implements Input<Double> {
+
+        boolean isNull;
+
+        abstract double evalDouble();
+
+        @Override
+        public Double value() {
+            double value = evalDouble();
+            return isNull ? null : value;
+        }
+    }
+
+    abstract static class BoolNode implements Input<Boolean> {
+
+        boolean isNull;
+
+        abstract boolean evalBool();
+
+        @Override
+        public Boolean value() {
+            boolean value = evalBool();
+            return isNull ? null : value;
+        }
+    }
+
+    private static final class IntLeaf extends IntNode {
+
+        private final Input<?> input;
+
+        IntLeaf(Input<?> input) {
+            this.input = input;
+        }
+
+        @Override
+        int evalInt() {
+            Object value = input.value();
+            if (value == null) {
+                isNull = true;
+                return 0;
+            }
+            isNull = false;
+            if (value instanceof Number) {
+                return ((Number) value).intValue();
+            }
+            return DataTypes.INTEGER.value(value);
+        }
+    }
+
+    private static final class LongLeaf extends LongNode {
+
+        private final Input<?> input;
+
+        LongLeaf(Input<?> input) {
+            this.input = input;
+        }
+
+        @Override
+        long evalLong() {
+            Object value = input.value();
+            if (value == null) {
+                isNull = true;
+                return 0L;
+            }
+            isNull = false;
+            if (value instanceof Number) {
+                return ((Number) value).longValue();
+            }
+            return DataTypes.LONG.value(value);
+        }
+    }
+
+    private static final class FloatLeaf extends FloatNode {
+
+        private final Input<?> input;
+
+        FloatLeaf(Input<?> input) {
+            this.input = input;
+        }
+
+        @Override
+        float evalFloat() {
+            Object value = input.value();
+            if (value == null) {
+                isNull = true;
+                return 0f;
+            }
+            isNull = false;
+            if (value instanceof Number) {
+                return ((Number) value).floatValue();
+            }
+            return DataTypes.FLOAT.value(value);
+        }
+    }
+
+    private static final class DoubleLeaf extends DoubleNode {
+
+        private final Input<?> input;
+
+        DoubleLeaf(Input<?> input) {
+            this.input = input;
+        }
+
+        @Override
+        double evalDouble() {
+            Object value = input.value();
+            if (value == null) {
+                isNull = true;
+                return 0d;
+            }
+            isNull = false;
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+            return DataTypes.DOUBLE.value(value);
+        }
+    }
+
+    private static final class BoolLeaf extends BoolNode {
+
+        private final Input<?> input;
+
+        BoolLeaf(Input<?> input) {
+            this.input = input;
+        }
+
+        @Override
+        boolean evalBool() {
+            Boolean value = (Boolean) input.value();
+            if (value == null) {
+                isNull = true;
+                return false;
+            }
+            isNull = false;
+            return value;
+        }
+    }
+
+    private static final class IntConstant extends IntNode {
+
+        private final int value;
+
+        IntConstant(int value, boolean isNull) {
+            this.value = value;
+            this.isNull = isNull;
+        }
+
+        @Override
+        int evalInt() {
+            return value;
+        }
+    }
+
+    private static final class LongConstant extends LongNode {
+
+        private final long value;
+
+        LongConstant(long value, boolean isNull) {
+            this.value = value;
+            this.isNull = isNull;
+        }
+
+        @Override
+        long evalLong() {
+            return value;
+        }
+    }
+
+    private static final class FloatConstant extends FloatNode {
+
+        private final float value;
+
+        FloatConstant(float value, boolean isNull) {
+            this.value = value;
+            this.isNull = isNull;
+        }
+
+        @Override
+        float evalFloat() {
+            return value;
+        }
+    }
+
+    private static final class DoubleConstant extends DoubleNode {
+
+        private final double value;
+
+        DoubleConstant(double value, boolean isNull) {
+            this.value = value;
+            this.isNull = isNull;
+        }
+
+        @Override
+        double evalDouble() {
+            return value;
+        }
+    }
+
+    private static final class IntArithmetic extends IntNode {
+
+        private final int op;
+        private final IntNode left;
+        private final IntNode right;
+
+        IntArithmetic(int op, IntNode left, IntNode right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int evalInt() {
+            int a = left.evalInt();
+            int b = right.evalInt();
+            if (left.isNull || right.isNull) {
+                isNull = true;
+                return 0;
+            }
+            isNull = false;
+            switch (op) {
+                case ADD:
+                    return a + b;
+                case SUBTRACT:
+                    return a - b;
+                case MULTIPLY:
+                    return a * b;
+                case DIVIDE:
+                    return a / b;
+                case MODULUS:
+                    return a % b;
+                default:
+                    throw new AssertionError("Unexpected operation: " + op);
+            }
+        }
+    }
+
+    private static final class LongArithmetic extends LongNode {
+
+        private final int op;
+        private final LongNode left;
+        private final LongNode right;
+
+        LongArithmetic(int op, LongNode left, LongNode right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        long evalLong() {
+            long a = left.evalLong();
+            long b = right.evalLong();
+            if (left.isNull || right.isNull) {
+                isNull = true;
+                return 0L;
+            }
+            isNull = false;
+            switch (op) {
+                case ADD:
+                    return a + b;
+                case SUBTRACT:
+                    return a - b;
+                case MULTIPLY:
+                    return a * b;
+                case DIVIDE:
+                    return a / b;
+                case MODULUS:
+                    return a % b;
+                default:
+                    throw new AssertionError("Unexpected operation: " + op);
+            }
+        }
+    }
+
+    private static final class FloatArithmetic extends FloatNode {
+
+        private final int op;
+        private final FloatNode left;
+        private final FloatNode right;
+
+        FloatArithmetic(int op, FloatNode left, FloatNode right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        float evalFloat() {
+            float a = left.evalFloat();
+            float b = right.evalFloat();
+            if (left.isNull || right.isNull) {
+                isNull = true;
+                return 0f;
+            }
+            isNull = false;
+            switch (op) {
+                case ADD:
+                    return a + b;
+                case SUBTRACT:
+                    return a - b;
+                case MULTIPLY:
+                    return a * b;
+                case DIVIDE:
+                    return a / b;
+                case MODULUS:
+                    return a % b;
+                default:
+                    throw new AssertionError("Unexpected operation: " + op);
+            }
+        }
+    }
+
+    private static final class DoubleArithmetic extends DoubleNode {
+
+        private final int op;
+        private final DoubleNode left;
+        private final DoubleNode right;
+
+        DoubleArithmetic(int op, DoubleNode left, DoubleNode right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double evalDouble() {
+            double a = left.evalDouble();
+            double b = right.evalDouble();
+            if (left.isNull || right.isNull) {
+                isNull = true;
+                return 0d;
+            }
+            isNull = false;
+            switch (op) {
+                case ADD:
+                    return a + b;
+                case SUBTRACT:
+                    return a - b;
+                case MULTIPLY:
+                    return a * b;
+                case DIVIDE:
+                    return a / b;
+                case MODULUS:
+                    return a % b;
+                default:
+                    throw new AssertionError("Unexpected operation: " + op);
+            }
+        }
+    }
+
+    private static final class IntComparison extends BoolNode {
+
+        private final int op;
+        private final IntNode left;
+        private final IntNode right;
+
+        IntComparison(int op, IntNode left, IntNode right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean evalBool() {
+            int a = left.evalInt();
+            int b = right.evalInt();
+            if (left.isNull || right.isNull) {
+                isNull = true;
+                return false;
+            }
+            isNull = false;
+            return compare(op, Integer.compare(a, b));
+        }
+    }
+
+    private static final class LongComparison extends BoolNode {
+
+        private final int op;
+        private final LongNode left;
+        private final LongNode right;
+
+        LongComparison(int op, LongNode left, LongNode right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean evalBool() {
+            long a = left.evalLong();
+            long b = right.evalLong();
+            if (left.isNull || right.isNull) {
+                isNull = true;
+                return false;
+            }
+            isNull = false;
+            return compare(op, Long.compare(a, b));
+        }
+    }
+
+    private static final class FloatComparison extends BoolNode {
+
+        private final int op;
+        private final FloatNode left;
+        private final FloatNode right;
+
+        FloatComparison(int op, FloatNode left, FloatNode right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean evalBool() {
+            float a = left.evalFloat();
+            float b = right.evalFloat();
+            if (left.isNull || right.isNull) {
+                isNull = true;
+                return false;
+            }
+            isNull = false;
+            // Float.compare has the semantics of Float.compareTo and Float.equals which are used by the operators
+            return compare(op, Float.compare(a, b));
+        }
+    }
+
+    private static final class DoubleComparison extends BoolNode {
+
+        private final int op;
+        private final DoubleNode left;
+        private final DoubleNode right;
+
+        DoubleComparison(int op, DoubleNode left, DoubleNode right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean evalBool() {
+            double a = left.evalDouble();
+            double b = right.evalDouble();
+            if (left.isNull || right.isNull) {
+                isNull = true;
+                return false;
+            }
+            isNull = false;
+            return compare(op, Double.compare(a, b));
+        }
+    }
+
+    private static final class And extends BoolNode {
+
+        private final BoolNode left;
+        private final BoolNode right;
+
+        And(BoolNode left, BoolNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean evalBool() {
+            boolean a = left.evalBool();
+            if (left.isNull == false && a == false) {
+                isNull = false;
+                return false;
+            }
+            boolean b = right.evalBool();
+            if (right.isNull) {
+                // null AND null -> null, true AND null -> null
+                isNull = true;
+                return false;
+            }
+            if (b == false) {
+                isNull = false;
+                return false;
+            }
+            // left is either true or null
+            isNull = left.isNull;
+            return true;
+        }
+    }
+
+    private static final class Or extends BoolNode {
+
+        private final BoolNode left;
+        private final BoolNode right;
+
+        Or(BoolNode left, BoolNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean evalBool() {
+            boolean a = left.evalBool();
+            if (left.isNull == false && a) {
+                isNull = false;
+                return true;
+            }
+            boolean b = right.evalBool();
+            if (right.isNull) {
+                // null OR null -> null, false OR null -> null
+                isNull = true;
+                return false;
+            }
+            if (b) {
+                isNull = false;
+                return true;
+            }
+            // left is either false or null
+            isNull = left.isNull;
+            return false;
+        }
+    }
+
+    private static final class Not extends BoolNode {
+
+        private final BoolNode arg;
+
+        Not(BoolNode arg) {
+            this.arg = arg;
+        }
+
+        @Override
+        boolean evalBool() {
+            boolean value = arg.evalBool();
+            isNull = arg.isNull;
+            return !value;
+        }
+    }
+}
@@ -22,10 +22,21 @@
 package io.crate.expression.operator;
 
 import io.crate.data.Input;
+import io.crate.expression.scalar.regex.LinearRegex;
+import io.crate.expression.scalar.regex.LinearRegexMatcher;
+import io.crate.expression.scalar.regex.RegexEngine;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Scalar;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.CharsRefBuilder;
 
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 
@@ -34,10 +45,54 @@ public class RegexpMatchCaseInsensitiveOperator extends Operator<BytesRef> {
     public static final String NAME = "op_~*";
     public static final FunctionInfo INFO = generateInfo(NAME, DataTypes.STRING);
 
+    /**
+     * Variant of the operator which evaluates the pattern using the {@link RegexEngine#LINEAR} engine.
+     */
+    public static final String LINEAR_NAME = "op_~*_linear";
+    public static final FunctionInfo LINEAR_INFO = generateInfo(LINEAR_NAME, DataTypes.STRING);
+
+    private static final int FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+
     public static void register(OperatorModule module) {
         module.registerOperatorFunction(new RegexpMatchCaseInsensitiveOperator());
+        module.registerOperatorFunction(
+            new RegexpMatchCaseInsensitiveOperator(LINEAR_INFO, RegexEngine.LINEAR, null));
+    }
+
+    public static String name(RegexEngine engine) {
+        return engine == RegexEngine.LINEAR ? LINEAR_NAME : NAME;
+    }
+
+    private final FunctionInfo info;
+    private final RegexEngine engine;
+    @Nullable
+    private final Predicate<BytesRef> compiledMatcher;
+
+    public RegexpMatchCaseInsensitiveOperator() {
+        this(INFO, RegexEngine.BACKTRACKING, null);
+    }
+
+    private RegexpMatchCaseInsensitiveOperator(FunctionInfo info,
+                                               RegexEngine engine,
+                                               @Nullable Predicate<BytesRef> compiledMatcher) {
+        this.info = info;
+        this.engine = engine;
+        this.compiledMatcher = compiledMatcher;
     }
 
+    @Override
+    public Scalar<Boolean, BytesRef> compile(List<Symbol> arguments) {
+        assert arguments.size() == 2 : "invalid number of arguments";
+        Symbol pattern = arguments.get(1);
+        if (pattern instanceof Literal) {
+            Object value = ((Literal) pattern).value();
+            if (value != null) {
+                return new RegexpMatchCaseInsensitiveOperator(
+                    info, engine, matcher(((BytesRef) value).utf8ToString(), engine));
+            }
+        }
+        return this;
+    }
 
     @Override
     public Boolean evaluate(Input<BytesRef>... args) {
@@ -46,17 +101,36 @@ public class RegexpMatchCaseInsensitiveOperator extends Operator<BytesRef> {
         if (source == null) {
             return null;
         }
+        if (compiledMatcher != null) {
+            return compiledMatcher.test(source);
+        }
         BytesRef pattern = args[1].value();
         if (pattern == null) {
             return null;
         }
+        return matcher(pattern.utf8ToString(), engine).test(source);
+    }
 
-        Pattern p = Pattern.compile(pattern.utf8ToString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
-        return p.matcher(source.utf8ToString()).matches();
+    private static Predicate<BytesRef> matcher(String pattern, RegexEngine engine) {
+        if (engine == RegexEngine.LINEAR) {
+            LinearRegexMatcher matcher = LinearRegex.compile(pattern, FLAGS).matcher();
+            CharsRefBuilder utf16 = new CharsRefBuilder();
+            return source -> {
+                utf16.copyUTF8Bytes(source);
+                return matcher.reset(utf16.get()).matches();
+            };
+        }
+        Pattern compiledPattern = Pattern.compile(pattern, FLAGS);
+        return source -> compiledPattern.matcher(source.utf8ToString()).matches();
+    }
+
+    @Override
+    public String operator(Function function) {
+        return "~*";
     }
 
     @Override
     public FunctionInfo info() {
-        return INFO;
+        return info;
     }
 }
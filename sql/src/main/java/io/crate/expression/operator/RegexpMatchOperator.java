@@ -22,12 +22,25 @@
 package io.crate.expression.operator;
 
 import io.crate.data.Input;
+import io.crate.expression.scalar.regex.LinearRegex;
+import io.crate.expression.scalar.regex.LinearRegexMatcher;
+import io.crate.expression.scalar.regex.RegexEngine;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Scalar;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.CharsRefBuilder;
 import org.apache.lucene.util.automaton.ByteRunAutomaton;
 import org.apache.lucene.util.automaton.RegExp;
 
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
 import static io.crate.expression.scalar.regex.RegexMatcher.isPcrePattern;
 
 
@@ -36,10 +49,48 @@ public class RegexpMatchOperator extends Operator<BytesRef> {
     public static final String NAME = "op_~";
     public static final FunctionInfo INFO = generateInfo(NAME, DataTypes.STRING);
 
+    /**
+     * Variant of the operator which evaluates PCRE patterns using the {@link RegexEngine#LINEAR} engine.
+     */
+    public static final String LINEAR_NAME = "op_~_linear";
+    public static final FunctionInfo LINEAR_INFO = generateInfo(LINEAR_NAME, DataTypes.STRING);
+
     public static void register(OperatorModule module) {
         module.registerOperatorFunction(new RegexpMatchOperator());
+        module.registerOperatorFunction(new RegexpMatchOperator(LINEAR_INFO, RegexEngine.LINEAR, null));
+    }
+
+    public static String name(RegexEngine engine) {
+        return engine == RegexEngine.LINEAR ? LINEAR_NAME : NAME;
+    }
+
+    private final FunctionInfo info;
+    private final RegexEngine engine;
+    @Nullable
+    private final Predicate<BytesRef> compiledMatcher;
+
+    public RegexpMatchOperator() {
+        this(INFO, RegexEngine.BACKTRACKING, null);
+    }
+
+    private RegexpMatchOperator(FunctionInfo info, RegexEngine engine, @Nullable Predicate<BytesRef> compiledMatcher) {
+        this.info = info;
+        this.engine = engine;
+        this.compiledMatcher = compiledMatcher;
     }
 
+    @Override
+    public Scalar<Boolean, BytesRef> compile(List<Symbol> arguments) {
+        assert arguments.size() == 2 : "invalid number of arguments";
+        Symbol pattern = arguments.get(1);
+        if (pattern instanceof Literal) {
+            Object value = ((Literal) pattern).value();
+            if (value != null) {
+                return new RegexpMatchOperator(info, engine, matcher(((BytesRef) value).utf8ToString(), engine));
+            }
+        }
+        return this;
+    }
 
     @Override
     public Boolean evaluate(Input<BytesRef>... args) {
@@ -48,22 +99,44 @@ public class RegexpMatchOperator extends Operator<BytesRef> {
         if (source == null) {
             return null;
         }
+        if (compiledMatcher != null) {
+            return compiledMatcher.test(source);
+        }
         BytesRef pattern = args[1].value();
         if (pattern == null) {
             return null;
         }
-        String sPattern = pattern.utf8ToString();
-        if (isPcrePattern(sPattern)) {
-            return source.utf8ToString().matches(sPattern);
-        } else {
-            RegExp regexp = new RegExp(sPattern);
-            ByteRunAutomaton regexpRunAutomaton = new ByteRunAutomaton(regexp.toAutomaton());
-            return regexpRunAutomaton.run(source.bytes, source.offset, source.length);
+        return matcher(pattern.utf8ToString(), engine).test(source);
+    }
+
+    /**
+     * Returns a predicate which tests if a value matches the whole pattern.
+     * Patterns using PCRE features are evaluated by the given engine, others as Lucene regular expression.
+     */
+    private static Predicate<BytesRef> matcher(String pattern, RegexEngine engine) {
+        if (isPcrePattern(pattern)) {
+            if (engine == RegexEngine.LINEAR) {
+                LinearRegexMatcher matcher = LinearRegex.compile(pattern, 0).matcher();
+                CharsRefBuilder utf16 = new CharsRefBuilder();
+                return source -> {
+                    utf16.copyUTF8Bytes(source);
+                    return matcher.reset(utf16.get()).matches();
+                };
+            }
+            Pattern compiledPattern = Pattern.compile(pattern);
+            return source -> compiledPattern.matcher(source.utf8ToString()).matches();
         }
+        ByteRunAutomaton automaton = new ByteRunAutomaton(new RegExp(pattern).toAutomaton());
+        return source -> automaton.run(source.bytes, source.offset, source.length);
+    }
+
+    @Override
+    public String operator(Function function) {
+        return "~";
     }
 
     @Override
     public FunctionInfo info() {
-        return INFO;
+        return info;
     }
 }
@@ -74,6 +74,8 @@ public class NodeStatsContext implements Streamable {
     private BytesRef jvmVendor;
     private BytesRef jvmVersion;
 
+    private long statsAge;
+
     public NodeStatsContext(String id, String name) {
         this(false);
         this.id = BytesRefs.toBytesRef(id);
@@ -189,6 +191,46 @@ public class NodeStatsContext implements Streamable {
         return jvmVersion;
     }
 
+    /**
+     * @return the time in milliseconds since the statistics have been collected, 0 if they have been collected for
+     *         the current request.
+     */
+    public long statsAge() {
+        return statsAge;
+    }
+
+    /**
+     * @return a copy of this context with the given age of the statistics
+     */
+    public NodeStatsContext withStatsAge(long statsAge) {
+        NodeStatsContext copy = new NodeStatsContext(complete);
+        copy.id = id;
+        copy.name = name;
+        copy.hostname = hostname;
+        copy.timestamp = timestamp;
+        copy.version = version;
+        copy.build = build;
+        copy.restUrl = restUrl;
+        copy.port = port;
+        copy.jvmStats = jvmStats;
+        copy.osInfo = osInfo;
+        copy.processStats = processStats;
+        copy.osStats = osStats;
+        copy.extendedOsStats = extendedOsStats;
+        copy.networkStats = networkStats;
+        copy.fsInfo = fsInfo;
+        copy.threadPools = threadPools;
+        copy.osName = osName;
+        copy.osArch = osArch;
+        copy.osVersion = osVersion;
+        copy.javaVersion = javaVersion;
+        copy.jvmName = jvmName;
+        copy.jvmVendor = jvmVendor;
+        copy.jvmVersion = jvmVersion;
+        copy.statsAge = statsAge;
+        return copy;
+    }
+
     public void id(BytesRef id) {
         this.id = id;
     }
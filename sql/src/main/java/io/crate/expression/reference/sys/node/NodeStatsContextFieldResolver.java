@@ -129,6 +129,13 @@ public class NodeStatsContextFieldResolver {
         return context;
     }
 
+    /**
+     * @return a context containing the statistics of all columns
+     */
+    public NodeStatsContext forAllColumns() {
+        return forTopColumnIdents(columnIdentToContext.keySet());
+    }
+
     private Consumer<NodeStatsContext> consumerForTopColumnIdent(ColumnIdent columnIdent) {
         Consumer<NodeStatsContext> consumer = columnIdentToContext.get(columnIdent);
         if (consumer == null) {
@@ -241,5 +248,8 @@ public class NodeStatsContextFieldResolver {
                 public void accept(NodeStatsContext context) {
                     context.fsInfo(fsService.stats());
                 }
+            })
+            .put(SysNodesTableInfo.Columns.STATS_AGE, context -> {
+                // statistics collected by this resolver are always current, the age is set for published snapshots
             }).build();
 }
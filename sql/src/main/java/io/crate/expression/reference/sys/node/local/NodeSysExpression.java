@@ -84,6 +84,8 @@ public class NodeSysExpression extends NestedObjectExpression {
             new NodeThreadPoolsExpression(threadPool));
         childImplementations.put(SysNodesTableInfo.SYS_COL_OS_INFO,
             new NodeOsInfoExpression(osService.info()));
+        // values of the local node are always current
+        childImplementations.put(SysNodesTableInfo.SYS_COL_STATS_AGE, (NestableInput<Long>) () -> 0L);
     }
 
     @Override
@@ -0,0 +1,324 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.expression.scalar.regex;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.crate.expression.scalar.regex.LinearRegexParser.AlternationNode;
+import io.crate.expression.scalar.regex.LinearRegexParser.AssertionNode;
+import io.crate.expression.scalar.regex.LinearRegexParser.CharClassNode;
+import io.crate.expression.scalar.regex.LinearRegexParser.ConcatNode;
+import io.crate.expression.scalar.regex.LinearRegexParser.GroupNode;
+import io.crate.expression.scalar.regex.LinearRegexParser.Node;
+import io.crate.expression.scalar.regex.LinearRegexParser.RepeatNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A regular expression which is compiled into a program for a Thompson NFA and executed by
+ * {@link LinearRegexMatcher} without backtracking.
+ *
+ * The syntax and the matching semantics (leftmost match, greedy and reluctant quantifiers, capturing groups)
+ * follow {@link java.util.regex.Pattern}, but only regular constructs are supported.
+ * Matching takes time linear to the length of the input and memory bounded by the size of the program.
+ * The only difference in the results are the groups captured by a repetition which matches the empty string,
+ * e.g. {@code (a*)*}, because repeated states are discarded instead of being tried again.
+ *
+ * Compiled expressions are immutable and cached, use {@link #compile(String, int)} to obtain them.
+ */
+public final class LinearRegex {
+
+    static final int MAX_PROGRAM_SIZE = 10_000;
+    private static final long CACHE_MAX_INSTRUCTIONS = 1_000_000L;
+
+    static final int CHAR = 0;
+    static final int MATCH = 1;
+    static final int JMP = 2;
+    static final int SPLIT = 3;
+    static final int SAVE = 4;
+    static final int ASSERT = 5;
+
+    private static final Cache<CacheKey, LinearRegex> CACHE = CacheBuilder.newBuilder()
+        .maximumWeight(CACHE_MAX_INSTRUCTIONS)
+        .weigher((CacheKey key, LinearRegex regex) -> regex.findProgram.length + regex.matchProgram.length)
+        .build();
+
+    static final class Inst {
+
+        final int op;
+        int out;
+        int out1;
+        final int arg;
+        final int[] ranges;
+        final boolean negated;
+        final int caseFolding;
+        final boolean unixLines;
+
+        private Inst(int op, int out, int arg, int[] ranges, boolean negated, int caseFolding, boolean unixLines) {
+            this.op = op;
+            this.out = out;
+            this.arg = arg;
+            this.ranges = ranges;
+            this.negated = negated;
+            this.caseFolding = caseFolding;
+            this.unixLines = unixLines;
+        }
+
+        boolean matches(int c) {
+            boolean found = contains(c);
+            if (!found && caseFolding != LinearRegexParser.CASE_SENSITIVE) {
+                if (caseFolding == LinearRegexParser.CASE_FOLD_UNICODE) {
+                    int upper = Character.toUpperCase(c);
+                    found = contains(upper) || contains(Character.toLowerCase(c)) || contains(Character.toLowerCase(upper));
+                } else if (c >= 'a' && c <= 'z') {
+                    found = contains(c - 32);
+                } else if (c >= 'A' && c <= 'Z') {
+                    found = contains(c + 32);
+                }
+            }
+            return found != negated;
+        }
+
+        private boolean contains(int c) {
+            int lo = 0;
+            int hi = ranges.length / 2 - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (c < ranges[mid * 2]) {
+                    hi = mid - 1;
+                } else if (c > ranges[mid * 2 + 1]) {
+                    lo = mid + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final String regex;
+    private final int flags;
+    private final int groupCount;
+    private final Map<String, Integer> groupNames;
+    final Inst[] findProgram;
+    final Inst[] matchProgram;
+
+    private LinearRegex(String regex, int flags) {
+        this.regex = regex;
+        this.flags = flags;
+        LinearRegexParser parser = new LinearRegexParser(regex, flags);
+        Node root = parser.parse();
+        this.groupCount = parser.groupCount();
+        this.groupNames = parser.groupNames();
+        this.findProgram = new Compiler(regex).compile(root, false);
+        this.matchProgram = new Compiler(regex).compile(root, true);
+    }
+
+    /**
+     * Returns the compiled form of the regular expression.
+     *
+     * @param flags the flags of {@link java.util.regex.Pattern}, e.g. {@link java.util.regex.Pattern#CASE_INSENSITIVE}
+     * @throws java.util.regex.PatternSyntaxException if the expression is invalid
+     * @throws io.crate.exceptions.UnsupportedFeatureException if the expression uses a non-regular construct
+     */
+    public static LinearRegex compile(String regex, int flags) {
+        CacheKey key = new CacheKey(regex, flags);
+        LinearRegex linearRegex = CACHE.getIfPresent(key);
+        if (linearRegex == null) {
+            linearRegex = new LinearRegex(regex, flags);
+            CACHE.put(key, linearRegex);
+        }
+        return linearRegex;
+    }
+
+    public LinearRegexMatcher matcher() {
+        return new LinearRegexMatcher(this);
+    }
+
+    public int groupCount() {
+        return groupCount;
+    }
+
+    Integer groupIndex(String name) {
+        return groupNames.get(name);
+    }
+
+    public String regex() {
+        return regex;
+    }
+
+    public int flags() {
+        return flags;
+    }
+
+    @Override
+    public String toString() {
+        return regex;
+    }
+
+    private static final class Compiler {
+
+        private final String regex;
+        private final List<Inst> program = new ArrayList<>();
+
+        Compiler(String regex) {
+            this.regex = regex;
+        }
+
+        Inst[] compile(Node root, boolean fullMatch) {
+            add(SAVE, 0);
+            emit(root);
+            if (fullMatch) {
+                add(new Inst(ASSERT, program.size() + 1, LinearRegexParser.END_TEXT, null, false, 0, false));
+            }
+            add(SAVE, 1);
+            add(MATCH, 0);
+            return program.toArray(new Inst[0]);
+        }
+
+        private void emit(Node node) {
+            if (node instanceof CharClassNode) {
+                CharClassNode charClass = (CharClassNode) node;
+                add(new Inst(CHAR, program.size() + 1, 0,
+                    charClass.ranges, charClass.negated, charClass.caseFolding, false));
+            } else if (node instanceof ConcatNode) {
+                for (Node child : ((ConcatNode) node).nodes) {
+                    emit(child);
+                }
+            } else if (node instanceof GroupNode) {
+                GroupNode group = (GroupNode) node;
+                add(SAVE, group.index * 2);
+                emit(group.node);
+                add(SAVE, group.index * 2 + 1);
+            } else if (node instanceof AssertionNode) {
+                AssertionNode assertion = (AssertionNode) node;
+                add(new Inst(ASSERT, program.size() + 1, assertion.kind, null, false, 0, assertion.unixLines));
+            } else if (node instanceof AlternationNode) {
+                emitAlternation(((AlternationNode) node).alternatives);
+            } else if (node instanceof RepeatNode) {
+                emitRepeat((RepeatNode) node);
+            } else {
+                throw new IllegalStateException("Unknown regular expression node " + node);
+            }
+        }
+
+        private void emitAlternation(List<Node> alternatives) {
+            List<Inst> jumps = new ArrayList<>(alternatives.size() - 1);
+            for (int i = 0; i < alternatives.size() - 1; i++) {
+                Inst split = add(SPLIT, 0);
+                emit(alternatives.get(i));
+                jumps.add(add(JMP, 0));
+                split.out1 = program.size();
+            }
+            emit(alternatives.get(alternatives.size() - 1));
+            for (Inst jump : jumps) {
+                jump.out = program.size();
+            }
+        }
+
+        private void emitRepeat(RepeatNode repeat) {
+            if (repeat.max == -1) {
+                if (repeat.min == 0) {
+                    // L: split body, exit; body; jmp L
+                    int loop = program.size();
+                    Inst split = add(SPLIT, 0);
+                    emit(repeat.node);
+                    add(JMP, 0).out = loop;
+                    prefer(split, loop + 1, program.size(), repeat.greedy);
+                } else {
+                    for (int i = 0; i < repeat.min - 1; i++) {
+                        emit(repeat.node);
+                    }
+                    // L: body; split L, exit
+                    int loop = program.size();
+                    emit(repeat.node);
+                    Inst split = add(SPLIT, 0);
+                    prefer(split, loop, program.size(), repeat.greedy);
+                }
+                return;
+            }
+            for (int i = 0; i < repeat.min; i++) {
+                emit(repeat.node);
+            }
+            // skipping an optional repetition skips all following ones, too
+            List<Inst> splits = new ArrayList<>(repeat.max - repeat.min);
+            List<Integer> bodies = new ArrayList<>(repeat.max - repeat.min);
+            for (int i = repeat.min; i < repeat.max; i++) {
+                splits.add(add(SPLIT, 0));
+                bodies.add(program.size());
+                emit(repeat.node);
+            }
+            int exit = program.size();
+            for (int i = 0; i < splits.size(); i++) {
+                prefer(splits.get(i), bodies.get(i), exit, repeat.greedy);
+            }
+        }
+
+        private static void prefer(Inst split, int body, int exit, boolean greedy) {
+            split.out = greedy ? body : exit;
+            split.out1 = greedy ? exit : body;
+        }
+
+        private Inst add(int op, int arg) {
+            return add(new Inst(op, program.size() + 1, arg, null, false, 0, false));
+        }
+
+        private Inst add(Inst inst) {
+            if (program.size() >= MAX_PROGRAM_SIZE) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "Regular expression \"%s\" is too large for the linear regular expression engine", regex));
+            }
+            program.add(inst);
+            return inst;
+        }
+    }
+
+    private static final class CacheKey {
+
+        private final String regex;
+        private final int flags;
+
+        CacheKey(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CacheKey cacheKey = (CacheKey) o;
+            return flags == cacheKey.flags &&
+                   regex.equals(cacheKey.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(regex, flags);
+        }
+    }
+}
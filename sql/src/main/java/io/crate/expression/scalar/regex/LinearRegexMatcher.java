@@ -0,0 +1,412 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.expression.scalar.regex;
+
+import io.crate.expression.scalar.regex.LinearRegex.Inst;
+import org.apache.lucene.util.CharsRef;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Executes a {@link LinearRegex} on an input by simulating all possible states of its program in lock-step
+ * (a Pike VM). Each character of the input is looked at once for every instruction of the program, so there is
+ * no backtracking and the time needed is linear to the length of the input.
+ *
+ * Instances are not thread-safe.
+ */
+public final class LinearRegexMatcher {
+
+    private final LinearRegex regex;
+    private final int[] noGroups;
+    private final int[] stackPcs;
+    private final int[][] stackGroups;
+    private ThreadList current;
+    private ThreadList next;
+
+    private char[] chars = new char[0];
+    private int begin;
+    private int end;
+
+    @Nullable
+    private int[] groups;
+    private int lastStart;
+    private int lastEnd;
+
+    LinearRegexMatcher(LinearRegex regex) {
+        this.regex = regex;
+        int programSize = Math.max(regex.findProgram.length, regex.matchProgram.length);
+        this.noGroups = new int[(regex.groupCount() + 1) * 2];
+        Arrays.fill(noGroups, -1);
+        this.stackPcs = new int[programSize];
+        this.stackGroups = new int[programSize][];
+        this.current = new ThreadList(programSize);
+        this.next = new ThreadList(programSize);
+    }
+
+    /**
+     * Sets the input of the matcher.
+     * The characters must not be changed as long as the matcher is used on them.
+     */
+    public LinearRegexMatcher reset(CharsRef input) {
+        chars = input.chars;
+        begin = input.offset;
+        end = input.offset + input.length;
+        return reset();
+    }
+
+    public LinearRegexMatcher reset(CharSequence input) {
+        return reset(new CharsRef(input.toString()));
+    }
+
+    private LinearRegexMatcher reset() {
+        groups = null;
+        lastStart = -1;
+        lastEnd = begin;
+        return this;
+    }
+
+    /**
+     * Returns true if the whole input matches the regular expression.
+     */
+    public boolean matches() {
+        groups = run(regex.matchProgram, begin, true);
+        return groups != null;
+    }
+
+    /**
+     * Searches the next subsequence of the input which matches the regular expression.
+     * Like {@link java.util.regex.Matcher#find()} the search starts after the previous match.
+     */
+    public boolean find() {
+        int from = lastEnd;
+        if (from == lastStart) {
+            // the previous match was empty
+            from++;
+        }
+        if (from > end) {
+            groups = null;
+            return false;
+        }
+        groups = run(regex.findProgram, from, false);
+        if (groups == null) {
+            return false;
+        }
+        lastStart = groups[0];
+        lastEnd = groups[1];
+        return true;
+    }
+
+    public int groupCount() {
+        return regex.groupCount();
+    }
+
+    /**
+     * Returns the input captured by the group of the last match, or null if the group didn't participate.
+     *
+     * @param group the index of the group, 0 refers to the whole match
+     */
+    @Nullable
+    public String group(int group) {
+        if (groups == null) {
+            throw new IllegalStateException("No match found");
+        }
+        if (group < 0 || group > regex.groupCount()) {
+            throw new IndexOutOfBoundsException("No group " + group);
+        }
+        int start = groups[group * 2];
+        if (start == -1) {
+            return null;
+        }
+        return new String(chars, start, groups[group * 2 + 1] - start);
+    }
+
+    /**
+     * Replaces the first or all subsequences of the input which match the regular expression.
+     * The replacement may reference groups using the syntax of {@link java.util.regex.Matcher#appendReplacement}.
+     */
+    public String replace(String replacement, boolean all) {
+        reset();
+        if (!find()) {
+            return new String(chars, begin, end - begin);
+        }
+        StringBuilder sb = new StringBuilder(end - begin);
+        int appendPos = begin;
+        do {
+            sb.append(chars, appendPos, groups[0] - appendPos);
+            appendReplacement(sb, replacement);
+            appendPos = groups[1];
+        } while (all && find());
+        sb.append(chars, appendPos, end - appendPos);
+        return sb.toString();
+    }
+
+    private void appendReplacement(StringBuilder sb, String replacement) {
+        int i = 0;
+        while (i < replacement.length()) {
+            char c = replacement.charAt(i++);
+            if (c == '\\') {
+                if (i == replacement.length()) {
+                    throw new IllegalArgumentException("character to be escaped is missing");
+                }
+                sb.append(replacement.charAt(i++));
+            } else if (c == '$') {
+                if (i == replacement.length()) {
+                    throw new IllegalArgumentException("Illegal group reference: group index is missing");
+                }
+                int group;
+                if (replacement.charAt(i) == '{') {
+                    int close = replacement.indexOf('}', i);
+                    if (close == -1) {
+                        throw new IllegalArgumentException("named capturing group is missing trailing '}'");
+                    }
+                    String name = replacement.substring(i + 1, close);
+                    Integer index = regex.groupIndex(name);
+                    if (index == null) {
+                        throw new IllegalArgumentException("No group with name {" + name + "}");
+                    }
+                    group = index;
+                    i = close + 1;
+                } else {
+                    group = Character.digit(replacement.charAt(i), 10);
+                    if (group == -1) {
+                        throw new IllegalArgumentException("Illegal group reference");
+                    }
+                    i++;
+                    // like java.util.regex.Matcher, take as many digits as form a valid group index
+                    while (i < replacement.length()) {
+                        int digit = Character.digit(replacement.charAt(i), 10);
+                        if (digit == -1 || group * 10 + digit > regex.groupCount()) {
+                            break;
+                        }
+                        group = group * 10 + digit;
+                        i++;
+                    }
+                    if (group > regex.groupCount()) {
+                        throw new IndexOutOfBoundsException("No group " + group);
+                    }
+                }
+                String value = group(group);
+                if (value != null) {
+                    sb.append(value);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+
+    /**
+     * Runs the program starting at {@code from} and returns the group positions of the preferred match,
+     * or null if there is no match.
+     *
+     * @param anchored if true, the match must start at {@code from}
+     */
+    @Nullable
+    private int[] run(Inst[] program, int from, boolean anchored) {
+        int[] matched = null;
+        current.clear();
+        int pos = from;
+        while (true) {
+            if (matched == null && (!anchored || pos == from)) {
+                // a new thread has a lower priority than the ones which started earlier
+                addThread(program, current, 0, noGroups, pos);
+            }
+            if (current.size == 0 && (matched != null || anchored)) {
+                break;
+            }
+            int c = pos < end ? Character.codePointAt(chars, pos, end) : -1;
+            int nextPos = c == -1 ? pos : pos + Character.charCount(c);
+            next.clear();
+            for (int i = 0; i < current.size; i++) {
+                Inst inst = program[current.pcs[i]];
+                if (inst.op == LinearRegex.MATCH) {
+                    // threads with a lower priority than the matching one are discarded
+                    matched = current.groups[i];
+                    break;
+                }
+                if (c != -1 && inst.matches(c)) {
+                    addThread(program, next, inst.out, current.groups[i], nextPos);
+                }
+            }
+            ThreadList tmp = current;
+            current = next;
+            next = tmp;
+            if (c == -1) {
+                break;
+            }
+            pos = nextPos;
+        }
+        return matched;
+    }
+
+    /**
+     * Adds the thread at {@code pc} to the list, following all instructions which don't consume input.
+     * An explicit stack is used because the depth is only bounded by the size of the program.
+     */
+    private void addThread(Inst[] program, ThreadList list, int pc, int[] threadGroups, int pos) {
+        int sp = 0;
+        stackPcs[sp] = pc;
+        stackGroups[sp] = threadGroups;
+        sp++;
+        while (sp > 0) {
+            sp--;
+            pc = stackPcs[sp];
+            threadGroups = stackGroups[sp];
+            stackGroups[sp] = null;
+            while (list.mark(pc)) {
+                Inst inst = program[pc];
+                if (inst.op == LinearRegex.JMP) {
+                    pc = inst.out;
+                } else if (inst.op == LinearRegex.SPLIT) {
+                    stackPcs[sp] = inst.out1;
+                    stackGroups[sp] = threadGroups;
+                    sp++;
+                    pc = inst.out;
+                } else if (inst.op == LinearRegex.SAVE) {
+                    threadGroups = threadGroups.clone();
+                    threadGroups[inst.arg] = pos;
+                    pc = inst.out;
+                } else if (inst.op == LinearRegex.ASSERT) {
+                    if (!assertion(inst, pos)) {
+                        break;
+                    }
+                    pc = inst.out;
+                } else {
+                    list.add(pc, threadGroups);
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean assertion(Inst inst, int pos) {
+        switch (inst.arg) {
+            case LinearRegexParser.BEGIN_TEXT:
+                return pos == begin;
+
+            case LinearRegexParser.END_TEXT:
+                return pos == end;
+
+            case LinearRegexParser.END_TEXT_OR_FINAL_TERMINATOR:
+                if (pos == end) {
+                    return true;
+                }
+                if (!inst.unixLines && pos == end - 2 && chars[pos] == '\r' && chars[pos + 1] == '\n') {
+                    return true;
+                }
+                return pos == end - 1 && isLineTerminator(chars[pos], inst.unixLines)
+                       && !(chars[pos] == '\n' && !inst.unixLines && pos > begin && chars[pos - 1] == '\r');
+
+            case LinearRegexParser.BEGIN_LINE:
+                // like java.util.regex, never match at the end of the input, even after a line terminator
+                if (pos == end) {
+                    return false;
+                }
+                if (pos == begin) {
+                    return true;
+                }
+                if (!isLineTerminator(chars[pos - 1], inst.unixLines)) {
+                    return false;
+                }
+                return inst.unixLines || chars[pos - 1] != '\r' || chars[pos] != '\n';
+
+            case LinearRegexParser.END_LINE:
+                if (pos == end) {
+                    return true;
+                }
+                if (!isLineTerminator(chars[pos], inst.unixLines)) {
+                    return false;
+                }
+                return inst.unixLines || chars[pos] != '\n' || pos == begin || chars[pos - 1] != '\r';
+
+            case LinearRegexParser.WORD_BOUNDARY:
+                return isWordChar(pos - 1) != isWordChar(pos);
+
+            case LinearRegexParser.NOT_WORD_BOUNDARY:
+                return isWordChar(pos - 1) == isWordChar(pos);
+
+            default:
+                throw new IllegalStateException("Unknown assertion " + inst.arg);
+        }
+    }
+
+    private boolean isWordChar(int pos) {
+        if (pos < begin || pos >= end) {
+            return false;
+        }
+        char c = chars[pos];
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private static boolean isLineTerminator(char c, boolean unixLines) {
+        if (unixLines) {
+            return c == '\n';
+        }
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * The threads of one step ordered by priority. Each instruction is contained at most once.
+     */
+    private static final class ThreadList {
+
+        private final int[] pcs;
+        private final int[][] groups;
+        private final int[] marks;
+        private int generation = 0;
+        private int size = 0;
+
+        ThreadList(int capacity) {
+            this.pcs = new int[capacity];
+            this.groups = new int[capacity][];
+            this.marks = new int[capacity];
+        }
+
+        void clear() {
+            size = 0;
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * Marks the instruction as visited, returns false if it has been visited before.
+         */
+        boolean mark(int pc) {
+            if (marks[pc] == generation) {
+                return false;
+            }
+            marks[pc] = generation;
+            return true;
+        }
+
+        void add(int pc, int[] threadGroups) {
+            pcs[size] = pc;
+            groups[size] = threadGroups;
+            size++;
+        }
+    }
+}
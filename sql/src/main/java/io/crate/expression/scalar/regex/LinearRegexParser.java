@@ -0,0 +1,803 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.expression.scalar.regex;
+
+import io.crate.exceptions.UnsupportedFeatureException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Parses the regular subset of the {@link Pattern} syntax into a tree of {@link Node}s
+ * which is compiled into a program by {@link LinearRegex}.
+ */
+final class LinearRegexParser {
+
+    static final int MAX_REPETITION = 1000;
+
+    static final int CASE_SENSITIVE = 0;
+    static final int CASE_FOLD_ASCII = 1;
+    static final int CASE_FOLD_UNICODE = 2;
+
+    static final int BEGIN_TEXT = 0;
+    static final int END_TEXT = 1;
+    static final int END_TEXT_OR_FINAL_TERMINATOR = 2;
+    static final int BEGIN_LINE = 3;
+    static final int END_LINE = 4;
+    static final int WORD_BOUNDARY = 5;
+    static final int NOT_WORD_BOUNDARY = 6;
+
+    private static final int[] DIGIT = {'0', '9'};
+    private static final int[] WORD = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+    private static final int[] SPACE = {'\t', '\r', ' ', ' '};
+    private static final int[] HORIZONTAL_SPACE = {
+        '\t', '\t', ' ', ' ', 0xA0, 0xA0, 0x1680, 0x1680, 0x180E, 0x180E,
+        0x2000, 0x200A, 0x202F, 0x202F, 0x205F, 0x205F, 0x3000, 0x3000};
+    private static final int[] VERTICAL_SPACE = {'\n', '\r', 0x85, 0x85, 0x2028, 0x2029};
+    private static final int[] LINE_TERMINATORS = {'\n', '\n', '\r', '\r', 0x85, 0x85, 0x2028, 0x2029};
+    private static final int[] UNIX_LINE_TERMINATORS = {'\n', '\n'};
+    private static final int[] ALL = {0, Character.MAX_CODE_POINT};
+
+    abstract static class Node {
+    }
+
+    static final class CharClassNode extends Node {
+
+        final int[] ranges;
+        final boolean negated;
+        final int caseFolding;
+
+        CharClassNode(int[] ranges, boolean negated, int caseFolding) {
+            this.ranges = ranges;
+            this.negated = negated;
+            this.caseFolding = caseFolding;
+        }
+    }
+
+    static final class ConcatNode extends Node {
+
+        final List<Node> nodes;
+
+        ConcatNode(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+    }
+
+    static final class AlternationNode extends Node {
+
+        final List<Node> alternatives;
+
+        AlternationNode(List<Node> alternatives) {
+            this.alternatives = alternatives;
+        }
+    }
+
+    static final class RepeatNode extends Node {
+
+        final Node node;
+        final int min;
+        final int max;
+        final boolean greedy;
+
+        /**
+         * @param max the maximum number of repetitions or -1 if unbounded
+         */
+        RepeatNode(Node node, int min, int max, boolean greedy) {
+            this.node = node;
+            this.min = min;
+            this.max = max;
+            this.greedy = greedy;
+        }
+    }
+
+    static final class GroupNode extends Node {
+
+        final Node node;
+        final int index;
+
+        GroupNode(Node node, int index) {
+            this.node = node;
+            this.index = index;
+        }
+    }
+
+    static final class AssertionNode extends Node {
+
+        final int kind;
+        final boolean unixLines;
+
+        AssertionNode(int kind, boolean unixLines) {
+            this.kind = kind;
+            this.unixLines = unixLines;
+        }
+    }
+
+    private final String regex;
+    private final Map<String, Integer> groupNames = new HashMap<>();
+    private int flags;
+    private int pos = 0;
+    private int groupCount = 0;
+
+    LinearRegexParser(String regex, int flags) {
+        this.regex = regex;
+        this.flags = flags;
+        if ((flags & Pattern.UNICODE_CHARACTER_CLASS) != 0) {
+            throw unsupported("unicode character classes");
+        }
+    }
+
+    Node parse() {
+        Node node = parseAlternation();
+        if (pos < regex.length()) {
+            // only an unbalanced closing parenthesis stops the top level alternation
+            throw error("Unmatched closing ')'");
+        }
+        return node;
+    }
+
+    int groupCount() {
+        return groupCount;
+    }
+
+    Map<String, Integer> groupNames() {
+        return groupNames;
+    }
+
+    private Node parseAlternation() {
+        Node first = parseConcat();
+        if (!peekIs('|')) {
+            return first;
+        }
+        List<Node> alternatives = new ArrayList<>();
+        alternatives.add(first);
+        while (peekIs('|')) {
+            pos++;
+            alternatives.add(parseConcat());
+        }
+        return new AlternationNode(alternatives);
+    }
+
+    private Node parseConcat() {
+        List<Node> nodes = new ArrayList<>();
+        while (true) {
+            skipComments();
+            if (pos >= regex.length() || peekIs('|') || peekIs(')')) {
+                break;
+            }
+            Node atom = parseAtom();
+            if (atom != null) {
+                nodes.add(parseQuantifier(atom));
+            }
+        }
+        if (nodes.size() == 1) {
+            return nodes.get(0);
+        }
+        return new ConcatNode(nodes);
+    }
+
+    private Node parseAtom() {
+        int c = nextCodePoint();
+        switch (c) {
+            case '(':
+                return parseGroup();
+
+            case '[':
+                return parseClass();
+
+            case '.':
+                if (hasFlag(Pattern.DOTALL)) {
+                    return new CharClassNode(ALL, false, CASE_SENSITIVE);
+                }
+                return new CharClassNode(
+                    hasFlag(Pattern.UNIX_LINES) ? UNIX_LINE_TERMINATORS : LINE_TERMINATORS, true, CASE_SENSITIVE);
+
+            case '^':
+                return new AssertionNode(
+                    hasFlag(Pattern.MULTILINE) ? BEGIN_LINE : BEGIN_TEXT, hasFlag(Pattern.UNIX_LINES));
+
+            case '$':
+                return new AssertionNode(
+                    hasFlag(Pattern.MULTILINE) ? END_LINE : END_TEXT_OR_FINAL_TERMINATOR, hasFlag(Pattern.UNIX_LINES));
+
+            case '\\':
+                return parseEscape();
+
+            case '*':
+            case '+':
+            case '?':
+                throw error("Dangling meta character '" + (char) c + "'");
+
+            case '{':
+                throw error("Illegal repetition");
+
+            default:
+                return literal(c);
+        }
+    }
+
+    private Node parseQuantifier(Node atom) {
+        skipComments();
+        if (pos >= regex.length()) {
+            return atom;
+        }
+        int min;
+        int max;
+        switch (regex.charAt(pos)) {
+            case '*':
+                min = 0;
+                max = -1;
+                pos++;
+                break;
+
+            case '+':
+                min = 1;
+                max = -1;
+                pos++;
+                break;
+
+            case '?':
+                min = 0;
+                max = 1;
+                pos++;
+                break;
+
+            case '{':
+                pos++;
+                min = parseNumber();
+                if (peekIs(',')) {
+                    pos++;
+                    max = peekIs('}') ? -1 : parseNumber();
+                } else {
+                    max = min;
+                }
+                if (!peekIs('}')) {
+                    throw error("Unclosed counted closure");
+                }
+                pos++;
+                if (max != -1 && max < min) {
+                    throw error("Illegal repetition range");
+                }
+                if (min > MAX_REPETITION || max > MAX_REPETITION) {
+                    throw unsupported("repetition counts larger than " + MAX_REPETITION);
+                }
+                break;
+
+            default:
+                return atom;
+        }
+        boolean greedy = true;
+        if (peekIs('?')) {
+            pos++;
+            greedy = false;
+        } else if (peekIs('+')) {
+            throw unsupported("possessive quantifiers");
+        }
+        return new RepeatNode(atom, min, max, greedy);
+    }
+
+    private int parseNumber() {
+        int start = pos;
+        while (pos < regex.length() && Character.isDigit(regex.charAt(pos)) && pos - start < 9) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("Illegal repetition");
+        }
+        return Integer.parseInt(regex.substring(start, pos));
+    }
+
+    /**
+     * Parses a group after its opening parenthesis.
+     * Returns null for a group which only consists of flags, e.g. {@code (?i)}, as these change the flags for the
+     * remainder of the enclosing group.
+     */
+    private Node parseGroup() {
+        int outerFlags = flags;
+        Node node;
+        if (peekIs('?')) {
+            pos++;
+            int c = nextCodePoint();
+            switch (c) {
+                case ':':
+                    node = parseAlternation();
+                    break;
+
+                case '<':
+                    if (peekIs('=') || peekIs('!')) {
+                        throw unsupported("look-behind");
+                    }
+                    int index = ++groupCount;
+                    String name = parseGroupName();
+                    if (groupNames.put(name, index) != null) {
+                        throw error("Named capturing group <" + name + "> is already defined");
+                    }
+                    node = new GroupNode(parseAlternation(), index);
+                    break;
+
+                case '=':
+                case '!':
+                    throw unsupported("look-ahead");
+
+                case '>':
+                    throw unsupported("atomic groups");
+
+                default:
+                    pos -= Character.charCount(c);
+                    if (parseInlineFlags()) {
+                        // the flags stay active until the end of the enclosing group
+                        return null;
+                    }
+                    node = parseAlternation();
+                    break;
+            }
+        } else {
+            int index = ++groupCount;
+            node = new GroupNode(parseAlternation(), index);
+        }
+        if (!peekIs(')')) {
+            throw error("Unclosed group");
+        }
+        pos++;
+        flags = outerFlags;
+        return node;
+    }
+
+    private String parseGroupName() {
+        int start = pos;
+        while (pos < regex.length() && Character.isLetterOrDigit(regex.charAt(pos))) {
+            pos++;
+        }
+        if (start == pos || !Character.isLetter(regex.charAt(start)) || !peekIs('>')) {
+            throw error("Invalid capturing group name");
+        }
+        String name = regex.substring(start, pos);
+        pos++;
+        return name;
+    }
+
+    /**
+     * Parses the flags of {@code (?idmsux-idmsux)} or {@code (?idmsux-idmsux:X)}.
+     *
+     * @return true if the group only consists of flags
+     */
+    private boolean parseInlineFlags() {
+        boolean enable = true;
+        while (pos < regex.length()) {
+            char c = regex.charAt(pos++);
+            int flag;
+            switch (c) {
+                case 'i':
+                    flag = Pattern.CASE_INSENSITIVE;
+                    break;
+                case 'd':
+                    flag = Pattern.UNIX_LINES;
+                    break;
+                case 'm':
+                    flag = Pattern.MULTILINE;
+                    break;
+                case 's':
+                    flag = Pattern.DOTALL;
+                    break;
+                case 'u':
+                    flag = Pattern.UNICODE_CASE;
+                    break;
+                case 'x':
+                    flag = Pattern.COMMENTS;
+                    break;
+                case 'U':
+                    throw unsupported("unicode character classes");
+                case '-':
+                    enable = false;
+                    continue;
+                case ')':
+                    return true;
+                case ':':
+                    return false;
+                default:
+                    throw error("Unknown inline modifier");
+            }
+            flags = enable ? flags | flag : flags & ~flag;
+        }
+        throw error("Unclosed group");
+    }
+
+    private Node parseEscape() {
+        int c = nextCodePoint();
+        switch (c) {
+            case 'd':
+                return new CharClassNode(DIGIT, false, CASE_SENSITIVE);
+            case 'D':
+                return new CharClassNode(DIGIT, true, CASE_SENSITIVE);
+            case 'w':
+                return new CharClassNode(WORD, false, CASE_SENSITIVE);
+            case 'W':
+                return new CharClassNode(WORD, true, CASE_SENSITIVE);
+            case 's':
+                return new CharClassNode(SPACE, false, CASE_SENSITIVE);
+            case 'S':
+                return new CharClassNode(SPACE, true, CASE_SENSITIVE);
+            case 'h':
+                return new CharClassNode(HORIZONTAL_SPACE, false, CASE_SENSITIVE);
+            case 'H':
+                return new CharClassNode(HORIZONTAL_SPACE, true, CASE_SENSITIVE);
+            case 'v':
+                return new CharClassNode(VERTICAL_SPACE, false, CASE_SENSITIVE);
+            case 'V':
+                return new CharClassNode(VERTICAL_SPACE, true, CASE_SENSITIVE);
+            case 'R':
+                return new AlternationNode(Arrays.asList(
+                    new ConcatNode(Arrays.asList(literal('\r'), literal('\n'))),
+                    new CharClassNode(VERTICAL_SPACE, false, CASE_SENSITIVE)));
+            case 'b':
+                return new AssertionNode(WORD_BOUNDARY, false);
+            case 'B':
+                return new AssertionNode(NOT_WORD_BOUNDARY, false);
+            case 'A':
+                return new AssertionNode(BEGIN_TEXT, false);
+            case 'z':
+                return new AssertionNode(END_TEXT, false);
+            case 'Z':
+                return new AssertionNode(END_TEXT_OR_FINAL_TERMINATOR, hasFlag(Pattern.UNIX_LINES));
+            case 'Q':
+                return parseQuoted();
+            case 'G':
+                throw unsupported("the \\G boundary matcher");
+            case 'k':
+                throw unsupported("back references");
+            case 'p':
+            case 'P':
+                throw unsupported("unicode property classes");
+            default:
+                if (c >= '1' && c <= '9') {
+                    throw unsupported("back references");
+                }
+                return literal(escapedCodePoint(c));
+        }
+    }
+
+    private Node parseQuoted() {
+        int end = regex.indexOf("\\E", pos);
+        if (end == -1) {
+            end = regex.length();
+        }
+        List<Node> nodes = new ArrayList<>();
+        while (pos < end) {
+            nodes.add(literal(nextCodePoint()));
+        }
+        pos = Math.min(end + 2, regex.length());
+        return new ConcatNode(nodes);
+    }
+
+    /**
+     * Parses a character class after its opening bracket.
+     */
+    private CharClassNode parseClass() {
+        boolean negated = false;
+        if (peekIs('^')) {
+            pos++;
+            negated = true;
+        }
+        RangeBuilder ranges = new RangeBuilder();
+        boolean first = true;
+        while (true) {
+            if (hasFlag(Pattern.COMMENTS)) {
+                skipWhitespace();
+            }
+            if (pos >= regex.length()) {
+                throw error("Unclosed character class");
+            }
+            char c = regex.charAt(pos);
+            if (c == ']' && !first) {
+                pos++;
+                break;
+            }
+            first = false;
+            if (c == '[') {
+                pos++;
+                CharClassNode nested = parseClass();
+                ranges.addAll(nested.negated ? complement(nested.ranges) : nested.ranges);
+                continue;
+            }
+            if (c == '&' && regex.startsWith("&&", pos)) {
+                throw unsupported("intersections of character classes");
+            }
+            int[] predefined = predefinedClass();
+            if (predefined != null) {
+                ranges.addAll(predefined);
+                continue;
+            }
+            int lo = classCodePoint();
+            if (peekIs('-') && pos + 1 < regex.length() && regex.charAt(pos + 1) != ']') {
+                pos++;
+                int hi = classCodePoint();
+                if (hi < lo) {
+                    throw error("Illegal character range");
+                }
+                ranges.add(lo, hi);
+            } else {
+                ranges.add(lo, lo);
+            }
+        }
+        return new CharClassNode(ranges.build(), negated, caseFolding());
+    }
+
+    /**
+     * Returns the ranges of a predefined class like {@code \d} inside of a character class
+     * or null if the next element is a single character.
+     */
+    private int[] predefinedClass() {
+        if (!peekIs('\\') || pos + 1 >= regex.length()) {
+            return null;
+        }
+        int[] ranges;
+        switch (regex.charAt(pos + 1)) {
+            case 'd':
+                ranges = DIGIT;
+                break;
+            case 'D':
+                ranges = complement(DIGIT);
+                break;
+            case 'w':
+                ranges = WORD;
+                break;
+            case 'W':
+                ranges = complement(WORD);
+                break;
+            case 's':
+                ranges = SPACE;
+                break;
+            case 'S':
+                ranges = complement(SPACE);
+                break;
+            case 'h':
+                ranges = HORIZONTAL_SPACE;
+                break;
+            case 'H':
+                ranges = complement(HORIZONTAL_SPACE);
+                break;
+            case 'v':
+                ranges = VERTICAL_SPACE;
+                break;
+            case 'V':
+                ranges = complement(VERTICAL_SPACE);
+                break;
+            case 'p':
+            case 'P':
+                throw unsupported("unicode property classes");
+            default:
+                return null;
+        }
+        pos += 2;
+        return ranges;
+    }
+
+    private int classCodePoint() {
+        int c = nextCodePoint();
+        if (c == '\\') {
+            return escapedCodePoint(nextCodePoint());
+        }
+        return c;
+    }
+
+    /**
+     * Returns the code point of an escape sequence which represents a single character.
+     */
+    private int escapedCodePoint(int c) {
+        switch (c) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case 'a':
+                return '\u0007';
+            case 'e':
+                return '\u001B';
+            case '0':
+                return parseOctal();
+            case 'x':
+                if (peekIs('{')) {
+                    pos++;
+                    int end = regex.indexOf('}', pos);
+                    if (end == -1) {
+                        throw error("Unclosed hexadecimal escape sequence");
+                    }
+                    int codePoint = parseHex(end - pos);
+                    pos++;
+                    if (codePoint > Character.MAX_CODE_POINT) {
+                        throw error("Hexadecimal codepoint is too big");
+                    }
+                    return codePoint;
+                }
+                return parseHex(2);
+            case 'u':
+                return parseHex(4);
+            case 'c':
+                return nextCodePoint() ^ 64;
+            default:
+                if (c < 128 && Character.isLetterOrDigit(c)) {
+                    throw error("Illegal/unsupported escape sequence");
+                }
+                return c;
+        }
+    }
+
+    private int parseOctal() {
+        int value = 0;
+        int digits = 0;
+        while (digits < 3 && pos < regex.length()) {
+            char c = regex.charAt(pos);
+            if (c < '0' || c > '7' || (digits == 2 && value > 037)) {
+                break;
+            }
+            value = value * 8 + (c - '0');
+            digits++;
+            pos++;
+        }
+        if (digits == 0) {
+            throw error("Illegal octal escape sequence");
+        }
+        return value;
+    }
+
+    private int parseHex(int digits) {
+        if (digits == 0 || digits > 8 || pos + digits > regex.length()) {
+            throw error("Illegal hexadecimal escape sequence");
+        }
+        int value = 0;
+        for (int i = 0; i < digits; i++) {
+            int digit = Character.digit(regex.charAt(pos++), 16);
+            if (digit == -1) {
+                throw error("Illegal hexadecimal escape sequence");
+            }
+            value = value * 16 + digit;
+        }
+        return value;
+    }
+
+    private CharClassNode literal(int codePoint) {
+        return new CharClassNode(new int[]{codePoint, codePoint}, false, caseFolding());
+    }
+
+    private int caseFolding() {
+        if (!hasFlag(Pattern.CASE_INSENSITIVE)) {
+            return CASE_SENSITIVE;
+        }
+        return hasFlag(Pattern.UNICODE_CASE) ? CASE_FOLD_UNICODE : CASE_FOLD_ASCII;
+    }
+
+    private void skipComments() {
+        if (!hasFlag(Pattern.COMMENTS)) {
+            return;
+        }
+        while (pos < regex.length()) {
+            skipWhitespace();
+            if (!peekIs('#')) {
+                return;
+            }
+            while (pos < regex.length() && regex.charAt(pos) != '\n' && regex.charAt(pos) != '\r') {
+                pos++;
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < regex.length()) {
+            char c = regex.charAt(pos);
+            if (c != ' ' && (c < '\t' || c > '\r')) {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    private boolean peekIs(char c) {
+        return pos < regex.length() && regex.charAt(pos) == c;
+    }
+
+    private int nextCodePoint() {
+        if (pos >= regex.length()) {
+            throw error("Unexpected end of pattern");
+        }
+        int c = regex.codePointAt(pos);
+        pos += Character.charCount(c);
+        return c;
+    }
+
+    private PatternSyntaxException error(String description) {
+        return new PatternSyntaxException(description, regex, pos - 1);
+    }
+
+    private UnsupportedFeatureException unsupported(String feature) {
+        return new UnsupportedFeatureException(String.format(Locale.ENGLISH,
+            "The linear regular expression engine does not support %s: \"%s\"", feature, regex));
+    }
+
+    /**
+     * Returns the ranges which are not covered by the given sorted and non overlapping ranges.
+     */
+    static int[] complement(int[] ranges) {
+        RangeBuilder builder = new RangeBuilder();
+        int next = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] > next) {
+                builder.add(next, ranges[i] - 1);
+            }
+            next = ranges[i + 1] + 1;
+        }
+        if (next <= Character.MAX_CODE_POINT) {
+            builder.add(next, Character.MAX_CODE_POINT);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Collects ranges of code points and builds a sorted array of non overlapping {@code [lo, hi]} pairs.
+     */
+    private static final class RangeBuilder {
+
+        private final List<int[]> ranges = new ArrayList<>();
+
+        void add(int lo, int hi) {
+            ranges.add(new int[]{lo, hi});
+        }
+
+        void addAll(int[] pairs) {
+            for (int i = 0; i < pairs.length; i += 2) {
+                add(pairs[i], pairs[i + 1]);
+            }
+        }
+
+        int[] build() {
+            if (ranges.isEmpty()) {
+                return new int[0];
+            }
+            Collections.sort(ranges, (a, b) -> Integer.compare(a[0], b[0]));
+            int[] result = new int[ranges.size() * 2];
+            int size = 0;
+            for (int[] range : ranges) {
+                if (size > 0 && range[0] <= result[size - 1] + 1) {
+                    result[size - 1] = Math.max(result[size - 1], range[1]);
+                } else {
+                    result[size++] = range[0];
+                    result[size++] = range[1];
+                }
+            }
+            return Arrays.copyOf(result, size);
+        }
+    }
+}
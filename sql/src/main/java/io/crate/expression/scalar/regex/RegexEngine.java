@@ -0,0 +1,58 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.expression.scalar.regex;
+
+import java.util.Locale;
+
+/**
+ * The engines which can be used to evaluate regular expressions.
+ *
+ * {@link #BACKTRACKING} uses {@link java.util.regex.Pattern} and supports its full syntax, but patterns like
+ * {@code (a+)+b} may need exponential time to reject an input.
+ * {@link #LINEAR} uses {@link LinearRegex} which runs in time linear to the input, but doesn't support
+ * back references, look-around and some other non-regular constructs.
+ */
+public enum RegexEngine {
+
+    BACKTRACKING,
+    LINEAR;
+
+    /**
+     * Flag of the regular expression functions which selects the {@link #LINEAR} engine.
+     */
+    public static final char LINEAR_FLAG = 'l';
+
+    public static RegexEngine of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "Invalid regular expression engine \"%s\", valid engines are \"backtracking\" and \"linear\"", name));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ENGLISH);
+    }
+}
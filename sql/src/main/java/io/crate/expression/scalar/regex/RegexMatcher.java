@@ -32,22 +32,35 @@ import java.util.regex.Pattern;
 
 public class RegexMatcher {
 
+    @Nullable
     private final Matcher matcher;
+    @Nullable
+    private final LinearRegexMatcher linearMatcher;
     private final CharsRef utf16 = new CharsRef(10);
     private final boolean globalFlag;
 
-    public RegexMatcher(String regex, int flags, boolean globalFlag) {
-        Pattern pattern = Pattern.compile(regex, flags);
-        this.matcher = pattern.matcher(utf16);
+    public RegexMatcher(String regex, int flags, boolean globalFlag, RegexEngine engine) {
+        if (engine == RegexEngine.LINEAR) {
+            this.matcher = null;
+            this.linearMatcher = LinearRegex.compile(regex, flags).matcher();
+        } else {
+            Pattern pattern = Pattern.compile(regex, flags);
+            this.matcher = pattern.matcher(utf16);
+            this.linearMatcher = null;
+        }
         this.globalFlag = globalFlag;
     }
 
+    public RegexMatcher(String regex, int flags, boolean globalFlag) {
+        this(regex, flags, globalFlag, RegexEngine.BACKTRACKING);
+    }
+
     public RegexMatcher(String regex, @Nullable BytesRef flags) {
-        this(regex, parseFlags(BytesRefs.toString(flags)), isGlobal(BytesRefs.toString(flags)));
+        this(regex, BytesRefs.toString(flags));
     }
 
     public RegexMatcher(String regex, @Nullable String flags) {
-        this(regex, parseFlags(flags), isGlobal(flags));
+        this(regex, parseFlags(flags), isGlobal(flags), engine(flags));
     }
 
     public RegexMatcher(String regex) {
@@ -63,11 +76,17 @@ public class RegexMatcher {
 
     public boolean match(BytesRef term) {
         utf8toUtf16(term, utf16);
+        if (linearMatcher != null) {
+            return linearMatcher.reset(utf16).find();
+        }
         return matcher.reset().find();
     }
 
     @Nullable
     public BytesRef[] groups() {
+        if (linearMatcher != null) {
+            return linearGroups();
+        }
         try {
             if (matcher.groupCount() == 0) {
                 return new BytesRef[]{new BytesRef(matcher.group())};
@@ -89,8 +108,30 @@ public class RegexMatcher {
         return null;
     }
 
+    @Nullable
+    private BytesRef[] linearGroups() {
+        try {
+            int groupCount = linearMatcher.groupCount();
+            if (groupCount == 0) {
+                return new BytesRef[]{new BytesRef(linearMatcher.group(0))};
+            }
+            BytesRef[] groups = new BytesRef[groupCount];
+            for (int i = 1; i <= groupCount; i++) {
+                String group = linearMatcher.group(i);
+                groups[i - 1] = group == null ? null : new BytesRef(group);
+            }
+            return groups;
+        } catch (IllegalStateException e) {
+            // no match -> no groups
+        }
+        return null;
+    }
+
     public BytesRef replace(BytesRef term, String replacement) {
         utf8toUtf16(term, utf16);
+        if (linearMatcher != null) {
+            return new BytesRef(linearMatcher.reset(utf16).replace(replacement, globalFlag));
+        }
         if (globalFlag) {
             return new BytesRef(matcher.replaceAll(replacement));
         } else {
@@ -130,6 +171,9 @@ public class RegexMatcher {
                 case 'g':
                     // handled in isGlobalFunction
                     break;
+                case RegexEngine.LINEAR_FLAG:
+                    // handled in engine
+                    break;
                 default:
                     throw new IllegalArgumentException("The regular expression flag is unknown: " + flag);
             }
@@ -145,6 +189,13 @@ public class RegexMatcher {
         return flags.indexOf('g') != -1;
     }
 
+    public static RegexEngine engine(@Nullable String flags) {
+        if (flags != null && flags.indexOf(RegexEngine.LINEAR_FLAG) != -1) {
+            return RegexEngine.LINEAR;
+        }
+        return RegexEngine.BACKTRACKING;
+    }
+
 
     // PCRE features
     public static final String character_classes = "dDsSwW";
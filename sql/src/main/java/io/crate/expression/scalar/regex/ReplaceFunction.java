@@ -119,6 +119,8 @@ public class ReplaceFunction extends Scalar<BytesRef, Object> implements Functio
                     String flags = BytesRefs.toString(((Input) flagsSymbol).value());
                     regexMatcher = new RegexMatcher(pattern, flags);
                 }
+            } else {
+                regexMatcher = new RegexMatcher(pattern);
             }
         }
         return this;
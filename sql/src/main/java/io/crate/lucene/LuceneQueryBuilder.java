@@ -66,6 +66,7 @@ import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.expression.scalar.conditional.CoalesceFunction;
 import io.crate.expression.scalar.geo.DistanceFunction;
 import io.crate.expression.scalar.geo.WithinFunction;
+import io.crate.expression.scalar.regex.RegexEngine;
 import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
@@ -138,6 +139,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -498,6 +500,11 @@ public class LuceneQueryBuilder {
                 if (tuple == null) {
                     return null;
                 }
+                Query trigramQuery = trigramQuery(
+                    tuple.v1(), tuple.v2().value(), input, context, TrigramIndex::likeQuery);
+                if (trigramQuery != null) {
+                    return trigramQuery;
+                }
                 return toQuery(tuple.v1(), tuple.v2().value(), context);
             }
 
@@ -923,6 +930,12 @@ public class LuceneQueryBuilder {
 
         static class RegexpMatchQuery extends CmpQuery {
 
+            private final RegexEngine engine;
+
+            RegexpMatchQuery(RegexEngine engine) {
+                this.engine = engine;
+            }
+
             private Query toLuceneRegexpQuery(String fieldName, BytesRef value) {
                 return new ConstantScoreQuery(
                     new RegexpQuery(new Term(fieldName, value), RegExp.ALL));
@@ -941,8 +954,13 @@ public class LuceneQueryBuilder {
                     return null;
                 }
 
+                Query trigramQuery = trigramQuery(
+                    prepare.v1(), pattern, input, context, TrigramIndex::regexQuery);
+                if (trigramQuery != null) {
+                    return trigramQuery;
+                }
                 if (isPcrePattern(pattern.utf8ToString())) {
-                    return new CrateRegexQuery(new Term(fieldName, pattern));
+                    return new CrateRegexQuery(new Term(fieldName, pattern), 0, engine);
                 } else {
                     return toLuceneRegexpQuery(fieldName, pattern);
                 }
@@ -951,6 +969,12 @@ public class LuceneQueryBuilder {
 
         static class RegexMatchQueryCaseInsensitive extends CmpQuery {
 
+            private final RegexEngine engine;
+
+            RegexMatchQueryCaseInsensitive(RegexEngine engine) {
+                this.engine = engine;
+            }
+
             @Override
             public Query apply(Function input, Context context) {
                 Tuple<Reference, Literal> prepare = prepare(input);
@@ -963,7 +987,8 @@ public class LuceneQueryBuilder {
                 if (value instanceof BytesRef) {
                     return new CrateRegexQuery(
                         new Term(fieldName, BytesRefs.toBytesRef(value)),
-                        CrateRegexCapabilities.FLAG_CASE_INSENSITIVE | CrateRegexCapabilities.FLAG_UNICODE_CASE);
+                        CrateRegexCapabilities.FLAG_CASE_INSENSITIVE | CrateRegexCapabilities.FLAG_UNICODE_CASE,
+                        engine);
                 }
                 throw new IllegalArgumentException("Can only use ~* with patterns of type string");
             }
@@ -1148,8 +1173,12 @@ public class LuceneQueryBuilder {
                 .put(AnyGtOperator.NAME, new AnyRangeQuery("lt", "gt"))
                 .put(AnyLikeOperator.NAME, new AnyLikeQuery())
                 .put(AnyNotLikeOperator.NAME, new AnyNotLikeQuery())
-                .put(RegexpMatchOperator.NAME, new RegexpMatchQuery())
-                .put(RegexpMatchCaseInsensitiveOperator.NAME, new RegexMatchQueryCaseInsensitive())
+                .put(RegexpMatchOperator.NAME, new RegexpMatchQuery(RegexEngine.BACKTRACKING))
+                .put(RegexpMatchOperator.LINEAR_NAME, new RegexpMatchQuery(RegexEngine.LINEAR))
+                .put(RegexpMatchCaseInsensitiveOperator.NAME,
+                    new RegexMatchQueryCaseInsensitive(RegexEngine.BACKTRACKING))
+                .put(RegexpMatchCaseInsensitiveOperator.LINEAR_NAME,
+                    new RegexMatchQueryCaseInsensitive(RegexEngine.LINEAR))
                 .build();
 
         private final ImmutableMap<String, InnerFunctionToQuery> innerFunctions =
@@ -1272,6 +1301,36 @@ public class LuceneQueryBuilder {
             }
         }
 
+        /**
+         * If the column has a trigram index, returns a query which uses the trigrams required by the pattern to find
+         * candidates. The candidates are verified by evaluating the function.
+         */
+        @Nullable
+        static Query trigramQuery(Reference reference,
+                                  @Nullable Object pattern,
+                                  Function function,
+                                  Context context,
+                                  BiFunction<String, String, Query> toTrigramQuery) {
+            if (pattern == null || !reference.valueType().equals(DataTypes.STRING)) {
+                return null;
+            }
+            String columnName = reference.ident().columnIdent().fqn();
+            MappedFieldType fieldType = context.getFieldTypeOrNull(columnName);
+            MappedFieldType trigramFieldType = context.getFieldTypeOrNull(TrigramIndex.fieldName(columnName));
+            if (fieldType == null || trigramFieldType == null || !fieldType.hasDocValues()) {
+                return null;
+            }
+            Query trigrams = toTrigramQuery.apply(trigramFieldType.name(), BytesRefs.toString(pattern));
+            if (trigrams == null) {
+                return null;
+            }
+            // the trigram postings lead the conjunction, the function is only evaluated on their matches
+            return new BooleanQuery.Builder()
+                .add(trigrams, BooleanClause.Occur.FILTER)
+                .add(genericFunctionFilter(function, context), BooleanClause.Occur.FILTER)
+                .build();
+        }
+
         static Query genericFunctionFilter(Function function, Context context) {
             if (function.valueType() != DataTypes.BOOLEAN) {
                 raiseUnsupported(function);
@@ -0,0 +1,285 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.elasticsearch.common.settings.Settings;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A trigram index (INDEX USING TRIGRAM) adds a sub field to a string column which contains all 3-grams of the value.
+ *
+ * <p>
+ * LIKE and regular expression queries with a leading wildcard would otherwise have to enumerate the whole term
+ * dictionary of the column. With the trigram index, the trigrams which must be contained in any matching value are
+ * extracted from the pattern and only the documents containing all of them are verified using the pattern.
+ * </p>
+ */
+public final class TrigramIndex {
+
+    public static final String INDEX_METHOD = "trigram";
+    public static final String FIELD_NAME = "trigram";
+
+    private static final String ANALYZER = "crate_trigram";
+    private static final int GRAM_SIZE = 3;
+
+    /**
+     * Limits the number of terms of a query, more terms don't reduce the number of candidates significantly
+     */
+    private static final int MAX_TRIGRAMS = 64;
+
+    public static final Settings ANALYZER_SETTINGS = Settings.builder()
+        .put("index.analysis.analyzer." + ANALYZER + ".type", "custom")
+        .put("index.analysis.analyzer." + ANALYZER + ".tokenizer", ANALYZER)
+        .put("index.analysis.tokenizer." + ANALYZER + ".type", "ngram")
+        .put("index.analysis.tokenizer." + ANALYZER + ".min_gram", GRAM_SIZE)
+        .put("index.analysis.tokenizer." + ANALYZER + ".max_gram", GRAM_SIZE)
+        .build();
+
+    private TrigramIndex() {
+    }
+
+    /**
+     * @return the "fields" mapping of a column with a trigram index
+     */
+    public static Map<String, Object> fieldsMapping() {
+        return ImmutableMap.of(FIELD_NAME, ImmutableMap.of(
+            "type", "text",
+            "analyzer", ANALYZER,
+            "index_options", "docs",
+            "norms", false
+        ));
+    }
+
+    public static String fieldName(String columnName) {
+        return columnName + '.' + FIELD_NAME;
+    }
+
+    /**
+     * @return a query matching all documents which contain the trigrams required by the LIKE pattern
+     *         or null if the pattern doesn't contain any literal of at least 3 characters.
+     */
+    @Nullable
+    static Query likeQuery(String fieldName, String pattern) {
+        List<StringBuilder> literals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        boolean escaped = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (escaped) {
+                literal.append(c);
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '%' || c == '_') {
+                literals.add(literal);
+                literal = new StringBuilder();
+            } else {
+                literal.append(c);
+            }
+        }
+        literals.add(literal);
+        return toQuery(fieldName, literals);
+    }
+
+    /**
+     * Extracts the literals which must be part of any value matching the regular expression.
+     * Both the lucene and the PCRE syntax are considered, anything which isn't understood results in no trigrams.
+     *
+     * @return a query matching all documents which contain the required trigrams
+     *         or null if no literal of at least 3 characters is required.
+     */
+    @Nullable
+    static Query regexQuery(String fieldName, String pattern) {
+        if (pattern.contains("(?")) {
+            // flags like (?i) change how the rest of the pattern matches
+            return null;
+        }
+        List<StringBuilder> literals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            switch (c) {
+                case '|':
+                case '~':
+                case '&':
+                case '"':
+                case '<':
+                    // alternations, complements, intersections, quoted strings and numeric ranges
+                    return null;
+
+                case '\\':
+                    if (i + 1 < pattern.length() && !Character.isLetterOrDigit(pattern.charAt(i + 1))) {
+                        literal.append(pattern.charAt(i + 1));
+                        i += 2;
+                        continue;
+                    }
+                    // character class (e.g. \d) or back reference
+                    literals.add(literal);
+                    literal = new StringBuilder();
+                    i += 2;
+                    continue;
+
+                case '?':
+                case '*':
+                case '{':
+                    // the preceding character is optional
+                    if (literal.length() > 0) {
+                        literal.setLength(literal.length() - 1);
+                    }
+                    literals.add(literal);
+                    literal = new StringBuilder();
+                    i = c == '{' ? skipTo(pattern, i, '}') : i + 1;
+                    continue;
+
+                case '(':
+                    literals.add(literal);
+                    literal = new StringBuilder();
+                    i = skipGroup(pattern, i);
+                    continue;
+
+                case '[':
+                    literals.add(literal);
+                    literal = new StringBuilder();
+                    i = skipCharacterClass(pattern, i);
+                    continue;
+
+                case '+':
+                case '.':
+                case '^':
+                case '$':
+                case '@':
+                case '#':
+                case ')':
+                case ']':
+                case '}':
+                    literals.add(literal);
+                    literal = new StringBuilder();
+                    i++;
+                    continue;
+
+                default:
+                    literal.append(c);
+                    i++;
+            }
+        }
+        literals.add(literal);
+        return toQuery(fieldName, literals);
+    }
+
+    private static int skipTo(String pattern, int start, char end) {
+        int idx = pattern.indexOf(end, start);
+        return idx == -1 ? pattern.length() : idx + 1;
+    }
+
+    private static int skipGroup(String pattern, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                i = skipCharacterClass(pattern, i);
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipCharacterClass(String pattern, int start) {
+        int i = start + 1;
+        if (i < pattern.length() && pattern.charAt(i) == '^') {
+            i++;
+        }
+        if (i < pattern.length() && pattern.charAt(i) == ']') {
+            // a leading ] is part of the class
+            i++;
+        }
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == ']') {
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    @Nullable
+    private static Query toQuery(String fieldName, List<StringBuilder> literals) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (StringBuilder literal : literals) {
+            addTrigrams(literal.toString(), trigrams);
+        }
+        if (trigrams.isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        int numTrigrams = 0;
+        for (String trigram : trigrams) {
+            if (numTrigrams == MAX_TRIGRAMS) {
+                break;
+            }
+            builder.add(new TermQuery(new Term(fieldName, trigram)), BooleanClause.Occur.FILTER);
+            numTrigrams++;
+        }
+        return new ConstantScoreQuery(builder.build());
+    }
+
+    private static void addTrigrams(String literal, Set<String> trigrams) {
+        // the ngram tokenizer works on code points, so surrogate pairs must not be split
+        int[] codePoints = literal.codePoints().toArray();
+        for (int i = 0; i + GRAM_SIZE <= codePoints.length; i++) {
+            trigrams.add(new String(codePoints, i, GRAM_SIZE));
+        }
+    }
+}
@@ -22,6 +22,9 @@
 
 package io.crate.lucene.match;
 
+import io.crate.expression.scalar.regex.LinearRegex;
+import io.crate.expression.scalar.regex.LinearRegexMatcher;
+import io.crate.expression.scalar.regex.RegexEngine;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.CharsRefBuilder;
 
@@ -29,18 +32,30 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * An implementation tying Java's built-in java.util.regex to {@link CrateRegexQuery}.
+ * An implementation tying Java's built-in java.util.regex or the {@link LinearRegex} engine
+ * to {@link CrateRegexQuery}.
  */
 public final class CrateRegexCapabilities {
 
     public static final int FLAG_UNICODE_CASE = Pattern.UNICODE_CASE;
     public static final int FLAG_CASE_INSENSITIVE = Pattern.CASE_INSENSITIVE;
 
-    static JavaUtilRegexMatcher compile(String regex, int flags) {
+    static RegexTermMatcher compile(String regex, int flags, RegexEngine engine) {
+        if (engine == RegexEngine.LINEAR) {
+            return new LinearTermMatcher(regex, flags);
+        }
         return new CrateRegexCapabilities.JavaUtilRegexMatcher(regex, flags);
     }
 
-    static class JavaUtilRegexMatcher {
+    interface RegexTermMatcher {
+
+        /**
+         * Returns true if the whole term matches the regular expression.
+         */
+        boolean match(BytesRef term);
+    }
+
+    static class JavaUtilRegexMatcher implements RegexTermMatcher {
         private final Pattern pattern;
         private final Matcher matcher;
         private final CharsRefBuilder utf16 = new CharsRefBuilder();
@@ -50,10 +65,26 @@ public final class CrateRegexCapabilities {
             this.matcher = this.pattern.matcher(utf16.get());
         }
 
-        boolean match(BytesRef term) {
+        @Override
+        public boolean match(BytesRef term) {
             utf16.copyUTF8Bytes(term);
             utf16.get();
             return matcher.reset().matches();
         }
     }
+
+    static class LinearTermMatcher implements RegexTermMatcher {
+        private final LinearRegexMatcher matcher;
+        private final CharsRefBuilder utf16 = new CharsRefBuilder();
+
+        LinearTermMatcher(String regex, int flags) {
+            this.matcher = LinearRegex.compile(regex, flags).matcher();
+        }
+
+        @Override
+        public boolean match(BytesRef term) {
+            utf16.copyUTF8Bytes(term);
+            return matcher.reset(utf16.get()).matches();
+        }
+    }
 }
@@ -22,6 +22,7 @@
 
 package io.crate.lucene.match;
 
+import io.crate.expression.scalar.regex.RegexEngine;
 import org.apache.lucene.index.FilteredTermsEnum;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.Terms;
@@ -42,24 +43,29 @@ public class CrateRegexQuery extends MultiTermQuery {
 
     private final Term term;
     private final int flags;
+    private final RegexEngine engine;
 
     /** Constructs a query for terms matching <code>term</code>. */
     public CrateRegexQuery(Term term) {
-        super(term.field());
-        this.term = term;
-        this.flags = 0;
+        this(term, 0);
     }
 
     /** Constructs a query for terms matching <code>term</code>. */
     public CrateRegexQuery(Term term, int flags) {
+        this(term, flags, RegexEngine.BACKTRACKING);
+    }
+
+    /** Constructs a query for terms matching <code>term</code> using the given regular expression engine. */
+    public CrateRegexQuery(Term term, int flags, RegexEngine engine) {
         super(term.field());
         this.term = term;
         this.flags = flags;
+        this.engine = engine;
     }
 
     @Override
     protected FilteredTermsEnum getTermsEnum(Terms terms, AttributeSource atts) throws IOException {
-        return new CrateRegexTermsEnum(terms.iterator(), term, flags);
+        return new CrateRegexTermsEnum(terms.iterator(), term, flags, engine);
     }
 
     @Override
@@ -71,6 +77,9 @@ public class CrateRegexQuery extends MultiTermQuery {
         }
         buffer.append(term.text());
         buffer.append(",flags:").append(flags);
+        if (engine == RegexEngine.LINEAR) {
+            buffer.append(",engine:").append(engine);
+        }
         return buffer.toString();
     }
 
@@ -82,11 +91,12 @@ public class CrateRegexQuery extends MultiTermQuery {
         if (!super.equals(o)) return false;
         CrateRegexQuery query = (CrateRegexQuery) o;
         return flags == query.flags &&
+               engine == query.engine &&
                Objects.equals(term, query.term);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), term, flags);
+        return Objects.hash(super.hashCode(), term, flags, engine);
     }
 }
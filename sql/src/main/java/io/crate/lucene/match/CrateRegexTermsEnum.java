@@ -22,6 +22,7 @@
 
 package io.crate.lucene.match;
 
+import io.crate.expression.scalar.regex.RegexEngine;
 import org.apache.lucene.index.FilteredTermsEnum;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TermsEnum;
@@ -37,12 +38,12 @@ import org.apache.lucene.util.BytesRef;
  */
 class CrateRegexTermsEnum extends FilteredTermsEnum {
 
-    private CrateRegexCapabilities.JavaUtilRegexMatcher regexImpl;
+    private CrateRegexCapabilities.RegexTermMatcher regexImpl;
 
-    CrateRegexTermsEnum(TermsEnum tenum, Term term, int flags) {
+    CrateRegexTermsEnum(TermsEnum tenum, Term term, int flags, RegexEngine engine) {
         super(tenum);
         String text = term.text();
-        this.regexImpl = CrateRegexCapabilities.compile(text, flags);
+        this.regexImpl = CrateRegexCapabilities.compile(text, flags, engine);
 
         setInitialSeekTerm(new BytesRef(""));
     }
@@ -40,6 +40,7 @@ import org.elasticsearch.index.shard.ShardNotFoundException;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -57,11 +58,14 @@ import static io.crate.metadata.Routing.forTableOnSingleNode;
  * will always return the same results for the same arguments, because {@code random} is used to fixate a seed.
  *
  * The implementation is similar to {@link org.elasticsearch.cluster.routing.OperationRouting}.
+ *
+ * The names of all indices for which a routing has been requested are tracked, see {@link #routedIndices()}.
  */
 public final class RoutingProvider {
 
     private final int seed;
     private final String[] awarenessAttributes;
+    private final Set<String> routedIndices = new HashSet<>();
 
     public enum ShardSelection {
         ANY,
@@ -98,7 +102,16 @@ public final class RoutingProvider {
         throw new AssertionError("Cannot find a master or data node with given random index " + randomIdx);
     }
 
+    /**
+     * @return the names of the indices which have been passed to {@link #forId(ClusterState, String, String, String)}
+     *         or {@link #forIndices(ClusterState, String[], Map, boolean, ShardSelection)}
+     */
+    public Set<String> routedIndices() {
+        return routedIndices;
+    }
+
     public ShardRouting forId(ClusterState state, String index, String id, @Nullable String routing) {
+        routedIndices.add(index);
         IndexMetaData indexMetaData = indexMetaData(state, index);
         ShardId shardId = new ShardId(indexMetaData.getIndex(), generateShardId(indexMetaData, id, routing));
         return state.getRoutingTable().shardRoutingTable(shardId).primaryShard();
@@ -109,6 +122,7 @@ public final class RoutingProvider {
                               Map<String, Set<String>> routingValuesByIndex,
                               boolean ignoreMissingShards,
                               ShardSelection shardSelection) {
+        Collections.addAll(routedIndices, concreteIndices);
 
         Set<IndexShardRoutingTable> shards;
         try {
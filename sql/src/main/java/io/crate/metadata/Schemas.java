@@ -51,6 +51,7 @@ import javax.annotation.Nullable;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
@@ -143,22 +144,24 @@ public class Schemas extends AbstractLifecycleComponent implements Iterable<Sche
         }
         defaultTemplateService.createIfNotExists(event.state());
 
-        Set<String> newCurrentSchemas = getNewCurrentSchemas(event.state().metaData());
         synchronized (schemas) {
-            Sets.SetView<String> nonBuiltInSchemas = Sets.difference(schemas.keySet(), builtInSchemas.keySet());
-            Set<String> deleted = Sets.difference(nonBuiltInSchemas, newCurrentSchemas).immutableCopy();
-            Set<String> added = Sets.difference(newCurrentSchemas, schemas.keySet()).immutableCopy();
+            if (schemasMayHaveChanged(event)) {
+                Set<String> newCurrentSchemas = getNewCurrentSchemas(event.state().metaData());
+                Sets.SetView<String> nonBuiltInSchemas = Sets.difference(schemas.keySet(), builtInSchemas.keySet());
+                Set<String> deleted = Sets.difference(nonBuiltInSchemas, newCurrentSchemas).immutableCopy();
+                Set<String> added = Sets.difference(newCurrentSchemas, schemas.keySet()).immutableCopy();
 
-            for (String deletedSchema : deleted) {
-                try {
-                    schemas.remove(deletedSchema).close();
-                } catch (Exception e) {
-                    logger.error(e.getMessage(), e);
+                for (String deletedSchema : deleted) {
+                    try {
+                        schemas.remove(deletedSchema).close();
+                    } catch (Exception e) {
+                        logger.error(e.getMessage(), e);
+                    }
                 }
-            }
 
-            for (String addedSchema : added) {
-                schemas.put(addedSchema, getCustomSchemaInfo(addedSchema));
+                for (String addedSchema : added) {
+                    schemas.put(addedSchema, getCustomSchemaInfo(addedSchema));
+                }
             }
 
             // update all existing schemas
@@ -168,6 +171,23 @@ public class Schemas extends AbstractLifecycleComponent implements Iterable<Sche
         }
     }
 
+    /**
+     * Schemas are only created or dropped together with indices, templates or user defined functions.
+     * Other meta data changes, like the update of a mapping or the settings of an index, don't require
+     * to iterate over all indices to determine the current schemas.
+     */
+    @VisibleForTesting
+    static boolean schemasMayHaveChanged(ClusterChangedEvent event) {
+        MetaData newMetaData = event.state().metaData();
+        MetaData prevMetaData = event.previousState().metaData();
+        return event.isNewCluster()
+               || !newMetaData.templates().equals(prevMetaData.templates())
+               || !Objects.equals(newMetaData.custom(UserDefinedFunctionsMetaData.TYPE),
+                                  prevMetaData.custom(UserDefinedFunctionsMetaData.TYPE))
+               || !event.indicesCreated().isEmpty()
+               || !event.indicesDeleted().isEmpty();
+    }
+
     @VisibleForTesting
     static Set<String> getNewCurrentSchemas(MetaData metaData) {
         Set<String> schemas = new HashSet<>();
@@ -230,7 +250,6 @@ public class Schemas extends AbstractLifecycleComponent implements Iterable<Sche
         if (schemaInfo == null) {
             return false;
         }
-        schemaInfo.invalidateTableCache(tableIdent.name());
         TableInfo tableInfo = schemaInfo.getTableInfo(tableIdent.name());
         if (tableInfo == null) {
             return false;
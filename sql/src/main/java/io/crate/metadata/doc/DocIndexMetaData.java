@@ -38,6 +38,7 @@ import io.crate.analyze.expressions.ExpressionAnalyzer;
 import io.crate.analyze.expressions.TableReferenceResolver;
 import io.crate.core.collections.Maps;
 import io.crate.exceptions.TableAliasSchemaException;
+import io.crate.lucene.TrigramIndex;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Functions;
 import io.crate.metadata.GeneratedReference;
@@ -694,6 +695,33 @@ public class DocIndexMetaData {
         }
     }
 
+    private void collectTrigramIndexedColumns(ColumnIdent columnIdent,
+                                              Map<String, Object> propertiesMap,
+                                              ImmutableSet.Builder<ColumnIdent> builder) {
+        for (Map.Entry<String, Object> columnEntry : propertiesMap.entrySet()) {
+            Map<String, Object> columnProperties = (Map) columnEntry.getValue();
+            ColumnIdent newIdent = childIdent(columnIdent, columnEntry.getKey());
+            columnProperties = furtherColumnProperties(columnProperties);
+            if (columnProperties.get("properties") != null) {
+                collectTrigramIndexedColumns(newIdent, (Map<String, Object>) columnProperties.get("properties"), builder);
+            }
+            Map<String, Object> fields = (Map<String, Object>) columnProperties.get("fields");
+            if (fields != null && fields.containsKey(TrigramIndex.FIELD_NAME)) {
+                builder.add(newIdent);
+            }
+        }
+    }
+
+    ImmutableSet<ColumnIdent> trigramIndexedColumns() {
+        Map<String, Object> propertiesMap = Maps.getNested(mappingMap, "properties");
+        if (propertiesMap == null) {
+            return ImmutableSet.of();
+        }
+        ImmutableSet.Builder<ColumnIdent> builder = ImmutableSet.builder();
+        collectTrigramIndexedColumns(null, propertiesMap, builder);
+        return builder.build();
+    }
+
     Set<Operation> supportedOperations() {
         return supportedOperations;
     }
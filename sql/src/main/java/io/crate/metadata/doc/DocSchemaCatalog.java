@@ -0,0 +1,218 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.doc;
+
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+import com.carrotsearch.hppc.cursors.ObjectObjectCursor;
+import io.crate.blob.v2.BlobIndex;
+import io.crate.metadata.IndexParts;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.IndexTemplateMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.collect.ImmutableOpenMap;
+import org.elasticsearch.gateway.GatewayService;
+import org.elasticsearch.index.Index;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the tables of one schema and of the partitions of its partitioned tables.
+ *
+ * <p>
+ * The index is built once from the complete {@link MetaData} and afterwards only the difference between two
+ * cluster states is applied, so that neither listing the tables nor processing the creation of a partition
+ * requires to iterate over all indices of the cluster.
+ * </p>
+ *
+ * Updates are serialized, lookups may run concurrently to an update.
+ */
+final class DocSchemaCatalog {
+
+    private final String schemaName;
+    private final Set<String> tables = ConcurrentHashMap.newKeySet();
+    private final Set<String> partitionedTables = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Set<String>> partitionsByTable = new ConcurrentHashMap<>();
+
+    private volatile boolean initialized = false;
+
+    DocSchemaCatalog(String schemaName) {
+        this.schemaName = schemaName;
+    }
+
+    /**
+     * @return the names of all tables of the schema. Partitioned tables are only included if their template exists.
+     */
+    Set<String> tableNames(MetaData metaData) {
+        ensureInitialized(metaData);
+        Set<String> names = new HashSet<>(tables);
+        names.addAll(partitionedTables);
+        return names;
+    }
+
+    /**
+     * @return the index names of the partitions of the given table
+     */
+    Set<String> partitions(String tableName) {
+        Set<String> partitions = partitionsByTable.get(tableName);
+        return partitions == null ? Collections.emptySet() : partitions;
+    }
+
+    boolean isPartitioned(String tableName) {
+        return partitionedTables.contains(tableName) || partitionsByTable.containsKey(tableName);
+    }
+
+    /**
+     * Applies the indices and templates which have been created or deleted with the event.
+     *
+     * @return the names of the tables which have been created, dropped or to which partitions have been added or
+     *         removed, or null if the catalog has been rebuilt and any table may have changed.
+     */
+    @Nullable
+    synchronized Set<String> applyChanges(ClusterChangedEvent event) {
+        MetaData newMetaData = event.state().metaData();
+        if (!initialized
+            || event.isNewCluster()
+            || event.previousState().blocks().hasGlobalBlock(GatewayService.STATE_NOT_RECOVERED_BLOCK)) {
+            rebuild(newMetaData);
+            return null;
+        }
+        Set<String> changedTables = new HashSet<>();
+        for (Index index : event.indicesDeleted()) {
+            IndexParts indexParts = indexParts(index.getName());
+            if (indexParts != null) {
+                removeIndex(indexParts, index.getName());
+                changedTables.add(indexParts.getTable());
+            }
+        }
+        for (String indexName : event.indicesCreated()) {
+            IndexParts indexParts = indexParts(indexName);
+            if (indexParts != null) {
+                addIndex(indexParts, indexName);
+                changedTables.add(indexParts.getTable());
+            }
+        }
+
+        ImmutableOpenMap<String, IndexTemplateMetaData> newTemplates = newMetaData.templates();
+        ImmutableOpenMap<String, IndexTemplateMetaData> prevTemplates = event.previousState().metaData().templates();
+        if (newTemplates != prevTemplates) {
+            for (ObjectObjectCursor<String, IndexTemplateMetaData> template : newTemplates) {
+                if (prevTemplates.get(template.key) != template.value) {
+                    String tableName = partitionedTableName(template.key);
+                    if (tableName != null) {
+                        partitionedTables.add(tableName);
+                        changedTables.add(tableName);
+                    }
+                }
+            }
+            for (ObjectCursor<String> templateName : prevTemplates.keys()) {
+                if (!newTemplates.containsKey(templateName.value)) {
+                    String tableName = partitionedTableName(templateName.value);
+                    if (tableName != null) {
+                        partitionedTables.remove(tableName);
+                        changedTables.add(tableName);
+                    }
+                }
+            }
+        }
+        return changedTables;
+    }
+
+    private void ensureInitialized(MetaData metaData) {
+        if (!initialized) {
+            synchronized (this) {
+                if (!initialized) {
+                    rebuild(metaData);
+                }
+            }
+        }
+    }
+
+    private void rebuild(MetaData metaData) {
+        tables.clear();
+        partitionedTables.clear();
+        partitionsByTable.clear();
+        for (String indexName : metaData.getConcreteAllIndices()) {
+            IndexParts indexParts = indexParts(indexName);
+            if (indexParts != null) {
+                addIndex(indexParts, indexName);
+            }
+        }
+        for (ObjectCursor<String> templateName : metaData.templates().keys()) {
+            String tableName = partitionedTableName(templateName.value);
+            if (tableName != null) {
+                partitionedTables.add(tableName);
+            }
+        }
+        initialized = true;
+    }
+
+    private void addIndex(IndexParts indexParts, String indexName) {
+        if (indexParts.isPartitioned()) {
+            partitionsByTable.computeIfAbsent(indexParts.getTable(), k -> ConcurrentHashMap.newKeySet()).add(indexName);
+        } else {
+            tables.add(indexParts.getTable());
+        }
+    }
+
+    private void removeIndex(IndexParts indexParts, String indexName) {
+        if (indexParts.isPartitioned()) {
+            partitionsByTable.computeIfPresent(indexParts.getTable(), (k, partitions) -> {
+                partitions.remove(indexName);
+                return partitions.isEmpty() ? null : partitions;
+            });
+        } else {
+            tables.remove(indexParts.getTable());
+        }
+    }
+
+    /**
+     * @return the parts of the index name if it is a table or partition of this schema, otherwise null
+     */
+    @Nullable
+    private IndexParts indexParts(String indexName) {
+        if (BlobIndex.isBlobIndex(indexName)) {
+            return null;
+        }
+        IndexParts indexParts;
+        try {
+            indexParts = new IndexParts(indexName);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return indexParts.matchesSchema(schemaName) ? indexParts : null;
+    }
+
+    @Nullable
+    private String partitionedTableName(String templateName) {
+        if (!IndexParts.isPartitioned(templateName)) {
+            return null;
+        }
+        IndexParts indexParts = indexParts(templateName);
+        return indexParts == null ? null : indexParts.getTable();
+    }
+}
@@ -21,17 +21,13 @@
 
 package io.crate.metadata.doc;
 
-import com.carrotsearch.hppc.ObjectLookupContainer;
 import com.carrotsearch.hppc.cursors.ObjectCursor;
-import com.carrotsearch.hppc.cursors.ObjectObjectCursor;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Iterators;
-import io.crate.blob.v2.BlobIndex;
 import io.crate.exceptions.ResourceUnknownException;
 import io.crate.metadata.Functions;
 import io.crate.metadata.IndexParts;
 import io.crate.metadata.PartitionName;
-import io.crate.metadata.Schemas;
 import io.crate.metadata.TableIdent;
 import io.crate.metadata.table.SchemaInfo;
 import io.crate.metadata.table.TableInfo;
@@ -46,13 +42,11 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.index.Index;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Predicate;
-import java.util.stream.Stream;
 
 /**
  * SchemaInfo for all user tables.
@@ -115,8 +109,7 @@ public class DocSchemaInfo implements SchemaInfo {
     private final UserDefinedFunctionService udfService;
 
     private final ConcurrentHashMap<String, DocTableInfo> docTableByName = new ConcurrentHashMap<>();
-
-    private static final Predicate<String> NO_BLOB = ((Predicate<String>)BlobIndex::isBlobIndex).negate();
+    private final DocSchemaCatalog catalog;
 
     private final String schemaName;
 
@@ -133,6 +126,7 @@ public class DocSchemaInfo implements SchemaInfo {
         this.clusterService = clusterService;
         this.udfService = udfService;
         this.docTableInfoFactory = docTableInfoFactory;
+        this.catalog = new DocSchemaCatalog(schemaName);
     }
 
     private DocTableInfo innerGetTableInfo(String tableName) {
@@ -148,36 +142,9 @@ public class DocSchemaInfo implements SchemaInfo {
         }
     }
 
-    private Collection<String> tableNames() {
-        Set<String> tables = new HashSet<>();
-
-        Stream.of(clusterService.state().metaData().getConcreteAllIndices())
-            .filter(NO_BLOB)
-            .map(IndexParts::new)
-            .filter(indexParts -> !indexParts.isPartitioned())
-            .filter(indexParts -> indexParts.matchesSchema(schemaName))
-            .map(IndexParts::getTable)
-            .forEach(tables::add);
-
-        // Search for partitioned table templates
-        Iterator<String> templates = clusterService.state().metaData().getTemplates().keysIt();
-        while (templates.hasNext()) {
-            String templateName = templates.next();
-            if (!IndexParts.isPartitioned(templateName)) {
-                continue;
-            }
-            try {
-                PartitionName partitionName = PartitionName.fromIndexOrTemplate(templateName);
-                TableIdent ti = partitionName.tableIdent();
-                if (schemaName.equalsIgnoreCase(ti.schema())) {
-                    tables.add(ti.name());
-                }
-            } catch (IllegalArgumentException e) {
-                // do nothing
-            }
-        }
-
-        return tables;
+    @VisibleForTesting
+    Collection<String> tableNames() {
+        return catalog.tableNames(clusterService.state().metaData());
     }
 
     @Override
@@ -194,6 +161,13 @@ public class DocSchemaInfo implements SchemaInfo {
     public void update(ClusterChangedEvent event) {
         assert event.metaDataChanged() : "metaDataChanged must be true if update is called";
 
+        Set<String> changedTables = catalog.applyChanges(event);
+        if (changedTables == null) {
+            docTableByName.clear();
+        } else {
+            changedTables.forEach(docTableByName::remove);
+        }
+
         // search for aliases of deleted and created indices, they must be invalidated also
         MetaData prevMetaData = event.previousState().metaData();
         for (Index index : event.indicesDeleted()) {
@@ -207,7 +181,7 @@ public class DocSchemaInfo implements SchemaInfo {
         // search for templates with changed meta data => invalidate template aliases
         ImmutableOpenMap<String, IndexTemplateMetaData> newTemplates = newMetaData.templates();
         ImmutableOpenMap<String, IndexTemplateMetaData> prevTemplates = prevMetaData.templates();
-        if (!newTemplates.equals(prevTemplates)) {
+        if (newTemplates != prevTemplates && !newTemplates.equals(prevTemplates)) {
             for (ObjectCursor<IndexTemplateMetaData> cursor : newTemplates.values()) {
                 invalidateAliases(cursor.value.aliases());
             }
@@ -216,40 +190,26 @@ public class DocSchemaInfo implements SchemaInfo {
             }
         }
 
-        // search indices with changed meta data
-        Iterator<String> currentTablesIt = docTableByName.keySet().iterator();
-        ObjectLookupContainer<String> templates = newTemplates.keys();
-        ImmutableOpenMap<String, IndexMetaData> indices = newMetaData.indices();
-        while (currentTablesIt.hasNext()) {
-            String tableName = currentTablesIt.next();
-            String indexName = getIndexName(tableName);
-
+        // search the indices of the cached tables for changed meta data,
+        // partitions of partitioned tables are resolved using the catalog instead of iterating over all indices
+        for (String tableName : docTableByName.keySet()) {
+            String indexName = IndexParts.toIndexName(schemaName, tableName, null);
             IndexMetaData newIndexMetaData = newMetaData.index(indexName);
-            if (newIndexMetaData == null) {
-                docTableByName.remove(tableName);
-            } else {
-                IndexMetaData oldIndexMetaData = prevMetaData.index(indexName);
-                if (oldIndexMetaData != null && ClusterChangedEvent.indexMetaDataChanged(oldIndexMetaData, newIndexMetaData)) {
-                    docTableByName.remove(tableName);
-                    // invalidate aliases of changed indices
-                    invalidateAliases(newIndexMetaData.getAliases());
-                    invalidateAliases(oldIndexMetaData.getAliases());
-                } else {
-                    // this is the case if a single partition has been modified using alter table <t> partition (...)
-                    String possibleTemplateName = PartitionName.templateName(name(), tableName);
-                    if (templates.contains(possibleTemplateName)) {
-                        for (ObjectObjectCursor<String, IndexMetaData> indexEntry : indices) {
-                            if (IndexParts.isPartitioned(indexEntry.key)) {
-                                docTableByName.remove(tableName);
-                                break;
-                            }
-                        }
+            if (newIndexMetaData != null) {
+                invalidateIfChanged(tableName, prevMetaData.index(indexName), newIndexMetaData);
+            } else if (catalog.isPartitioned(tableName)) {
+                // this is the case if a single partition has been modified using alter table <t> partition (...)
+                for (String partition : catalog.partitions(tableName)) {
+                    if (invalidateIfChanged(tableName, prevMetaData.index(partition), newMetaData.index(partition))) {
+                        break;
                     }
                 }
+            } else {
+                // neither a table nor a partitioned table, e.g. an alias
+                docTableByName.remove(tableName);
             }
         }
 
-
         // re register UDFs for this schema
         UserDefinedFunctionsMetaData udfMetaData = newMetaData.custom(UserDefinedFunctionsMetaData.TYPE);
         if (udfMetaData != null) {
@@ -271,12 +231,38 @@ public class DocSchemaInfo implements SchemaInfo {
         }
     }
 
-    private String getIndexName(String tableName) {
-        if (schemaName.equalsIgnoreCase(Schemas.DOC_SCHEMA_NAME)) {
-            return tableName;
-        } else {
-            return schemaName + "." + tableName;
+    /**
+     * Removes the table from the cache if the meta data of the index changed in a way that affects the table
+     * definition. Changes of the shard allocation state, like in-sync allocation ids or primary terms, are ignored.
+     *
+     * @return true if the table has been invalidated
+     */
+    private boolean invalidateIfChanged(String tableName,
+                                        @Nullable IndexMetaData oldIndexMetaData,
+                                        @Nullable IndexMetaData newIndexMetaData) {
+        if (oldIndexMetaData == null || newIndexMetaData == null) {
+            // creation and deletion of indices are applied by the catalog
+            return false;
+        }
+        if (tableDefinitionChanged(oldIndexMetaData, newIndexMetaData)) {
+            docTableByName.remove(tableName);
+            // invalidate aliases of changed indices
+            invalidateAliases(newIndexMetaData.getAliases());
+            invalidateAliases(oldIndexMetaData.getAliases());
+            return true;
+        }
+        return false;
+    }
+
+    @VisibleForTesting
+    static boolean tableDefinitionChanged(IndexMetaData oldIndexMetaData, IndexMetaData newIndexMetaData) {
+        if (!ClusterChangedEvent.indexMetaDataChanged(oldIndexMetaData, newIndexMetaData)) {
+            return false;
         }
+        return oldIndexMetaData.getState() != newIndexMetaData.getState()
+               || !oldIndexMetaData.getSettings().equals(newIndexMetaData.getSettings())
+               || !oldIndexMetaData.getMappings().equals(newIndexMetaData.getMappings())
+               || !oldIndexMetaData.getAliases().equals(newIndexMetaData.getAliases());
     }
 
     private void invalidateAliases(ImmutableOpenMap<String, AliasMetaData> aliases) {
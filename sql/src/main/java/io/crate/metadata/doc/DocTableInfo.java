@@ -23,6 +23,7 @@ package io.crate.metadata.doc;
 
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.crate.Version;
 import io.crate.action.sql.SessionContext;
 import io.crate.analyze.PartitionedTableParameterInfo;
@@ -120,6 +121,7 @@ public class DocTableInfo implements TableInfo, ShardedTable, StoredTable {
     private final Map<ColumnIdent, IndexReference> indexColumns;
     private final ImmutableMap<ColumnIdent, Reference> references;
     private final ImmutableMap<ColumnIdent, String> analyzers;
+    private final ImmutableSet<ColumnIdent> trigramIndexedColumns;
     private final TableIdent ident;
     private final List<ColumnIdent> primaryKeys;
     private final ColumnIdent clusteredBy;
@@ -154,6 +156,7 @@ public class DocTableInfo implements TableInfo, ShardedTable, StoredTable {
                         ImmutableMap<ColumnIdent, IndexReference> indexColumns,
                         ImmutableMap<ColumnIdent, Reference> references,
                         ImmutableMap<ColumnIdent, String> analyzers,
+                        ImmutableSet<ColumnIdent> trigramIndexedColumns,
                         List<ColumnIdent> primaryKeys,
                         ColumnIdent clusteredBy,
                         boolean isAlias,
@@ -181,6 +184,7 @@ public class DocTableInfo implements TableInfo, ShardedTable, StoredTable {
         this.indexColumns = indexColumns;
         this.references = references;
         this.analyzers = analyzers;
+        this.trigramIndexedColumns = trigramIndexedColumns;
         this.ident = ident;
         this.primaryKeys = primaryKeys;
         this.clusteredBy = clusteredBy;
@@ -389,6 +393,10 @@ public class DocTableInfo implements TableInfo, ShardedTable, StoredTable {
         return analyzers.get(ident);
     }
 
+    public boolean isTrigramIndexed(ColumnIdent ident) {
+        return trigramIndexedColumns.contains(ident);
+    }
+
     @Nullable
     public DynamicReference getDynamic(ColumnIdent ident, boolean forWrite) {
         boolean parentIsIgnored = false;
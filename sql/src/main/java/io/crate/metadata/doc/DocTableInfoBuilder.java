@@ -188,6 +188,7 @@ class DocTableInfoBuilder {
             md.indices(),
             md.references(),
             md.analyzers(),
+            md.trigramIndexedColumns(),
             md.primaryKey(),
             md.routingCol(),
             md.isAlias(),
@@ -26,7 +26,9 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import io.crate.breaker.CrateCircuitBreakerService;
 import io.crate.cluster.gracefulstop.DecommissioningService;
+import io.crate.execution.ddl.PartitionPreCreationService;
 import io.crate.execution.engine.collect.stats.JobsLogService;
+import io.crate.execution.engine.collect.stats.NodeStatsSnapshotService;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
 import io.crate.expression.NestableInput;
 import io.crate.expression.reference.NestedObjectExpression;
@@ -81,6 +83,7 @@ public final class CrateSettings implements ClusterStateListener {
             JobsLogService.STATS_OPERATIONS_LOG_SIZE_SETTING,
             JobsLogService.STATS_OPERATIONS_LOG_EXPIRATION_SETTING,
             TableStatsService.STATS_SERVICE_REFRESH_INTERVAL_SETTING,
+            NodeStatsSnapshotService.STATS_NODES_PUBLISH_INTERVAL_SETTING,
             CrateCircuitBreakerService.JOBS_LOG_CIRCUIT_BREAKER_LIMIT_SETTING,
             CrateCircuitBreakerService.JOBS_LOG_CIRCUIT_BREAKER_OVERHEAD_SETTING,
             CrateCircuitBreakerService.OPERATIONS_LOG_CIRCUIT_BREAKER_LIMIT_SETTING,
@@ -89,10 +92,14 @@ public final class CrateSettings implements ClusterStateListener {
             // INDICES
             CrateCircuitBreakerService.QUERY_CIRCUIT_BREAKER_LIMIT_SETTING,
             CrateCircuitBreakerService.QUERY_CIRCUIT_BREAKER_OVERHEAD_SETTING,
+            CrateCircuitBreakerService.QUERY_RESULT_CACHE_CIRCUIT_BREAKER_LIMIT_SETTING,
 
             // BULK
             ShardingUpsertExecutor.BULK_REQUEST_TIMEOUT_SETTING,
 
+            // PARTITIONS
+            PartitionPreCreationService.PRE_CREATION_INTERVAL_SETTING,
+
             // GRACEFUL STOP
             DecommissioningService.DECOMMISSION_INTERNAL_SETTING_GROUP,
             DecommissioningService.GRACEFUL_STOP_MIN_AVAILABILITY_SETTING,
@@ -25,6 +25,8 @@ package io.crate.metadata.settings.session;
 import com.google.common.collect.ImmutableMap;
 import io.crate.analyze.expressions.ExpressionToObjectVisitor;
 import io.crate.analyze.expressions.ExpressionToStringVisitor;
+import io.crate.execution.jobs.WorkloadClass;
+import io.crate.expression.scalar.regex.RegexEngine;
 import io.crate.types.BooleanType;
 
 import java.util.Map;
@@ -33,6 +35,9 @@ public class SessionSettingRegistry {
 
     public static final String SEARCH_PATH_KEY = "search_path";
     public static final String SEMI_JOIN_KEY = "enable_semijoin";
+    public static final String MATERIALIZED_VIEW_REWRITE_KEY = "enable_materialized_view_rewrite";
+    public static final String REGEX_ENGINE_KEY = "regex_engine";
+    public static final String WORKLOAD_CLASS_KEY = "workload_class";
 
     private static final Map<String, SessionSettingApplier> SESSION_SETTINGS =
         ImmutableMap.<String, SessionSettingApplier>builder()
@@ -57,6 +62,35 @@ public class SessionSettingRegistry {
                     throw new IllegalArgumentException(SEMI_JOIN_KEY + " should have only one argument.");
                 }
             })
+            .put(MATERIALIZED_VIEW_REWRITE_KEY, (parameters, expressions, context) -> {
+                if (expressions.size() == 1) {
+                    Object value = ExpressionToObjectVisitor.convert(expressions.get(0), parameters);
+                    boolean booleanValue = BooleanType.INSTANCE.value(value);
+                    context.setMaterializedViewRewriteEnabled(booleanValue);
+                } else {
+                    throw new IllegalArgumentException(MATERIALIZED_VIEW_REWRITE_KEY + " should have only one argument.");
+                }
+            })
+            .put(REGEX_ENGINE_KEY, (parameters, expressions, context) -> {
+                if (expressions.size() == 0) {
+                    context.setRegexEngine(RegexEngine.BACKTRACKING);
+                } else if (expressions.size() == 1) {
+                    String engine = ExpressionToStringVisitor.convert(expressions.get(0), parameters);
+                    context.setRegexEngine(RegexEngine.of(engine));
+                } else {
+                    throw new IllegalArgumentException(REGEX_ENGINE_KEY + " should have only one argument.");
+                }
+            })
+            .put(WORKLOAD_CLASS_KEY, (parameters, expressions, context) -> {
+                if (expressions.size() == 0) {
+                    context.setWorkloadClass(WorkloadClass.DEFAULT);
+                } else if (expressions.size() == 1) {
+                    String workloadClass = ExpressionToStringVisitor.convert(expressions.get(0), parameters);
+                    context.setWorkloadClass(WorkloadClass.of(workloadClass));
+                } else {
+                    throw new IllegalArgumentException(WORKLOAD_CLASS_KEY + " should have only one argument.");
+                }
+            })
             .build();
 
 
@@ -0,0 +1,109 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+package io.crate.metadata.sys;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.WhereClause;
+import io.crate.execution.jobs.QueryAdmissionController.QueuedJob;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RoutingProvider;
+import io.crate.metadata.RowContextCollectorExpression;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.expressions.RowCollectExpressionFactory;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterState;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The jobs which are waiting to be admitted by the {@link io.crate.execution.jobs.QueryAdmissionController}
+ * of each node.
+ */
+public class SysJobsQueueTableInfo extends StaticTableInfo {
+
+    public static final TableIdent IDENT = new TableIdent(SysSchemaInfo.NAME, "jobs_queue");
+
+    static class Columns {
+        static final ColumnIdent ID = new ColumnIdent("id");
+        static final ColumnIdent ESTIMATED_BYTES = new ColumnIdent("estimated_bytes");
+        static final ColumnIdent QUEUED_SINCE = new ColumnIdent("queued_since");
+        static final ColumnIdent WAIT_TIME = new ColumnIdent("wait_time");
+    }
+
+    public static Map<ColumnIdent, RowCollectExpressionFactory<QueuedJob>> expressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory<QueuedJob>>builder()
+            .put(Columns.ID,
+                () -> RowContextCollectorExpression.objToBytesRef(QueuedJob::jobId))
+            .put(Columns.ESTIMATED_BYTES,
+                () -> RowContextCollectorExpression.forFunction(QueuedJob::estimatedBytes))
+            .put(Columns.QUEUED_SINCE,
+                () -> RowContextCollectorExpression.forFunction(QueuedJob::queuedSince))
+            .put(Columns.WAIT_TIME,
+                () -> RowContextCollectorExpression.forFunction(r -> System.currentTimeMillis() - r.queuedSince()))
+            .build();
+    }
+
+    private final TableColumn nodesTableColumn;
+
+    SysJobsQueueTableInfo(SysNodesTableInfo sysNodesTableInfo) {
+        super(IDENT, new ColumnRegistrar(IDENT, RowGranularity.DOC)
+                .register(Columns.ID, DataTypes.STRING)
+                .register(Columns.ESTIMATED_BYTES, DataTypes.LONG)
+                .register(Columns.QUEUED_SINCE, DataTypes.TIMESTAMP)
+                .register(Columns.WAIT_TIME, DataTypes.LONG)
+                .putInfoOnly(SysNodesTableInfo.SYS_COL_IDENT, SysNodesTableInfo.tableColumnInfo(IDENT)),
+            Collections.emptyList());
+        nodesTableColumn = sysNodesTableInfo.tableColumn();
+    }
+
+    @Nullable
+    @Override
+    public Reference getReference(ColumnIdent columnIdent) {
+        Reference info = super.getReference(columnIdent);
+        if (info == null) {
+            return nodesTableColumn.getReference(this.ident(), columnIdent);
+        }
+        return info;
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return RowGranularity.DOC;
+    }
+
+    @Override
+    public Routing getRouting(ClusterState clusterState,
+                              RoutingProvider routingProvider,
+                              WhereClause whereClause,
+                              RoutingProvider.ShardSelection shardSelection,
+                              SessionContext sessionContext) {
+        return Routing.forTableOnAllNodes(IDENT, clusterState.getNodes());
+    }
+}
@@ -93,6 +93,7 @@ public class SysNodesTableInfo extends StaticTableInfo {
     public static final String SYS_COL_OS_INFO = "os_info";
     public static final String SYS_COL_PROCESS = "process";
     public static final String SYS_COL_FS = "fs";
+    public static final String SYS_COL_STATS_AGE = "stats_age";
 
     private static final DataType OBJECT_ARRAY_TYPE = new ArrayType(DataTypes.OBJECT);
 
@@ -223,6 +224,8 @@ public class SysNodesTableInfo extends StaticTableInfo {
         static final ColumnIdent FS_DATA = new ColumnIdent(SYS_COL_FS, ImmutableList.of("data"));
         static final ColumnIdent FS_DATA_DEV = new ColumnIdent(SYS_COL_FS, ImmutableList.of("data", "dev"));
         static final ColumnIdent FS_DATA_PATH = new ColumnIdent(SYS_COL_FS, ImmutableList.of("data", "path"));
+
+        public static final ColumnIdent STATS_AGE = new ColumnIdent(SYS_COL_STATS_AGE);
     }
 
     public static Map<ColumnIdent, RowCollectExpressionFactory<NodeStatsContext>> expressions() {
@@ -365,6 +368,8 @@ public class SysNodesTableInfo extends StaticTableInfo {
                     return BytesRefs.toBytesRef(input.getPath());
                 }
             })
+            .put(SysNodesTableInfo.Columns.STATS_AGE,
+                () -> RowContextCollectorExpression.forFunction(r -> r.isComplete() ? r.statsAge() : null))
             .build();
     }
 
@@ -497,7 +502,9 @@ public class SysNodesTableInfo extends StaticTableInfo {
                 .register(Columns.FS_DISKS_BYTES_WRITTEN, DataTypes.LONG)
                 .register(Columns.FS_DATA, OBJECT_ARRAY_TYPE)
                 .register(Columns.FS_DATA_DEV, DataTypes.STRING)
-                .register(Columns.FS_DATA_PATH, DataTypes.STRING),
+                .register(Columns.FS_DATA_PATH, DataTypes.STRING)
+
+                .register(Columns.STATS_AGE, DataTypes.LONG),
             PRIMARY_KEY);
         this.tableColumn = new TableColumn(SYS_COL_IDENT, columnMap);
     }
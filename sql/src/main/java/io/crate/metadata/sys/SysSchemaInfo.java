@@ -48,6 +48,7 @@ public class SysSchemaInfo implements SchemaInfo {
         tableInfos.put(SysShardsTableInfo.IDENT.name(), new SysShardsTableInfo(sysNodesTableInfo));
         tableInfos.put(SysJobsTableInfo.IDENT.name(), new SysJobsTableInfo());
         tableInfos.put(SysJobsLogTableInfo.IDENT.name(), new SysJobsLogTableInfo());
+        tableInfos.put(SysJobsQueueTableInfo.IDENT.name(), new SysJobsQueueTableInfo(sysNodesTableInfo));
         tableInfos.put(SysOperationsTableInfo.IDENT.name(), new SysOperationsTableInfo(sysNodesTableInfo));
         tableInfos.put(SysOperationsLogTableInfo.IDENT.name(), new SysOperationsLogTableInfo());
         tableInfos.put(SysChecksTableInfo.IDENT.name(), new SysChecksTableInfo());
@@ -27,6 +27,7 @@ import io.crate.analyze.user.Privilege;
 import io.crate.metadata.TableIdent;
 import io.crate.execution.engine.collect.files.SummitsIterable;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.jobs.QueryAdmissionController;
 import io.crate.expression.reference.StaticTableDefinition;
 import io.crate.expression.reference.sys.check.SysCheck;
 import io.crate.expression.reference.sys.check.SysChecker;
@@ -55,7 +56,8 @@ public class SysTableDefinitions {
                                SysNodeChecks sysNodeChecks,
                                RepositoriesService repositoriesService,
                                SysSnapshots sysSnapshots,
-                               SysAllocations sysAllocations) {
+                               SysAllocations sysAllocations,
+                               QueryAdmissionController admissionController) {
         tableDefinitions.put(SysJobsTableInfo.IDENT, new StaticTableDefinition<>(
             () -> completedFuture(jobsLogs.activeJobs()),
             SysJobsTableInfo.expressions()
@@ -64,6 +66,10 @@ public class SysTableDefinitions {
             () -> completedFuture(jobsLogs.jobsLog()),
             SysJobsLogTableInfo.expressions()
         ));
+        tableDefinitions.put(SysJobsQueueTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(admissionController.queuedJobs()),
+            SysJobsQueueTableInfo.expressions()
+        ));
         tableDefinitions.put(SysOperationsTableInfo.IDENT, new StaticTableDefinition<>(
             () -> completedFuture(jobsLogs.activeOperations()),
             SysOperationsTableInfo.expressions()
@@ -0,0 +1,108 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.view;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * A materialized view as it is stored in the cluster state.
+ * The view and the source table are referenced by their fully qualified names; the definition is the
+ * {@code SELECT} statement the view was created with.
+ *
+ * A view becomes stale once rows of the source table are changed in a way which cannot be merged into the view,
+ * or if merging inserted rows failed. Stale views are neither maintained nor used to answer queries.
+ */
+public class MaterializedView implements Writeable {
+
+    private final String name;
+    private final String sourceTable;
+    private final String definition;
+    private final boolean stale;
+
+    public MaterializedView(String name, String sourceTable, String definition) {
+        this(name, sourceTable, definition, false);
+    }
+
+    public MaterializedView(String name, String sourceTable, String definition, boolean stale) {
+        this.name = name;
+        this.sourceTable = sourceTable;
+        this.definition = definition;
+        this.stale = stale;
+    }
+
+    public MaterializedView(StreamInput in) throws IOException {
+        name = in.readString();
+        sourceTable = in.readString();
+        definition = in.readString();
+        stale = in.readBoolean();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String sourceTable() {
+        return sourceTable;
+    }
+
+    public String definition() {
+        return definition;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public MaterializedView asStale() {
+        return new MaterializedView(name, sourceTable, definition, true);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MaterializedView that = (MaterializedView) o;
+        return stale == that.stale &&
+               Objects.equals(name, that.name) &&
+               Objects.equals(sourceTable, that.sourceTable) &&
+               Objects.equals(definition, that.definition);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, sourceTable, definition, stale);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeString(name);
+        out.writeString(sourceTable);
+        out.writeString(definition);
+        out.writeBoolean(stale);
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.view;
+
+import com.google.common.collect.ImmutableSet;
+import io.crate.analyze.QuerySpec;
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.exceptions.UnsupportedFeatureException;
+import io.crate.expression.symbol.Field;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import static io.crate.sql.Identifiers.quote;
+
+/**
+ * The analyzed definition of a {@link MaterializedView}.
+ *
+ * A view stores one row per group of its source table. The group keys are the primary key of the table which
+ * stores the view, every other column holds the state of an aggregation which can be merged with the state of
+ * newly inserted rows. This allows to maintain the view incrementally by upserting the aggregated states of new
+ * rows and merging them with the stored states on conflicts.
+ */
+public final class MaterializedViewDefinition {
+
+    private static final Set<String> MERGEABLE_AGGREGATIONS = ImmutableSet.of("sum", "count", "min", "max", "hll_sketch");
+
+    private final TableIdent ident;
+    private final String definition;
+    private final DocTableInfo sourceTable;
+    private final WhereClause where;
+    private final List<String> columns;
+    private final List<Symbol> outputs;
+    private final List<Symbol> keys = new ArrayList<>();
+    private final List<String> keyColumns = new ArrayList<>();
+    private final List<Function> aggregates = new ArrayList<>();
+    private final List<String> aggregateColumns = new ArrayList<>();
+
+    /**
+     * Validates the analyzed {@code SELECT} statement of a view and creates its definition.
+     *
+     * @throws UnsupportedFeatureException if the statement cannot be maintained incrementally
+     */
+    public static MaterializedViewDefinition of(TableIdent ident, String definition, AnalyzedRelation relation) {
+        if (!(relation instanceof QueriedDocTable)) {
+            throw new UnsupportedFeatureException("A materialized view must select from a single table");
+        }
+        QueriedDocTable queriedTable = (QueriedDocTable) relation;
+        QuerySpec querySpec = queriedTable.querySpec();
+        if (querySpec.groupBy().isEmpty()) {
+            throw new UnsupportedFeatureException("A materialized view must have a GROUP BY clause");
+        }
+        if (querySpec.having() != null || querySpec.orderBy() != null
+            || querySpec.limit() != null || querySpec.offset() != null) {
+            throw new UnsupportedFeatureException(
+                "A materialized view must not have a HAVING, ORDER BY, LIMIT or OFFSET clause");
+        }
+        List<String> columns = new ArrayList<>(queriedTable.fields().size());
+        for (Field field : queriedTable.fields()) {
+            columns.add(field.path().outputName());
+        }
+        return new MaterializedViewDefinition(
+            ident, definition, queriedTable.tableRelation().tableInfo(), querySpec, columns);
+    }
+
+    private MaterializedViewDefinition(TableIdent ident,
+                                       String definition,
+                                       DocTableInfo sourceTable,
+                                       QuerySpec querySpec,
+                                       List<String> columns) {
+        this.ident = ident;
+        this.definition = definition;
+        this.sourceTable = sourceTable;
+        this.where = querySpec.where();
+        this.columns = columns;
+        this.outputs = querySpec.outputs();
+
+        for (int i = 0; i < outputs.size(); i++) {
+            Symbol output = outputs.get(i);
+            String column = columns.get(i);
+            ColumnIdent.validateColumnName(column);
+            DataType type = output.valueType();
+            if (!DataTypes.PRIMITIVE_TYPES.contains(type)) {
+                throw new UnsupportedFeatureException(String.format(Locale.ENGLISH,
+                    "Column \"%s\" of a materialized view has the unsupported type %s", column, type));
+            }
+            if (querySpec.groupBy().contains(output)) {
+                keys.add(output);
+                keyColumns.add(column);
+            } else if (isMergeableAggregate(output)) {
+                aggregates.add((Function) output);
+                aggregateColumns.add(column);
+            } else {
+                throw new UnsupportedFeatureException(String.format(Locale.ENGLISH,
+                    "Column \"%s\" of a materialized view must be a GROUP BY expression or one of the " +
+                    "aggregations sum, count, min, max or hll_sketch", column));
+            }
+        }
+        for (Symbol groupKey : querySpec.groupBy()) {
+            if (!keys.contains(groupKey)) {
+                throw new UnsupportedFeatureException(
+                    "A materialized view must select all expressions of its GROUP BY clause");
+            }
+        }
+    }
+
+    private static boolean isMergeableAggregate(Symbol symbol) {
+        if (!(symbol instanceof Function)) {
+            return false;
+        }
+        Function function = (Function) symbol;
+        if (function.info().type() != FunctionInfo.Type.AGGREGATE
+            || !MERGEABLE_AGGREGATIONS.contains(function.info().ident().name())) {
+            return false;
+        }
+        for (Symbol argument : function.arguments()) {
+            if (SymbolVisitors.any(MaterializedViewDefinition::isAggregate, argument)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAggregate(Symbol symbol) {
+        return symbol instanceof Function && ((Function) symbol).info().type() == FunctionInfo.Type.AGGREGATE;
+    }
+
+    public TableIdent ident() {
+        return ident;
+    }
+
+    public String definition() {
+        return definition;
+    }
+
+    public DocTableInfo sourceTable() {
+        return sourceTable;
+    }
+
+    public WhereClause where() {
+        return where;
+    }
+
+    public List<Symbol> keys() {
+        return keys;
+    }
+
+    public List<String> keyColumns() {
+        return keyColumns;
+    }
+
+    public List<Function> aggregates() {
+        return aggregates;
+    }
+
+    public List<String> aggregateColumns() {
+        return aggregateColumns;
+    }
+
+    /**
+     * Statement which creates the table storing the view.
+     */
+    public String createTableStmt() {
+        StringJoiner elements = new StringJoiner(", ", "CREATE TABLE " + ident.sqlFqn() + " (", ")");
+        for (int i = 0; i < columns.size(); i++) {
+            elements.add(quote(columns.get(i)) + ' ' + outputs.get(i).valueType().getName());
+        }
+        StringJoiner primaryKey = new StringJoiner(", ", "PRIMARY KEY (", ")");
+        for (String keyColumn : keyColumns) {
+            primaryKey.add(quote(keyColumn));
+        }
+        elements.add(primaryKey.toString());
+        return elements.toString();
+    }
+
+    /**
+     * Statement which computes the view from all rows of the source table.
+     */
+    public String populateStmt() {
+        return insertInto() + " (" + definition + ")" + onDuplicateKeyMerge();
+    }
+
+    /**
+     * Statement which merges the given number of aggregated groups into the view.
+     * The parameters are the values of the group keys followed by the aggregated states of every group.
+     */
+    public String upsertStmt(int numGroups) {
+        String row = "(" + String.join(", ", Collections.nCopies(keys.size() + aggregates.size(), "?")) + ")";
+        StringJoiner values = new StringJoiner(", ", " VALUES ", "");
+        for (int i = 0; i < numGroups; i++) {
+            values.add(row);
+        }
+        return insertInto() + values.toString() + onDuplicateKeyMerge();
+    }
+
+    private String insertInto() {
+        StringJoiner insertColumns = new StringJoiner(", ", "INSERT INTO " + ident.sqlFqn() + " (", ")");
+        for (String keyColumn : keyColumns) {
+            insertColumns.add(quote(keyColumn));
+        }
+        for (String aggregateColumn : aggregateColumns) {
+            insertColumns.add(quote(aggregateColumn));
+        }
+        return insertColumns.toString();
+    }
+
+    private String onDuplicateKeyMerge() {
+        StringJoiner assignments = new StringJoiner(", ", " ON DUPLICATE KEY UPDATE ", "");
+        for (int i = 0; i < aggregates.size(); i++) {
+            String column = quote(aggregateColumns.get(i));
+            assignments.add(column + " = " + mergeExpression(aggregates.get(i).info().ident().name(), column));
+        }
+        return assignments.toString();
+    }
+
+    private static String mergeExpression(String aggregation, String column) {
+        switch (aggregation) {
+            case "sum":
+            case "count":
+                return String.format(Locale.ENGLISH,
+                    "coalesce(%1$s + VALUES(%1$s), %1$s, VALUES(%1$s))", column);
+            case "min":
+                return String.format(Locale.ENGLISH, "least(%1$s, VALUES(%1$s))", column);
+            case "max":
+                return String.format(Locale.ENGLISH, "greatest(%1$s, VALUES(%1$s))", column);
+            case "hll_sketch":
+                return String.format(Locale.ENGLISH, "hll_union(%1$s, VALUES(%1$s))", column);
+            default:
+                throw new IllegalStateException("Aggregation " + aggregation + " cannot be merged");
+        }
+    }
+}
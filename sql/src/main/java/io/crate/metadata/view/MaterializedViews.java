@@ -0,0 +1,178 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.view;
+
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.ParameterContext;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.RelationAnalyzer;
+import io.crate.exceptions.ResourceUnknownException;
+import io.crate.metadata.Functions;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.TransactionContext;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.cluster.DDLClusterStateService;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.Query;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.logging.Loggers;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides the analyzed definitions of the materialized views stored in the cluster state.
+ *
+ * Definitions are analyzed lazily and cached until the view is dropped or re-created.
+ */
+@Singleton
+public class MaterializedViews {
+
+    private static final Logger LOGGER = Loggers.getLogger(MaterializedViews.class);
+
+    private final ClusterService clusterService;
+    private final Schemas schemas;
+    private final RelationAnalyzer relationAnalyzer;
+    private final Map<String, CachedDefinition> definitions = new ConcurrentHashMap<>();
+
+    @Inject
+    public MaterializedViews(ClusterService clusterService,
+                             Functions functions,
+                             Schemas schemas,
+                             DDLClusterStateService ddlClusterStateService) {
+        this.clusterService = clusterService;
+        this.schemas = schemas;
+        this.relationAnalyzer = new RelationAnalyzer(functions, schemas);
+        ddlClusterStateService.addModifier(new MaterializedViewsDDLClusterStateModifier());
+    }
+
+    /**
+     * Returns the names of all views which are computed from the given table and aren't stale.
+     * Unlike {@link #viewsOf(TableIdent)} this includes views whose definition cannot be analyzed.
+     */
+    public List<String> viewNamesOf(TableIdent sourceTable) {
+        MaterializedViewsMetaData metaData = clusterService.state().metaData().custom(MaterializedViewsMetaData.TYPE);
+        if (metaData == null || metaData.views().isEmpty()) {
+            return Collections.emptyList();
+        }
+        String sourceIdent = sourceTable.fqn();
+        List<String> result = null;
+        for (MaterializedView view : metaData.views().values()) {
+            if (view.sourceTable().equals(sourceIdent) && view.isStale() == false) {
+                if (result == null) {
+                    result = new ArrayList<>();
+                }
+                result.add(view.name());
+            }
+        }
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    /**
+     * Returns the definitions of all views which are computed from the given table and aren't stale.
+     * Views whose definition cannot be analyzed are left out; they cannot be maintained, so writes to the table
+     * mark them stale, see {@link #viewNamesOf(TableIdent)}.
+     */
+    public List<MaterializedViewDefinition> viewsOf(TableIdent sourceTable) {
+        MaterializedViewsMetaData metaData = clusterService.state().metaData().custom(MaterializedViewsMetaData.TYPE);
+        if (metaData == null || metaData.views().isEmpty()) {
+            return Collections.emptyList();
+        }
+        String sourceIdent = sourceTable.fqn();
+        List<MaterializedViewDefinition> result = null;
+        for (MaterializedView view : metaData.views().values()) {
+            if (view.sourceTable().equals(sourceIdent) && view.isStale() == false) {
+                MaterializedViewDefinition definition = definition(view);
+                if (definition != null) {
+                    if (result == null) {
+                        result = new ArrayList<>();
+                    }
+                    result.add(definition);
+                }
+            }
+        }
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    /**
+     * Returns the table which stores the given view or null if it doesn't exist (anymore).
+     */
+    @Nullable
+    public DocTableInfo viewTable(MaterializedViewDefinition view) {
+        try {
+            return schemas.getTableInfo(view.ident());
+        } catch (ResourceUnknownException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private MaterializedViewDefinition definition(MaterializedView view) {
+        CachedDefinition cached = definitions.get(view.name());
+        // views are immutable, a re-created view is always a new instance
+        if (cached != null && cached.view == view) {
+            return cached.definition;
+        }
+        MaterializedViewDefinition definition;
+        try {
+            definition = analyze(TableIdent.fromIndexName(view.name()), view.definition());
+        } catch (Exception e) {
+            LOGGER.warn("Couldn't analyze the definition of the materialized view " + view.name() +
+                        ", it is marked stale by the next write to " + view.sourceTable(), e);
+            return null;
+        }
+        definitions.put(view.name(), new CachedDefinition(view, definition));
+        return definition;
+    }
+
+    /**
+     * Analyzes the {@code SELECT} statement of a view. Relations of the statement which aren't qualified by a
+     * schema are resolved relative to the schema of the view.
+     */
+    public MaterializedViewDefinition analyze(TableIdent ident, String definition) {
+        Query query = (Query) SqlParser.createStatement(definition);
+        TransactionContext transactionContext = new TransactionContext(
+            new SessionContext(ident.schema(), null, s -> {}, t -> {}));
+        AnalyzedRelation relation = relationAnalyzer.analyze(query, transactionContext, ParameterContext.EMPTY);
+        return MaterializedViewDefinition.of(ident, definition, relation);
+    }
+
+    private static class CachedDefinition {
+
+        private final MaterializedView view;
+        private final MaterializedViewDefinition definition;
+
+        CachedDefinition(MaterializedView view, MaterializedViewDefinition definition) {
+            this.view = view;
+            this.definition = definition;
+        }
+    }
+}
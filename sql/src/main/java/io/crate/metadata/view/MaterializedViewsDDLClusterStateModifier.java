@@ -0,0 +1,65 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.view;
+
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.cluster.DDLClusterStateModifier;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.MetaData;
+
+/**
+ * Removes the materialized views which are computed from or stored in a dropped table and prevents
+ * renaming such tables, as the view definitions refer to them by name.
+ */
+public class MaterializedViewsDDLClusterStateModifier implements DDLClusterStateModifier {
+
+    @Override
+    public ClusterState onDropTable(ClusterState currentState, TableIdent tableIdent) {
+        MetaData currentMetaData = currentState.metaData();
+        MaterializedViewsMetaData oldMetaData = currentMetaData.custom(MaterializedViewsMetaData.TYPE);
+        if (oldMetaData == null) {
+            return currentState;
+        }
+        MaterializedViewsMetaData newMetaData =
+            MaterializedViewsMetaData.maybeCopyAndRemoveViewsOf(oldMetaData, tableIdent.fqn());
+        if (newMetaData == null) {
+            return currentState;
+        }
+        MetaData.Builder mdBuilder = MetaData.builder(currentMetaData)
+            .putCustom(MaterializedViewsMetaData.TYPE, newMetaData);
+        return ClusterState.builder(currentState).metaData(mdBuilder).build();
+    }
+
+    @Override
+    public ClusterState onRenameTable(ClusterState currentState,
+                                      TableIdent sourceTableIdent,
+                                      TableIdent targetTableIdent,
+                                      boolean isPartitionedTable) {
+        MaterializedViewsMetaData metaData = currentState.metaData().custom(MaterializedViewsMetaData.TYPE);
+        if (metaData != null && metaData.isUsedByView(sourceTableIdent.fqn())) {
+            throw new IllegalStateException("Cannot rename table '" + sourceTableIdent.fqn() +
+                                            "' because it is used by a materialized view");
+        }
+        return currentState;
+    }
+}
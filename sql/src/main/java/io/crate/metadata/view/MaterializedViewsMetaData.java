@@ -0,0 +1,220 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.view;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.cluster.AbstractNamedDiffable;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+public class MaterializedViewsMetaData extends AbstractNamedDiffable<MetaData.Custom> implements MetaData.Custom {
+
+    public static final String TYPE = "materialized_views";
+
+    /**
+     * Returns a copy of {@link MaterializedViewsMetaData}
+     */
+    public static MaterializedViewsMetaData copyOf(@Nullable MaterializedViewsMetaData oldMetaData) {
+        if (oldMetaData == null) {
+            return new MaterializedViewsMetaData();
+        }
+        return new MaterializedViewsMetaData(new HashMap<>(oldMetaData.views));
+    }
+
+    /**
+     * Returns a copy of the {@link MaterializedViewsMetaData} without the views which are stored in or
+     * computed from the given table. Returns NULL to indicate that nothing was changed.
+     */
+    @Nullable
+    public static MaterializedViewsMetaData maybeCopyAndRemoveViewsOf(MaterializedViewsMetaData oldMetaData,
+                                                                      String tableIdent) {
+        Map<String, MaterializedView> views = new HashMap<>(oldMetaData.views.size());
+        for (Map.Entry<String, MaterializedView> entry : oldMetaData.views.entrySet()) {
+            MaterializedView view = entry.getValue();
+            if (view.name().equals(tableIdent) == false && view.sourceTable().equals(tableIdent) == false) {
+                views.put(entry.getKey(), view);
+            }
+        }
+        if (views.size() == oldMetaData.views.size()) {
+            return null;
+        }
+        return new MaterializedViewsMetaData(views);
+    }
+
+    private final Map<String, MaterializedView> views;
+
+    private MaterializedViewsMetaData() {
+        this(new HashMap<>());
+    }
+
+    public MaterializedViewsMetaData(Map<String, MaterializedView> views) {
+        this.views = views;
+    }
+
+    public MaterializedViewsMetaData(StreamInput in) throws IOException {
+        int size = in.readVInt();
+        views = new HashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            MaterializedView view = new MaterializedView(in);
+            views.put(view.name(), view);
+        }
+    }
+
+    public Map<String, MaterializedView> views() {
+        return views;
+    }
+
+    /**
+     * Returns true if the table with the given fully qualified name is the source or the storage of a view.
+     */
+    public boolean isUsedByView(String tableIdent) {
+        for (MaterializedView view : views.values()) {
+            if (view.name().equals(tableIdent) || view.sourceTable().equals(tableIdent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void createView(MaterializedView view) throws IllegalArgumentException {
+        if (views.containsKey(view.name())) {
+            throw new IllegalArgumentException("Materialized view " + view.name() + " already exists");
+        }
+        views.put(view.name(), view);
+    }
+
+    /**
+     * Marks the view as stale.
+     *
+     * @return true if the view was changed, false if it was already stale
+     */
+    public boolean markStale(String name) {
+        MaterializedView view = views.get(name);
+        if (view == null) {
+            throw new ResourceNotFoundException("Materialized view " + name + " doesn't exist");
+        }
+        if (view.isStale()) {
+            return false;
+        }
+        views.put(name, view.asStale());
+        return true;
+    }
+
+    public void dropView(String name) {
+        if (views.remove(name) == null) {
+            throw new ResourceNotFoundException("Materialized view " + name + " doesn't exist");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        MaterializedViewsMetaData that = (MaterializedViewsMetaData) o;
+        return views.equals(that.views);
+    }
+
+    @Override
+    public int hashCode() {
+        return views.hashCode();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(views.size());
+        for (MaterializedView view : views.values()) {
+            view.writeTo(out);
+        }
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        for (MaterializedView view : views.values()) {
+            builder.startObject(view.name())
+                .field("sourceTable", view.sourceTable())
+                .field("definition", view.definition())
+                .field("stale", view.isStale())
+                .endObject();
+        }
+        return builder;
+    }
+
+    public static MaterializedViewsMetaData fromXContent(XContentParser parser) throws IOException {
+        MaterializedViewsMetaData metaData = new MaterializedViewsMetaData();
+        while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+            String name = parser.currentName();
+            if (parser.nextToken() == XContentParser.Token.START_OBJECT) {
+                metaData.views.put(name, viewFromXContent(parser, name));
+            }
+        }
+        return metaData;
+    }
+
+    private static MaterializedView viewFromXContent(XContentParser parser, String name) throws IOException {
+        String sourceTable = null;
+        String definition = null;
+        boolean stale = false;
+        XContentParser.Token currentToken;
+        while ((currentToken = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            if (currentToken == XContentParser.Token.FIELD_NAME) {
+                String currentFieldName = parser.currentName();
+                parser.nextToken();
+                switch (currentFieldName) {
+                    case "sourceTable":
+                        sourceTable = parser.text();
+                        break;
+                    case "definition":
+                        definition = parser.text();
+                        break;
+                    case "stale":
+                        stale = parser.booleanValue();
+                        break;
+                    default:
+                        throw new ElasticsearchException("Failed to parse materialized view");
+                }
+            }
+        }
+        return new MaterializedView(name, sourceTable, definition, stale);
+    }
+
+    @Override
+    public EnumSet<MetaData.XContentContext> context() {
+        return EnumSet.of(MetaData.XContentContext.GATEWAY, MetaData.XContentContext.SNAPSHOT);
+    }
+
+    @Override
+    public String getWriteableName() {
+        return TYPE;
+    }
+}
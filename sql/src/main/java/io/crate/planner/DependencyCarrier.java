@@ -23,10 +23,12 @@
 package io.crate.planner;
 
 import io.crate.action.sql.DCLStatementDispatcher;
+import io.crate.action.sql.QueryResultCache;
 import io.crate.execution.ddl.DDLStatementDispatcher;
 import io.crate.execution.TransportActionProvider;
 import io.crate.execution.ddl.TransportDropTableAction;
 import io.crate.execution.engine.PhasesTaskFactory;
+import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.metadata.Functions;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -53,6 +55,8 @@ public class DependencyCarrier {
     private final DCLStatementDispatcher dclStatementDispatcher;
     private final TransportDropTableAction transportDropTableAction;
     private final ProjectionBuilder projectionBuilder;
+    private final NodeJobsCounter nodeJobsCounter;
+    private final QueryResultCache queryResultCache;
 
     @Inject
     public DependencyCarrier(Settings settings,
@@ -63,7 +67,9 @@ public class DependencyCarrier {
                              DDLStatementDispatcher ddlAnalysisDispatcherProvider,
                              ClusterService clusterService,
                              DCLStatementDispatcher dclStatementDispatcher,
-                             TransportDropTableAction transportDropTableAction) {
+                             TransportDropTableAction transportDropTableAction,
+                             NodeJobsCounter nodeJobsCounter,
+                             QueryResultCache queryResultCache) {
         this.settings = settings;
         this.transportActionProvider = transportActionProvider;
         this.phasesTaskFactory = phasesTaskFactory;
@@ -73,6 +79,8 @@ public class DependencyCarrier {
         this.clusterService = clusterService;
         this.dclStatementDispatcher = dclStatementDispatcher;
         this.transportDropTableAction = transportDropTableAction;
+        this.nodeJobsCounter = nodeJobsCounter;
+        this.queryResultCache = queryResultCache;
         projectionBuilder = new ProjectionBuilder(functions);
     }
 
@@ -100,6 +108,14 @@ public class DependencyCarrier {
         return threadPool.scheduler();
     }
 
+    public ThreadPool threadPool() {
+        return threadPool;
+    }
+
+    public NodeJobsCounter nodeJobsCounter() {
+        return nodeJobsCounter;
+    }
+
     public Settings settings() {
         return settings;
     }
@@ -119,4 +135,8 @@ public class DependencyCarrier {
     public PhasesTaskFactory phasesTaskFactory() {
         return phasesTaskFactory;
     }
+
+    public QueryResultCache queryResultCache() {
+        return queryResultCache;
+    }
 }
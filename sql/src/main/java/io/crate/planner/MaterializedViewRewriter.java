@@ -0,0 +1,246 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.analyze.QuerySpec;
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.analyze.relations.QueriedRelation;
+import io.crate.expression.symbol.Field;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.FunctionCopyVisitor;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.FunctionImplementation;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Functions;
+import io.crate.metadata.Path;
+import io.crate.metadata.Reference;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.view.MaterializedViewDefinition;
+import io.crate.metadata.view.MaterializedViews;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rewrites aggregating queries on a table to queries on one of its materialized views.
+ *
+ * A query can be answered by a view if the view has no filter or the same filter as the query, if all
+ * expressions of the query which don't aggregate can be computed from the group keys of the view and if
+ * all aggregations of the query can be computed by merging the aggregated states of the view.
+ * Views with group keys which may be NULL are not used, groups with NULL keys are not stored by a view.
+ */
+final class MaterializedViewRewriter {
+
+    private final MaterializedViews materializedViews;
+    private final Functions functions;
+
+    MaterializedViewRewriter(MaterializedViews materializedViews, Functions functions) {
+        this.materializedViews = materializedViews;
+        this.functions = functions;
+    }
+
+    /**
+     * @return the rewritten relation or null if the relation cannot be answered by a view.
+     */
+    @Nullable
+    QueriedRelation tryRewrite(QueriedRelation relation) {
+        if (!(relation instanceof QueriedDocTable)) {
+            return null;
+        }
+        QueriedDocTable queriedTable = (QueriedDocTable) relation;
+        QuerySpec querySpec = queriedTable.querySpec();
+        if (!querySpec.hasAggregates() && querySpec.groupBy().isEmpty()) {
+            return null;
+        }
+        DocTableInfo sourceTable = queriedTable.tableRelation().tableInfo();
+        for (MaterializedViewDefinition view : materializedViews.viewsOf(sourceTable.ident())) {
+            QueriedRelation rewritten = tryRewrite(queriedTable, view);
+            if (rewritten != null) {
+                return rewritten;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private QueriedRelation tryRewrite(QueriedDocTable queriedTable, MaterializedViewDefinition view) {
+        DocTableInfo sourceTable = queriedTable.tableRelation().tableInfo();
+        for (Symbol key : view.keys()) {
+            if (SymbolVisitors.any(s -> s instanceof Reference && isNullable((Reference) s, sourceTable), key)) {
+                return null;
+            }
+        }
+        DocTableInfo viewTable = materializedViews.viewTable(view);
+        if (viewTable == null) {
+            return null;
+        }
+        QuerySpec querySpec = queriedTable.querySpec();
+        WhereClause where = querySpec.where();
+        if (view.where().hasQuery()) {
+            if (!where.hasQuery() || !where.query().equals(view.where().query())) {
+                return null;
+            }
+            where = WhereClause.MATCH_ALL;
+        }
+
+        Replacer replacer = new Replacer(view, viewTable);
+        QuerySpec newSpec = querySpec.copyAndReplace(s -> replacer.process(s, null));
+        if (where.hasQuery()) {
+            newSpec.where(new WhereClause(replacer.process(where.query(), null)));
+        } else {
+            newSpec.where(where);
+        }
+        if (replacer.failed) {
+            return null;
+        }
+        TableIdent sourceIdent = sourceTable.ident();
+        boolean[] usesSourceTable = new boolean[] { false };
+        newSpec.visitSymbols(s -> usesSourceTable[0] |= SymbolVisitors.any(
+            x -> x instanceof Reference && ((Reference) x).ident().tableIdent().equals(sourceIdent), s));
+        if (usesSourceTable[0]) {
+            return null;
+        }
+        List<Path> paths = new ArrayList<>(queriedTable.fields().size());
+        for (Field field : queriedTable.fields()) {
+            paths.add(field.path());
+        }
+        return new QueriedDocTable(new DocTableRelation(viewTable), paths, newSpec);
+    }
+
+    private static boolean isNullable(Reference ref, DocTableInfo table) {
+        return ref.isNullable() && !table.primaryKey().contains(ref.column());
+    }
+
+    private class Replacer extends FunctionCopyVisitor<Void> {
+
+        private final MaterializedViewDefinition view;
+        private final DocTableInfo viewTable;
+        private boolean failed = false;
+
+        Replacer(MaterializedViewDefinition view, DocTableInfo viewTable) {
+            this.view = view;
+            this.viewTable = viewTable;
+        }
+
+        @Override
+        public Symbol process(Symbol symbol, @Nullable Void context) {
+            int keyIdx = view.keys().indexOf(symbol);
+            if (keyIdx >= 0) {
+                return column(view.keyColumns().get(keyIdx));
+            }
+            return super.process(symbol, context);
+        }
+
+        @Override
+        public Symbol visitFunction(Function func, Void context) {
+            if (func.info().type() != FunctionInfo.Type.AGGREGATE) {
+                return processAndMaybeCopy(func, context);
+            }
+            Symbol replacement = replaceAggregate(func);
+            if (replacement == null) {
+                failed = true;
+                return func;
+            }
+            return replacement;
+        }
+
+        @Nullable
+        private Symbol replaceAggregate(Function aggregate) {
+            String name = aggregate.info().ident().name();
+            if (name.equals("hyperloglog_distinct")) {
+                if (aggregate.arguments().size() != 1) {
+                    return null;
+                }
+                Symbol sketch = stateOf("hll_sketch", aggregate.arguments());
+                if (sketch == null) {
+                    return null;
+                }
+                Symbol merged = function("hll_merge", sketch);
+                return merged == null ? null : function("hll_cardinality", merged);
+            }
+            Symbol state = stateOf(name, aggregate.arguments());
+            if (state == null) {
+                return null;
+            }
+            switch (name) {
+                case "sum":
+                case "min":
+                case "max":
+                    return function(name, state);
+
+                case "count":
+                    Symbol sum = function("sum", state);
+                    return sum == null ? null : function("coalesce", sum, Literal.of(0L));
+
+                case "hll_sketch":
+                    return function("hll_merge", state);
+
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * Returns the view column storing the state of the given aggregation or null if the view doesn't have it.
+         */
+        @Nullable
+        private Symbol stateOf(String aggregation, List<Symbol> arguments) {
+            List<Function> aggregates = view.aggregates();
+            for (int i = 0; i < aggregates.size(); i++) {
+                Function aggregate = aggregates.get(i);
+                if (aggregate.info().ident().name().equals(aggregation) && aggregate.arguments().equals(arguments)) {
+                    return column(view.aggregateColumns().get(i));
+                }
+            }
+            return null;
+        }
+
+        @Nullable
+        private Symbol function(String name, Symbol... arguments) {
+            List<Symbol> args = new ArrayList<>(arguments.length);
+            Collections.addAll(args, arguments);
+            FunctionImplementation impl = functions.getBuiltinByArgs(name, args);
+            if (impl == null) {
+                return null;
+            }
+            return new Function(impl.info(), args);
+        }
+
+        private Symbol column(String column) {
+            Reference ref = viewTable.getReference(new ColumnIdent(column));
+            if (ref == null) {
+                failed = true;
+                return Literal.NULL;
+            }
+            return ref;
+        }
+    }
+}
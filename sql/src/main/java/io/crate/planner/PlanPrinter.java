@@ -34,10 +34,14 @@ import io.crate.execution.dsl.phases.NestedLoopPhase;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.dsl.phases.UpstreamPhase;
 import io.crate.execution.dsl.projection.Projection;
+import io.crate.metadata.PartitionName;
+import io.crate.metadata.TableIdent;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.QueryThenFetch;
 import io.crate.planner.node.dql.join.NestedLoop;
+import org.elasticsearch.cluster.metadata.AliasOrIndex;
+import org.elasticsearch.cluster.metadata.MetaData;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -49,11 +53,11 @@ public class PlanPrinter {
     private PlanPrinter() {
     }
 
-    public static Map<String, Object> objectMap(ExecutionPlan executionPlan) {
-        return ExecutionPlan2MapVisitor.createMap(executionPlan);
+    public static Map<String, Object> objectMap(ExecutionPlan executionPlan, MetaData metaData) {
+        return ExecutionPlan2MapVisitor.createMap(executionPlan, metaData);
     }
 
-    private static class ExecutionPhase2MapVisitor extends ExecutionPhaseVisitor<Void, ImmutableMap.Builder<String, Object>> {
+    private static class ExecutionPhase2MapVisitor extends ExecutionPhaseVisitor<MetaData, ImmutableMap.Builder<String, Object>> {
 
         public static final ExecutionPhase2MapVisitor INSTANCE = new ExecutionPhase2MapVisitor();
 
@@ -71,9 +75,9 @@ public class PlanPrinter {
                 .put("executionNodes", new ArrayList<>(phase.nodeIds()));
         }
 
-        static ImmutableMap.Builder<String, Object> toBuilder(ExecutionPhase executionPhase) {
+        static ImmutableMap.Builder<String, Object> toBuilder(ExecutionPhase executionPhase, MetaData metaData) {
             assert executionPhase != null : "executionPhase must not be null";
-            return INSTANCE.process(executionPhase, null);
+            return INSTANCE.process(executionPhase, metaData);
         }
 
         private static List<Map<String, Object>> projections(Iterable<Projection> projections) {
@@ -91,7 +95,7 @@ public class PlanPrinter {
         }
 
         @Override
-        protected ImmutableMap.Builder<String, Object> visitExecutionPhase(ExecutionPhase phase, Void context) {
+        protected ImmutableMap.Builder<String, Object> visitExecutionPhase(ExecutionPhase phase, MetaData metaData) {
             return createMap(phase, createSubMap(phase));
         }
 
@@ -112,8 +116,20 @@ public class PlanPrinter {
             return b;
         }
 
+        /**
+         * Prints the number of selected partitions and the number of all partitions of their table, e.g. "3/24"
+         */
+        private static String partitions(List<String> selectedPartitions, MetaData metaData) {
+            TableIdent tableIdent = PartitionName.fromIndexOrTemplate(selectedPartitions.get(0)).tableIdent();
+            AliasOrIndex allPartitions = metaData.getAliasAndIndexLookup().get(tableIdent.indexName());
+            if (allPartitions == null) {
+                return String.valueOf(selectedPartitions.size());
+            }
+            return selectedPartitions.size() + "/" + allPartitions.getIndices().size();
+        }
+
         @Override
-        public ImmutableMap.Builder<String, Object> visitRoutedCollectPhase(RoutedCollectPhase phase, Void context) {
+        public ImmutableMap.Builder<String, Object> visitRoutedCollectPhase(RoutedCollectPhase phase, MetaData metaData) {
             ImmutableMap.Builder<String, Object> builder = upstreamPhase(phase, createSubMap(phase));
             builder.put("toCollect", ExplainLeaf.printList(phase.toCollect()));
             builder = dqlPlanNode(phase, builder);
@@ -122,35 +138,38 @@ public class PlanPrinter {
             if (whereClause.hasQuery()) {
                 builder.put("where", whereClause.query().representation());
             }
+            if (!whereClause.partitions().isEmpty()) {
+                builder.put("partitions", partitions(whereClause.partitions(), metaData));
+            }
             return createMap(phase, builder);
         }
 
         @Override
-        public ImmutableMap.Builder<String, Object> visitCollectPhase(CollectPhase phase, Void context) {
+        public ImmutableMap.Builder<String, Object> visitCollectPhase(CollectPhase phase, MetaData metaData) {
             ImmutableMap.Builder<String, Object> builder = upstreamPhase(phase, createSubMap(phase));
             builder.put("toCollect", ExplainLeaf.printList(phase.toCollect()));
             return createMap(phase, builder);
         }
 
         @Override
-        public ImmutableMap.Builder<String, Object> visitCountPhase(CountPhase phase, Void context) {
+        public ImmutableMap.Builder<String, Object> visitCountPhase(CountPhase phase, MetaData metaData) {
             return createMap(phase, upstreamPhase(phase, createSubMap(phase)));
         }
 
         @Override
-        public ImmutableMap.Builder<String, Object> visitFetchPhase(FetchPhase phase, Void context) {
+        public ImmutableMap.Builder<String, Object> visitFetchPhase(FetchPhase phase, MetaData metaData) {
             return createMap(phase, createSubMap(phase)
                 .put("fetchRefs", ExplainLeaf.printList(phase.fetchRefs())));
         }
 
         @Override
-        public ImmutableMap.Builder<String, Object> visitMergePhase(MergePhase phase, Void context) {
+        public ImmutableMap.Builder<String, Object> visitMergePhase(MergePhase phase, MetaData metaData) {
             ImmutableMap.Builder<String, Object> b = upstreamPhase(phase, createSubMap(phase));
             return createMap(phase, dqlPlanNode(phase, b));
         }
 
         @Override
-        public ImmutableMap.Builder<String, Object> visitNestedLoopPhase(NestedLoopPhase phase, Void context) {
+        public ImmutableMap.Builder<String, Object> visitNestedLoopPhase(NestedLoopPhase phase, MetaData metaData) {
             ImmutableMap.Builder<String, Object> b = upstreamPhase(
                 phase,
                 createSubMap(phase).put("joinType", phase.joinType()));
@@ -158,7 +177,7 @@ public class PlanPrinter {
         }
     }
 
-    private static class ExecutionPlan2MapVisitor extends ExecutionPlanVisitor<Void, ImmutableMap.Builder<String, Object>> {
+    private static class ExecutionPlan2MapVisitor extends ExecutionPlanVisitor<MetaData, ImmutableMap.Builder<String, Object>> {
 
         private static final ExecutionPlan2MapVisitor INSTANCE = new ExecutionPlan2MapVisitor();
 
@@ -173,57 +192,61 @@ public class PlanPrinter {
         }
 
         @Override
-        protected ImmutableMap.Builder<String, Object> visitPlan(ExecutionPlan executionPlan, Void context) {
+        protected ImmutableMap.Builder<String, Object> visitPlan(ExecutionPlan executionPlan, MetaData metaData) {
             return createMap(executionPlan, createSubMap());
         }
 
-        private static Map<String, Object> phaseMap(@Nullable ExecutionPhase node) {
+        private static Map<String, Object> phaseMap(@Nullable ExecutionPhase node, MetaData metaData) {
             if (node == null) {
                 return null;
             } else {
-                return ExecutionPhase2MapVisitor.toBuilder(node).build();
+                return ExecutionPhase2MapVisitor.toBuilder(node, metaData).build();
             }
         }
 
-        static Map<String, Object> createMap(ExecutionPlan executionPlan) {
+        static Map<String, Object> createMap(ExecutionPlan executionPlan, MetaData metaData) {
             assert executionPlan != null : "plan must not be null";
-            return INSTANCE.process(executionPlan, null).build();
+            return INSTANCE.process(executionPlan, metaData).build();
         }
 
         @Override
-        public ImmutableMap.Builder<String, Object> visitCollect(Collect plan, Void context) {
+        public ImmutableMap.Builder<String, Object> visitCollect(Collect plan, MetaData metaData) {
             return createMap(plan, createSubMap()
-                .put("collectPhase", phaseMap(plan.collectPhase())));
+                .put("collectPhase", phaseMap(plan.collectPhase(), metaData)));
         }
 
         @Override
-        public ImmutableMap.Builder<String, Object> visitNestedLoop(NestedLoop plan, Void context) {
+        public ImmutableMap.Builder<String, Object> visitNestedLoop(NestedLoop plan, MetaData metaData) {
             return createMap(plan, createSubMap()
-                .put("left", process(plan.left(), context).build())
-                .put("right", process(plan.right(), context).build())
-                .put("nestedLoopPhase", phaseMap(plan.nestedLoopPhase())));
+                .put("left", process(plan.left(), metaData).build())
+                .put("right", process(plan.right(), metaData).build())
+                .put("nestedLoopPhase", phaseMap(plan.nestedLoopPhase(), metaData)));
         }
 
         @Override
-        public ImmutableMap.Builder<String, Object> visitQueryThenFetch(QueryThenFetch plan, Void context) {
+        public ImmutableMap.Builder<String, Object> visitQueryThenFetch(QueryThenFetch plan, MetaData metaData) {
             return createMap(plan, createSubMap()
-                .put("subPlan", createMap(plan.subPlan()))
-                .put("fetchPhase", phaseMap(plan.fetchPhase())));
+                .put("subPlan", createMap(plan.subPlan(), metaData))
+                .put("fetchPhase", phaseMap(plan.fetchPhase(), metaData)));
         }
 
         @Override
-        public ImmutableMap.Builder<String, Object> visitMerge(Merge merge, Void context) {
+        public ImmutableMap.Builder<String, Object> visitMerge(Merge merge, MetaData metaData) {
             return createMap(merge, createSubMap()
-                .put("subPlan", createMap(merge.subPlan()))
-                .put("mergePhase", phaseMap(merge.mergePhase())));
+                .put("subPlan", createMap(merge.subPlan(), metaData))
+                .put("mergePhase", phaseMap(merge.mergePhase(), metaData)));
         }
 
         @Override
-        public ImmutableMap.Builder<String, Object> visitUnionPlan(UnionExecutionPlan unionExecutionPlan, Void context) {
+        public ImmutableMap.Builder<String, Object> visitUnionPlan(UnionExecutionPlan unionExecutionPlan, MetaData metaData) {
+            // need to return a List because this is part of a map which is streamed to the client.
+            List<Map<String, Object>> sources = new ArrayList<>(unionExecutionPlan.sources().size());
+            for (ExecutionPlan source : unionExecutionPlan.sources()) {
+                sources.add(createMap(source, metaData));
+            }
             return createMap(unionExecutionPlan, createSubMap()
-                .put("left", createMap(unionExecutionPlan.left()))
-                .put("right", createMap(unionExecutionPlan.right()))
-                .put("mergePhase", phaseMap(unionExecutionPlan.mergePhase())));
+                .put("sources", sources)
+                .put("mergePhase", phaseMap(unionExecutionPlan.mergePhase(), metaData)));
         }
     }
 }
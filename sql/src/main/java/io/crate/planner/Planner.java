@@ -51,6 +51,7 @@ import io.crate.metadata.Functions;
 import io.crate.metadata.PartitionName;
 import io.crate.metadata.Reference;
 import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.view.MaterializedViews;
 import io.crate.planner.consumer.UpdatePlanner;
 import io.crate.planner.node.dcl.GenericDCLPlan;
 import io.crate.planner.node.ddl.CreateAnalyzerPlan;
@@ -90,16 +91,22 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
 
     private final ClusterService clusterService;
     private final LogicalPlanner logicalPlanner;
+    private final MaterializedViewRewriter materializedViewRewriter;
     private final Functions functions;
 
     private String[] awarenessAttributes;
 
 
     @Inject
-    public Planner(Settings settings, ClusterService clusterService, Functions functions, TableStats tableStats) {
+    public Planner(Settings settings,
+                   ClusterService clusterService,
+                   Functions functions,
+                   TableStats tableStats,
+                   MaterializedViews materializedViews) {
         this.clusterService = clusterService;
         this.functions = functions;
         this.logicalPlanner = new LogicalPlanner(functions, tableStats);
+        this.materializedViewRewriter = new MaterializedViewRewriter(materializedViews, functions);
 
         this.awarenessAttributes =
             AwarenessAllocationDecider.CLUSTER_ROUTING_ALLOCATION_AWARENESS_ATTRIBUTE_SETTING.get(settings);
@@ -143,6 +150,12 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
 
     @Override
     public Plan visitSelectStatement(QueriedRelation relation, PlannerContext context) {
+        if (context.transactionContext().sessionContext().getMaterializedViewRewriteEnabled()) {
+            QueriedRelation viewRelation = materializedViewRewriter.tryRewrite(relation);
+            if (viewRelation != null) {
+                return logicalPlanner.plan(viewRelation, context);
+            }
+        }
         return logicalPlanner.plan(relation, context);
     }
 
@@ -291,6 +304,7 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
         }
         DocTableInfo tableInfo = analysis.tableInfo();
         LegacyUpsertById legacyUpsertById = new LegacyUpsertById(
+            tableInfo.ident(),
             analysis.numBulkResponses(),
             tableInfo.isPartitioned(),
             analysis.bulkIndices(),
@@ -22,6 +22,7 @@
 
 package io.crate.planner;
 
+import io.crate.action.sql.QueryResultCache;
 import io.crate.action.sql.SessionContext;
 import io.crate.analyze.QuerySpec;
 import io.crate.analyze.WhereClause;
@@ -66,6 +67,9 @@ public class PlannerContext {
     private int executionPhaseId = 0;
     private final String handlerNode;
 
+    @Nullable
+    private QueryResultCache.Query resultCacheQuery;
+
     public PlannerContext(ClusterState clusterState,
                           RoutingProvider routingProvider,
                           UUID jobId,
@@ -102,6 +106,10 @@ public class PlannerContext {
         }
     }
 
+    public ClusterState clusterState() {
+        return clusterState;
+    }
+
     public String handlerNode() {
         return handlerNode;
     }
@@ -132,4 +140,17 @@ public class PlannerContext {
     public Functions functions() {
         return functions;
     }
+
+    /**
+     * Sets the query under which the result of the top-level plan is cached, see {@link QueryResultCache}.
+     * Contexts for sub plans never carry a query.
+     */
+    public void resultCacheQuery(@Nullable QueryResultCache.Query query) {
+        this.resultCacheQuery = query;
+    }
+
+    @Nullable
+    public QueryResultCache.Query resultCacheQuery() {
+        return resultCacheQuery;
+    }
 }
@@ -29,11 +29,16 @@ import io.crate.metadata.TableIdent;
 public class TableStats {
 
     private volatile ObjectLongMap<TableIdent> tableStats = new ObjectLongHashMap<>(0);
+    private volatile ObjectLongMap<String> indexStats = new ObjectLongHashMap<>(0);
 
     public void updateTableStats(ObjectLongMap<TableIdent> tableStats) {
         this.tableStats = tableStats;
     }
 
+    public void updateIndexStats(ObjectLongMap<String> indexStats) {
+        this.indexStats = indexStats;
+    }
+
     /**
      * Returns the number of docs a table has.
      * <p>
@@ -45,4 +50,13 @@ public class TableStats {
     public long numDocs(TableIdent tableIdent) {
         return tableStats.getOrDefault(tableIdent, -1);
     }
+
+    /**
+     * Returns the number of docs of an index, which is either a table or a partition of a table.
+     * Like {@link #numDocs(TableIdent)} this is a cached value.
+     * Returns -1 if the index isn't in the cache
+     */
+    public long numDocsOfIndex(String indexName) {
+        return indexStats.getOrDefault(indexName, -1);
+    }
 }
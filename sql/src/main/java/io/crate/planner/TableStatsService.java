@@ -26,9 +26,11 @@ package io.crate.planner;
 import com.carrotsearch.hppc.ObjectLongHashMap;
 import com.carrotsearch.hppc.ObjectLongMap;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Strings;
 import io.crate.action.sql.BaseResultReceiver;
 import io.crate.action.sql.SQLOperations;
 import io.crate.data.Row;
+import io.crate.metadata.IndexParts;
 import io.crate.metadata.TableIdent;
 import io.crate.settings.CrateSetting;
 import io.crate.types.DataTypes;
@@ -58,7 +60,8 @@ public class TableStatsService extends AbstractComponent implements Runnable {
     static final String TABLE_STATS = "table_stats";
     static final int DEFAULT_SOFT_LIMIT = 10_000;
     static final String STMT =
-        "select cast(sum(num_docs) as long), schema_name, table_name from sys.shards group by 2, 3";
+        "select cast(sum(num_docs) as long), schema_name, table_name, partition_ident from sys.shards " +
+        "group by 2, 3, 4";
 
     private final ClusterService clusterService;
     private final ThreadPool threadPool;
@@ -79,7 +82,7 @@ public class TableStatsService extends AbstractComponent implements Runnable {
         super(settings);
         this.threadPool = threadPool;
         this.clusterService = clusterService;
-        resultReceiver = new TableStatsResultReceiver(tableStats::updateTableStats);
+        resultReceiver = new TableStatsResultReceiver(tableStats::updateTableStats, tableStats::updateIndexStats);
         refreshInterval = STATS_SERVICE_REFRESH_INTERVAL_SETTING.setting().get(settings);
         refreshScheduledTask = scheduleRefresh(refreshInterval);
         sqlDirectExecutor = sqlOperations.createSystemExecutor("sys", TABLE_STATS, STMT, DEFAULT_SOFT_LIMIT);
@@ -115,22 +118,34 @@ public class TableStatsService extends AbstractComponent implements Runnable {
         private static final Logger LOGGER = Loggers.getLogger(TableStatsResultReceiver.class);
 
         private final Consumer<ObjectLongMap<TableIdent>> tableStatsConsumer;
+        private final Consumer<ObjectLongMap<String>> indexStatsConsumer;
         private ObjectLongMap<TableIdent> newStats = new ObjectLongHashMap<>();
+        private ObjectLongMap<String> newIndexStats = new ObjectLongHashMap<>();
 
-        TableStatsResultReceiver(Consumer<ObjectLongMap<TableIdent>> tableStatsConsumer) {
+        TableStatsResultReceiver(Consumer<ObjectLongMap<TableIdent>> tableStatsConsumer,
+                                 Consumer<ObjectLongMap<String>> indexStatsConsumer) {
             this.tableStatsConsumer = tableStatsConsumer;
+            this.indexStatsConsumer = indexStatsConsumer;
         }
 
         @Override
         public void setNextRow(Row row) {
-            TableIdent tableIdent = new TableIdent(BytesRefs.toString(row.get(1)), BytesRefs.toString(row.get(2)));
-            newStats.put(tableIdent, ((long) row.get(0)));
+            long numDocs = (long) row.get(0);
+            String schema = BytesRefs.toString(row.get(1));
+            String table = BytesRefs.toString(row.get(2));
+            String partitionIdent = BytesRefs.toString(row.get(3));
+            newStats.putOrAdd(new TableIdent(schema, table), numDocs, numDocs);
+            String indexName = IndexParts.toIndexName(
+                schema, table, Strings.isNullOrEmpty(partitionIdent) ? null : partitionIdent);
+            newIndexStats.put(indexName, numDocs);
         }
 
         @Override
         public void allFinished(boolean interrupted) {
             tableStatsConsumer.accept(newStats);
+            indexStatsConsumer.accept(newIndexStats);
             newStats = new ObjectLongHashMap<>();
+            newIndexStats = new ObjectLongHashMap<>();
             super.allFinished(interrupted);
         }
 
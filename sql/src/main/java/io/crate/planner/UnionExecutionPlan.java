@@ -33,12 +33,11 @@ import java.util.Collection;
 import java.util.List;
 
 /**
- * Plan for Union which uses a MergePhase to combine the results of two plans (= two inputs).
+ * Plan for Union which uses a MergePhase to combine the results of two or more plans (= one input per plan).
  */
 public class UnionExecutionPlan implements ExecutionPlan, ResultDescription {
 
-    private final ExecutionPlan left;
-    private final ExecutionPlan right;
+    private final List<ExecutionPlan> sources;
 
     private final MergePhase mergePhase;
 
@@ -63,18 +62,18 @@ public class UnionExecutionPlan implements ExecutionPlan, ResultDescription {
      * See also: {@link ResultDescription}
      *
      */
-    public UnionExecutionPlan(ExecutionPlan left,
-                              ExecutionPlan right,
+    public UnionExecutionPlan(List<ExecutionPlan> sources,
                               MergePhase mergePhase,
                               int unfinishedLimit,
                               int unfinishedOffset,
                               int numOutputs,
                               int maxRowsPerNode,
                               @Nullable PositionalOrderBy orderBy) {
-        this.left = left;
-        this.right = right;
-        Preconditions.checkArgument(mergePhase.numInputs() == 2,
-            "Number of inputs of MergePhase needs to be two.");
+        Preconditions.checkArgument(sources.size() >= 2,
+            "Union requires at least two sources.");
+        Preconditions.checkArgument(mergePhase.numInputs() == sources.size(),
+            "Number of inputs of MergePhase needs to match the number of sources.");
+        this.sources = sources;
         this.mergePhase = mergePhase;
         this.unfinishedLimit = unfinishedLimit;
         this.unfinishedOffset = unfinishedOffset;
@@ -87,12 +86,19 @@ public class UnionExecutionPlan implements ExecutionPlan, ResultDescription {
         return mergePhase;
     }
 
-    public ExecutionPlan left() {
-        return left;
+    public List<ExecutionPlan> sources() {
+        return sources;
     }
 
-    public ExecutionPlan right() {
-        return right;
+    /**
+     * @return true if the sources of this plan can be merged directly into the MergePhase of a parent union,
+     *         because nothing has to be applied on top of the union of the sources.
+     */
+    public boolean canBeFlattened() {
+        return !mergePhase.hasProjections()
+               && mergePhase.orderByPositions() == null
+               && orderBy == null
+               && !hasRemainingLimitOrOffset();
     }
 
     @Override
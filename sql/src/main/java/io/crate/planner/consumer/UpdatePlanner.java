@@ -147,7 +147,10 @@ public final class UpdatePlanner {
             NodeOperationTree nodeOpTree = NodeOperationTreeGenerator.fromPlan(executionPlan, executor.localNodeId());
 
             executor.phasesTaskFactory()
-                .create(plannerContext.jobId(), singletonList(nodeOpTree))
+                .create(
+                    plannerContext.jobId(),
+                    plannerContext.transactionContext().sessionContext().workloadClass(),
+                    singletonList(nodeOpTree))
                 .execute(consumer);
         }
 
@@ -162,7 +165,10 @@ public final class UpdatePlanner {
                 nodeOpTreeList.add(NodeOperationTreeGenerator.fromPlan(executionPlan, executor.localNodeId()));
             }
             return executor.phasesTaskFactory()
-                .create(plannerContext.jobId(), nodeOpTreeList)
+                .create(
+                    plannerContext.jobId(),
+                    plannerContext.transactionContext().sessionContext().workloadClass(),
+                    nodeOpTreeList)
                 .executeBulk();
         }
     }
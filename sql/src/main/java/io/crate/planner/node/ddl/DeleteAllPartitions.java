@@ -52,7 +52,7 @@ public final class DeleteAllPartitions implements Plan {
                         Row params,
                         Map<SelectSymbol, Object> valuesBySubQuery) {
         DeleteAllPartitionsTask task = new DeleteAllPartitionsTask(
-            this, executor.transportActionProvider().transportDeleteIndexAction());
+            this, executor.transportActionProvider().partitionDeleteExecutor());
         task.execute(consumer);
     }
 }
@@ -71,8 +71,8 @@ public class DeletePartitions implements Plan {
         ArrayList<String> indexNames = getIndices(executor.functions(), params, valuesBySubQuery);
         DeleteIndexRequest request = new DeleteIndexRequest(indexNames.toArray(new String[0]));
         request.indicesOptions(IndicesOptions.lenientExpandOpen());
-        executor.transportActionProvider().transportDeleteIndexAction()
-            .execute(request, new OneRowActionListener<>(consumer, r -> Row1.ROW_COUNT_UNKNOWN));
+        executor.transportActionProvider().partitionDeleteExecutor()
+            .accept(request, new OneRowActionListener<>(consumer, r -> Row1.ROW_COUNT_UNKNOWN));
     }
 
     @VisibleForTesting
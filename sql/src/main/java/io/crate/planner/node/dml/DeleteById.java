@@ -63,7 +63,7 @@ public class DeleteById implements Plan {
             plannerContext.jobId(),
             executor.clusterService(),
             executor.functions(),
-            executor.transportActionProvider().transportShardDeleteAction(),
+            executor.transportActionProvider().shardDeleteExecutor(),
             this
         );
         task.execute(consumer, params, valuesBySubQuery);
@@ -78,7 +78,7 @@ public class DeleteById implements Plan {
             plannerContext.jobId(),
             executor.clusterService(),
             executor.functions(),
-            executor.transportActionProvider().transportShardDeleteAction(),
+            executor.transportActionProvider().shardDeleteExecutor(),
             this
         );
         return task.executeBulk(bulkParams, valuesBySubQuery);
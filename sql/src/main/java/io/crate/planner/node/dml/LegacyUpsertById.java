@@ -27,11 +27,13 @@ import io.crate.data.Row;
 import io.crate.data.RowConsumer;
 import io.crate.execution.dml.upsert.LegacyUpsertByIdTask;
 import io.crate.metadata.Reference;
+import io.crate.metadata.TableIdent;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.Plan;
 import io.crate.planner.PlannerContext;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -104,6 +106,7 @@ public class LegacyUpsertById implements Plan {
     }
 
 
+    private final TableIdent tableIdent;
     private final int numBulkResponses;
     private final boolean isPartitioned;
     private final List<Item> items;
@@ -114,11 +117,13 @@ public class LegacyUpsertById implements Plan {
     @Nullable
     private final Reference[] insertColumns;
 
-    public LegacyUpsertById(int numBulkResponses,
+    public LegacyUpsertById(TableIdent tableIdent,
+                            int numBulkResponses,
                             boolean isPartitioned,
                             List<Integer> bulkIndices,
                             @Nullable String[] updateColumns,
                             @Nullable Reference[] insertColumns) {
+        this.tableIdent = tableIdent;
         this.numBulkResponses = numBulkResponses;
         this.isPartitioned = isPartitioned;
         this.bulkIndices = bulkIndices;
@@ -127,6 +132,10 @@ public class LegacyUpsertById implements Plan {
         this.items = new ArrayList<>();
     }
 
+    public TableIdent tableIdent() {
+        return tableIdent;
+    }
+
     @Nullable
     public String[] updateColumns() {
         return updateColumns;
@@ -174,7 +183,7 @@ public class LegacyUpsertById implements Plan {
             executor.clusterService(),
             executor.scheduler(),
             executor.settings(),
-            executor.transportActionProvider().transportShardUpsertAction()::execute,
+            executor.transportActionProvider().shardUpsertExecutor(),
             executor.transportActionProvider().transportBulkCreateIndicesAction()
         );
         task.execute(consumer);
@@ -191,9 +200,13 @@ public class LegacyUpsertById implements Plan {
             executor.clusterService(),
             executor.scheduler(),
             executor.settings(),
-            executor.transportActionProvider().transportShardUpsertAction()::execute,
+            executor.transportActionProvider().shardUpsertExecutor(),
             executor.transportActionProvider().transportBulkCreateIndicesAction()
         );
-        return task.executeBulk();
+        return task.executeBulk(
+            executor.functions(),
+            executor.nodeJobsCounter(),
+            executor.threadPool().executor(ThreadPool.Names.SEARCH)
+        );
     }
 }
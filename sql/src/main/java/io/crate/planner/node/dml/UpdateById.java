@@ -72,7 +72,7 @@ public final class UpdateById implements Plan {
             plannerCtx.jobId(),
             executor.clusterService(),
             executor.functions(),
-            executor.transportActionProvider().transportShardUpsertAction(),
+            executor.transportActionProvider().shardUpsertExecutor(),
             this
         );
         task.execute(consumer, params, valuesBySubQuery);
@@ -87,7 +87,7 @@ public final class UpdateById implements Plan {
             plannerContext.jobId(),
             executor.clusterService(),
             executor.functions(),
-            executor.transportActionProvider().transportShardUpsertAction(),
+            executor.transportActionProvider().shardUpsertExecutor(),
             this
         );
         return task.executeBulk(bulkParams, valuesBySubQuery);
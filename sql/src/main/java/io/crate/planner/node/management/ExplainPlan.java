@@ -68,7 +68,7 @@ public class ExplainPlan implements Plan {
                     ((CopyStatementPlanner.CopyFrom) subPlan).copyFrom,
                     plannerContext
                 );
-                map = PlanPrinter.objectMap(executionPlan);
+                map = PlanPrinter.objectMap(executionPlan, plannerContext.clusterState().metaData());
             } else {
                 consumer.accept(null, new UnsupportedOperationException("EXPLAIN not supported for " + subPlan));
                 return;
@@ -277,8 +277,24 @@ class Collect extends ZeroInputPlan {
         return tableInfo instanceof DocTableInfo;
     }
 
+    /**
+     * The number of docs of the table, reduced to the fraction of partitions the query is restricted to.
+     *
+     * Once this operator has been built, {@link #where} has parameters and sub-query values bound,
+     * so parent operators building afterwards (e.g. {@link Join}) get an estimate based on the actual query.
+     */
     @Override
     public long numExpectedRows() {
+        if (where.noMatch()) {
+            return 0L;
+        }
+        if (numExpectedRows > 0 && tableInfo instanceof DocTableInfo) {
+            int numSelectedPartitions = where.partitions().size();
+            int numPartitions = ((DocTableInfo) tableInfo).partitions().size();
+            if (numSelectedPartitions > 0 && numSelectedPartitions < numPartitions) {
+                return Math.max(1L, numExpectedRows * numSelectedPartitions / numPartitions);
+            }
+        }
         return numExpectedRows;
     }
 
@@ -86,8 +86,9 @@ public class ExecutionPlanSymbolMapper extends ExecutionPlanVisitor<Function<? s
 
     @Override
     public Void visitUnionPlan(UnionExecutionPlan union, Function<? super Symbol, ? extends Symbol> mapper) {
-        process(union.left(), mapper);
-        process(union.right(), mapper);
+        for (ExecutionPlan source : union.sources()) {
+            process(source, mapper);
+        }
         union.mergePhase().replaceSymbols(mapper);
         return null;
     }
@@ -59,7 +59,7 @@ public class ExplainLogicalPlan {
                 null,
                 Row.EMPTY,
                 Collections.emptyMap());
-            return PlanPrinter.objectMap(executionPlan);
+            return PlanPrinter.objectMap(executionPlan, plannerContext.clusterState().metaData());
         } catch (Exception e) {
             return VISITOR.process(logicalPlan, new Context(plannerContext, projectionBuilder)).build();
         }
@@ -153,6 +153,12 @@ public class Join extends TwoInputPlan {
             // have more than 1 fetchProjection within a single execution
             LogicalPlan lhsPlan = LogicalPlanner.plan(lhs, FetchMode.NEVER_CLEAR, subqueryPlanner, false).build(tableStats, usedFromLeft);
             LogicalPlan rhsPlan = LogicalPlanner.plan(rhs, FetchMode.NEVER_CLEAR, subqueryPlanner, false).build(tableStats, usedFromRight);
+            if (joinType == JoinType.INNER && joinCondition != null) {
+                lhsPlan = JoinKeyFilter.tryApply(
+                    lhs, lhsPlan, rhs, rhsPlan, joinCondition, usedFromLeft, tableStats, subqueryPlanner);
+                rhsPlan = JoinKeyFilter.tryApply(
+                    rhs, rhsPlan, lhs, lhsPlan, joinCondition, usedFromRight, tableStats, subqueryPlanner);
+            }
             Symbol query = removeParts(queryParts, lhsName, rhsName);
             LogicalPlan join = new Join(
                 lhsPlan,
@@ -359,6 +365,8 @@ public class Join extends TwoInputPlan {
         isDistributed = isDistributed &&
                         (!leftResultDesc.nodeIds().isEmpty() && !rightResultDesc.nodeIds().isEmpty());
         boolean switchTables = false;
+        // numExpectedRows is evaluated after the sources have been built,
+        // so it takes the bound parameters, sub-query values and selected partitions into account
         if (isDistributed && joinType.supportsInversion() && lhs.numExpectedRows() < rhs.numExpectedRows()) {
             // temporarily switch plans and relations to apply broadcasting logic
             // to smaller side (which is always the right side).
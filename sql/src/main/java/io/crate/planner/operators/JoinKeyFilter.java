@@ -0,0 +1,214 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.planner.operators;
+
+import io.crate.analyze.OrderBy;
+import io.crate.analyze.QuerySpec;
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.analyze.relations.QueriedRelation;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.any.AnyEqOperator;
+import io.crate.expression.symbol.Field;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Reference;
+import io.crate.planner.SubqueryPlanner;
+import io.crate.planner.TableStats;
+import io.crate.planner.consumer.FetchMode;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.SingleColumnTableType;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utility class which is used by the {@link Join} to restrict the larger side of an inner equi-join
+ * to the join keys of the smaller, filtered side.
+ *
+ * <pre>
+ *     select * from fact inner join dim on fact.dim_id = dim.id where dim.region = 'EU'
+ *
+ *     is planned as if it were
+ *
+ *     select * from fact inner join dim on fact.dim_id = dim.id
+ *     where dim.region = 'EU'
+ *       and fact.dim_id = ANY(select id from dim where region = 'EU' group by id order by id)
+ * </pre>
+ *
+ * The key sub-select is executed as a dependency of the join (see {@link MultiPhase}) and its values are bound into
+ * the where clause of the probe side collect, where they end up as a terms query on the shards.
+ * This avoids collecting and transferring rows which can't have a join partner.
+ */
+final class JoinKeyFilter {
+
+    /**
+     * Upper bound of the expected number of rows on the build side; larger sides aren't used to filter
+     * because the key set has to be held in memory on the handler and sent to all shards of the probe side.
+     */
+    static final long MAX_EXPECTED_KEYS = 10_000L;
+
+    private JoinKeyFilter() {
+    }
+
+    /**
+     * @return a plan for {@code probe} which only collects rows matching the join keys of {@code build}
+     *         or {@code probePlan} if the filter isn't applicable.
+     */
+    static LogicalPlan tryApply(QueriedRelation probe,
+                                LogicalPlan probePlan,
+                                QueriedRelation build,
+                                LogicalPlan buildPlan,
+                                Symbol joinCondition,
+                                Set<Symbol> usedFromProbe,
+                                TableStats tableStats,
+                                SubqueryPlanner subqueryPlanner) {
+        long expectedKeys = buildPlan.numExpectedRows();
+        if (expectedKeys < 0 || expectedKeys > MAX_EXPECTED_KEYS || expectedKeys >= probePlan.numExpectedRows()) {
+            return probePlan;
+        }
+        if (!isFilterableDocTable(probe) || !isFilterableDocTable(build)) {
+            return probePlan;
+        }
+        WhereClause buildWhere = build.where();
+        WhereClause probeWhere = probe.where();
+        if (!buildWhere.hasQuery() || probeWhere.noMatch() || probeWhere.docKeys().isPresent()) {
+            return probePlan;
+        }
+        Function keyEquality = findKeyEquality(joinCondition, probe, build);
+        if (keyEquality == null) {
+            return probePlan;
+        }
+        Field probeField = (Field) keyEquality.arguments().get(0);
+        Field buildField = (Field) keyEquality.arguments().get(1);
+        if (!probeField.relation().getQualifiedName().equals(probe.getQualifiedName())) {
+            Field tmp = probeField;
+            probeField = buildField;
+            buildField = tmp;
+        }
+        Symbol probeKey = probe.querySpec().outputs().get(probeField.index());
+        Symbol buildKey = build.querySpec().outputs().get(buildField.index());
+        DataType keyType = probeKey.valueType();
+        if (!(probeKey instanceof Reference)
+            || !keyType.equals(buildKey.valueType())
+            || !DataTypes.isPrimitive(keyType)) {
+            return probePlan;
+        }
+
+        List<Symbol> keyOutputs = Collections.singletonList(buildKey);
+        QuerySpec keySpec = new QuerySpec()
+            .outputs(keyOutputs)
+            .where(buildWhere)
+            .groupBy(keyOutputs)
+            // sorted values are cheaper to turn into a terms query, see LogicalPlanner#tryOptimizeForInSubquery
+            .orderBy(new OrderBy(keyOutputs, new boolean[]{false}, new Boolean[]{false}));
+        // A limit is intentionally not applied (not even the soft limit), a truncated key set would drop join matches
+        QueriedDocTable keyRelation = new QueriedDocTable(((QueriedDocTable) build).tableRelation(), keySpec);
+        SelectSymbol keys = new SelectSymbol(
+            keyRelation, new SingleColumnTableType(keyType), SelectSymbol.ResultType.SINGLE_COLUMN_MULTIPLE_VALUES);
+        LogicalPlan keysPlan = new RootRelationBoundary(MultiPhase.createIfNeeded(
+            LogicalPlanner.plan(keyRelation, FetchMode.NEVER_CLEAR, subqueryPlanner, true)
+                .build(tableStats, new HashSet<>(keyOutputs)),
+            keyRelation,
+            subqueryPlanner
+        ));
+
+        Function keyFilter = new Function(
+            new FunctionInfo(
+                new FunctionIdent(AnyEqOperator.NAME, Arrays.asList(keyType, keys.valueType())), DataTypes.BOOLEAN),
+            Arrays.asList(probeKey, keys)
+        );
+        WhereClause filteredWhere = new WhereClause(
+            probeWhere.hasQuery() ? AndOperator.of(probeWhere.query(), keyFilter) : keyFilter,
+            null,
+            probeWhere.partitions(),
+            probeWhere.clusteredBy().orElse(null)
+        );
+        LogicalPlan filteredProbePlan = LogicalPlanner
+            .plan(probe, filteredWhere, FetchMode.NEVER_CLEAR, subqueryPlanner, false)
+            .build(tableStats, usedFromProbe);
+
+        Map<LogicalPlan, SelectSymbol> dependencies = new HashMap<>();
+        dependencies.put(keysPlan, keys);
+        return MultiPhase.createIfNeeded(filteredProbePlan, dependencies);
+    }
+
+    private static boolean isFilterableDocTable(QueriedRelation relation) {
+        // the where clause must apply directly to the rows which are joined
+        return relation instanceof QueriedDocTable
+               && relation.groupBy().isEmpty()
+               && !relation.hasAggregates()
+               && relation.having() == null
+               && relation.limit() == null
+               && relation.offset() == null;
+    }
+
+    /**
+     * Returns the first {@code probeField = buildField} comparison of the (AND connected) join condition.
+     */
+    @Nullable
+    private static Function findKeyEquality(Symbol joinCondition, QueriedRelation probe, QueriedRelation build) {
+        if (!(joinCondition instanceof Function)) {
+            return null;
+        }
+        Function function = (Function) joinCondition;
+        String name = function.info().ident().name();
+        if (name.equals(AndOperator.NAME)) {
+            for (Symbol argument : function.arguments()) {
+                Function keyEquality = findKeyEquality(argument, probe, build);
+                if (keyEquality != null) {
+                    return keyEquality;
+                }
+            }
+            return null;
+        }
+        if (!name.equals(EqOperator.NAME)) {
+            return null;
+        }
+        Symbol left = function.arguments().get(0);
+        Symbol right = function.arguments().get(1);
+        if (!(left instanceof Field) || !(right instanceof Field)) {
+            return null;
+        }
+        if (isFieldOf(left, probe) && isFieldOf(right, build) || isFieldOf(left, build) && isFieldOf(right, probe)) {
+            return function;
+        }
+        return null;
+    }
+
+    private static boolean isFieldOf(Symbol field, QueriedRelation relation) {
+        return ((Field) field).relation().getQualifiedName().equals(relation.getQualifiedName());
+    }
+}
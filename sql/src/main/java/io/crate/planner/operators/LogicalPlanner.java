@@ -22,6 +22,7 @@
 
 package io.crate.planner.operators;
 
+import io.crate.action.sql.QueryResultCache;
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.analyze.AnalyzedStatementVisitor;
 import io.crate.analyze.InsertFromSubQueryAnalyzedStatement;
@@ -38,6 +39,8 @@ import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.RefVisitor;
 import io.crate.expression.symbol.SelectSymbol;
 import io.crate.expression.symbol.Symbol;
+import io.crate.data.Bucket;
+import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
 import io.crate.execution.MultiPhaseExecutor;
@@ -64,6 +67,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
+import static io.crate.data.SentinelRow.SENTINEL;
 import static io.crate.expression.symbol.SelectSymbol.ResultType.SINGLE_COLUMN_SINGLE_VALUE;
 
 /**
@@ -160,7 +164,19 @@ public class LogicalPlanner {
                                     FetchMode fetchMode,
                                     SubqueryPlanner subqueryPlanner,
                                     boolean isLastFetch) {
-        LogicalPlan.Builder builder = prePlan(relation, fetchMode, subqueryPlanner, isLastFetch);
+        return plan(relation, relation.where(), fetchMode, subqueryPlanner, isLastFetch);
+    }
+
+    /**
+     * Like {@link #plan(QueriedRelation, FetchMode, SubqueryPlanner, boolean)} but uses the given {@code where}
+     * instead of the where clause of the relation.
+     */
+    static LogicalPlan.Builder plan(QueriedRelation relation,
+                                    WhereClause where,
+                                    FetchMode fetchMode,
+                                    SubqueryPlanner subqueryPlanner,
+                                    boolean isLastFetch) {
+        LogicalPlan.Builder builder = prePlan(relation, where, fetchMode, subqueryPlanner, isLastFetch);
         if (isLastFetch) {
             return builder;
         }
@@ -171,6 +187,14 @@ public class LogicalPlanner {
                                                FetchMode fetchMode,
                                                SubqueryPlanner subqueryPlanner,
                                                boolean isLastFetch) {
+        return prePlan(relation, relation.where(), fetchMode, subqueryPlanner, isLastFetch);
+    }
+
+    private static LogicalPlan.Builder prePlan(QueriedRelation relation,
+                                               WhereClause where,
+                                               FetchMode fetchMode,
+                                               SubqueryPlanner subqueryPlanner,
+                                               boolean isLastFetch) {
         SplitPoints splitPoints = SplitPoints.create(relation);
         return
             FetchOrEval.create(
@@ -181,7 +205,7 @@ public class LogicalPlanner {
                                 collectAndFilter(
                                     relation,
                                     splitPoints.toCollect(),
-                                    relation.where(),
+                                    where,
                                     subqueryPlanner,
                                     fetchMode
                                 ),
@@ -293,9 +317,27 @@ public class LogicalPlanner {
         // Ideally we'd include the binding into the `build` step and avoid the after-the-fact symbol mutation
         ExecutionPlanSymbolMapper.map(executionPlan, new SubQueryAndParamBinder(params, subQueryValues));
 
+        // the routings of the queried indices are allocated by `build`, so the cache key can only be computed now
+        QueryResultCache.Query resultCacheQuery = plannerContext.resultCacheQuery();
+        if (resultCacheQuery != null) {
+            QueryResultCache resultCache = executor.queryResultCache();
+            QueryResultCache.Key cacheKey = resultCache.key(resultCacheQuery);
+            if (cacheKey != null) {
+                Bucket cachedResult = resultCache.get(cacheKey);
+                if (cachedResult != null) {
+                    consumer.accept(InMemoryBatchIterator.of(cachedResult, SENTINEL), null);
+                    return;
+                }
+                consumer = resultCache.cachingConsumer(cacheKey, resultCacheQuery.outputTypes(), consumer);
+            }
+        }
+
         NodeOperationTree nodeOpTree = NodeOperationTreeGenerator.fromPlan(executionPlan, executor.localNodeId());
         executor.phasesTaskFactory()
-            .create(plannerContext.jobId(), Collections.singletonList(nodeOpTree))
+            .create(
+                plannerContext.jobId(),
+                plannerContext.transactionContext().sessionContext().workloadClass(),
+                Collections.singletonList(nodeOpTree))
             .execute(consumer);
     }
 
@@ -44,7 +44,10 @@ public class MultiPhase extends OneInputPlan {
     public static LogicalPlan createIfNeeded(LogicalPlan source,
                                              QueriedRelation relation,
                                              SubqueryPlanner subqueryPlanner) {
-        Map<LogicalPlan, SelectSymbol> subQueries = subqueryPlanner.planSubQueries(relation);
+        return createIfNeeded(source, subqueryPlanner.planSubQueries(relation));
+    }
+
+    static LogicalPlan createIfNeeded(LogicalPlan source, Map<LogicalPlan, SelectSymbol> subQueries) {
         if (subQueries.isEmpty()) {
             return source;
         }
@@ -42,6 +42,7 @@ import io.crate.execution.dsl.phases.MergePhase;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -62,6 +63,11 @@ import static io.crate.planner.operators.Limit.limitAndOffset;
  */
 public class Union extends TwoInputPlan {
 
+    /**
+     * Maximum number of sources of a single union MergePhase; the input id of a source is a byte.
+     */
+    public static final int MAX_SOURCES = Byte.MAX_VALUE;
+
     static Builder create(UnionSelect ttr, SubqueryPlanner subqueryPlanner) {
         return (tableStats, usedColsByParent) -> {
 
@@ -132,18 +138,23 @@ public class Union extends TwoInputPlan {
         ExecutionPlan right = rhs.build(
             plannerContext, projectionBuilder, limit + offset, offset, null, childPageSizeHint, params, subQueryValues);
 
-        left = addMergeIfNeeded(left, plannerContext);
-        right = addMergeIfNeeded(right, plannerContext);
+        List<ExecutionPlan> sources = new ArrayList<>();
+        // keep room for the right side, which is at least one source
+        addSources(left, sources, 1, plannerContext);
+        addSources(right, sources, 0, plannerContext);
 
-        ResultDescription leftResultDesc = left.resultDescription();
-        ResultDescription rightResultDesc = right.resultDescription();
+        int numUpstreams = 0;
+        for (ExecutionPlan source : sources) {
+            numUpstreams += source.resultDescription().nodeIds().size();
+        }
+        ResultDescription leftResultDesc = sources.get(0).resultDescription();
 
         MergePhase mergePhase = new MergePhase(
             plannerContext.jobId(),
             plannerContext.nextExecutionPhaseId(),
             "union",
-            leftResultDesc.nodeIds().size() + rightResultDesc.nodeIds().size(),
-            2,
+            numUpstreams,
+            sources.size(),
             Collections.singletonList(plannerContext.handlerNode()),
             leftResultDesc.streamOutputs(),
             Collections.emptyList(),
@@ -152,8 +163,7 @@ public class Union extends TwoInputPlan {
         );
 
         return new UnionExecutionPlan(
-            left,
-            right,
+            sources,
             mergePhase,
             limit,
             offset,
@@ -163,6 +173,30 @@ public class Union extends TwoInputPlan {
         );
     }
 
+    /**
+     * Adds the plan to the sources of the union.
+     *
+     * Nested unions (e.g. {@code a UNION ALL b UNION ALL c}) are flattened if possible,
+     * so that all sources feed into the same MergePhase instead of stacking a merge per union.
+     * A nested union is kept as a single source if flattening it would exceed {@link #MAX_SOURCES},
+     * so a union of many relations results in nested unions of at most {@link #MAX_SOURCES} sources each.
+     *
+     * @param reserved number of sources which are added after this plan
+     */
+    private static void addSources(ExecutionPlan plan,
+                                   List<ExecutionPlan> sources,
+                                   int reserved,
+                                   PlannerContext plannerContext) {
+        if (plan instanceof UnionExecutionPlan && ((UnionExecutionPlan) plan).canBeFlattened()) {
+            List<ExecutionPlan> nestedSources = ((UnionExecutionPlan) plan).sources();
+            if (sources.size() + nestedSources.size() + reserved <= MAX_SOURCES) {
+                sources.addAll(nestedSources);
+                return;
+            }
+        }
+        sources.add(addMergeIfNeeded(plan, plannerContext));
+    }
+
     @Override
     public LogicalPlan tryOptimize(@Nullable LogicalPlan pushDown) {
         if (pushDown instanceof Order) {
@@ -115,7 +115,10 @@ public final class CopyStatementPlanner {
                 copyTo, plannerContext, logicalPlanner, subqueryPlanner, executor.projectionBuilder(), params);
             NodeOperationTree nodeOpTree = NodeOperationTreeGenerator.fromPlan(executionPlan, executor.localNodeId());
             executor.phasesTaskFactory()
-                .create(plannerContext.jobId(), Collections.singletonList(nodeOpTree))
+                .create(
+                    plannerContext.jobId(),
+                    plannerContext.transactionContext().sessionContext().workloadClass(),
+                    Collections.singletonList(nodeOpTree))
                 .execute(consumer);
         }
     }
@@ -137,7 +140,10 @@ public final class CopyStatementPlanner {
             ExecutionPlan plan = planCopyFromExecution(executor.clusterService().state().nodes(), copyFrom, plannerContext);
             NodeOperationTree nodeOpTree = NodeOperationTreeGenerator.fromPlan(plan, executor.localNodeId());
             executor.phasesTaskFactory()
-                .create(plannerContext.jobId(), Collections.singletonList(nodeOpTree))
+                .create(
+                    plannerContext.jobId(),
+                    plannerContext.transactionContext().sessionContext().workloadClass(),
+                    Collections.singletonList(nodeOpTree))
                 .execute(consumer);
         }
     }
@@ -131,15 +131,18 @@ public final class DeletePlanner {
             if (!where.partitions().isEmpty() && !where.hasQuery()) {
                 DeleteIndexRequest request = new DeleteIndexRequest(where.partitions().toArray(new String[0]));
                 request.indicesOptions(IndicesOptions.lenientExpandOpen());
-                executor.transportActionProvider().transportDeleteIndexAction()
-                    .execute(request, new OneRowActionListener<>(consumer, o -> new Row1(-1L)));
+                executor.transportActionProvider().partitionDeleteExecutor()
+                    .accept(request, new OneRowActionListener<>(consumer, o -> new Row1(-1L)));
                 return;
             }
 
             ExecutionPlan executionPlan = deleteByQuery(table, plannerContext, where);
             NodeOperationTree nodeOpTree = NodeOperationTreeGenerator.fromPlan(executionPlan, executor.localNodeId());
             executor.phasesTaskFactory()
-                .create(plannerContext.jobId(), Collections.singletonList(nodeOpTree))
+                .create(
+                    plannerContext.jobId(),
+                    plannerContext.transactionContext().sessionContext().workloadClass(),
+                    Collections.singletonList(nodeOpTree))
                 .execute(consumer);
         }
 
@@ -157,7 +160,10 @@ public final class DeletePlanner {
                 nodeOperationTreeList.add(NodeOperationTreeGenerator.fromPlan(executionPlan, executor.localNodeId()));
             }
             return executor.phasesTaskFactory()
-                .create(plannerContext.jobId(), nodeOperationTreeList)
+                .create(
+                    plannerContext.jobId(),
+                    plannerContext.transactionContext().sessionContext().workloadClass(),
+                    nodeOperationTreeList)
                 .executeBulk();
         }
     }
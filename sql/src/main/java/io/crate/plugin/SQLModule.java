@@ -22,10 +22,14 @@
 package io.crate.plugin;
 
 import io.crate.execution.ddl.DDLStatementDispatcher;
+import io.crate.execution.ddl.PartitionPreCreationService;
 import io.crate.action.sql.SQLOperations;
 import io.crate.execution.ddl.TransportSchemaUpdateAction;
+import io.crate.execution.ddl.views.TransportCreateMaterializedViewAction;
+import io.crate.execution.ddl.views.TransportMarkMaterializedViewsStaleAction;
 import io.crate.ingestion.IngestionService;
 import io.crate.metadata.FulltextAnalyzerResolver;
+import io.crate.metadata.view.MaterializedViews;
 import io.crate.ingestion.TransportCreateIngestRuleAction;
 import io.crate.ingestion.TransportDropIngestRuleAction;
 import io.crate.expression.udf.TransportCreateUserDefinedFunctionAction;
@@ -51,6 +55,7 @@ public class SQLModule extends AbstractModule {
         bind(Planner.class).asEagerSingleton();
         bind(TableStats.class).asEagerSingleton();
         bind(TableStatsService.class).asEagerSingleton();
+        bind(PartitionPreCreationService.class).asEagerSingleton();
         bind(UserDefinedFunctionService.class).asEagerSingleton();
         bind(TransportCreateUserDefinedFunctionAction.class).asEagerSingleton();
         bind(TransportDropUserDefinedFunctionAction.class).asEagerSingleton();
@@ -60,5 +65,8 @@ public class SQLModule extends AbstractModule {
         bind(TransportCreateIngestRuleAction.class).asEagerSingleton();
         bind(TransportDropIngestRuleAction.class).asEagerSingleton();
         bind(IngestionService.class).asEagerSingleton();
+        bind(MaterializedViews.class).asEagerSingleton();
+        bind(TransportCreateMaterializedViewAction.class).asEagerSingleton();
+        bind(TransportMarkMaterializedViewsStaleAction.class).asEagerSingleton();
     }
 }
@@ -23,6 +23,7 @@ package io.crate.plugin;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import io.crate.action.sql.QueryResultCache;
 import io.crate.action.sql.SQLOperations;
 import io.crate.analyze.repositories.RepositorySettingsModule;
 import io.crate.breaker.CircuitBreakerModule;
@@ -33,6 +34,8 @@ import io.crate.ingestion.IngestionModules;
 import io.crate.ingestion.IngestionService;
 import io.crate.execution.jobs.JobContextService;
 import io.crate.execution.jobs.JobModule;
+import io.crate.execution.jobs.QueryAdmissionController;
+import io.crate.execution.jobs.WorkloadClass;
 import io.crate.execution.jobs.transport.NodeDisconnectJobMonitorService;
 import io.crate.lucene.ArrayMapperService;
 import io.crate.metadata.MetaDataModule;
@@ -41,6 +44,7 @@ import io.crate.metadata.blob.MetaDataBlobModule;
 import io.crate.metadata.information.MetaDataInformationModule;
 import io.crate.metadata.pgcatalog.PgCatalogModule;
 import io.crate.metadata.rule.ingest.IngestRulesMetaData;
+import io.crate.metadata.view.MaterializedViewsMetaData;
 import io.crate.metadata.settings.AnalyzerSettings;
 import io.crate.metadata.settings.CrateSettings;
 import io.crate.metadata.sys.MetaDataSysModule;
@@ -48,7 +52,9 @@ import io.crate.monitor.MonitorModule;
 import io.crate.execution.engine.aggregation.impl.AggregationImplModule;
 import io.crate.auth.AuthSettings;
 import io.crate.execution.engine.collect.CollectOperationModule;
+import io.crate.execution.engine.collect.PKLookupOperation;
 import io.crate.execution.engine.collect.files.FileCollectModule;
+import io.crate.execution.engine.sort.SortingProjector;
 import io.crate.expression.operator.OperatorModule;
 import io.crate.expression.predicate.PredicateModule;
 import io.crate.expression.reference.sys.check.SysChecksModule;
@@ -83,6 +89,7 @@ import org.elasticsearch.plugins.ClusterPlugin;
 import org.elasticsearch.plugins.MapperPlugin;
 import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.search.SearchModule;
+import org.elasticsearch.threadpool.ExecutorBuilder;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -133,6 +140,11 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
         List<Setting<?>> settings = new ArrayList<>();
         settings.add(AnalyzerSettings.CUSTOM_ANALYSIS_SETTING_GROUP);
         settings.add(SQLOperations.NODE_READ_ONLY_SETTING);
+        settings.add(PKLookupOperation.COALESCE_WINDOW_SETTING);
+        settings.add(QueryAdmissionController.MEMORY_LIMIT_SETTING);
+        settings.add(QueryAdmissionController.QUEUE_TIMEOUT_SETTING);
+        settings.add(QueryResultCache.SIZE_SETTING);
+        settings.add(SortingProjector.SPILL_THRESHOLD_SETTING);
 
         // Postgres settings are node settings
         settings.add(PostgresNetty.PSQL_ENABLED_SETTING.setting());
@@ -165,6 +177,11 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
         return settings;
     }
 
+    @Override
+    public List<ExecutorBuilder<?>> getExecutorBuilders(Settings settings) {
+        return Collections.singletonList(WorkloadClass.batchExecutorBuilder(settings));
+    }
+
     @Override
     public Collection<Class<? extends LifecycleComponent>> getGuiceServiceClasses() {
         List<Class<? extends LifecycleComponent>> serviceClasses = Lists.newArrayList(
@@ -245,6 +262,11 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
             IngestRulesMetaData.TYPE,
             IngestRulesMetaData::new
         ));
+        entries.add(new NamedWriteableRegistry.Entry(
+            MetaData.Custom.class,
+            MaterializedViewsMetaData.TYPE,
+            MaterializedViewsMetaData::new
+        ));
         entries.add(new NamedWriteableRegistry.Entry(
             NamedDiff.class,
             UserDefinedFunctionsMetaData.TYPE,
@@ -255,6 +277,11 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
             IngestRulesMetaData.TYPE,
             in -> IngestRulesMetaData.readDiffFrom(MetaData.Custom.class, IngestRulesMetaData.TYPE, in)
         ));
+        entries.add(new NamedWriteableRegistry.Entry(
+            NamedDiff.class,
+            MaterializedViewsMetaData.TYPE,
+            in -> MaterializedViewsMetaData.readDiffFrom(MetaData.Custom.class, MaterializedViewsMetaData.TYPE, in)
+        ));
         if (userExtension != null) {
             entries.addAll(userExtension.getNamedWriteables());
         }
@@ -274,6 +301,11 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
             new ParseField(IngestRulesMetaData.TYPE),
             IngestRulesMetaData::fromXContent
         ));
+        entries.add(new NamedXContentRegistry.Entry(
+            MetaData.Custom.class,
+            new ParseField(MaterializedViewsMetaData.TYPE),
+            MaterializedViewsMetaData::fromXContent
+        ));
         if (userExtension != null) {
             entries.addAll(userExtension.getNamedXContent());
         }
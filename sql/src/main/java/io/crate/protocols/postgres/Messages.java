@@ -37,8 +37,8 @@ import org.elasticsearch.common.logging.Loggers;
 
 import javax.annotation.Nullable;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
 import java.util.Locale;
 import java.util.SortedSet;
 
@@ -286,19 +286,24 @@ public class Messages {
      * ByteN
      * The value of the column, in the format indicated by the associated format code. n is the above length.
      */
-    static void sendDataRow(Channel channel, Row row, List<? extends DataType> columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
+    static void sendDataRow(Channel channel, Row row, PGType[] columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
+        ByteBuf buffer = channel.alloc().buffer();
+        writeDataRow(buffer, row, columnTypes, formatCodes);
+        channel.write(buffer);
+    }
+
+    static void writeDataRow(ByteBuf buffer, Row row, PGType[] columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
         int length = 4 + 2;
-        assert columnTypes.size() == row.numColumns()
-            : "Number of columns in the row must match number of columnTypes. Row: " + row + " types: " + columnTypes;
+        assert columnTypes.length == row.numColumns()
+            : "Number of columns in the row must match number of columnTypes. Row: " + row + " types: " + Arrays.toString(columnTypes);
 
-        ByteBuf buffer = channel.alloc().buffer();
+        int start = buffer.writerIndex();
         buffer.writeByte('D');
         buffer.writeInt(0); // will be set at the end
         buffer.writeShort(row.numColumns());
 
-        for (int i = 0; i < row.numColumns(); i++) {
-            DataType dataType = columnTypes.get(i);
-            PGType pgType = PGTypes.get(dataType);
+        for (int i = 0; i < columnTypes.length; i++) {
+            PGType pgType = columnTypes[i];
             Object value = row.get(i);
             if (value == null) {
                 buffer.writeInt(-1);
@@ -319,8 +324,7 @@ public class Messages {
             }
         }
 
-        buffer.setInt(1, length);
-        channel.write(buffer);
+        buffer.setInt(start + 1, length);
     }
 
     static void writeCString(ByteBuf buffer, byte[] valBytes) {
@@ -26,6 +26,8 @@ import io.crate.action.sql.BaseResultReceiver;
 import io.crate.data.Row;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.auth.user.ExceptionAuthorizedValidator;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
 import io.crate.types.DataType;
 import io.netty.channel.Channel;
 
@@ -38,7 +40,7 @@ class ResultSetReceiver extends BaseResultReceiver {
     private final String query;
     private final Channel channel;
     private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
-    private final List<? extends DataType> columnTypes;
+    private final PGType[] columnTypes;
 
     @Nullable
     private final FormatCodes.FormatCode[] formatCodes;
@@ -53,7 +55,7 @@ class ResultSetReceiver extends BaseResultReceiver {
         this.query = query;
         this.channel = channel;
         this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
-        this.columnTypes = columnTypes;
+        this.columnTypes = PGTypes.get(columnTypes);
         this.formatCodes = formatCodes;
     }
 
@@ -46,6 +46,7 @@ import io.crate.planner.PlannerContext;
 import io.crate.sql.tree.Statement;
 import io.crate.types.DataType;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.common.Randomness;
 import org.elasticsearch.common.logging.Loggers;
 
@@ -172,8 +173,9 @@ public class SimplePortal extends AbstractPortal {
         assert analyzedStatement != null : "analyzedStatement must not be null";
         UUID jobId = UUID.randomUUID();
         RoutingProvider routingProvider = new RoutingProvider(Randomness.get().nextInt(), planner.getAwarenessAttributes());
+        ClusterState clusterState = planner.currentClusterState();
         PlannerContext plannerContext = new PlannerContext(
-            planner.currentClusterState(),
+            clusterState,
             routingProvider,
             jobId,
             planner.functions(),
@@ -200,6 +202,8 @@ public class SimplePortal extends AbstractPortal {
 
         if (!resumeIfSuspended()) {
             consumer = new RowConsumerToResultReceiver(resultReceiver, maxRows);
+            plannerContext.resultCacheQuery(portalContext.getExecutor().queryResultCache().query(
+                clusterState, routingProvider, statement, analyzedStatement, params, sessionContext, outputTypes));
             plan.execute(
                 portalContext.getExecutor(),
                 plannerContext,
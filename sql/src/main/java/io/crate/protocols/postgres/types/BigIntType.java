@@ -53,6 +53,11 @@ class BigIntType extends PGType {
         return Long.toString(((long) value)).getBytes(StandardCharsets.UTF_8);
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Object value) {
+        return writeLongAsText(buffer, (long) value);
+    }
+
     @Override
     public Object readBinaryValue(ByteBuf buffer, int valueLength) {
         assert valueLength == TYPE_LEN : "length should be " + TYPE_LEN + " because long is int64. Actual length: " +
@@ -45,6 +45,11 @@ class CharType extends PGType {
         return 5;
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Object value) {
+        return writeLongAsText(buffer, (byte) value);
+    }
+
     @Override
     public Object readBinaryValue(ByteBuf buffer, int valueLength) {
         assert valueLength == 1 : "char must have 1 byte";
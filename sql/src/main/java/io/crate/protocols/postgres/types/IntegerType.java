@@ -53,6 +53,11 @@ class IntegerType extends PGType {
         return Integer.toString(((int) value)).getBytes(StandardCharsets.UTF_8);
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Object value) {
+        return writeLongAsText(buffer, (int) value);
+    }
+
     @Override
     public Object readBinaryValue(ByteBuf buffer, int valueLength) {
         assert valueLength == TYPE_LEN : "length should be " + TYPE_LEN + " because int is int32. Actual length: " +
@@ -33,6 +33,7 @@ public abstract class PGType {
 
     static final int INT32_BYTE_SIZE = Integer.SIZE / 8;
     private static final Logger LOGGER = Loggers.getLogger(PGType.class);
+    private static final byte[] LONG_MIN_VALUE_TEXT = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.UTF_8);
 
     private final int oid;
     private final int typeLen;
@@ -87,6 +88,36 @@ public abstract class PGType {
         return INT32_BYTE_SIZE + bytes.length;
     }
 
+    /**
+     * Write the decimal text representation of the value into the buffer without creating an intermediate String.
+     * Same format as {@link #writeAsText(ByteBuf, Object)}.
+     */
+    static int writeLongAsText(ByteBuf buffer, long value) {
+        if (value == Long.MIN_VALUE) {
+            buffer.writeInt(LONG_MIN_VALUE_TEXT.length);
+            buffer.writeBytes(LONG_MIN_VALUE_TEXT);
+            return INT32_BYTE_SIZE + LONG_MIN_VALUE_TEXT.length;
+        }
+        long remaining = value < 0 ? -value : value;
+        int length = value < 0 ? 2 : 1;
+        for (long x = remaining; x >= 10; x /= 10) {
+            length++;
+        }
+        buffer.writeInt(length);
+        buffer.ensureWritable(length);
+        int start = buffer.writerIndex();
+        int pos = start + length - 1;
+        do {
+            buffer.setByte(pos--, '0' + (int) (remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            buffer.setByte(start, '-');
+        }
+        buffer.writerIndex(start + length);
+        return INT32_BYTE_SIZE + length;
+    }
+
     public Object readTextValue(ByteBuf buffer, int valueLength) {
         byte[] bytes = new byte[valueLength];
         buffer.readBytes(bytes);
@@ -52,6 +52,11 @@ class SmallIntType extends PGType {
         return Short.toString(((short) value)).getBytes(StandardCharsets.UTF_8);
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Object value) {
+        return writeLongAsText(buffer, (short) value);
+    }
+
     @Override
     public Object readBinaryValue(ByteBuf buffer, int valueLength) {
         assert
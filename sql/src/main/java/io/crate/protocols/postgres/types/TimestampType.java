@@ -50,6 +50,14 @@ class TimestampType extends PGType {
     // 1st msec where BC date becomes AD date
     private static final long FIRST_MSEC_AFTER_CHRIST = -62135596800000L;
 
+    // 1st msec of the year 10000, from there on the year has more than 4 digits
+    private static final long FIRST_MSEC_AFTER_YEAR_9999 = 253402300800000L;
+
+    private static final long MSECS_PER_DAY = 86_400_000L;
+
+    // length of the text representation created by the ISO_FORMATTER for years with 4 digits
+    private static final int ISO_TEXT_LENGTH = 26;
+
     // ISO is the default - postgres allows changing the format but that's currently not supported
 
     // For Golang if date is AD (after Christ), era abbreviation is not parsed.
@@ -117,6 +125,60 @@ class TimestampType extends PGType {
         return toCrateTimestamp(buffer.readDouble());
     }
 
+    /**
+     * Writes the same representation as the {@link #ISO_FORMATTER} directly into the buffer.
+     * Dates before Christ or after the year 9999 are rare and written using the formatters.
+     */
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Object value) {
+        long msecs = (long) value;
+        if (msecs < FIRST_MSEC_AFTER_CHRIST || msecs >= FIRST_MSEC_AFTER_YEAR_9999) {
+            return super.writeAsText(buffer, value);
+        }
+        long days = Math.floorDiv(msecs, MSECS_PER_DAY);
+        int msecOfDay = (int) Math.floorMod(msecs, MSECS_PER_DAY);
+
+        // civil date from days since epoch within the proleptic gregorian calendar; eras are 400 year cycles
+        long dayOfEpoch = days + 719468;
+        long era = (dayOfEpoch >= 0 ? dayOfEpoch : dayOfEpoch - 146096) / 146097;
+        int dayOfEra = (int) (dayOfEpoch - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153; // months starting with March
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+
+        buffer.writeInt(ISO_TEXT_LENGTH);
+        writeDigits(buffer, year, 4);
+        buffer.writeByte('-');
+        writeDigits(buffer, month, 2);
+        buffer.writeByte('-');
+        writeDigits(buffer, day, 2);
+        buffer.writeByte(' ');
+        writeDigits(buffer, msecOfDay / 3_600_000, 2);
+        buffer.writeByte(':');
+        writeDigits(buffer, (msecOfDay / 60_000) % 60, 2);
+        buffer.writeByte(':');
+        writeDigits(buffer, (msecOfDay / 1000) % 60, 2);
+        buffer.writeByte('.');
+        writeDigits(buffer, msecOfDay % 1000, 3);
+        buffer.writeByte('+');
+        buffer.writeByte('0');
+        buffer.writeByte('0');
+        return INT32_BYTE_SIZE + ISO_TEXT_LENGTH;
+    }
+
+    private static void writeDigits(ByteBuf buffer, int value, int numDigits) {
+        int divisor = 1;
+        for (int i = 1; i < numDigits; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.writeByte('0' + (value / divisor) % 10);
+        }
+    }
+
     @Override
     byte[] encodeAsUTF8Text(@Nonnull Object value) {
         long msecs = (long) value;
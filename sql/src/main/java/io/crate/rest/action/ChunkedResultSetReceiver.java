@@ -0,0 +1,246 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.SQLActionException;
+import io.crate.auth.user.ExceptionAuthorizedValidator;
+import io.crate.data.Row;
+import io.crate.expression.symbol.Field;
+import io.crate.expression.symbol.Symbols;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.util.List;
+
+import static io.crate.exceptions.SQLExceptions.createSQLActionException;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+
+/**
+ * ResultReceiver which writes the result as chunked HTTP response.
+ *
+ * The response has the same format as the one created by the {@link RestResultSetReceiver}, but rows are written
+ * to the channel once {@link #CHUNK_SIZE} bytes are buffered and flushed on every {@link #batchFinished()}.
+ * The status line and headers are sent together with the first chunk, so that failures which happen before
+ * can still be reported with a regular error response. Later failures abort the response by closing the connection.
+ */
+class ChunkedResultSetReceiver extends BaseResultReceiver {
+
+    private static final Logger LOGGER = Loggers.getLogger(ChunkedResultSetReceiver.class);
+
+    static final int CHUNK_SIZE = 16 * 1024;
+
+    private final ChannelHandlerContext ctx;
+    private final boolean keepAlive;
+    private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
+    private final boolean includeErrorTrace;
+    private final ResultToXContentBuilder.ValueWriter[] valueWriters;
+    private final long startTime;
+    private final Runnable onBatchFinished;
+    private final XContentBuilder xContentBuilder;
+    private final ResultToXContentBuilder builder;
+
+    private ByteBuf buffer;
+    private boolean headersSent = false;
+    private long rowCount;
+
+    /**
+     * @param onBatchFinished called after the rows of a batch have been flushed.
+     *                        It is responsible for resuming the execution.
+     */
+    ChunkedResultSetReceiver(ChannelHandlerContext ctx,
+                             boolean keepAlive,
+                             ExceptionAuthorizedValidator exceptionAuthorizedValidator,
+                             List<Field> outputFields,
+                             long startTime,
+                             boolean includeTypesOnResponse,
+                             boolean includeErrorTrace,
+                             Runnable onBatchFinished) throws IOException {
+        this.ctx = ctx;
+        this.keepAlive = keepAlive;
+        this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
+        this.includeErrorTrace = includeErrorTrace;
+        this.valueWriters = ResultToXContentBuilder.valueWriters(Symbols.typeView(outputFields));
+        this.startTime = startTime;
+        this.onBatchFinished = onBatchFinished;
+        this.buffer = ctx.alloc().buffer(CHUNK_SIZE);
+        this.xContentBuilder = new XContentBuilder(JsonXContent.jsonXContent, new BufferOutputStream());
+        this.builder = ResultToXContentBuilder.builder(xContentBuilder).cols(outputFields);
+        if (includeTypesOnResponse) {
+            builder.colTypes(outputFields);
+        }
+        builder.startRows();
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        if (ctx.channel().isActive() == false) {
+            throw new UncheckedIOException(new ClosedChannelException());
+        }
+        try {
+            builder.addRow(row, valueWriters);
+            rowCount++;
+            if (buffer.readableBytes() >= CHUNK_SIZE) {
+                writeChunk();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void batchFinished() {
+        try {
+            writeChunk();
+        } catch (Throwable t) {
+            fail(t);
+            return;
+        }
+        ctx.flush();
+        onBatchFinished.run();
+    }
+
+    @Override
+    public void allFinished(boolean interrupted) {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            builder.finishRows()
+                .rowCount(rowCount)
+                .duration(startTime)
+                .build();
+            writeChunk();
+        } catch (Throwable t) {
+            fail(t);
+            return;
+        }
+        releaseBuffer();
+        ChannelFuture future = ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+        if (keepAlive == false) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+        super.allFinished(interrupted);
+    }
+
+    @Override
+    public void fail(@Nonnull Throwable t) {
+        if (buffer == null) {
+            super.fail(t);
+            return;
+        }
+        releaseBuffer();
+        try {
+            if (headersSent) {
+                // The status line has already been sent, the only way left to signal the failure
+                // is to not terminate the chunked response.
+                LOGGER.debug("Aborting chunked response", t);
+                ctx.close();
+            } else {
+                sendErrorResponse(createSQLActionException(t, exceptionAuthorizedValidator));
+            }
+        } catch (Throwable e) {
+            LOGGER.error("Failed to send error response for failed request.", e, t);
+        } finally {
+            super.fail(t);
+        }
+    }
+
+    private void sendErrorResponse(SQLActionException e) throws IOException {
+        XContentBuilder errorBuilder = CrateThrowableRestResponse.toXContent(
+            JsonXContent.contentBuilder(), e, includeErrorTrace);
+        ByteBuf content = Unpooled.wrappedBuffer(BytesReference.toBytes(errorBuilder.bytes()));
+        HttpResponse response = new DefaultFullHttpResponse(
+            HTTP_1_1, HttpResponseStatus.valueOf(e.status().getStatus()), content);
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, XContentType.JSON.mediaType());
+        HttpUtil.setContentLength(response, content.readableBytes());
+        setConnectionHeader(response);
+        ChannelFuture future = ctx.writeAndFlush(response);
+        if (keepAlive == false) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    private void writeChunk() throws IOException {
+        xContentBuilder.flush();
+        if (headersSent == false) {
+            HttpResponse response = new DefaultHttpResponse(HTTP_1_1, HttpResponseStatus.OK);
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, XContentType.JSON.mediaType());
+            HttpUtil.setTransferEncodingChunked(response, true);
+            setConnectionHeader(response);
+            ctx.write(response);
+            headersSent = true;
+        }
+        if (buffer.isReadable()) {
+            ctx.write(new DefaultHttpContent(buffer));
+            buffer = ctx.alloc().buffer(CHUNK_SIZE);
+        }
+    }
+
+    private void setConnectionHeader(HttpResponse response) {
+        if (keepAlive == false) {
+            response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+        }
+    }
+
+    private void releaseBuffer() {
+        buffer.release();
+        buffer = null;
+    }
+
+    private class BufferOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+            buffer.writeByte(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            buffer.writeBytes(b, off, len);
+        }
+    }
+}
@@ -59,7 +59,11 @@ class CrateThrowableRestResponse extends RestResponse {
     }
 
     private static XContentBuilder convert(RestChannel channel, Throwable t) throws IOException {
-        XContentBuilder builder = channel.newBuilder().startObject()
+        return toXContent(channel.newBuilder(), t, channel.request().paramAsBoolean("error_trace", false));
+    }
+
+    static XContentBuilder toXContent(XContentBuilder builder, Throwable t, boolean errorTrace) throws IOException {
+        builder.startObject()
             .startObject("error");
 
         SQLActionException sqlActionException = null;
@@ -73,8 +77,7 @@ class CrateThrowableRestResponse extends RestResponse {
 
         builder.endObject();
 
-        if (t != null && channel.request().paramAsBoolean("error_trace", false)
-            && sqlActionException != null) {
+        if (t != null && errorTrace && sqlActionException != null) {
             builder.field("error_trace", ExceptionsHelper.stackTrace(t));
         }
         builder.endObject();
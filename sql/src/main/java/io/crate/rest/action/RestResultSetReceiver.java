@@ -24,6 +24,7 @@ package io.crate.rest.action;
 
 import io.crate.action.sql.BaseResultReceiver;
 import io.crate.expression.symbol.Field;
+import io.crate.expression.symbol.Symbols;
 import io.crate.breaker.RowAccounting;
 import io.crate.data.Row;
 import io.crate.auth.user.ExceptionAuthorizedValidator;
@@ -46,7 +47,7 @@ class RestResultSetReceiver extends BaseResultReceiver {
 
     private final RestChannel channel;
     private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
-    private final List<Field> outputFields;
+    private final ResultToXContentBuilder.ValueWriter[] valueWriters;
     private final ResultToXContentBuilder builder;
     private long startTime;
     private final RowAccounting rowAccounting;
@@ -60,7 +61,7 @@ class RestResultSetReceiver extends BaseResultReceiver {
                           boolean includeTypesOnResponse) {
         this.channel = channel;
         this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
-        this.outputFields = outputFields;
+        this.valueWriters = ResultToXContentBuilder.valueWriters(Symbols.typeView(outputFields));
         this.startTime = startTime;
         this.rowAccounting = rowAccounting;
         ResultToXContentBuilder tmpBuilder;
@@ -83,7 +84,7 @@ class RestResultSetReceiver extends BaseResultReceiver {
     public void setNextRow(Row row) {
         try {
             rowAccounting.accountForAndMaybeBreak(row);
-            builder.addRow(row, outputFields.size());
+            builder.addRow(row, valueWriters);
             rowCount++;
         } catch (IOException e) {
             fail(e);
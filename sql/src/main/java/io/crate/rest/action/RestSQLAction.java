@@ -43,6 +43,7 @@ import io.crate.exceptions.SQLExceptions;
 import io.crate.exceptions.SQLParseException;
 import io.crate.expression.symbol.Field;
 import io.crate.expression.symbol.Symbols;
+import io.crate.plugin.PipelineRegistry;
 import io.crate.rest.CrateRestMainAction;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import org.elasticsearch.client.node.NodeClient;
@@ -52,6 +53,7 @@ import org.elasticsearch.common.inject.Provider;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.http.HttpTransportSettings;
 import org.elasticsearch.rest.BaseRestHandler;
 import org.elasticsearch.rest.BytesRestResponse;
 import org.elasticsearch.rest.RestChannel;
@@ -68,6 +70,7 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.function.Function;
 
 import static io.crate.action.sql.Session.UNNAMED;
 
@@ -88,13 +91,23 @@ public class RestSQLAction extends BaseRestHandler {
                          RestController controller,
                          SQLOperations sqlOperations,
                          Provider<UserManager> userManagerProvider,
-                         CrateCircuitBreakerService breakerService) {
+                         CrateCircuitBreakerService breakerService,
+                         PipelineRegistry pipelineRegistry) {
         super(settings);
         this.sqlOperations = sqlOperations;
         this.userManager = userManagerProvider.get();
         this.circuitBreaker = breakerService.getBreaker(CrateCircuitBreakerService.QUERY);
 
         controller.registerHandler(RestRequest.Method.POST, "/_sql", this);
+
+        int maxContentLength = (int) Math.min(
+            HttpTransportSettings.SETTING_HTTP_MAX_CONTENT_LENGTH.get(settings).getBytes(), Integer.MAX_VALUE);
+        // streamed requests must pass the authentication, so the handler is placed behind it if it exists
+        pipelineRegistry.addAfter(new PipelineRegistry.ChannelPipelineItem(
+            "auth_handler",
+            "sql_stream_handler",
+            () -> new StreamingSQLHandler(this, maxContentLength)
+        ), "aggregator");
     }
 
     private static void sendBadRequest(RestChannel channel, String errorMsg) throws IOException {
@@ -143,11 +156,15 @@ public class RestSQLAction extends BaseRestHandler {
 
     @Override
     protected Set<String> responseParams() {
-        return ImmutableSet.of("types");
+        return ImmutableSet.of("types", StreamingSQLHandler.PARAM_STREAM);
     }
 
     private static Set<Option> toOptions(RestRequest request) {
-        String user = request.header(REQUEST_HEADER_USER);
+        return toOptions(request::header);
+    }
+
+    private static Set<Option> toOptions(Function<String, String> headers) {
+        String user = headers.apply(REQUEST_HEADER_USER);
         if (user != null && !user.isEmpty() && user.toLowerCase(Locale.ENGLISH).contains("odbc")) {
             return EnumSet.of(Option.ALLOW_QUOTED_SUBSCRIPT);
         }
@@ -156,12 +173,16 @@ public class RestSQLAction extends BaseRestHandler {
 
     @VisibleForTesting
     User userFromRequest(RestRequest request) {
+        return userFromHeaders(request::header);
+    }
+
+    private User userFromHeaders(Function<String, String> headers) {
         String username = CrateRestMainAction.extractCredentialsFromHttpBasicAuthHeader(
-            request.header(HttpHeaderNames.AUTHORIZATION.toString())).v1();
+            headers.apply(HttpHeaderNames.AUTHORIZATION.toString())).v1();
 
         // Fallback to deprecated setting
         if (username == null || username.isEmpty()) {
-            username = request.header(AuthSettings.HTTP_HEADER_USER);
+            username = headers.apply(AuthSettings.HTTP_HEADER_USER);
         }
 
         // Fallback to trusted user from configuration
@@ -171,6 +192,18 @@ public class RestSQLAction extends BaseRestHandler {
         return userManager.findUser(username);
     }
 
+    /**
+     * Creates a session for a request which is handled by the {@link StreamingSQLHandler}.
+     * No default limit is applied, as the result is never held in memory as a whole.
+     */
+    Session createStreamingSession(Function<String, String> headers) {
+        return sqlOperations.createSession(
+            headers.apply(REQUEST_HEADER_SCHEMA),
+            userFromHeaders(headers),
+            toOptions(headers),
+            0);
+    }
+
     private RestChannelConsumer executeSimpleRequest(SQLXContentSourceContext context, final RestRequest request) {
         Session session = sqlOperations.createSession(
             request.header(REQUEST_HEADER_SCHEMA),
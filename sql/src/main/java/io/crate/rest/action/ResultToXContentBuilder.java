@@ -24,8 +24,19 @@ package io.crate.rest.action;
 
 import io.crate.expression.symbol.Field;
 import io.crate.data.Row;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
 import io.crate.types.CollectionType;
 import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.IpType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.rest.RestChannel;
 
@@ -45,15 +56,27 @@ class ResultToXContentBuilder {
         static final String ERROR_MESSAGE = "error_message";
     }
 
+    @FunctionalInterface
+    interface ValueWriter {
+
+        void write(XContentBuilder builder, Object value) throws IOException;
+    }
+
+    private static final ValueWriter GENERIC_WRITER = XContentBuilder::value;
+
     private final XContentBuilder builder;
 
-    private ResultToXContentBuilder(RestChannel channel) throws IOException {
-        builder = channel.newBuilder();
+    private ResultToXContentBuilder(XContentBuilder builder) throws IOException {
+        this.builder = builder;
         builder.startObject();
     }
 
     static ResultToXContentBuilder builder(RestChannel channel) throws IOException {
-        return new ResultToXContentBuilder(channel);
+        return new ResultToXContentBuilder(channel.newBuilder());
+    }
+
+    static ResultToXContentBuilder builder(XContentBuilder builder) throws IOException {
+        return new ResultToXContentBuilder(builder);
     }
 
     ResultToXContentBuilder cols(List<Field> fields) throws IOException {
@@ -121,6 +144,66 @@ class ResultToXContentBuilder {
         return this;
     }
 
+    /**
+     * Like {@link #addRow(Row, int)} but uses the writers created by {@link #valueWriters(List)} for the values,
+     * which avoids the lookup of the writer by the class of every value.
+     */
+    ResultToXContentBuilder addRow(Row row, ValueWriter[] valueWriters) throws IOException {
+        builder.startArray();
+        for (int j = 0; j < valueWriters.length; j++) {
+            Object value = row.get(j);
+            if (value == null) {
+                builder.nullValue();
+            } else {
+                valueWriters[j].write(builder, value);
+            }
+        }
+        builder.endArray();
+        return this;
+    }
+
+    /**
+     * Creates a writer for each column which writes its values without converting them to an intermediate String.
+     */
+    static ValueWriter[] valueWriters(List<? extends DataType> columnTypes) {
+        ValueWriter[] writers = new ValueWriter[columnTypes.size()];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = valueWriter(columnTypes.get(i));
+        }
+        return writers;
+    }
+
+    private static ValueWriter valueWriter(DataType type) {
+        switch (type.id()) {
+            case ByteType.ID:
+            case ShortType.ID:
+            case IntegerType.ID:
+            case LongType.ID:
+            case TimestampType.ID:
+                return (b, v) -> b.value(((Number) v).longValue());
+            case FloatType.ID:
+                return (b, v) -> b.value(((Number) v).floatValue());
+            case DoubleType.ID:
+                return (b, v) -> b.value(((Number) v).doubleValue());
+            case BooleanType.ID:
+                return (b, v) -> b.value((boolean) v);
+            case StringType.ID:
+            case IpType.ID:
+                return ResultToXContentBuilder::writeString;
+            default:
+                return GENERIC_WRITER;
+        }
+    }
+
+    private static void writeString(XContentBuilder builder, Object value) throws IOException {
+        if (value instanceof BytesRef) {
+            builder.utf8Value((BytesRef) value);
+        } else {
+            // some sources provide Strings instead of BytesRefs, e.g. the ESGetTask
+            builder.value(value);
+        }
+    }
+
     /**
      * rowCount() can override the internal row counter that is increased upon every addRow() call
      * @param rowCount
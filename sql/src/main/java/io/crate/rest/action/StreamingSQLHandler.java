@@ -0,0 +1,304 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import io.crate.action.sql.Session;
+import io.crate.action.sql.parser.SQLXContentSourceContext;
+import io.crate.action.sql.parser.SQLXContentSourceParser;
+import io.crate.expression.symbol.Field;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.ReferenceCountUtil;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.logging.Loggers;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.crate.action.sql.Session.UNNAMED;
+import static io.netty.handler.codec.http.HttpResponseStatus.CONTINUE;
+import static io.netty.handler.codec.http.HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+
+/**
+ * Handles {@code POST /_sql?stream=true} requests which return a result set.
+ *
+ * The rows are written as HTTP chunks by a {@link ChunkedResultSetReceiver} while the result is consumed, so that
+ * neither the time until the first bytes are sent nor the memory used depend on the size of the result.
+ * The statement is executed with a fetch size of {@link #FETCH_SIZE} rows. After each batch the execution is
+ * suspended and only resumed once the channel is writable again, so a slow client throttles the query.
+ *
+ * Bulk requests, statements without a result set and requests which fail before the execution starts are
+ * passed on unchanged and handled by the {@link RestSQLAction}.
+ *
+ * While a response is streamed, reading from the channel is disabled and further pipelined requests are queued
+ * until the response is complete.
+ */
+public class StreamingSQLHandler extends SimpleChannelInboundHandler<Object> {
+
+    private static final Logger LOGGER = Loggers.getLogger(StreamingSQLHandler.class);
+
+    static final String PARAM_STREAM = "stream";
+    static final int FETCH_SIZE = 10_000;
+
+    private static final String SQL_ENDPOINT = "/_sql";
+    private static final String PORTAL_NAME = "stream";
+
+    private final RestSQLAction restSQLAction;
+    private final int maxContentLength;
+    private final ArrayDeque<Object> pendingMessages = new ArrayDeque<>();
+
+    private HttpRequest currentRequest;
+    private CompositeByteBuf currentContent;
+    private boolean discardContent = false;
+
+    private Session session;
+    private ChunkedResultSetReceiver receiver;
+    private boolean awaitingWritability = false;
+
+    StreamingSQLHandler(RestSQLAction restSQLAction, int maxContentLength) {
+        super(false);
+        this.restSQLAction = restSQLAction;
+        this.maxContentLength = maxContentLength;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (receiver != null) {
+            pendingMessages.add(msg);
+            return;
+        }
+        if (msg instanceof HttpRequest) {
+            HttpRequest request = (HttpRequest) msg;
+            if (isStreamingRequest(request) == false) {
+                ctx.fireChannelRead(msg);
+                return;
+            }
+            currentRequest = request;
+            currentContent = ctx.alloc().compositeBuffer();
+            if (HttpUtil.is100ContinueExpected(request)) {
+                HttpUtil.set100ContinueExpected(request, false);
+                ctx.writeAndFlush(new DefaultFullHttpResponse(HTTP_1_1, CONTINUE));
+            }
+        }
+        if (msg instanceof HttpContent) {
+            if (currentRequest == null) {
+                if (discardContent) {
+                    discardContent = !(msg instanceof LastHttpContent);
+                    ReferenceCountUtil.release(msg);
+                } else {
+                    ctx.fireChannelRead(msg);
+                }
+                return;
+            }
+            HttpContent chunk = (HttpContent) msg;
+            if (currentContent.readableBytes() + chunk.content().readableBytes() > maxContentLength) {
+                discardContent = !(msg instanceof LastHttpContent);
+                chunk.release();
+                resetCurrentRequest();
+                sendContentTooLarge(ctx);
+                return;
+            }
+            currentContent.addComponent(true, chunk.content());
+            if (msg instanceof LastHttpContent) {
+                HttpRequest request = currentRequest;
+                ByteBuf content = currentContent;
+                currentRequest = null;
+                currentContent = null;
+                handleRequest(ctx, request, content);
+            }
+        } else if (!(msg instanceof HttpRequest)) {
+            ctx.fireChannelRead(msg);
+        }
+    }
+
+    private static boolean isStreamingRequest(HttpRequest request) {
+        if (request.method().equals(HttpMethod.POST) == false) {
+            return false;
+        }
+        QueryStringDecoder decoder = new QueryStringDecoder(request.uri());
+        return decoder.path().equals(SQL_ENDPOINT) && paramAsBoolean(decoder, PARAM_STREAM);
+    }
+
+    private static boolean paramAsBoolean(QueryStringDecoder decoder, String name) {
+        List<String> values = decoder.parameters().get(name);
+        return values != null && values.isEmpty() == false && "true".equals(values.get(0));
+    }
+
+    private void handleRequest(ChannelHandlerContext ctx, HttpRequest request, ByteBuf content) {
+        long startTime = System.nanoTime();
+        SQLXContentSourceContext context = new SQLXContentSourceContext();
+        Session newSession = null;
+        List<Field> outputFields = null;
+        try {
+            new SQLXContentSourceParser(context).parseSource(new BytesArray(ByteBufUtil.getBytes(content)));
+            Object[][] bulkArgs = context.bulkArgs();
+            if (bulkArgs == null || bulkArgs.length == 0) {
+                newSession = restSQLAction.createStreamingSession(request.headers()::get);
+                newSession.parse(UNNAMED, context.stmt(), Collections.emptyList());
+                List<Object> args = context.args() == null ? Collections.emptyList() : Arrays.asList(context.args());
+                newSession.bind(PORTAL_NAME, UNNAMED, args, null);
+                outputFields = newSession.describe('P', PORTAL_NAME).getFields();
+            }
+        } catch (Throwable t) {
+            LOGGER.trace("Passing on request which failed before the execution started", t);
+            outputFields = null;
+        }
+        if (outputFields == null) {
+            if (newSession != null) {
+                newSession.close();
+            }
+            ctx.fireChannelRead(request);
+            ctx.fireChannelRead(new DefaultLastHttpContent(content));
+            return;
+        }
+        content.release();
+
+        QueryStringDecoder decoder = new QueryStringDecoder(request.uri());
+        try {
+            receiver = new ChunkedResultSetReceiver(
+                ctx,
+                HttpUtil.isKeepAlive(request),
+                newSession.sessionContext(),
+                outputFields,
+                startTime,
+                paramAsBoolean(decoder, "types"),
+                paramAsBoolean(decoder, "error_trace"),
+                () -> ctx.executor().execute(() -> resumeIfWritable(ctx))
+            );
+        } catch (Throwable t) {
+            LOGGER.error("Failed to create response for streaming request", t);
+            newSession.close();
+            ctx.close();
+            return;
+        }
+        session = newSession;
+        ctx.channel().config().setAutoRead(false);
+        receiver.completionFuture().whenComplete((result, t) -> ctx.executor().execute(() -> finishStreaming(ctx)));
+        execute();
+    }
+
+    /**
+     * Starts the execution or resumes the suspended execution of the statement bound to {@link #PORTAL_NAME}
+     */
+    private void execute() {
+        if (session == null) {
+            return;
+        }
+        try {
+            session.execute(PORTAL_NAME, FETCH_SIZE, receiver);
+            session.sync();
+        } catch (Throwable t) {
+            receiver.fail(t);
+        }
+    }
+
+    private void resumeIfWritable(ChannelHandlerContext ctx) {
+        if (ctx.channel().isWritable()) {
+            execute();
+        } else {
+            awaitingWritability = true;
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (awaitingWritability && ctx.channel().isWritable()) {
+            awaitingWritability = false;
+            execute();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    private void finishStreaming(ChannelHandlerContext ctx) {
+        receiver = null;
+        awaitingWritability = false;
+        closeSession();
+        if (ctx.channel().isActive() == false) {
+            return;
+        }
+        ctx.channel().config().setAutoRead(true);
+        while (receiver == null && pendingMessages.isEmpty() == false) {
+            try {
+                channelRead0(ctx, pendingMessages.poll());
+            } catch (Throwable t) {
+                ctx.fireExceptionCaught(t);
+            }
+        }
+    }
+
+    private void closeSession() {
+        if (session != null) {
+            Session s = session;
+            session = null;
+            // finishes the receiver if the execution is suspended
+            s.close();
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        awaitingWritability = false;
+        closeSession();
+        resetCurrentRequest();
+        for (Object msg : pendingMessages) {
+            ReferenceCountUtil.release(msg);
+        }
+        pendingMessages.clear();
+        ctx.fireChannelInactive();
+    }
+
+    private void resetCurrentRequest() {
+        currentRequest = null;
+        if (currentContent != null) {
+            currentContent.release();
+            currentContent = null;
+        }
+    }
+
+    private static void sendContentTooLarge(ChannelHandlerContext ctx) {
+        HttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, REQUEST_ENTITY_TOO_LARGE, Unpooled.EMPTY_BUFFER);
+        HttpUtil.setContentLength(response, 0);
+        response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+        ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+    }
+}
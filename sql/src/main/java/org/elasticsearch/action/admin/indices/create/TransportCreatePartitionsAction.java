@@ -26,6 +26,9 @@ import com.carrotsearch.hppc.cursors.ObjectObjectCursor;
 import com.google.common.base.Charsets;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
+import io.crate.concurrent.CompletableFutures;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.metadata.IndexParts;
 import io.crate.metadata.PartitionName;
 import org.apache.lucene.util.CollectionUtil;
 import org.elasticsearch.ElasticsearchException;
@@ -85,10 +88,18 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.elasticsearch.cluster.metadata.IndexMetaData.INDEX_NUMBER_OF_SHARDS_SETTING;
 import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_WAIT_FOR_ACTIVE_SHARDS;
@@ -99,6 +110,10 @@ import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_WAIT_FOR_
  * <p>
  * This is more or less a more optimized version of {@link MetaDataCreateIndexService}
  * <p>
+ * Requests which are pending on the master at the same time are coalesced: the partitions of all of them are
+ * created by a single cluster state update with a single reroute, and a partition which is already being created
+ * by one request isn't requested again by another one.
+ * <p>
  * It also has some limitations:
  * <p>
  * - all indices must actually have the same name pattern (only the first index is used to figure out which templates to use),
@@ -117,14 +132,35 @@ public class TransportCreatePartitionsAction
     private final NamedXContentRegistry xContentRegistry;
     private final Environment environment;
     private final BulkActiveShardsObserver activeShardsObserver;
+    private final ConcurrentMap<String, CompletableFuture<CreatePartitionsResponse>> pendingPartitions =
+        new ConcurrentHashMap<>();
+
+    /**
+     * All tasks which are pending when the executor runs are applied together. The partitions are grouped by their
+     * table, so that templates and mappings are only resolved once per table, and the routing table is only
+     * rerouted once for all of them.
+     * A failure only fails the tasks which contain partitions of the same table.
+     */
     private final ClusterStateTaskExecutor<CreatePartitionsRequest> executor = (currentState, tasks) -> {
         ClusterStateTaskExecutor.ClusterTasksResult.Builder<CreatePartitionsRequest> builder = ClusterStateTaskExecutor.ClusterTasksResult.builder();
-        for (CreatePartitionsRequest request : tasks) {
+        Map<CreatePartitionsRequest, Exception> failures = new IdentityHashMap<>();
+        List<String> createdIndices = new ArrayList<>();
+        for (IndicesOfTable indicesOfTable : groupByTable(tasks)) {
             try {
-                currentState = executeCreateIndices(currentState, request);
-                builder.success(request);
+                currentState = addIndices(currentState, indicesOfTable.indices, createdIndices);
             } catch (Exception e) {
-                builder.failure(request, e);
+                for (CreatePartitionsRequest request : indicesOfTable.requests) {
+                    failures.putIfAbsent(request, e);
+                }
+            }
+        }
+        currentState = reroute(currentState, createdIndices);
+        for (CreatePartitionsRequest request : tasks) {
+            Exception failure = failures.get(request);
+            if (failure == null) {
+                builder.success(request);
+            } else {
+                builder.failure(request, failure);
             }
         }
         return builder.build(currentState);
@@ -171,6 +207,54 @@ public class TransportCreatePartitionsAction
             return;
         }
 
+        // Only create the partitions which aren't already being created by a concurrent request,
+        // and respond once the partitions created by the other requests are available as well.
+        CompletableFuture<CreatePartitionsResponse> creation = new CompletableFuture<>();
+        List<String> partitionsToCreate = new ArrayList<>(request.indices().size());
+        List<CompletableFuture<CreatePartitionsResponse>> creations = new ArrayList<>();
+        creations.add(creation);
+        for (String index : request.indices()) {
+            CompletableFuture<CreatePartitionsResponse> pendingCreation = pendingPartitions.putIfAbsent(index, creation);
+            if (pendingCreation == null) {
+                partitionsToCreate.add(index);
+            } else if (pendingCreation != creation && !creations.contains(pendingCreation)) {
+                creations.add(pendingCreation);
+            }
+        }
+        CompletableFutures.allAsList(creations).whenComplete((responses, t) -> {
+            if (t == null) {
+                boolean acknowledged = responses.stream().allMatch(CreatePartitionsResponse::isAcknowledged);
+                listener.onResponse(new CreatePartitionsResponse(acknowledged));
+            } else {
+                Throwable cause = SQLExceptions.unwrap(t);
+                listener.onFailure(cause instanceof Exception ? (Exception) cause : new ElasticsearchException(cause));
+            }
+        });
+        if (partitionsToCreate.isEmpty()) {
+            creation.complete(new CreatePartitionsResponse(true));
+            return;
+        }
+        creation.whenComplete((response, t) -> {
+            for (String index : partitionsToCreate) {
+                pendingPartitions.remove(index, creation);
+            }
+        });
+        CreatePartitionsRequest createRequest = request;
+        if (partitionsToCreate.size() < request.indices().size()) {
+            createRequest = new CreatePartitionsRequest(partitionsToCreate, request.jobId())
+                .timeout(request.timeout())
+                .masterNodeTimeout(request.masterNodeTimeout());
+        }
+        try {
+            createPartitions(createRequest, state, ActionListener.wrap(creation::complete, creation::completeExceptionally));
+        } catch (Exception e) {
+            creation.completeExceptionally(e);
+        }
+    }
+
+    private void createPartitions(final CreatePartitionsRequest request,
+                                  final ClusterState state,
+                                  final ActionListener<CreatePartitionsResponse> listener) {
         createIndices(request, ActionListener.wrap(response -> {
             if (response.isAcknowledged()) {
                 activeShardsObserver.waitForActiveShards(request.indices(), ActiveShardCount.DEFAULT, request.ackTimeout(),
@@ -202,10 +286,25 @@ public class TransportCreatePartitionsAction
      */
     ClusterState executeCreateIndices(ClusterState currentState, CreatePartitionsRequest request) throws Exception {
         List<String> indicesToCreate = new ArrayList<>(request.indices().size());
-        List<String> removalReasons = new ArrayList<>(request.indices().size());
-        List<Index> createdIndices = new ArrayList<>(request.indices().size());
+        currentState = addIndices(currentState, request.indices(), indicesToCreate);
+        return reroute(currentState, indicesToCreate);
+    }
+
+    /**
+     * Adds the metaData of the indices which don't exist yet to the cluster state.
+     * The routing table isn't changed, see {@link #reroute(ClusterState, List)}.
+     *
+     * @param indices the indices to create, all of them must belong to the same table
+     * @param addedIndices the names of the added indices are added to this list
+     */
+    private ClusterState addIndices(ClusterState currentState,
+                                    Collection<String> indices,
+                                    List<String> addedIndices) throws Exception {
+        List<String> indicesToCreate = new ArrayList<>(indices.size());
+        List<String> removalReasons = new ArrayList<>(indices.size());
+        List<Index> createdIndices = new ArrayList<>(indices.size());
         try {
-            validateAndFilterExistingIndices(currentState, indicesToCreate, request);
+            validateAndFilterExistingIndices(currentState, indicesToCreate, indices);
             if (indicesToCreate.isEmpty()) {
                 return currentState;
             }
@@ -215,11 +314,11 @@ public class TransportCreatePartitionsAction
             Map<String, AliasMetaData> templatesAliases = new HashMap<>();
             List<String> templateNames = new ArrayList<>();
 
-            List<IndexTemplateMetaData> templates = findTemplates(request, currentState);
+            List<IndexTemplateMetaData> templates = findTemplates(indicesToCreate, currentState);
             applyTemplates(customs, mappings, templatesAliases, templateNames, templates);
             File mappingsDir = new File(environment.configFile().toFile(), "mappings");
             if (mappingsDir.isDirectory()) {
-                addMappingFromMappingsFile(mappings, mappingsDir, request);
+                addMappingFromMappingsFile(mappings, mappingsDir, indicesToCreate);
             }
 
             MetaData.Builder newMetaDataBuilder = MetaData.builder(currentState.metaData());
@@ -300,15 +399,8 @@ public class TransportCreatePartitionsAction
             }
 
             MetaData newMetaData = newMetaDataBuilder.build();
-
-            ClusterState updatedState = ClusterState.builder(currentState).metaData(newMetaData).build();
-            RoutingTable.Builder routingTableBuilder = RoutingTable.builder(updatedState.routingTable());
-            for (String index : indicesToCreate) {
-                routingTableBuilder.addAsNew(updatedState.metaData().index(index));
-            }
-            updatedState = allocationService.reroute(
-                ClusterState.builder(updatedState).routingTable(routingTableBuilder.build()).build(), "bulk-index-creation");
-            return updatedState;
+            addedIndices.addAll(indicesToCreate);
+            return ClusterState.builder(currentState).metaData(newMetaData).build();
         } finally {
             for (int i = 0; i < createdIndices.size(); i++) {
                 // Index was already partially created - need to clean up
@@ -321,6 +413,43 @@ public class TransportCreatePartitionsAction
         }
     }
 
+    private ClusterState reroute(ClusterState currentState, List<String> createdIndices) {
+        if (createdIndices.isEmpty()) {
+            return currentState;
+        }
+        RoutingTable.Builder routingTableBuilder = RoutingTable.builder(currentState.routingTable());
+        for (String index : createdIndices) {
+            routingTableBuilder.addAsNew(currentState.metaData().index(index));
+        }
+        return allocationService.reroute(
+            ClusterState.builder(currentState).routingTable(routingTableBuilder.build()).build(), "bulk-index-creation");
+    }
+
+    /**
+     * Groups the indices of the requests by the table they belong to, removing duplicates.
+     * Indices which aren't partitions are grouped per request.
+     */
+    private static Collection<IndicesOfTable> groupByTable(List<CreatePartitionsRequest> requests) {
+        Map<Object, IndicesOfTable> indicesByTable = new LinkedHashMap<>();
+        for (CreatePartitionsRequest request : requests) {
+            for (String index : request.indices()) {
+                Object table = IndexParts.isPartitioned(index) ? PartitionName.templateName(index) : request;
+                IndicesOfTable indicesOfTable = indicesByTable.computeIfAbsent(table, k -> new IndicesOfTable());
+                indicesOfTable.indices.add(index);
+                if (!indicesOfTable.requests.contains(request)) {
+                    indicesOfTable.requests.add(request);
+                }
+            }
+        }
+        return indicesByTable.values();
+    }
+
+    private static class IndicesOfTable {
+
+        private final Set<String> indices = new LinkedHashSet<>();
+        private final List<CreatePartitionsRequest> requests = new ArrayList<>();
+    }
+
     private void createIndices(final CreatePartitionsRequest request,
                                final ActionListener<ClusterStateUpdateResponse> listener) {
         clusterService.submitStateUpdateTask(
@@ -342,8 +471,8 @@ public class TransportCreatePartitionsAction
         );
     }
 
-    private void addMappingFromMappingsFile(Map<String, Map<String, Object>> mappings, File mappingsDir, CreatePartitionsRequest request) {
-        for (String index : request.indices()) {
+    private void addMappingFromMappingsFile(Map<String, Map<String, Object>> mappings, File mappingsDir, List<String> indices) {
+        for (String index : indices) {
             // first index level
             File indexMappingsDir = new File(mappingsDir, index);
             if (indexMappingsDir.isDirectory()) {
@@ -360,8 +489,8 @@ public class TransportCreatePartitionsAction
 
     private void validateAndFilterExistingIndices(ClusterState currentState,
                                                   List<String> indicesToCreate,
-                                                  CreatePartitionsRequest request) {
-        for (String index : request.indices()) {
+                                                  Collection<String> indices) {
+        for (String index : indices) {
             try {
                 MetaDataCreateIndexService.validateIndexName(index, currentState);
                 indicesToCreate.add(index);
@@ -465,9 +594,9 @@ public class TransportCreatePartitionsAction
         }
     }
 
-    private List<IndexTemplateMetaData> findTemplates(CreatePartitionsRequest request, ClusterState state) {
+    private List<IndexTemplateMetaData> findTemplates(List<String> indices, ClusterState state) {
         List<IndexTemplateMetaData> templates = new ArrayList<>();
-        String firstIndex = request.indices().iterator().next();
+        String firstIndex = indices.get(0);
 
 
         // note: only use the first index name to see if template matches.
@@ -0,0 +1,120 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.data.Bucket;
+import io.crate.plugin.SQLPlugin;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.TestingBatchIterators;
+import io.crate.testing.TestingRowConsumer;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class QueryResultCacheTest extends CrateDummyClusterServiceUnitTest {
+
+    private QueryResultCache createCache(String size) {
+        Set<Setting<?>> settings = new HashSet<>();
+        settings.addAll(ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        settings.addAll(new SQLPlugin(Settings.EMPTY).getSettings());
+        ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, settings);
+        CrateCircuitBreakerService breakerService = new CrateCircuitBreakerService(
+            Settings.EMPTY, clusterSettings, new HierarchyCircuitBreakerService(Settings.EMPTY, clusterSettings));
+        return new QueryResultCache(
+            Settings.builder().put(QueryResultCache.SIZE_SETTING.getKey(), size).build(),
+            clusterService,
+            breakerService);
+    }
+
+    private static QueryResultCache.Key key(String statement) {
+        return new QueryResultCache.Key(statement, new Object[0], null, "doc", 0, Collections.emptyMap());
+    }
+
+    private static void consume(QueryResultCache cache, QueryResultCache.Key key, int numRows) throws Exception {
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        cache.cachingConsumer(key, Collections.singletonList(DataTypes.INTEGER), consumer)
+            .accept(TestingBatchIterators.range(0, numRows), null);
+        consumer.getResult();
+    }
+
+    @Test
+    public void testResultIsCachedOnceAllRowsHaveBeenConsumed() throws Exception {
+        QueryResultCache cache = createCache("1mb");
+        QueryResultCache.Key key = key("SELECT x FROM t");
+        assertThat(cache.get(key), nullValue());
+
+        consume(cache, key, 10);
+
+        Bucket result = cache.get(key);
+        assertThat(result, notNullValue());
+        assertThat(result.size(), is(10));
+        assertThat(cache.hits(), is(1L));
+        assertThat(cache.misses(), is(1L));
+        assertThat(cache.numEntries(), is(1));
+        assertThat(cache.sizeInBytes() > 0, is(true));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResultIsEvicted() throws Exception {
+        QueryResultCache cache = createCache("1mb");
+        consume(cache, key("SELECT x FROM t"), 10);
+        long entrySize = cache.sizeInBytes();
+
+        cache = createCache(entrySize * 2 + "b");
+        QueryResultCache.Key key1 = key("SELECT x FROM t1");
+        QueryResultCache.Key key2 = key("SELECT x FROM t2");
+        QueryResultCache.Key key3 = key("SELECT x FROM t3");
+        consume(cache, key1, 10);
+        consume(cache, key2, 10);
+        assertThat(cache.get(key1), notNullValue());
+
+        consume(cache, key3, 10);
+        assertThat(cache.numEntries(), is(2));
+        assertThat(cache.evictions(), is(1L));
+        assertThat(cache.get(key2), nullValue());
+        assertThat(cache.get(key1), notNullValue());
+        assertThat(cache.get(key3), notNullValue());
+    }
+
+    @Test
+    public void testResultWhichExceedsTheCacheSizeIsNotCached() throws Exception {
+        QueryResultCache cache = createCache("100b");
+        QueryResultCache.Key key = key("SELECT x FROM t");
+        consume(cache, key, 100);
+
+        assertThat(cache.get(key), nullValue());
+        assertThat(cache.sizeInBytes(), is(0L));
+    }
+}
@@ -78,6 +78,14 @@ public class AlterTableAddColumnAnalyzerTest extends CrateDummyClusterServiceUni
         e.analyze("alter table users add column index ft_foo using fulltext (name)");
     }
 
+    @Test
+    public void testAddColumnWithTrigramIndex() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage(
+            "Adding a column with a trigram index using ALTER TABLE ADD COLUMN is not supported");
+        e.analyze("alter table users add column message string index using trigram");
+    }
+
     @Test
     public void testAddColumnThatExistsAlready() throws Exception {
         expectedException.expect(IllegalArgumentException.class);
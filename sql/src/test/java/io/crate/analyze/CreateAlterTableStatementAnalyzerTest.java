@@ -356,6 +356,39 @@ public class CreateAlterTableStatementAnalyzerTest extends CrateDummyClusterServ
         assertThat(contentMapping.get("analyzer"), is("german"));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateTableWithTrigramIndex() throws Exception {
+        CreateTableAnalyzedStatement analysis = e.analyze(
+            "create table foo (id integer primary key, message string INDEX using trigram)");
+
+        Map<String, Object> mappingProperties = analysis.mappingProperties();
+        Map<String, Object> messageMapping = (Map<String, Object>) mappingProperties.get("message");
+
+        assertThat(messageMapping.get("type"), is("keyword"));
+        Map<String, Object> fields = (Map<String, Object>) messageMapping.get("fields");
+        assertThat(((Map<String, Object>) fields.get("trigram")).get("analyzer"), is("crate_trigram"));
+        assertThat(analysis.tableParameter().settings().get("index.analysis.tokenizer.crate_trigram.type"), is("ngram"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateTableWithTrigramIndexMethodIsCaseInsensitive() throws Exception {
+        CreateTableAnalyzedStatement analysis = e.analyze(
+            "create table foo (id integer primary key, message string INDEX using \"TRIGRAM\")");
+
+        Map<String, Object> messageMapping = (Map<String, Object>) analysis.mappingProperties().get("message");
+        Map<String, Object> fields = (Map<String, Object>) messageMapping.get("fields");
+        assertThat(((Map<String, Object>) fields.get("trigram")).get("analyzer"), is("crate_trigram"));
+    }
+
+    @Test
+    public void testCreateTableWithTrigramIndexOnNonStringColumn() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("INDEX USING TRIGRAM cannot be used on columns of type \"integer\"");
+        e.analyze("create table foo (id integer INDEX using trigram)");
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testCreateTableWithAnalyzerParameter() throws Exception {
@@ -0,0 +1,122 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.exceptions.TableAlreadyExistsException;
+import io.crate.exceptions.UnsupportedFeatureException;
+import io.crate.metadata.view.MaterializedViewDefinition;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class CreateMaterializedViewAnalyzerTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+
+    @Before
+    public void prepare() throws Exception {
+        e = SQLExecutor.builder(clusterService)
+            .addTable("create table doc.visits (" +
+                      "   day timestamp not null," +
+                      "   country string not null," +
+                      "   url string," +
+                      "   bytes long" +
+                      ")")
+            .build();
+    }
+
+    @Test
+    public void testCreateMaterializedView() {
+        CreateMaterializedViewAnalyzedStatement analysis = e.analyze(
+            "create materialized view daily_visits as " +
+            "select day, country, count(*) as visits, sum(bytes) as total_bytes from visits group by day, country");
+        MaterializedViewDefinition view = analysis.definition();
+        assertThat(view.ident().fqn(), is("doc.daily_visits"));
+        assertThat(view.sourceTable().ident().fqn(), is("doc.visits"));
+        assertThat(view.keyColumns(), contains("day", "country"));
+        assertThat(view.aggregateColumns(), contains("visits", "total_bytes"));
+        assertThat(view.createTableStmt(), is(
+            "CREATE TABLE doc.daily_visits (\"day\" timestamp, \"country\" string, \"visits\" long, " +
+            "\"total_bytes\" long, PRIMARY KEY (\"day\", \"country\"))"));
+        assertThat(view.upsertStmt(2), is(
+            "INSERT INTO doc.daily_visits (\"day\", \"country\", \"visits\", \"total_bytes\") " +
+            "VALUES (?, ?, ?, ?), (?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "\"visits\" = coalesce(\"visits\" + VALUES(\"visits\"), \"visits\", VALUES(\"visits\")), " +
+            "\"total_bytes\" = coalesce(\"total_bytes\" + VALUES(\"total_bytes\"), \"total_bytes\", VALUES(\"total_bytes\"))"));
+    }
+
+    @Test
+    public void testCreateMaterializedViewWithMinAndMax() {
+        CreateMaterializedViewAnalyzedStatement analysis = e.analyze(
+            "create materialized view v as select country, min(bytes) as lo, max(bytes) as hi from visits group by country");
+        assertThat(analysis.definition().upsertStmt(1), is(
+            "INSERT INTO doc.v (\"country\", \"lo\", \"hi\") VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "\"lo\" = least(\"lo\", VALUES(\"lo\")), \"hi\" = greatest(\"hi\", VALUES(\"hi\"))"));
+    }
+
+    @Test
+    public void testCreateMaterializedViewWithExistingTableNameFails() {
+        expectedException.expect(TableAlreadyExistsException.class);
+        e.analyze("create materialized view visits as select country, count(*) from visits group by country");
+    }
+
+    @Test
+    public void testCreateMaterializedViewWithoutGroupByFails() {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage("A materialized view must have a GROUP BY clause");
+        e.analyze("create materialized view v as select count(*) as c from visits");
+    }
+
+    @Test
+    public void testCreateMaterializedViewWithNonMergeableAggregationFails() {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage("Column \"a\" of a materialized view must be a GROUP BY expression or one of " +
+                                        "the aggregations sum, count, min, max or hll_sketch");
+        e.analyze("create materialized view v as select country, avg(bytes) as a from visits group by country");
+    }
+
+    @Test
+    public void testCreateMaterializedViewWithOrderByFails() {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage("A materialized view must not have a HAVING, ORDER BY, LIMIT or OFFSET clause");
+        e.analyze("create materialized view v as select country, count(*) as c from visits group by country order by 2");
+    }
+
+    @Test
+    public void testCreateMaterializedViewMustSelectAllGroupKeys() {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage("A materialized view must select all expressions of its GROUP BY clause");
+        e.analyze("create materialized view v as select count(*) as c from visits group by country");
+    }
+
+    @Test
+    public void testDropMaterializedView() {
+        DropMaterializedViewAnalyzedStatement analysis = e.analyze("drop materialized view if exists daily_visits");
+        assertThat(analysis.ident().fqn(), is("doc.daily_visits"));
+        assertThat(analysis.ifExists(), is(true));
+    }
+}
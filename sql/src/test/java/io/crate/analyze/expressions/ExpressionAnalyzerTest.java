@@ -37,6 +37,8 @@ import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.ParameterSymbol;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.RegexpMatchCaseInsensitiveOperator;
+import io.crate.expression.operator.RegexpMatchOperator;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Functions;
 import io.crate.metadata.Reference;
@@ -47,7 +49,11 @@ import io.crate.metadata.TransactionContext;
 import io.crate.metadata.table.TableInfo;
 import io.crate.expression.operator.any.AnyEqOperator;
 import io.crate.expression.operator.any.AnyLikeOperator;
+import io.crate.expression.predicate.NotPredicate;
 import io.crate.expression.scalar.conditional.CoalesceFunction;
+import io.crate.expression.scalar.regex.MatchesFunction;
+import io.crate.expression.scalar.regex.RegexEngine;
+import io.crate.expression.scalar.regex.ReplaceFunction;
 import io.crate.sql.parser.SqlParser;
 import io.crate.sql.tree.ArrayLiteral;
 import io.crate.sql.tree.FunctionCall;
@@ -233,6 +239,19 @@ public class ExpressionAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(cmp.arguments().get(0), isField("x"));
     }
 
+    @Test
+    public void testRegexOperatorsAndFunctionsUseTheRegexEngineOfTheSession() throws Exception {
+        SqlExpressions expressions = new SqlExpressions(T3.SOURCES);
+        expressions.setRegexEngine(RegexEngine.LINEAR);
+        assertThat(expressions.asSymbol("t1.a ~ '\\d+'"), isFunction(RegexpMatchOperator.LINEAR_NAME));
+        assertThat(expressions.asSymbol("t1.a !~* 'x'"),
+            isFunction(NotPredicate.NAME, isFunction(RegexpMatchCaseInsensitiveOperator.LINEAR_NAME)));
+        assertThat(expressions.asSymbol("regexp_matches(t1.a, 'a(b)')"),
+            isFunction(MatchesFunction.NAME, isField("a"), isLiteral("a(b)"), isLiteral("l")));
+        assertThat(expressions.asSymbol("regexp_replace(t1.a, 'b', 'c', 'g')"),
+            isFunction(ReplaceFunction.NAME, isField("a"), isLiteral("b"), isLiteral("c"), isLiteral("gl")));
+    }
+
     @Test
     public void testBetweenIsRewrittenToLteAndGte() throws Exception {
         SqlExpressions expressions = new SqlExpressions(T3.SOURCES);
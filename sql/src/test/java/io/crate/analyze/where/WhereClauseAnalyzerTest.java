@@ -596,31 +596,45 @@ public class WhereClauseAnalyzerTest extends CrateDummyClusterServiceUnitTest {
     }
 
     @Test
-    public void testSelectFromPartitionedTableUnsupported() throws Exception {
-        // these queries won't work because we would have to execute 2 separate ESSearch tasks
-        // and merge results which is not supported right now and maybe never will be
-        String expectedMessage = "logical conjunction of the conditions in the WHERE clause which involve " +
-                                 "partitioned columns led to a query that can't be executed.";
-        try {
-            analyzeSelectWhere("select id, name from parted where date = 1395961200000 or id = 1");
-            fail("Expected UnsupportedOperationException with message: " + expectedMessage);
-        } catch (UnsupportedOperationException e) {
-            assertThat(e.getMessage(), is(expectedMessage));
-        }
+    public void testSelectFromPartitionedTableWithOrOnNonPartitionColumn() throws Exception {
+        String partition1 = new PartitionName("parted", Arrays.asList(new BytesRef("1395874800000"))).asIndexName();
+        String partition2 = new PartitionName("parted", Arrays.asList(new BytesRef("1395961200000"))).asIndexName();
+        String partition3 = new PartitionName("parted", new ArrayList<BytesRef>() {{
+            add(null);
+        }}).asIndexName();
 
-        try {
-            analyzeSelectWhere("select id, name from parted where id = 1 or date = 1395961200000");
-            fail("Expected UnsupportedOperationException with message: " + expectedMessage);
-        } catch (UnsupportedOperationException e) {
-            assertThat(e.getMessage(), is(expectedMessage));
-        }
+        WhereClause whereClause = analyzeSelectWhere("select id, name from parted where date = 1395961200000 or id = 1");
+        assertThat(whereClause.partitions(), containsInAnyOrder(partition1, partition2, partition3));
+        assertThat(whereClause.hasQuery(), is(true));
 
-        try {
-            analyzeSelectWhere("select id, name from parted where date = 1395961200000 or date/0 = 1");
-            fail("Expected UnsupportedOperationException with message: " + expectedMessage);
-        } catch (UnsupportedOperationException e) {
-            assertThat(e.getMessage(), is(expectedMessage));
-        }
+        whereClause = analyzeSelectWhere("select id, name from parted where id = 1 or date = 1395961200000");
+        assertThat(whereClause.partitions(), containsInAnyOrder(partition1, partition2, partition3));
+        assertThat(whereClause.hasQuery(), is(true));
+    }
+
+    @Test
+    public void testSelectFromPartitionedTableWithOrOnPartitionConditionWhichCannotBeEvaluated() throws Exception {
+        // date/0 fails to evaluate for the non-null partitions, so they can't be pruned and the condition is
+        // evaluated on shard level. Before partitions were pruned for OR queries this was rejected.
+        String partition1 = new PartitionName("parted", Arrays.asList(new BytesRef("1395874800000"))).asIndexName();
+        String partition2 = new PartitionName("parted", Arrays.asList(new BytesRef("1395961200000"))).asIndexName();
+
+        WhereClause whereClause = analyzeSelectWhere(
+            "select id, name from parted where date = 1395961200000 or date/0 = 1");
+        assertThat(whereClause.partitions(), containsInAnyOrder(partition1, partition2));
+        assertThat(whereClause.hasQuery(), is(true));
+    }
+
+    @Test
+    public void testSelectFromPartitionedTableWithOrPrunesPartitions() throws Exception {
+        String partition1 = new PartitionName("parted", Arrays.asList(new BytesRef("1395874800000"))).asIndexName();
+        String partition2 = new PartitionName("parted", Arrays.asList(new BytesRef("1395961200000"))).asIndexName();
+
+        WhereClause whereClause = analyzeSelectWhere(
+            "select id, name from parted where date = 1395874800000 or (date = 1395961200000 and id = 1)");
+        assertThat(whereClause.partitions(), containsInAnyOrder(partition1, partition2));
+        assertThat(whereClause.query(),
+            isSQL("((doc.parted.date = 1395874800000) OR ((doc.parted.date = 1395961200000) AND (doc.parted.id = 1)))"));
     }
 
     @Test
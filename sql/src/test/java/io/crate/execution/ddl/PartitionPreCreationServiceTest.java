@@ -0,0 +1,120 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.ddl;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.metadata.Functions;
+import io.crate.metadata.PartitionName;
+import io.crate.metadata.Routing;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocSchemaInfo;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.table.TestingTableInfo;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PartitionPreCreationServiceTest extends CrateUnitTest {
+
+    private static final TableIdent IDENT = new TableIdent(DocSchemaInfo.NAME, "parted");
+
+    private final Functions functions = getFunctions();
+
+    private DocTableInfo partitionedBy(String expression) {
+        return TestingTableInfo.builder(IDENT, new Routing(ImmutableMap.of()))
+            .add("ts", DataTypes.TIMESTAMP, null)
+            .add("x", DataTypes.INTEGER, null)
+            .addGeneratedColumn("p", DataTypes.TIMESTAMP, expression, true)
+            .build(functions);
+    }
+
+    private static PartitionName partition(DateTime value) {
+        return new PartitionName(IDENT, Collections.singletonList(new BytesRef(String.valueOf(value.getMillis()))));
+    }
+
+    @Test
+    public void testNextPartitionOfDailyPartitions() {
+        long now = new DateTime(2018, 3, 14, 17, 30, DateTimeZone.UTC).getMillis();
+        PartitionName next = PartitionPreCreationService.nextPartition(
+            functions, partitionedBy("date_trunc('day', ts)"), now);
+        assertThat(next, is(partition(new DateTime(2018, 3, 15, 0, 0, DateTimeZone.UTC))));
+    }
+
+    @Test
+    public void testNextPartitionOfMonthlyPartitionsDoesNotSkipAShortMonth() {
+        long now = new DateTime(2018, 1, 31, 23, 0, DateTimeZone.UTC).getMillis();
+        DocTableInfo table = partitionedBy("date_trunc('month', ts)");
+
+        assertThat(PartitionPreCreationService.nextPartition(functions, table, now),
+            is(partition(new DateTime(2018, 2, 1, 0, 0, DateTimeZone.UTC))));
+
+        now = new DateTime(2018, 2, 1, 0, 0, DateTimeZone.UTC).getMillis();
+        assertThat(PartitionPreCreationService.nextPartition(functions, table, now),
+            is(partition(new DateTime(2018, 3, 1, 0, 0, DateTimeZone.UTC))));
+    }
+
+    @Test
+    public void testNextPartitionUsesTheTimeZoneOfTheExpression() {
+        DateTimeZone vienna = DateTimeZone.forID("Europe/Vienna");
+        DocTableInfo table = partitionedBy("date_trunc('day', 'Europe/Vienna', ts)");
+
+        // the 25th of March 2018 has 23 hours in Vienna
+        long now = new DateTime(2018, 3, 25, 12, 0, vienna).getMillis();
+        assertThat(PartitionPreCreationService.nextPartition(functions, table, now),
+            is(partition(new DateTime(2018, 3, 26, 0, 0, vienna))));
+    }
+
+    @Test
+    public void testNoNextPartitionOfIntervalsShorterThanAnHour() {
+        long now = new DateTime(2018, 3, 14, 17, 30, DateTimeZone.UTC).getMillis();
+        assertThat(PartitionPreCreationService.nextPartition(
+            functions, partitionedBy("date_trunc('minute', ts)"), now), nullValue());
+    }
+
+    @Test
+    public void testNoNextPartitionOfOtherPartitionExpressions() {
+        long now = new DateTime(2018, 3, 14, 17, 30, DateTimeZone.UTC).getMillis();
+        assertThat(PartitionPreCreationService.nextPartition(
+            functions, partitionedBy("ts + 1"), now), nullValue());
+    }
+
+    @Test
+    public void testNoNextPartitionOfTablesPartitionedByMoreThanOneColumn() {
+        DocTableInfo table = TestingTableInfo.builder(IDENT, new Routing(ImmutableMap.of()))
+            .add("ts", DataTypes.TIMESTAMP, null)
+            .add("x", DataTypes.INTEGER, null, true)
+            .addGeneratedColumn("p", DataTypes.TIMESTAMP, "date_trunc('day', ts)", true)
+            .build(functions);
+        long now = new DateTime(2018, 3, 14, 17, 30, DateTimeZone.UTC).getMillis();
+        assertThat(PartitionPreCreationService.nextPartition(functions, table, now), nullValue());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.aggregation.impl;
+
+import io.crate.Streamer;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.is;
+
+public class CollectSetStateTest extends CrateUnitTest {
+
+    private static CollectSetState streamed(CollectSetState state) throws Exception {
+        Streamer streamer = CollectSetStateType.INSTANCE.streamer();
+        BytesStreamOutput out = new BytesStreamOutput();
+        streamer.writeValueTo(out, state);
+        return (CollectSetState) streamer.readValueFrom(out.bytes().streamInput());
+    }
+
+    private static long addAll(CollectSetState state, Iterable<?> values) {
+        long bytes = 0L;
+        for (Object value : values) {
+            bytes += state.add(value);
+        }
+        return bytes;
+    }
+
+    @Test
+    public void testLongSetGrowsFromInlineValuesToHashTable() throws Exception {
+        CollectSetState state = CollectSetState.newState(DataTypes.LONG);
+        long initialBytes = state.ramBytesUsed();
+        Set<Object> expected = new HashSet<>();
+        long bytes = 0L;
+        for (long i = 0; i < 1000; i++) {
+            expected.add(i % 300);
+            bytes += state.add(i % 300);
+        }
+        assertThat(state.size(), is(300));
+        assertThat(state.toSet(), is(expected));
+        assertThat(initialBytes + bytes, is(state.ramBytesUsed()));
+        assertThat(streamed(state), is(state));
+    }
+
+    @Test
+    public void testDoubleSetWithZeroAndNegativeZero() throws Exception {
+        CollectSetState state = CollectSetState.newState(DataTypes.DOUBLE);
+        Set<Object> expected = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add((double) i - 10);
+            state.add((double) i - 10);
+        }
+        expected.add(-0.0d);
+        state.add(-0.0d);
+        state.add(0.0d);
+        assertThat(state.toSet(), is(expected));
+        assertThat(streamed(state), is(state));
+    }
+
+    @Test
+    public void testStringSetGrowsFromInlineValuesToHashTable() throws Exception {
+        CollectSetState state = CollectSetState.newState(DataTypes.STRING);
+        long initialBytes = state.ramBytesUsed();
+        Set<Object> expected = new HashSet<>();
+        long bytes = 0L;
+        for (int i = 0; i < 1000; i++) {
+            BytesRef value = new BytesRef("value-" + (i % 200));
+            expected.add(value);
+            bytes += state.add(value);
+        }
+        assertThat(state.size(), is(200));
+        assertThat(state.toSet(), is(expected));
+        assertThat(initialBytes + bytes, is(state.ramBytesUsed()));
+        assertThat(streamed(state), is(state));
+    }
+
+    @Test
+    public void testAddAllMergesSets() {
+        for (DataType type : new DataType[] { DataTypes.INTEGER, DataTypes.STRING }) {
+            CollectSetState state1 = CollectSetState.newState(type);
+            CollectSetState state2 = CollectSetState.newState(type);
+            Set<Object> expected = new HashSet<>();
+            for (int i = 0; i < 50; i++) {
+                Object value1 = type.value(i);
+                Object value2 = type.value(i + 25);
+                expected.add(value1);
+                expected.add(value2);
+                state1.add(value1);
+                state2.add(value2);
+            }
+            long initialBytes = state1.ramBytesUsed();
+            long bytes = state1.addAll(state2);
+            assertThat(state1.size(), is(75));
+            assertThat(state1.toSet(), is(expected));
+            assertThat(initialBytes + bytes, is(state1.ramBytesUsed()));
+        }
+    }
+
+    @Test
+    public void testSmallSetIsStoredInline() {
+        CollectSetState state = CollectSetState.newState(DataTypes.LONG);
+        long bytes = addAll(state, Arrays.asList(1L, 2L, 3L, 1L));
+        assertThat(state.size(), is(3));
+        // the inline array grows from 2 to 4 values, no hash table is allocated
+        assertThat(bytes, is(CollectSetState.sizeOfLongArray(4) - CollectSetState.sizeOfLongArray(2)));
+    }
+}
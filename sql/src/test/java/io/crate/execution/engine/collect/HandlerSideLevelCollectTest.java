@@ -48,6 +48,7 @@ import io.crate.expression.reference.sys.cluster.ClusterNameExpression;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.jobs.WorkloadClass;
 import io.crate.testing.TestingHelpers;
 import io.crate.testing.TestingRowConsumer;
 import io.crate.types.DataTypes;
@@ -119,7 +120,7 @@ public class HandlerSideLevelCollectTest extends SQLTransportIntegrationTest {
     private Bucket collect(RoutedCollectPhase collectPhase) throws Exception {
         TestingRowConsumer consumer = new TestingRowConsumer();
         CrateCollector collector = operation.createCollector(collectPhase, consumer, mock(JobCollectContext.class));
-        operation.launchCollector(collector, JobCollectContext.threadPoolName(collectPhase));
+        operation.launchCollector(collector, JobCollectContext.threadPoolName(collectPhase, WorkloadClass.DEFAULT));
         return new CollectionBucket(consumer.getResult());
     }
 
@@ -23,6 +23,7 @@ package io.crate.execution.engine.collect;
 
 import com.carrotsearch.randomizedtesting.RandomizedTest;
 import io.crate.execution.jobs.SharedShardContexts;
+import io.crate.execution.jobs.WorkloadClass;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.metadata.Routing;
 import io.crate.metadata.RowGranularity;
@@ -65,7 +66,8 @@ public class JobCollectContextTest extends RandomizedTest {
             mock(MapSideDataCollectOperation.class),
             ramAccountingContext,
             new TestingRowConsumer(),
-            mock(SharedShardContexts.class));
+            mock(SharedShardContexts.class),
+            WorkloadClass.DEFAULT);
     }
 
     @Test
@@ -108,7 +110,8 @@ public class JobCollectContextTest extends RandomizedTest {
             collectOperationMock,
             ramAccountingContext,
             new TestingRowConsumer(),
-            mock(SharedShardContexts.class));
+            mock(SharedShardContexts.class),
+            WorkloadClass.DEFAULT);
 
         jobCtx.addSearcher(1, mock1);
         CrateCollector collectorMock1 = mock(CrateCollector.class);
@@ -126,10 +129,19 @@ public class JobCollectContextTest extends RandomizedTest {
 
     @Test
     public void testThreadPoolNameForDocTables() throws Exception {
-        String threadPoolExecutorName = JobCollectContext.threadPoolName(collectPhase);
+        String threadPoolExecutorName = JobCollectContext.threadPoolName(collectPhase, WorkloadClass.DEFAULT);
         assertThat(threadPoolExecutorName, is(ThreadPool.Names.SEARCH));
     }
 
+    @Test
+    public void testThreadPoolNameForBatchWorkloadClass() throws Exception {
+        assertThat(JobCollectContext.threadPoolName(collectPhase, WorkloadClass.BATCH), is("sql_batch"));
+
+        // system tables are always collected in the management thread pool
+        when(collectPhase.maxRowGranularity()).thenReturn(RowGranularity.NODE);
+        assertThat(JobCollectContext.threadPoolName(collectPhase, WorkloadClass.BATCH), is(ThreadPool.Names.MANAGEMENT));
+    }
+
     @Test
     public void testThreadPoolNameForNonDocTables() throws Exception {
         RoutedCollectPhase collectPhase = Mockito.mock(RoutedCollectPhase.class);
@@ -139,29 +151,29 @@ public class JobCollectContextTest extends RandomizedTest {
 
         // sys.cluster (single row collector)
         when(collectPhase.maxRowGranularity()).thenReturn(RowGranularity.CLUSTER);
-        String threadPoolExecutorName = JobCollectContext.threadPoolName(collectPhase);
+        String threadPoolExecutorName = JobCollectContext.threadPoolName(collectPhase, WorkloadClass.DEFAULT);
         assertThat(threadPoolExecutorName, is(ThreadPool.Names.SEARCH));
 
         // partition values only of a partitioned doc table (single row collector)
         when(collectPhase.maxRowGranularity()).thenReturn(RowGranularity.PARTITION);
-        threadPoolExecutorName = JobCollectContext.threadPoolName(collectPhase);
+        threadPoolExecutorName = JobCollectContext.threadPoolName(collectPhase, WorkloadClass.DEFAULT);
         assertThat(threadPoolExecutorName, is(ThreadPool.Names.SEARCH));
 
         // sys.nodes (single row collector)
         when(collectPhase.maxRowGranularity()).thenReturn(RowGranularity.NODE);
-        threadPoolExecutorName = JobCollectContext.threadPoolName(collectPhase);
+        threadPoolExecutorName = JobCollectContext.threadPoolName(collectPhase, WorkloadClass.DEFAULT);
         assertThat(threadPoolExecutorName, is(ThreadPool.Names.MANAGEMENT));
 
         // sys.shards
         when(routing.containsShards(localNodeId)).thenReturn(true);
         when(collectPhase.maxRowGranularity()).thenReturn(RowGranularity.SHARD);
-        threadPoolExecutorName = JobCollectContext.threadPoolName(collectPhase);
+        threadPoolExecutorName = JobCollectContext.threadPoolName(collectPhase, WorkloadClass.DEFAULT);
         assertThat(threadPoolExecutorName, is(ThreadPool.Names.MANAGEMENT));
         when(routing.containsShards(localNodeId)).thenReturn(false);
 
         // information_schema.*
         when(collectPhase.maxRowGranularity()).thenReturn(RowGranularity.DOC);
-        threadPoolExecutorName = JobCollectContext.threadPoolName(collectPhase);
+        threadPoolExecutorName = JobCollectContext.threadPoolName(collectPhase, WorkloadClass.DEFAULT);
         assertThat(threadPoolExecutorName, is(ThreadPool.Names.SEARCH));
     }
 }
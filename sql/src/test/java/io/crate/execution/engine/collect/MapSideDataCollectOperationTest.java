@@ -29,6 +29,7 @@ import io.crate.execution.engine.collect.sources.CollectSourceResolver;
 import io.crate.execution.engine.collect.sources.FileCollectSource;
 import io.crate.execution.dsl.phases.FileUriCollectPhase;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.jobs.WorkloadClass;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.TestingRowConsumer;
 import io.crate.types.DataTypes;
@@ -88,7 +89,7 @@ public class MapSideDataCollectOperationTest extends CrateDummyClusterServiceUni
             null,
             false
         );
-        String threadPoolName = JobCollectContext.threadPoolName(collectNode);
+        String threadPoolName = JobCollectContext.threadPoolName(collectNode, WorkloadClass.DEFAULT);
 
         TestingRowConsumer consumer = new TestingRowConsumer();
         JobCollectContext jobCollectContext = mock(JobCollectContext.class);
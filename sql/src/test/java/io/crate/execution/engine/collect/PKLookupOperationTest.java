@@ -0,0 +1,173 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
+import io.crate.planner.operators.PKAndVersion;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.shard.ShardNotFoundException;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class PKLookupOperationTest extends CrateUnitTest {
+
+    private static final ShardId SHARD_0 = new ShardId("t1", "_na_", 0);
+    private static final ShardId SHARD_1 = new ShardId("t1", "_na_", 1);
+
+    private final Map<ShardId, Map<PKAndVersion, AtomicInteger>> reads = new ConcurrentHashMap<>();
+    private ThreadPool threadPool;
+
+    @Before
+    public void setUpThreadPool() throws Exception {
+        threadPool = new TestThreadPool("pk-lookup");
+    }
+
+    @After
+    public void shutdownThreadPool() throws Exception {
+        threadPool.shutdown();
+        threadPool.awaitTermination(1000L, TimeUnit.MILLISECONDS);
+    }
+
+    private PKLookupOperation newOperation(TimeValue coalesceWindow, ShardId... missingShards) {
+        List<ShardId> missing = Arrays.asList(missingShards);
+        return new PKLookupOperation(shardId -> {
+            if (missing.contains(shardId)) {
+                throw new ShardNotFoundException(shardId);
+            }
+            return pkAndVersion -> {
+                reads.computeIfAbsent(shardId, k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(pkAndVersion, k -> new AtomicInteger())
+                    .incrementAndGet();
+                boolean exists = !pkAndVersion.id().startsWith("missing");
+                return new GetResult(shardId.getIndexName(), "default", pkAndVersion.id(), pkAndVersion.version(),
+                    exists, null, Collections.emptyMap());
+            };
+        }, threadPool, coalesceWindow);
+    }
+
+    private int numReads(ShardId shardId, PKAndVersion pkAndVersion) {
+        AtomicInteger numReads = reads.getOrDefault(shardId, Collections.emptyMap()).get(pkAndVersion);
+        return numReads == null ? 0 : numReads.get();
+    }
+
+    private static List<String> ids(CompletableFuture<BatchIterator<GetResult>> result) throws Exception {
+        BatchIterator<GetResult> it = result.get(5, TimeUnit.SECONDS);
+        return BatchIterators.collect(it, Collectors.mapping(GetResult::getId, Collectors.toList()))
+            .get(5, TimeUnit.SECONDS);
+    }
+
+    private static Map<ShardId, List<PKAndVersion>> idsByShard(ShardId shardId, PKAndVersion... ids) {
+        Map<ShardId, List<PKAndVersion>> idsByShard = new HashMap<>();
+        idsByShard.put(shardId, Arrays.asList(ids));
+        return idsByShard;
+    }
+
+    @Test
+    public void testLookupWithoutCoalesceWindowCompletesImmediately() throws Exception {
+        PKLookupOperation operation = newOperation(TimeValue.timeValueMillis(0));
+        CompletableFuture<BatchIterator<GetResult>> result = operation.lookup(
+            false, idsByShard(SHARD_0, new PKAndVersion("1", -3L), new PKAndVersion("missing", -3L)));
+
+        assertThat(result.isDone(), is(true));
+        assertThat(ids(result), contains("1"));
+    }
+
+    @Test
+    public void testLookupsWithinCoalesceWindowReadIdenticalIdsOnce() throws Exception {
+        PKLookupOperation operation = newOperation(TimeValue.timeValueMillis(200));
+        PKAndVersion shared = new PKAndVersion("1", -3L);
+        CompletableFuture<BatchIterator<GetResult>> first =
+            operation.lookup(false, idsByShard(SHARD_0, shared, new PKAndVersion("2", -3L)));
+        CompletableFuture<BatchIterator<GetResult>> second =
+            operation.lookup(false, idsByShard(SHARD_0, new PKAndVersion("3", -3L), shared));
+
+        assertThat(ids(first), contains("1", "2"));
+        assertThat(ids(second), contains("3", "1"));
+        assertThat(numReads(SHARD_0, shared), is(1));
+    }
+
+    @Test
+    public void testLookupsOfSameIdWithDifferentVersionsAreNotCoalesced() throws Exception {
+        PKLookupOperation operation = newOperation(TimeValue.timeValueMillis(200));
+        CompletableFuture<BatchIterator<GetResult>> first =
+            operation.lookup(false, idsByShard(SHARD_0, new PKAndVersion("1", 1L)));
+        CompletableFuture<BatchIterator<GetResult>> second =
+            operation.lookup(false, idsByShard(SHARD_0, new PKAndVersion("1", 2L)));
+
+        assertThat(ids(first), contains("1"));
+        assertThat(ids(second), contains("1"));
+        assertThat(numReads(SHARD_0, new PKAndVersion("1", 1L)), is(1));
+        assertThat(numReads(SHARD_0, new PKAndVersion("1", 2L)), is(1));
+    }
+
+    @Test
+    public void testLookupsOutsideOfCoalesceWindowReadAgain() throws Exception {
+        PKLookupOperation operation = newOperation(TimeValue.timeValueMillis(10));
+        PKAndVersion pkAndVersion = new PKAndVersion("1", -3L);
+
+        assertThat(ids(operation.lookup(false, idsByShard(SHARD_0, pkAndVersion))), contains("1"));
+        assertThat(ids(operation.lookup(false, idsByShard(SHARD_0, pkAndVersion))), contains("1"));
+        assertThat(numReads(SHARD_0, pkAndVersion), is(2));
+    }
+
+    @Test
+    public void testMissingShardOnlyFailsCoalescedLookupsWhichDoNotIgnoreMissing() throws Exception {
+        PKLookupOperation operation = newOperation(TimeValue.timeValueMillis(200), SHARD_1);
+        Map<ShardId, List<PKAndVersion>> idsByShard = idsByShard(SHARD_0, new PKAndVersion("1", -3L));
+        idsByShard.put(SHARD_1, Collections.singletonList(new PKAndVersion("2", -3L)));
+
+        CompletableFuture<BatchIterator<GetResult>> ignoringMissing = operation.lookup(true, idsByShard);
+        CompletableFuture<BatchIterator<GetResult>> failing = operation.lookup(false, idsByShard);
+
+        assertThat(ids(ignoringMissing), contains("1"));
+        try {
+            failing.get(5, TimeUnit.SECONDS);
+            fail("lookup on a missing shard must fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(ShardNotFoundException.class));
+        }
+    }
+}
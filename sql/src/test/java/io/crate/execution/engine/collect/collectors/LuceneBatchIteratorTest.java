@@ -33,16 +33,26 @@ import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.ConstantScoreScorer;
+import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TwoPhaseIterator;
+import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.RAMDirectory;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class LuceneBatchIteratorTest extends CrateUnitTest {
 
@@ -88,4 +98,86 @@ public class LuceneBatchIteratorTest extends CrateUnitTest {
         );
         tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
     }
+
+    @Test
+    public void testKillIsRaisedWhileDocumentsDontMatch() throws Exception {
+        IndexWriter iw = new IndexWriter(new RAMDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        for (long i = 0; i < LuceneBatchIterator.KILL_CHECK_INTERVAL * 2; i++) {
+            Document doc = new Document();
+            doc.add(new NumericDocValuesField("x", i));
+            iw.addDocument(doc);
+        }
+        iw.commit();
+        IndexSearcher searcher = new IndexSearcher(DirectoryReader.open(iw));
+
+        AtomicReference<LuceneBatchIterator> itRef = new AtomicReference<>();
+        LuceneBatchIterator it = new LuceneBatchIterator(
+            searcher,
+            new KillingNoMatchQuery(itRef),
+            null,
+            false,
+            new CollectorContext(
+                mappedFieldType -> null,
+                new CollectorFieldsVisitor(0)
+            ),
+            new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")),
+            columnRefs,
+            columnRefs
+        );
+        itRef.set(it);
+
+        expectedException.expect(InterruptedException.class);
+        expectedException.expectMessage("KILLED");
+        it.moveNext();
+    }
+
+    /**
+     * Query which doesn't match any document, but kills the iterator the first time a document is checked.
+     */
+    private static class KillingNoMatchQuery extends Query {
+
+        private final AtomicReference<LuceneBatchIterator> itRef;
+
+        KillingNoMatchQuery(AtomicReference<LuceneBatchIterator> itRef) {
+            this.itRef = itRef;
+        }
+
+        @Override
+        public Weight createWeight(IndexSearcher searcher, boolean needsScores, float boost) {
+            return new ConstantScoreWeight(this, boost) {
+                @Override
+                public Scorer scorer(LeafReaderContext context) throws IOException {
+                    DocIdSetIterator approximation = DocIdSetIterator.all(context.reader().maxDoc());
+                    TwoPhaseIterator twoPhaseIterator = new TwoPhaseIterator(approximation) {
+                        @Override
+                        public boolean matches() {
+                            itRef.get().kill(new InterruptedException("KILLED"));
+                            return false;
+                        }
+
+                        @Override
+                        public float matchCost() {
+                            return 1;
+                        }
+                    };
+                    return new ConstantScoreScorer(this, score(), twoPhaseIterator);
+                }
+            };
+        }
+
+        @Override
+        public String toString(String field) {
+            return "KillingNoMatchQuery";
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj == this;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
 }
@@ -22,6 +22,7 @@
 
 package io.crate.execution.engine.collect.collectors;
 
+import com.google.common.collect.ImmutableMap;
 import io.crate.analyze.OrderBy;
 import io.crate.analyze.WhereClause;
 import io.crate.expression.symbol.Symbol;
@@ -33,6 +34,7 @@ import io.crate.metadata.ReferenceIdent;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.sys.SysNodesTableInfo;
 import io.crate.expression.InputFactory;
+import io.crate.expression.reference.sys.node.NodeStatsContext;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.BatchIteratorTester;
@@ -150,6 +152,28 @@ public class NodeStatsIteratorTest extends CrateUnitTest {
         verifyNoMoreInteractions(transportNodeStatsAction);
     }
 
+    @Test
+    public void testNoRequestsForNodesWithPublishedStats() throws Exception {
+        List<Symbol> toCollect = new ArrayList<>();
+        toCollect.add(idRef);
+        toCollect.add(hostnameRef);
+
+        when(collectPhase.toCollect()).thenReturn(toCollect);
+
+        BatchIterator iterator = NodeStatsIterator.newInstance(
+            transportNodeStatsAction,
+            collectPhase,
+            nodes,
+            ImmutableMap.of("nodeOne", new NodeStatsContext(true)),
+            new InputFactory(getFunctions())
+        );
+        iterator.loadNextBatch();
+
+        verify(transportNodeStatsAction).execute(eq("nodeTwo"), any(NodeStatsRequest.class), any(ActionListener.class),
+            eq(TimeValue.timeValueMillis(3000L)));
+        verifyNoMoreInteractions(transportNodeStatsAction);
+    }
+
     @Test
     public void testNodeStatsIteratorContrat() throws Exception {
         List<Symbol> toCollect = new ArrayList<>();
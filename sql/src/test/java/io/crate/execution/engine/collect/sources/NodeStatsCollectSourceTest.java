@@ -27,6 +27,7 @@ import com.google.common.collect.Lists;
 import io.crate.analyze.WhereClause;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.relations.TableRelation;
+import io.crate.expression.reference.sys.node.NodeStatsContext;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
 import io.crate.metadata.ReferenceIdent;
@@ -50,6 +51,7 @@ import java.util.Map;
 
 import static io.crate.testing.DiscoveryNodes.newNode;
 import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -66,8 +68,7 @@ public class NodeStatsCollectSourceTest extends CrateUnitTest {
         discoveryNodes.add(newNode("Arthur", "node-3"));
     }
 
-    private List<DiscoveryNode> filterNodes(String where) throws NoSuchFieldException, IllegalAccessException {
-        // build where clause with id = ?
+    private WhereClause whereClause(String where) {
         SysNodesTableInfo tableInfo = mock(SysNodesTableInfo.class);
         when(tableInfo.ident()).thenReturn(new TableIdent("sys", "nodes"));
         when(tableInfo.getReference(new ColumnIdent("id"))).thenReturn(
@@ -82,14 +83,22 @@ public class NodeStatsCollectSourceTest extends CrateUnitTest {
                 new ReferenceIdent(SysNodesTableInfo.IDENT, SysNodesTableInfo.Columns.HOSTNAME),
                 RowGranularity.DOC, DataTypes.STRING)
         );
-
+        when(tableInfo.getReference(SysNodesTableInfo.Columns.STATS_AGE)).thenReturn(
+            new Reference(
+                new ReferenceIdent(SysNodesTableInfo.IDENT, SysNodesTableInfo.Columns.STATS_AGE),
+                RowGranularity.DOC, DataTypes.LONG)
+        );
 
         TableRelation tableRelation = new TableRelation(tableInfo);
         Map<QualifiedName, AnalyzedRelation> tableSources = ImmutableMap.<QualifiedName, AnalyzedRelation>of(
             new QualifiedName("sys.nodes"), tableRelation);
         SqlExpressions sqlExpressions = new SqlExpressions(tableSources, tableRelation);
-        WhereClause whereClause = new WhereClause(sqlExpressions.normalize(sqlExpressions.asSymbol(where)));
+        return new WhereClause(sqlExpressions.normalize(sqlExpressions.asSymbol(where)));
+    }
 
+    private List<DiscoveryNode> filterNodes(String where) throws NoSuchFieldException, IllegalAccessException {
+        // build where clause with id = ?
+        WhereClause whereClause = whereClause(where);
         List<DiscoveryNode> nodes = Lists.newArrayList(NodeStatsCollectSource.nodeIds(whereClause,
             discoveryNodes,
             getFunctions()));
@@ -154,4 +163,25 @@ public class NodeStatsCollectSourceTest extends CrateUnitTest {
         assertThat(discoveryNodes.size(), is(3));
     }
 
+    private Map<String, NodeStatsContext> snapshots(String where) {
+        Map<String, NodeStatsContext> published = ImmutableMap.of(
+            "node-1", new NodeStatsContext(true).withStatsAge(500L),
+            "node-2", new NodeStatsContext(true).withStatsAge(5000L));
+        return NodeStatsCollectSource.snapshots(whereClause(where), discoveryNodes, published::get, getFunctions());
+    }
+
+    @Test
+    public void testPublishedSnapshotsAreUsedIfQueryDoesNotFilterOnStatsAge() throws Exception {
+        Map<String, NodeStatsContext> snapshots = snapshots("hostname = 'localhost'");
+        assertThat(snapshots.keySet(), containsInAnyOrder("node-1", "node-2"));
+    }
+
+    @Test
+    public void testSnapshotsNotMatchingStatsAgeFilterAreNotUsed() throws Exception {
+        Map<String, NodeStatsContext> snapshots = snapshots("stats_age < 1000");
+        assertThat(snapshots.keySet(), containsInAnyOrder("node-1"));
+
+        snapshots = snapshots("stats_age = 0");
+        assertThat(snapshots.size(), is(0));
+    }
 }
@@ -151,7 +151,8 @@ public class DistributingConsumerTest extends CrateUnitTest {
                 PassThroughPagingIterator.oneShot(),
                 streamers,
                 new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")),
-                1
+                1,
+                false
             );
     }
 
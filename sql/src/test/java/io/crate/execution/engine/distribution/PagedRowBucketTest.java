@@ -0,0 +1,124 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.distribution;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.util.BigArrays;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static io.crate.testing.TestingHelpers.isRow;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PagedRowBucketTest extends CrateUnitTest {
+
+    private static PagedRowBucket newBucket(RamAccountingContext ramAccountingContext) {
+        return new PagedRowBucket(
+            DataTypes.getStreamers(Arrays.asList(DataTypes.INTEGER, DataTypes.STRING, DataTypes.LONG)),
+            BigArrays.NON_RECYCLING_INSTANCE,
+            ramAccountingContext);
+    }
+
+    @Test
+    public void testRowsCanBeIteratedAndAccessedByPosition() throws Exception {
+        try (PagedRowBucket bucket = newBucket(null)) {
+            for (int i = 0; i < 10_000; i++) {
+                bucket.add(new RowN(new Object[] {
+                    i,
+                    i % 3 == 0 ? null : new BytesRef("value" + i),
+                    i % 5 == 0 ? null : (long) i * 2 }));
+            }
+            assertThat(bucket.size(), is(10_000));
+
+            int i = 0;
+            for (Row row : bucket) {
+                assertThat(row, isRow(
+                    i,
+                    i % 3 == 0 ? null : new BytesRef("value" + i),
+                    i % 5 == 0 ? null : (long) i * 2));
+                i++;
+            }
+            assertThat(i, is(10_000));
+
+            Row row = bucket.get(4711);
+            assertThat(row.get(2), is(9422L));
+            assertThat(row.get(1), is(new BytesRef("value4711")));
+            assertThat(row.get(0), is(4711));
+            assertThat(bucket.get(15).materialize(), is(new Object[] { 15, null, null }));
+        }
+    }
+
+    @Test
+    public void testRowsWhichSpanMultiplePagesCanBeRead() throws Exception {
+        char[] chars = new char[BigArrays.BYTE_PAGE_SIZE + 100];
+        Arrays.fill(chars, 'x');
+        BytesRef largeValue = new BytesRef(new String(chars));
+        try (PagedRowBucket bucket = newBucket(null)) {
+            for (int i = 0; i < 5; i++) {
+                bucket.add(new RowN(new Object[] { i, largeValue, (long) i }));
+                bucket.add(new RowN(new Object[] { i, new BytesRef("small"), null }));
+            }
+            Row large = bucket.get(4);
+            Row small = bucket.get(5);
+            assertThat(large.get(2), is(2L));
+            assertThat(small.get(1), is(new BytesRef("small")));
+            assertThat(large.get(1), is(largeValue));
+            assertThat(small.get(2), nullValue());
+
+            int i = 0;
+            for (Row row : bucket) {
+                assertThat(row.get(0), is(i / 2));
+                i++;
+            }
+        }
+    }
+
+    @Test
+    public void testAllocatedPagesAreAccounted() throws Exception {
+        RamAccountingContext ramAccountingContext = new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy"));
+        try (PagedRowBucket bucket = newBucket(ramAccountingContext)) {
+            for (int i = 0; i < 1000; i++) {
+                bucket.add(new RowN(new Object[] { i, new BytesRef("foo"), 10L }));
+            }
+            assertThat(bucket.ramBytesUsed(), greaterThan(1000L * 3 * Integer.BYTES));
+            assertThat(ramAccountingContext.totalBytes(), is(bucket.ramBytesUsed()));
+        }
+    }
+
+    @Test
+    public void testGetWithInvalidIndex() throws Exception {
+        try (PagedRowBucket bucket = newBucket(null)) {
+            expectedException.expect(IndexOutOfBoundsException.class);
+            bucket.get(0);
+        }
+    }
+}
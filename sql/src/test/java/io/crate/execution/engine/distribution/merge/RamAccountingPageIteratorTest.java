@@ -23,6 +23,7 @@ package io.crate.execution.engine.distribution.merge;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
+import io.crate.Streamer;
 import io.crate.analyze.OrderBy;
 import io.crate.expression.symbol.Literal;
 import io.crate.breaker.RamAccountingContext;
@@ -45,10 +46,13 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -59,6 +63,8 @@ public class RamAccountingPageIteratorTest extends CrateUnitTest {
         new RowN(new BytesRef[]{new BytesRef("a"), new BytesRef("b"), new BytesRef("c")}),
         new RowN(new BytesRef[]{new BytesRef("d"), new BytesRef("e"), new BytesRef("f")})
     };
+    private static final Streamer<?>[] STREAMERS =
+        DataTypes.getStreamers(ImmutableList.of(DataTypes.STRING, DataTypes.STRING, DataTypes.STRING));
 
     private long originalBufferSize;
 
@@ -79,6 +85,7 @@ public class RamAccountingPageIteratorTest extends CrateUnitTest {
             2,
             false,
             null,
+            STREAMERS,
             () -> null);
 
         assertThat(pagingIterator1, instanceOf(PassThroughPagingIterator.class));
@@ -89,6 +96,7 @@ public class RamAccountingPageIteratorTest extends CrateUnitTest {
             2,
             false,
             positionalOrderBy,
+            STREAMERS,
             () -> null);
         assertThat(pagingIterator2, instanceOf(SortedPagingIterator.class));
     }
@@ -99,6 +107,7 @@ public class RamAccountingPageIteratorTest extends CrateUnitTest {
             2,
             true,
             null,
+            STREAMERS,
             () -> null);
         assertThat(pagingIterator1, instanceOf(RamAccountingPageIterator.class));
         assertThat(((RamAccountingPageIterator) pagingIterator1).delegatePagingIterator,
@@ -110,6 +119,7 @@ public class RamAccountingPageIteratorTest extends CrateUnitTest {
             PositionalOrderBy.of(
                 new OrderBy(Collections.singletonList(Literal.of(1)), new boolean[] {false}, new Boolean[] {false}),
                 Collections.singletonList(Literal.of(1))),
+            STREAMERS,
             () -> null);
 
         assertThat(pagingIterator2, instanceOf(RamAccountingPageIterator.class));
@@ -123,6 +133,7 @@ public class RamAccountingPageIteratorTest extends CrateUnitTest {
             2,
             true,
             null,
+            STREAMERS,
             () -> new RowAccounting(ImmutableList.of(DataTypes.STRING, DataTypes.STRING, DataTypes.STRING),
                                     new RamAccountingContext("test", NOOP_CIRCUIT_BREAKER)));
         assertThat(pagingIterator, instanceOf(RamAccountingPageIterator.class));
@@ -145,6 +156,7 @@ public class RamAccountingPageIteratorTest extends CrateUnitTest {
             2,
             true,
             null,
+            STREAMERS,
             () -> new RowAccounting(ImmutableList.of(DataTypes.STRING, DataTypes.STRING, DataTypes.STRING),
                                     new RamAccountingContext(
                                         "test",
@@ -160,4 +172,30 @@ public class RamAccountingPageIteratorTest extends CrateUnitTest {
             new KeyIterable<>(0, Collections.singletonList(TEST_ROWS[0])),
             new KeyIterable<>(1, Collections.singletonList(TEST_ROWS[1]))));
     }
+
+    @Test
+    public void testRepeatReturnsEmittedAndRemainingRowsInOrder() {
+        PagingIterator<Integer, Row> pagingIterator = PagingIterator.create(
+            2,
+            true,
+            null,
+            STREAMERS,
+            () -> new RowAccounting(ImmutableList.of(DataTypes.STRING, DataTypes.STRING, DataTypes.STRING),
+                                    new RamAccountingContext("test", NOOP_CIRCUIT_BREAKER)));
+        pagingIterator.merge(Arrays.asList(
+            new KeyIterable<>(0, Collections.singletonList(TEST_ROWS[0])),
+            new KeyIterable<>(1, Collections.singletonList(TEST_ROWS[1]))));
+        pagingIterator.finish();
+
+        // consume only the first row, the repeat must contain the second one as well
+        assertThat(pagingIterator.next(), TestingHelpers.isRow("a", "b", "c"));
+
+        for (int i = 0; i < 2; i++) {
+            List<Object[]> rows = new ArrayList<>();
+            for (Row row : pagingIterator.repeat()) {
+                rows.add(row.materialize());
+            }
+            assertThat(TestingHelpers.printedTable(rows.toArray(new Object[0][])), is("a| b| c\nd| e| f\n"));
+        }
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.indexing;
+
+import io.crate.execution.dml.ShardRequest;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+
+public class ShardedRequestsTest extends CrateUnitTest {
+
+    private static class DummyShardRequest extends ShardRequest<DummyShardRequest, DummyRequestItem> {
+        @Override
+        protected DummyRequestItem readItem(StreamInput input) throws IOException {
+            return null;
+        }
+    }
+
+    private static class DummyRequestItem extends ShardRequest.Item {
+        DummyRequestItem(String id) {
+            super(id);
+        }
+    }
+
+    @Test
+    public void testItemsKeepTheLocationOfTheirRowIfTheirIndexIsResolvedLater() {
+        ShardedRequests<DummyShardRequest, DummyRequestItem> requests =
+            new ShardedRequests<>((s, r) -> new DummyShardRequest(), 10);
+        ShardLocation shardLocation = new ShardLocation(new ShardId(new Index("t", "uuid"), 0), "n1");
+
+        DummyRequestItem first = new DummyRequestItem("1");
+        DummyRequestItem second = new DummyRequestItem("2");
+        DummyRequestItem third = new DummyRequestItem("3");
+        requests.add(first, shardLocation, null);
+        requests.add(second, ".partitioned.t.04132", null);
+        requests.add(third, shardLocation, null);
+
+        List<ShardedRequests.ItemAndRouting<DummyRequestItem>> missing =
+            requests.itemsByMissingIndex.get(".partitioned.t.04132");
+        requests.add(missing.get(0), shardLocation);
+
+        assertThat(first.location(), is(10));
+        assertThat(second.location(), is(11));
+        assertThat(third.location(), is(12));
+        assertThat(requests.itemsByShard.get(shardLocation).items().size(), is(3));
+    }
+}
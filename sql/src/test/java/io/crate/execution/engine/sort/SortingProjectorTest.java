@@ -23,18 +23,29 @@
 package io.crate.execution.engine.sort;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.expression.symbol.Literal;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
+import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.data.SentinelRow;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.InputCollectExpression;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.TestingBatchIterators;
 import io.crate.testing.TestingRowConsumer;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import static io.crate.testing.TestingHelpers.isRow;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.core.Is.is;
 
 public class SortingProjectorTest extends CrateUnitTest {
@@ -42,13 +53,20 @@ public class SortingProjectorTest extends CrateUnitTest {
     private TestingRowConsumer consumer = new TestingRowConsumer();
 
     private SortingProjector createProjector(int numOutputs, int offset) {
+        return createProjector(numOutputs, offset, 0L);
+    }
+
+    private SortingProjector createProjector(int numOutputs, int offset, long spillThresholdInBytes) {
         InputCollectExpression input = new InputCollectExpression(0);
         return new SortingProjector(
             ImmutableList.of(input, Literal.of(true)),
             ImmutableList.<CollectExpression<Row, ?>>of(input),
+            ImmutableList.of(DataTypes.INTEGER, DataTypes.BOOLEAN),
             numOutputs,
             OrderingByPosition.arrayOrdering(0, false, null),
-            offset
+            offset,
+            new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")),
+            spillThresholdInBytes
         );
     }
 
@@ -86,6 +104,53 @@ public class SortingProjectorTest extends CrateUnitTest {
         expectedException.expect(IllegalArgumentException.class);
         expectedException.expectMessage("invalid offset -1");
 
-        new SortingProjector(null, null, 2, null, -1);
+        new SortingProjector(null, null, null, 2, null, -1, null, 0L);
+    }
+
+    @Test
+    public void testOrderByWithSpilledRunsAndOffset() throws Exception {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new Row1(i));
+        }
+        Collections.shuffle(rows, random());
+        // every run holds roughly 10 rows
+        SortingProjector projector = createProjector(2, 5, 500L);
+
+        consumer.accept(projector.apply(InMemoryBatchIterator.of(rows, SentinelRow.SENTINEL)), null);
+        Bucket result = consumer.getBucket();
+
+        assertThat(result.size(), is(995));
+        int expected = 5;
+        for (Row row : result) {
+            assertThat(row, isRow(expected++, true));
+        }
+    }
+
+    @Test
+    public void testSpillingSorterWritesRunsOnceThresholdIsExceeded() throws Exception {
+        SpillingSorter sorter = new SpillingSorter(
+            OrderingByPosition.arrayOrdering(0, false, null).reversed(),
+            ImmutableList.of(DataTypes.INTEGER),
+            new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")),
+            100L);
+        try {
+            for (int i = 20; i > 0; i--) {
+                sorter.add(new Object[] { i % 2 == 0 ? i : null });
+            }
+            assertThat(sorter.numRuns(), greaterThan(1));
+
+            // the runs can be merged multiple times
+            for (int iteration = 0; iteration < 2; iteration++) {
+                List<Object> values = new ArrayList<>();
+                sorter.sorted().forEach(row -> values.add(row[0]));
+                assertThat(values.size(), is(20));
+                assertThat(values.get(0), is(2));
+                assertThat(values.get(9), is(20));
+                assertThat(values.subList(10, 20), is(Collections.nCopies(10, null)));
+            }
+        } finally {
+            sorter.close();
+        }
     }
 }
@@ -124,7 +124,8 @@ public class JobExecutionContextTest extends CrateUnitTest {
             mock(MapSideDataCollectOperation.class),
             mock(RamAccountingContext.class),
             new TestingRowConsumer(),
-            mock(SharedShardContexts.class));
+            mock(SharedShardContexts.class),
+            WorkloadClass.DEFAULT);
         TestingRowConsumer batchConsumer = new TestingRowConsumer();
         PageDownstreamContext pageDownstreamContext = spy(new PageDownstreamContext(
             Loggers.getLogger(PageDownstreamContext.class),
@@ -134,7 +135,8 @@ public class JobExecutionContextTest extends CrateUnitTest {
             PassThroughPagingIterator.oneShot(),
             new Streamer[]{IntegerType.INSTANCE.streamer()},
             mock(RamAccountingContext.class),
-            1));
+            1,
+            false));
 
         builder.addSubContext(jobCollectContext);
         builder.addSubContext(pageDownstreamContext);
@@ -0,0 +1,114 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.jobs;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowConsumer;
+import io.crate.exceptions.JobKilledException;
+import io.crate.execution.engine.collect.PKLookupOperation;
+import io.crate.expression.InputFactory;
+import io.crate.metadata.ColumnIdent;
+import io.crate.planner.operators.PKAndVersion;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.TestingHelpers;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class PKLookupContextTest extends CrateUnitTest {
+
+    private ThreadPool threadPool;
+
+    @Before
+    public void setUpThreadPool() throws Exception {
+        threadPool = new TestThreadPool("pk-lookup-context");
+    }
+
+    @After
+    public void shutdownThreadPool() throws Exception {
+        threadPool.shutdown();
+        threadPool.awaitTermination(1000L, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testKillWhileLookupIsPendingCallsConsumerOnlyOnce() throws Exception {
+        // the index doesn't exist, but lookups on partitioned tables ignore missing shards and return no rows
+        PKLookupOperation operation =
+            new PKLookupOperation(mock(IndicesService.class), threadPool, TimeValue.timeValueMillis(100));
+        Map<ShardId, List<PKAndVersion>> idsByShard = Collections.singletonMap(
+            new ShardId("t1", "_na_", 0), Collections.singletonList(new PKAndVersion("1", -3L)));
+        RecordingConsumer consumer = new RecordingConsumer();
+
+        PKLookupContext context = new PKLookupContext(
+            1,
+            new InputFactory(TestingHelpers.getFunctions()),
+            operation,
+            Collections.singletonList(new ColumnIdent("p")),
+            Collections.emptyList(),
+            idsByShard,
+            consumer);
+        context.prepare();
+        context.start();
+        context.kill(new JobKilledException());
+
+        // completes after the lookup of the context, whose completion callbacks run first
+        operation.lookup(true, idsByShard).get(5, TimeUnit.SECONDS);
+
+        assertThat(context.isClosed(), is(true));
+        assertThat(consumer.failures.size(), is(1));
+        assertThat(consumer.failures.get(0), instanceOf(JobKilledException.class));
+        assertThat(consumer.numIterators, is(0));
+    }
+
+    private static class RecordingConsumer implements RowConsumer {
+
+        private final List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        private volatile int numIterators = 0;
+
+        @Override
+        public void accept(BatchIterator<Row> iterator, Throwable failure) {
+            if (failure == null) {
+                numIterators++;
+                iterator.close();
+            } else {
+                failures.add(failure);
+            }
+        }
+    }
+}
@@ -69,7 +69,8 @@ public class PageDownstreamContextTest extends CrateUnitTest {
             pagingIterator,
             new Streamer[1],
             RAM_ACCOUNTING_CONTEXT,
-            numBuckets
+            numBuckets,
+            false
         );
     }
 
@@ -220,6 +221,67 @@ public class PageDownstreamContextTest extends CrateUnitTest {
         ));
     }
 
+    @Test
+    public void testMergeOnArrivalConsumesBucketsWithoutWaitingForOtherUpstreams() throws Exception {
+        TestingRowConsumer batchConsumer = new TestingRowConsumer();
+        PageDownstreamContext ctx = new PageDownstreamContext(
+            Loggers.getLogger(PageDownstreamContext.class),
+            "n1",
+            1,
+            "dummy",
+            batchConsumer,
+            PassThroughPagingIterator.oneShot(),
+            new Streamer[1],
+            RAM_ACCOUNTING_CONTEXT,
+            2,
+            true
+        );
+
+        CheckPageResultListener listener = new CheckPageResultListener();
+        ctx.setBucket(0, new CollectionBucket(Collections.singletonList(new Object[] { "foo" })), false, listener);
+        // the first bucket has been consumed and the next one requested, although upstream 1 didn't respond yet
+        assertThat(listener.needMoreResult, is(true));
+
+        ctx.setBucket(0, new CollectionBucket(Collections.singletonList(new Object[] { "bar" })), true,
+            mock(PageResultListener.class));
+        ctx.setBucket(1, new CollectionBucket(Collections.singletonList(new Object[] { "universe" })), true,
+            mock(PageResultListener.class));
+
+        List<Object[]> result = batchConsumer.getResult();
+        assertThat(TestingHelpers.printedTable(new CollectionBucket(result)),
+            is("foo\n" +
+               "bar\n" +
+               "universe\n"));
+    }
+
+    @Test
+    public void testMergeOnArrivalTriggersFailureOnceAllPendingBucketsAreReceived() throws Exception {
+        TestingRowConsumer batchConsumer = new TestingRowConsumer();
+        PageDownstreamContext ctx = new PageDownstreamContext(
+            Loggers.getLogger(PageDownstreamContext.class),
+            "n1",
+            1,
+            "dummy",
+            batchConsumer,
+            PassThroughPagingIterator.oneShot(),
+            new Streamer[1],
+            RAM_ACCOUNTING_CONTEXT,
+            2,
+            true
+        );
+
+        ctx.failure(0, new Exception("dummy"));
+        assertThat(ctx.completionFuture().isDone(), is(false));
+
+        PageResultListener listener = mock(PageResultListener.class);
+        ctx.setBucket(1, Bucket.EMPTY, false, listener);
+        verify(listener, times(1)).needMore(false);
+
+        expectedException.expect(Exception.class);
+        expectedException.expectMessage("dummy");
+        batchConsumer.getResult();
+    }
+
     private static class CheckPageResultListener implements PageResultListener {
 
         private boolean needMoreResult;
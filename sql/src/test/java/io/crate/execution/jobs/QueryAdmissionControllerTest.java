@@ -0,0 +1,185 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+package io.crate.execution.jobs;
+
+import io.crate.exceptions.JobKilledException;
+import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class QueryAdmissionControllerTest extends CrateDummyClusterServiceUnitTest {
+
+    private JobContextService jobContextService;
+
+    @After
+    public void cleanUp() throws Exception {
+        if (jobContextService != null) {
+            jobContextService.close();
+        }
+    }
+
+    private QueryAdmissionController newController(String memoryLimit, String queueTimeout) {
+        jobContextService = new JobContextService(Settings.EMPTY, clusterService, new JobsLogs(() -> true));
+        Settings settings = Settings.builder()
+            .put(QueryAdmissionController.MEMORY_LIMIT_SETTING.getKey(), memoryLimit)
+            .put(QueryAdmissionController.QUEUE_TIMEOUT_SETTING.getKey(), queueTimeout)
+            .build();
+        return new QueryAdmissionController(settings, THREAD_POOL, jobContextService);
+    }
+
+    @Test
+    public void testJobsAreAdmittedIfDisabled() throws Exception {
+        QueryAdmissionController controller = newController("0b", "30s");
+
+        assertThat(controller.admit(UUID.randomUUID(), 1024L).isDone(), is(true));
+        assertThat(controller.admit(UUID.randomUUID(), 1024L).isDone(), is(true));
+        assertThat(controller.reservedBytes(), is(0L));
+    }
+
+    @Test
+    public void testJobIsQueuedUntilMemoryIsReleased() throws Exception {
+        QueryAdmissionController controller = newController("100b", "30s");
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        assertThat(controller.admit(first, 60L).isDone(), is(true));
+        CompletableFuture<Void> secondAdmission = controller.admit(second, 60L);
+        assertThat(secondAdmission.isDone(), is(false));
+        assertThat(controller.queuedJobs().size(), is(1));
+        assertThat(controller.queuedJobs().get(0).jobId(), is(second));
+
+        controller.release(first);
+        secondAdmission.get(5, TimeUnit.SECONDS);
+        assertThat(controller.queuedJobs().size(), is(0));
+        assertThat(controller.reservedBytes(), is(60L));
+    }
+
+    @Test
+    public void testJobExceedingTheLimitIsAdmittedIfNoOtherJobRuns() throws Exception {
+        QueryAdmissionController controller = newController("100b", "30s");
+        UUID jobId = UUID.randomUUID();
+
+        assertThat(controller.admit(jobId, 1000L).isDone(), is(true));
+        assertThat(controller.reservedBytes(), is(100L));
+
+        controller.release(jobId);
+        assertThat(controller.reservedBytes(), is(0L));
+    }
+
+    @Test
+    public void testQueuedJobsAreAdmittedInOrder() throws Exception {
+        QueryAdmissionController controller = newController("100b", "30s");
+        UUID first = UUID.randomUUID();
+
+        controller.admit(first, 100L);
+        CompletableFuture<Void> large = controller.admit(UUID.randomUUID(), 80L);
+        CompletableFuture<Void> small = controller.admit(UUID.randomUUID(), 10L);
+
+        assertThat(small.isDone(), is(false));
+        controller.release(first);
+        large.get(5, TimeUnit.SECONDS);
+        small.get(5, TimeUnit.SECONDS);
+        assertThat(controller.reservedBytes(), is(90L));
+    }
+
+    @Test
+    public void testJobWhichFitsIsAdmittedWhileALargerJobIsQueued() throws Exception {
+        QueryAdmissionController controller = newController("100b", "30s");
+        UUID first = UUID.randomUUID();
+
+        controller.admit(first, 50L);
+        CompletableFuture<Void> large = controller.admit(UUID.randomUUID(), 80L);
+        assertThat(large.isDone(), is(false));
+
+        assertThat(controller.admit(UUID.randomUUID(), 40L).isDone(), is(true));
+        assertThat(controller.admit(UUID.randomUUID(), 0L).isDone(), is(true));
+        assertThat(controller.reservedBytes(), is(90L));
+        assertThat(controller.queuedJobs().size(), is(1));
+
+        controller.release(first);
+        assertThat(large.isDone(), is(false));
+    }
+
+    @Test
+    public void testReleaseAdmitsQueuedJobsWhichFitBehindALargerOne() throws Exception {
+        QueryAdmissionController controller = newController("100b", "30s");
+        UUID first = UUID.randomUUID();
+
+        controller.admit(UUID.randomUUID(), 50L);
+        controller.admit(first, 50L);
+        CompletableFuture<Void> large = controller.admit(UUID.randomUUID(), 80L);
+        CompletableFuture<Void> small = controller.admit(UUID.randomUUID(), 30L);
+
+        controller.release(first);
+        small.get(5, TimeUnit.SECONDS);
+        assertThat(large.isDone(), is(false));
+        assertThat(controller.reservedBytes(), is(80L));
+    }
+
+    @Test
+    public void testQueuedJobFailsAfterTimeout() throws Exception {
+        QueryAdmissionController controller = newController("100b", "10ms");
+
+        controller.admit(UUID.randomUUID(), 100L);
+        CompletableFuture<Void> queued = controller.admit(UUID.randomUUID(), 10L);
+
+        expectedException.expectCause(instanceOf(EsRejectedExecutionException.class));
+        try {
+            queued.get(5, TimeUnit.SECONDS);
+        } finally {
+            assertThat(controller.queuedJobs().size(), is(0));
+        }
+    }
+
+    @Test
+    public void testKillFailsQueuedJob() throws Exception {
+        QueryAdmissionController controller = newController("100b", "30s");
+        UUID queuedJobId = UUID.randomUUID();
+
+        controller.admit(UUID.randomUUID(), 100L);
+        CompletableFuture<Void> queued = controller.admit(queuedJobId, 10L);
+        CompletableFuture<Void> other = controller.admit(UUID.randomUUID(), 10L);
+        jobContextService.killJobs(Collections.singletonList(queuedJobId));
+
+        assertThat(queued.isCompletedExceptionally(), is(true));
+        try {
+            queued.get();
+            fail("queued job must have been killed");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(JobKilledException.class));
+        }
+        assertThat(other.isDone(), is(false));
+        assertThat(controller.queuedJobs().size(), is(1));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.expression;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.data.Input;
+import io.crate.expression.symbol.Symbol;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.SqlExpressions;
+import io.crate.testing.T3;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+
+public class ExpressionCompilerTest extends CrateUnitTest {
+
+    private final SqlExpressions expressions = new SqlExpressions(ImmutableMap.of(T3.T1, T3.TR_1), T3.TR_1);
+    private final InputFactory factory = new InputFactory(expressions.functions());
+    private final Map<String, Object> values = new HashMap<>();
+
+    private Input<?> compile(String expression) {
+        Symbol symbol = expressions.normalize(expressions.asSymbol(expression));
+        InputFactory.Context<Input<?>> ctx = factory.ctxForRefs(
+            ref -> () -> values.get(ref.column().sqlFqn()));
+        return ctx.add(symbol);
+    }
+
+    @Test
+    public void testNestedArithmeticIsCompiledAndReturnsValueOfFunctionType() throws Exception {
+        Input<?> input = compile("x * i + i");
+        assertThat(input, not(instanceOf(FunctionExpression.class)));
+
+        values.put("x", 5);
+        values.put("i", 2);
+        assertThat(input.value(), is(12));
+
+        values.put("i", null);
+        assertThat(input.value(), nullValue());
+    }
+
+    @Test
+    public void testComparisonAndNonCompilableFunctionAreCombined() throws Exception {
+        Input<?> input = compile("x * 2 + i > 10 and a like 'f%'");
+
+        values.put("x", 5);
+        values.put("i", 2);
+        values.put("a", "foo");
+        assertThat(input.value(), is(true));
+
+        values.put("a", "bar");
+        assertThat(input.value(), is(false));
+
+        values.put("a", null);
+        assertThat(input.value(), nullValue());
+
+        values.put("i", 0);
+        assertThat(input.value(), is(false));
+    }
+
+    @Test
+    public void testThreeValuedLogic() throws Exception {
+        Input<?> and = compile("x > 1 and i > 1");
+        Input<?> or = compile("x > 1 or i > 1");
+        Input<?> not = compile("not x > 1");
+
+        values.put("x", null);
+        values.put("i", 2);
+        assertThat(and.value(), nullValue());
+        assertThat(or.value(), is(true));
+        assertThat(not.value(), nullValue());
+
+        values.put("i", 0);
+        assertThat(and.value(), is(false));
+        assertThat(or.value(), nullValue());
+
+        values.put("i", null);
+        assertThat(and.value(), nullValue());
+        assertThat(or.value(), nullValue());
+
+        values.put("x", 0);
+        assertThat(and.value(), is(false));
+        assertThat(or.value(), nullValue());
+        assertThat(not.value(), is(true));
+    }
+
+    @Test
+    public void testIntegerDivisionByZeroFails() throws Exception {
+        Input<?> input = compile("x / i");
+        values.put("x", 1);
+        values.put("i", 0);
+
+        expectedException.expect(ArithmeticException.class);
+        input.value();
+    }
+
+    @Test
+    public void testDoubleArithmeticAndComparison() throws Exception {
+        Input<?> input = compile("x / 0.0 = 1.0 / 0.0");
+        values.put("x", 1);
+        assertThat(input.value(), is(true));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.expression.scalar.regex;
+
+import io.crate.exceptions.UnsupportedFeatureException;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class LinearRegexMatcherTest extends CrateUnitTest {
+
+    private static final List<String> PATTERNS = Arrays.asList(
+        "ba", "(ba)", ".*(ba).*", "((\\w+?)(ba))", "\\w+( --?\\w+)*( \\w+)*",
+        "a|ab", "(a|ab)(c|bcd)(d*)", "(a|b)*?c", "((a)|b)+", "a{2,3}", "a{2,}?", "(?:ab){0,2}c",
+        "^foo", "bar$", "(?m)^", "\\bba\\w*", "\\Bar", "[^a-c]+", "[\\d\\s]+", "[\\w.-]+@[\\w.-]+",
+        "(?i)FOO", "(?i:b)A", "x*", "(?<year>\\d{4})-(?<month>\\d\\d)", "\\Q.*\\E", "\\x41\\u0042\\0103",
+        "(?m)^\\w+$", "(?s)a.c", "a.c", "(?x) a b # comment", "colou?r", "(\\d+)(\\.\\d+)?");
+
+    private static final List<String> INPUTS = Arrays.asList(
+        "", "foobarbequebaz", "gcc -Wall --std=c99 -o source source.c", "abcd", "aaab", "aaaa", "ababc",
+        "foo\nbar", "FOO bar", "bA", "a\nc", "1999-12-31", "mail me@example.com", ".*AB", "ABC", "colour color",
+        "pi is 3.1415", "été 😀 x", "foo\r\n", "x\r\ny\n");
+
+    @Test
+    public void testFindAndGroupsBehaveLikeJavaRegex() {
+        for (String regex : PATTERNS) {
+            Pattern pattern = Pattern.compile(regex);
+            LinearRegex linearRegex = LinearRegex.compile(regex, 0);
+            assertThat(regex, linearRegex.groupCount(), is(pattern.matcher("").groupCount()));
+            for (String input : INPUTS) {
+                Matcher expected = pattern.matcher(input);
+                LinearRegexMatcher actual = linearRegex.matcher().reset(input);
+                while (true) {
+                    boolean found = expected.find();
+                    assertThat(regex + " on " + input, actual.find(), is(found));
+                    if (!found) {
+                        break;
+                    }
+                    for (int i = 0; i <= expected.groupCount(); i++) {
+                        assertThat(regex + " group " + i + " on " + input, actual.group(i), is(expected.group(i)));
+                    }
+                }
+                assertThat(regex + " matches " + input,
+                    linearRegex.matcher().reset(input).matches(), is(pattern.matcher(input).matches()));
+            }
+        }
+    }
+
+    @Test
+    public void testReplaceBehavesLikeJavaRegex() {
+        assertReplace("ba", "foobarbequebaz", "Crate");
+        assertReplace("(ba).*(ba)", "foobarbequebaz", "First$1Second$2");
+        assertReplace("x*", "abc", "-");
+        assertReplace("(?<first>\\w)(\\w*)", "hello world", "$2${first}ay");
+        assertReplace("(a)(b)?", "ab a", "[$2\\$$1]");
+    }
+
+    private static void assertReplace(String regex, String input, String replacement) {
+        Matcher expected = Pattern.compile(regex).matcher(input);
+        LinearRegexMatcher actual = LinearRegex.compile(regex, 0).matcher().reset(input);
+        assertThat(actual.replace(replacement, false), is(expected.replaceFirst(replacement)));
+        assertThat(actual.replace(replacement, true), is(expected.replaceAll(replacement)));
+    }
+
+    @Test
+    public void testCaseInsensitiveFlags() {
+        LinearRegexMatcher ascii = LinearRegex.compile("[a-z]+é", Pattern.CASE_INSENSITIVE).matcher();
+        assertThat(ascii.reset("ABCé").matches(), is(true));
+        assertThat(ascii.reset("ABCÉ").matches(), is(false));
+
+        LinearRegexMatcher unicode = LinearRegex.compile(
+            "[a-z]+é", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE).matcher();
+        assertThat(unicode.reset("ABCÉ").matches(), is(true));
+
+        LinearRegexMatcher negated = LinearRegex.compile("[^a]", Pattern.CASE_INSENSITIVE).matcher();
+        assertThat(negated.reset("A").matches(), is(false));
+    }
+
+    @Test
+    public void testUnmatchedGroupIsNull() {
+        LinearRegexMatcher matcher = LinearRegex.compile("(a)|(b)", 0).matcher().reset("b");
+        assertThat(matcher.find(), is(true));
+        assertThat(matcher.group(1), nullValue());
+        assertThat(matcher.group(2), is("b"));
+    }
+
+    @Test
+    public void testCatastrophicPatternRunsInLinearTime() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            input.append('a');
+        }
+        long started = System.nanoTime();
+        LinearRegexMatcher matcher = LinearRegex.compile("(a+)+b", 0).matcher().reset(input);
+        assertThat(matcher.matches(), is(false));
+        matcher = LinearRegex.compile("(x+x+)+y", 0).matcher().reset(input.toString().replace('a', 'x'));
+        assertThat(matcher.find(), is(false));
+        // a backtracking engine would not finish at all
+        assertThat(System.nanoTime() - started, lessThan(60_000_000_000L));
+    }
+
+    @Test
+    public void testCompiledExpressionsAreCached() {
+        assertThat(LinearRegex.compile("a(b)c", 0), sameInstance(LinearRegex.compile("a(b)c", 0)));
+    }
+
+    @Test
+    public void testBackReferencesAreNotSupported() {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage("The linear regular expression engine does not support back references: \"(a)\\1\"");
+        LinearRegex.compile("(a)\\1", 0);
+    }
+
+    @Test
+    public void testLookAheadIsNotSupported() {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage("does not support look-ahead");
+        LinearRegex.compile("a(?=b)", 0);
+    }
+
+    @Test
+    public void testPossessiveQuantifiersAreNotSupported() {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage("does not support possessive quantifiers");
+        LinearRegex.compile("a*+", 0);
+    }
+
+    @Test
+    public void testInvalidPattern() {
+        expectedException.expect(PatternSyntaxException.class);
+        expectedException.expectMessage("Unclosed group");
+        LinearRegex.compile("(ab", 0);
+    }
+
+    @Test
+    public void testProgramSizeIsLimited() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("is too large for the linear regular expression engine");
+        LinearRegex.compile("((a{1000}){1000}){1000}", 0);
+    }
+}
@@ -100,4 +100,18 @@ public class RegexMatcherTest extends CrateUnitTest {
         assertThat(regexMatcher.groups(),
             arrayContaining(new BytesRef(" --std"), null));
     }
+
+    @Test
+    public void testLinearEngineFlag() throws Exception {
+        String pattern = "\\w+( --?\\w+)*( \\w+)*";
+        BytesRef text = new BytesRef("gcc -Wall --std=c99 -o source source.c");
+        RegexMatcher regexMatcher = new RegexMatcher(pattern, new BytesRef("l"));
+        assertEquals(true, regexMatcher.match(text));
+        assertThat(regexMatcher.groups(),
+            arrayContaining(new BytesRef(" --std"), null));
+
+        regexMatcher = new RegexMatcher("(ba).*?(ba)", new BytesRef("gl"));
+        assertEquals(new BytesRef("fooFirstbaSecondbaz"),
+            regexMatcher.replace(new BytesRef("foobarbequebaz"), "First$1Second$2"));
+    }
 }
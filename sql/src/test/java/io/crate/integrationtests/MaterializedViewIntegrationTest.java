@@ -0,0 +1,215 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.integrationtests;
+
+import io.crate.action.sql.Session;
+import io.crate.metadata.view.MaterializedView;
+import io.crate.metadata.view.MaterializedViewsMetaData;
+import io.crate.testing.TestingHelpers;
+import org.elasticsearch.test.ESIntegTestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+@ESIntegTestCase.ClusterScope(numDataNodes = 2)
+public class MaterializedViewIntegrationTest extends SQLTransportIntegrationTest {
+
+    private Session session;
+
+    @Before
+    public void createView() {
+        execute("create table visits (id int primary key, country string not null, bytes long) " +
+                "clustered into 2 shards with (number_of_replicas = 0)");
+        execute("insert into visits (id, country, bytes) values (1, 'AT', 10), (2, 'AT', 20), (3, 'DE', 30)");
+        execute("refresh table visits");
+        execute("create materialized view country_visits as " +
+                "select country, count(*) as visits, sum(bytes) as total_bytes from visits group by country");
+        execute("refresh table country_visits");
+
+        session = sqlExecutor.newSession();
+        execute("set enable_materialized_view_rewrite = true", null, session);
+    }
+
+    @After
+    public void closeSession() {
+        if (session != null) {
+            session.close();
+        }
+    }
+
+    private void assertQueryIsRewritten(boolean rewritten) {
+        execute("explain select country, count(*), sum(bytes) from visits group by country", null, session);
+        String plan = response.rows()[0][0].toString();
+        if (rewritten) {
+            assertThat(plan, containsString("country_visits"));
+        } else {
+            assertThat(plan, not(containsString("country_visits")));
+        }
+    }
+
+    private void assertViewIsStale(boolean stale) {
+        assertViewIsStale("country_visits", stale);
+    }
+
+    private void assertViewIsStale(String name, boolean stale) {
+        MaterializedViewsMetaData metaData = client().admin().cluster().prepareState().get()
+            .getState().metaData().custom(MaterializedViewsMetaData.TYPE);
+        MaterializedView view = metaData.views().get(sqlExecutor.getDefaultSchema() + "." + name);
+        assertThat(view.isStale(), is(stale));
+    }
+
+    private void createPartitionedView() {
+        execute("create table parted_visits (id int, country string, bytes long, primary key (id, country)) " +
+                "partitioned by (country) with (number_of_replicas = 0)");
+        execute("insert into parted_visits (id, country, bytes) values (1, 'AT', 10), (2, 'AT', 20), (3, 'DE', 30)");
+        execute("refresh table parted_visits");
+        execute("create materialized view parted_country_visits as " +
+                "select country, count(*) as visits from parted_visits group by country");
+        execute("refresh table parted_country_visits");
+    }
+
+    private void assertPartitionedQueryIsRewritten(boolean rewritten) {
+        execute("explain select country, count(*) from parted_visits group by country", null, session);
+        String plan = response.rows()[0][0].toString();
+        if (rewritten) {
+            assertThat(plan, containsString("parted_country_visits"));
+        } else {
+            assertThat(plan, not(containsString("parted_country_visits")));
+        }
+    }
+
+    private void assertVisitsPerCountry(String expected) {
+        execute("refresh table visits, country_visits");
+        execute("select country, count(*), sum(bytes) from visits group by country order by country", null, session);
+        assertThat(TestingHelpers.printedTable(response.rows()), is(expected));
+    }
+
+    @Test
+    public void testRewriteIsDisabledByDefault() {
+        execute("explain select country, count(*), sum(bytes) from visits group by country");
+        assertThat(response.rows()[0][0].toString(), not(containsString("country_visits")));
+    }
+
+    @Test
+    public void testInsertIsFoldedIntoView() {
+        assertQueryIsRewritten(true);
+        execute("insert into visits (id, country, bytes) values (4, 'DE', 40), (5, 'IT', 50)");
+
+        assertViewIsStale(false);
+        assertQueryIsRewritten(true);
+        assertVisitsPerCountry("AT| 2| 30\n" +
+                               "DE| 2| 70\n" +
+                               "IT| 1| 50\n");
+    }
+
+    @Test
+    public void testUpdateMarksViewStale() {
+        assertQueryIsRewritten(true);
+        execute("update visits set country = 'DE' where id = 1");
+
+        assertViewIsStale(true);
+        assertQueryIsRewritten(false);
+        assertVisitsPerCountry("AT| 1| 20\n" +
+                               "DE| 2| 40\n");
+    }
+
+    @Test
+    public void testUpdateByQueryMarksViewStale() {
+        assertQueryIsRewritten(true);
+        execute("update visits set bytes = bytes * 2 where country = 'AT'");
+
+        assertViewIsStale(true);
+        assertQueryIsRewritten(false);
+        assertVisitsPerCountry("AT| 2| 60\n" +
+                               "DE| 1| 30\n");
+    }
+
+    @Test
+    public void testDeleteMarksViewStale() {
+        assertQueryIsRewritten(true);
+        execute("delete from visits where id = 3");
+
+        assertViewIsStale(true);
+        assertQueryIsRewritten(false);
+        assertVisitsPerCountry("AT| 2| 30\n");
+    }
+
+    @Test
+    public void testDeleteByQueryMarksViewStale() {
+        assertQueryIsRewritten(true);
+        execute("delete from visits where country = 'AT'");
+
+        assertViewIsStale(true);
+        assertQueryIsRewritten(false);
+        assertVisitsPerCountry("DE| 1| 30\n");
+    }
+
+    @Test
+    public void testDeletePartitionMarksViewStale() {
+        createPartitionedView();
+        assertPartitionedQueryIsRewritten(true);
+        execute("delete from parted_visits where country = 'AT'");
+
+        assertViewIsStale("parted_country_visits", true);
+        assertPartitionedQueryIsRewritten(false);
+        execute("refresh table parted_visits");
+        execute("select country, count(*) from parted_visits group by country", null, session);
+        assertThat(TestingHelpers.printedTable(response.rows()), is("DE| 1\n"));
+    }
+
+    @Test
+    public void testDeleteAllPartitionsMarksViewStale() {
+        createPartitionedView();
+        assertPartitionedQueryIsRewritten(true);
+        execute("delete from parted_visits");
+
+        assertViewIsStale("parted_country_visits", true);
+        assertPartitionedQueryIsRewritten(false);
+        execute("refresh table parted_visits");
+        execute("select count(*) from parted_visits", null, session);
+        assertThat(response.rows()[0][0], is(0L));
+    }
+
+    @Test
+    public void testUpsertMarksViewStale() {
+        assertQueryIsRewritten(true);
+        execute("insert into visits (id, country, bytes) values (2, 'AT', 20) " +
+                "on duplicate key update country = 'IT'");
+
+        assertViewIsStale(true);
+        assertQueryIsRewritten(false);
+        assertVisitsPerCountry("AT| 1| 10\n" +
+                               "DE| 1| 30\n" +
+                               "IT| 1| 20\n");
+    }
+
+    @Test
+    public void testSourceTableIsWritableAfterViewIsCreated() {
+        execute("select settings['blocks']['write'] from information_schema.tables where table_name = 'visits'");
+        assertThat(response.rows()[0][0], is(false));
+    }
+}
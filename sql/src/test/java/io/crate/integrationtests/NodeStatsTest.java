@@ -363,4 +363,24 @@ public class NodeStatsTest extends SQLTransportIntegrationTest {
         assertThat((String) response.rows()[0][0], is("node_s0"));
         assertThat((String) response.rows()[1][0], is("node_s1"));
     }
+
+    @Test
+    public void testPublishedNodeStatsAreUsedUnlessFreshStatsAreRequested() throws Exception {
+        execute("set global transient stats.nodes.publish_interval = '100ms'");
+        try {
+            assertBusy(() -> {
+                SQLResponse response = execute("select stats_age, heap['used'] from sys.nodes");
+                assertThat(response.rowCount(), is(2L));
+                for (Object[] row : response.rows()) {
+                    assertThat(((Number) row[0]).longValue(), greaterThan(0L));
+                    assertThat(row[1], notNullValue());
+                }
+            });
+
+            SQLResponse response = execute("select stats_age from sys.nodes where stats_age = 0");
+            assertThat(response.rowCount(), is(2L));
+        } finally {
+            execute("reset global stats.nodes.publish_interval");
+        }
+    }
 }
@@ -26,9 +26,11 @@ import com.google.common.collect.ImmutableList;
 import io.crate.Constants;
 import io.crate.Version;
 import io.crate.action.sql.SQLActionException;
+import io.crate.data.Row1;
 import io.crate.metadata.IndexMappings;
 import io.crate.metadata.PartitionName;
 import io.crate.metadata.Schemas;
+import io.crate.testing.SQLBulkResponse;
 import io.crate.testing.SQLResponse;
 import io.crate.testing.TestingHelpers;
 import io.crate.testing.UseJdbc;
@@ -399,6 +401,35 @@ public class PartitionedTableIntegrationTest extends SQLTransportIntegrationTest
         validateInsertPartitionedTable();
     }
 
+    @Test
+    public void testBulkInsertReturnsRowCountPerBulkArgWithPartialFailuresAndNewPartitions() throws Exception {
+        execute("create table parted (id integer, date timestamp, primary key (id, date))" +
+                "partitioned by (date) with (number_of_replicas = 0)");
+        ensureYellow();
+        execute("insert into parted (id, date) values (1, 0)");
+        refresh();
+
+        SQLBulkResponse bulkResp = execute("insert into parted (id, date) values (?, ?), (?, ?)", new Object[][]{
+            new Object[]{2, 0L, 3, 1000L},      // existing and new partition
+            new Object[]{1, 0L, 4, 2000L},      // duplicate key and new partition
+            new Object[]{5, 3000L, 6, 3000L},   // both rows in the same new partition
+            new Object[]{7, 1000L, 8, 0L}       // partition created by the first bulk arg
+        });
+        assertThat(bulkResp.results().length, is(4));
+        assertThat(bulkResp.results()[0].rowCount(), is(2L));
+        assertThat(bulkResp.results()[1].rowCount(), is(Row1.ERROR));
+        assertThat(bulkResp.results()[2].rowCount(), is(2L));
+        assertThat(bulkResp.results()[3].rowCount(), is(2L));
+        ensureYellow();
+        refresh();
+
+        // the failure of the duplicate key doesn't prevent the other row of the same bulk arg from being inserted
+        execute("select id from parted order by id");
+        assertThat(printedTable(response.rows()), is("1\n2\n3\n4\n5\n6\n7\n8\n"));
+        execute("select count(*) from information_schema.table_partitions where table_name = 'parted'");
+        assertThat(response.rows()[0][0], is(4L));
+    }
+
     @Test
     public void testInsertPartitionedTableOnlyPartitionedColumns() throws Exception {
         execute("create table parted (name string, date timestamp)" +
@@ -2129,4 +2160,17 @@ public class PartitionedTableIntegrationTest extends SQLTransportIntegrationTest
         execute("select values['p'], values['obj[''p'']'] from information_schema.table_partitions");
         assertThat(printedTable(response.rows()), is("1| 10\n"));
     }
+
+    @Test
+    public void testExplainShowsSelectedAndTotalNumberOfPartitions() throws Exception {
+        execute("create table parted (id int, p int) partitioned by (p) with (number_of_replicas = 0)");
+        execute("insert into parted (id, p) values (1, 1), (2, 2), (3, 3)");
+        ensureYellow();
+
+        execute("explain select id from parted where p = 1");
+        assertThat(response.rows()[0][0].toString(), Matchers.containsString("partitions=1/3"));
+
+        execute("explain select id from parted where p = 1 or p = 3");
+        assertThat(response.rows()[0][0].toString(), Matchers.containsString("partitions=2/3"));
+    }
 }
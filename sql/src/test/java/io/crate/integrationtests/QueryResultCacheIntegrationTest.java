@@ -0,0 +1,105 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.integrationtests;
+
+import io.crate.action.sql.QueryResultCache;
+import io.crate.testing.TestingHelpers;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESIntegTestCase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.function.ToLongFunction;
+
+import static org.hamcrest.Matchers.is;
+
+@ESIntegTestCase.ClusterScope(numDataNodes = 2, supportsDedicatedMasters = false)
+public class QueryResultCacheIntegrationTest extends SQLTransportIntegrationTest {
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal) {
+        return Settings.builder()
+            .put(super.nodeSettings(nodeOrdinal))
+            .put(QueryResultCache.SIZE_SETTING.getKey(), "1mb")
+            .build();
+    }
+
+    @Before
+    public void createTable() {
+        execute("create table t (id int primary key, name string) " +
+                "clustered into 2 shards with (number_of_replicas = 0)");
+        execute("insert into t (id, name) values (1, 'Arthur'), (2, 'Trillian')");
+        execute("refresh table t");
+    }
+
+    private static long sum(ToLongFunction<QueryResultCache> stat) {
+        long sum = 0;
+        for (QueryResultCache cache : internalCluster().getInstances(QueryResultCache.class)) {
+            sum += stat.applyAsLong(cache);
+        }
+        return sum;
+    }
+
+    private void assertNames(String expected) {
+        execute("select id, name from t order by id");
+        assertThat(TestingHelpers.printedTable(response.rows()), is(expected));
+    }
+
+    @Test
+    public void testResultOfQueryOnWritableTableIsNotCached() {
+        assertNames("1| Arthur\n2| Trillian\n");
+        assertNames("1| Arthur\n2| Trillian\n");
+        assertThat(sum(QueryResultCache::numEntries), is(0L));
+        assertThat(sum(QueryResultCache::hits), is(0L));
+    }
+
+    @Test
+    public void testResultOfQueryOnWriteBlockedTableIsCached() {
+        execute("alter table t set (\"blocks.write\" = true)");
+
+        // every node caches the result once it handled the query
+        for (int i = 0; i < 10; i++) {
+            assertNames("1| Arthur\n2| Trillian\n");
+        }
+        long numNodes = internalCluster().size();
+        assertThat(sum(QueryResultCache::numEntries) <= numNodes, is(true));
+        assertThat(sum(QueryResultCache::hits), is(10L - sum(QueryResultCache::numEntries)));
+        assertThat(sum(QueryResultCache::misses), is(sum(QueryResultCache::numEntries)));
+    }
+
+    @Test
+    public void testResultIsInvalidatedOnceTableIsWritable() throws Exception {
+        execute("alter table t set (\"blocks.write\" = true)");
+        assertNames("1| Arthur\n2| Trillian\n");
+        assertThat(sum(QueryResultCache::numEntries), is(1L));
+
+        execute("alter table t set (\"blocks.write\" = false)");
+        assertBusy(() -> assertThat(sum(QueryResultCache::numEntries), is(0L)));
+
+        execute("insert into t (id, name) values (3, 'Ford')");
+        execute("refresh table t");
+        execute("alter table t set (\"blocks.write\" = true)");
+        assertNames("1| Arthur\n2| Trillian\n3| Ford\n");
+        assertNames("1| Arthur\n2| Trillian\n3| Ford\n");
+    }
+}
@@ -87,4 +87,31 @@ public class RestSQLActionIntegrationTest extends SQLHttpIntegrationTest {
         String bodyAsString = EntityUtils.toString(resp.getEntity());
         assertThat(bodyAsString, containsString("ArithmeticFunctions.java"));
     }
+
+    @Test
+    public void testStreamingResponseIsChunkedAndContainsAllRows() throws Exception {
+        execute("select count(*) from sys.summits");
+        long numSummits = (long) response.rows()[0][0];
+
+        CloseableHttpResponse resp = postStreaming("{\"stmt\": \"select mountain from sys.summits\"}");
+        assertThat(resp.getStatusLine().getStatusCode(), is(200));
+        assertThat(resp.getFirstHeader("Transfer-Encoding").getValue(), is("chunked"));
+        String bodyAsString = EntityUtils.toString(resp.getEntity());
+        assertThat(bodyAsString, startsWith("{\"cols\":[\"mountain\"],\"rows\":[[\""));
+        assertThat(bodyAsString, containsString("\"rowcount\":" + numSummits + ","));
+    }
+
+    @Test
+    public void testStreamingRequestWithoutResultSetIsAnsweredRegularly() throws Exception {
+        CloseableHttpResponse resp = postStreaming("{\"stmt\": \"create table t (id int)\"}");
+        assertThat(resp.getStatusLine().getStatusCode(), is(200));
+        assertThat(EntityUtils.toString(resp.getEntity()), containsString("\"rowcount\":1"));
+    }
+
+    @Test
+    public void testStreamingRequestWithUnknownTableReturnsError() throws Exception {
+        CloseableHttpResponse resp = postStreaming("{\"stmt\": \"select * from unknown\"}");
+        assertThat(resp.getStatusLine().getStatusCode(), is(404));
+        assertThat(EntityUtils.toString(resp.getEntity()), containsString("TableUnknownException"));
+    }
 }
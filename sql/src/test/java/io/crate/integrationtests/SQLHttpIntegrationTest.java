@@ -94,6 +94,17 @@ public abstract class SQLHttpIntegrationTest extends SQLTransportIntegrationTest
         return post(body, null);
     }
 
+    protected CloseableHttpResponse postStreaming(String body, @Nullable Header[] headers) throws IOException {
+        HttpPost streamingPost = new HttpPost(httpPost.getURI() + "&stream=true");
+        streamingPost.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        streamingPost.setHeaders(headers);
+        return httpClient.execute(streamingPost);
+    }
+
+    protected CloseableHttpResponse postStreaming(String body) throws IOException {
+        return postStreaming(body, null);
+    }
+
     protected String upload(String table, String content) throws IOException {
         String digest = blobDigest(content);
         String url = Blobs.url(usesSSL, address, table, digest);
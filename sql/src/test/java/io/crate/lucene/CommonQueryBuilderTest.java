@@ -26,6 +26,7 @@ import io.crate.analyze.WhereClause;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.relations.TableRelation;
 import io.crate.exceptions.ConversionException;
+import io.crate.expression.scalar.regex.RegexEngine;
 import io.crate.lucene.match.CrateRegexQuery;
 import io.crate.metadata.Schemas;
 import io.crate.metadata.TableIdent;
@@ -35,6 +36,7 @@ import io.crate.sql.tree.QualifiedName;
 import io.crate.testing.SqlExpressions;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.ConstantScoreQuery;
@@ -177,6 +179,39 @@ public class CommonQueryBuilderTest extends LuceneQueryBuilderTest {
         assertThat(query, instanceOf(CrateRegexQuery.class));
     }
 
+    @Test
+    public void testRegexQueryPcreWithLinearRegexEngine() throws Exception {
+        expressions.setRegexEngine(RegexEngine.LINEAR);
+        Query query = convert("name ~ '\\D'");
+        assertThat(query, is(new CrateRegexQuery(new Term("name", "\\D"), 0, RegexEngine.LINEAR)));
+    }
+
+    @Test
+    public void testLikeOnTrigramIndexedColumnUsesTrigramsAndVerifiesCandidates() throws Exception {
+        Query query = convert("log like '%foobar%'");
+        assertThat(query, instanceOf(BooleanQuery.class));
+        BooleanQuery booleanQuery = (BooleanQuery) query;
+        assertThat(booleanQuery.clauses().get(0).getQuery().toString(),
+            is("ConstantScore(#log.trigram:foo #log.trigram:oob #log.trigram:oba #log.trigram:bar)"));
+        assertThat(booleanQuery.clauses().get(1).getQuery(), instanceOf(GenericFunctionQuery.class));
+    }
+
+    @Test
+    public void testLikeOnTrigramIndexedColumnWithoutTrigramsUsesWildcardQuery() throws Exception {
+        Query query = convert("log like '%fo%'");
+        assertThat(query, instanceOf(WildcardQuery.class));
+    }
+
+    @Test
+    public void testRegexOnTrigramIndexedColumnUsesTrigramsAndVerifiesCandidates() throws Exception {
+        Query query = convert("log ~ '.*error[0-9]+fail.*'");
+        assertThat(query, instanceOf(BooleanQuery.class));
+        BooleanQuery booleanQuery = (BooleanQuery) query;
+        assertThat(booleanQuery.clauses().get(0).getQuery().toString(),
+            is("ConstantScore(#log.trigram:err #log.trigram:rro #log.trigram:ror #log.trigram:fai #log.trigram:ail)"));
+        assertThat(booleanQuery.clauses().get(1).getQuery(), instanceOf(GenericFunctionQuery.class));
+    }
+
     @Test
     public void testIdQuery() throws Exception {
         Query query = convert("_id = 'i1'");
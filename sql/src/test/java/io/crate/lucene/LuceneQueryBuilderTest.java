@@ -111,6 +111,7 @@ public abstract class LuceneQueryBuilderTest extends CrateUnitTest {
             .add("shape", DataTypes.GEO_SHAPE)
             .add("point", DataTypes.GEO_POINT)
             .add("addr", DataTypes.IP)
+            .add("log", DataTypes.STRING)
             .build();
         TableRelation usersTr = new TableRelation(users);
         sources = ImmutableMap.of(new QualifiedName("users"), usersTr);
@@ -140,6 +141,15 @@ public abstract class LuceneQueryBuilderTest extends CrateUnitTest {
                     .startObject("point").field("type", "geo_point").endObject()
                     .startObject("shape").field("type", "geo_shape").endObject()
                     .startObject("addr").field("type", "ip").endObject()
+                    .startObject("log")
+                        .field("type", "keyword")
+                        .startObject("fields")
+                            .startObject(TrigramIndex.FIELD_NAME)
+                                .field("type", "text")
+                                .field("analyzer", "standard")
+                            .endObject()
+                        .endObject()
+                    .endObject()
                     .startObject("d_array")
                         .field("type", "array")
                         .startObject("inner")
@@ -0,0 +1,79 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.search.Query;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TrigramIndexTest extends CrateUnitTest {
+
+    private static String like(String pattern) {
+        Query query = TrigramIndex.likeQuery("f", pattern);
+        return query == null ? null : query.toString();
+    }
+
+    private static String regex(String pattern) {
+        Query query = TrigramIndex.regexQuery("f", pattern);
+        return query == null ? null : query.toString();
+    }
+
+    @Test
+    public void testLikePatternTrigrams() {
+        assertThat(like("%abcd%"), is("ConstantScore(#f:abc #f:bcd)"));
+        assertThat(like("abc_%xyz"), is("ConstantScore(#f:abc #f:xyz)"));
+        assertThat(like("ab\\%c%"), is("ConstantScore(#f:ab% #f:b%c)"));
+        assertThat(like("%ab%cd%"), is(nullValue()));
+    }
+
+    @Test
+    public void testRegexPatternTrigrams() {
+        assertThat(regex(".*abcd.*"), is("ConstantScore(#f:abc #f:bcd)"));
+        // optional characters are not required
+        assertThat(regex("abcd?"), is("ConstantScore(#f:abc)"));
+        assertThat(regex("abcd*efg"), is("ConstantScore(#f:abc #f:efg)"));
+        assertThat(regex("abcd{0,2}"), is("ConstantScore(#f:abc)"));
+        assertThat(regex("abcd+"), is("ConstantScore(#f:abc #f:bcd)"));
+        // escaped meta characters are literals
+        assertThat(regex("a\\.bc"), is("ConstantScore(#f:a.b #f:.bc)"));
+        assertThat(regex("\\dabc"), is("ConstantScore(#f:abc)"));
+    }
+
+    @Test
+    public void testRegexGroupsAndClassesAreNotRequired() {
+        assertThat(regex("(abc)?def"), is("ConstantScore(#f:def)"));
+        assertThat(regex("[abc]def"), is("ConstantScore(#f:def)"));
+        assertThat(regex("[]abc]"), is(nullValue()));
+    }
+
+    @Test
+    public void testRegexWithoutRequiredLiteralsHasNoTrigrams() {
+        assertThat(regex("abc|def"), is(nullValue()));
+        assertThat(regex("(?i)abcdef"), is(nullValue()));
+        assertThat(regex("~(abc)"), is(nullValue()));
+        assertThat(regex("ab.cd"), is(nullValue()));
+    }
+}
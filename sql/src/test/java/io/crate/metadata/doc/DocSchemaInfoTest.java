@@ -29,13 +29,20 @@ import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
 import io.crate.metadata.Functions;
 import io.crate.metadata.Scalar;
+import io.crate.metadata.TableIdent;
 import io.crate.expression.udf.UDFLanguage;
 import io.crate.expression.udf.UserDefinedFunctionMetaData;
 import io.crate.expression.udf.UserDefinedFunctionService;
 import io.crate.expression.udf.UserDefinedFunctionsMetaData;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.types.DataTypes;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.IndexTemplateMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.Index;
 import org.hamcrest.Matchers;
 import org.junit.Before;
@@ -43,8 +50,13 @@ import org.junit.Test;
 
 import javax.annotation.Nullable;
 import javax.script.ScriptException;
+import java.util.HashMap;
+import java.util.Map;
 
 import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
 
 public class DocSchemaInfoTest extends CrateDummyClusterServiceUnitTest {
 
@@ -123,4 +135,100 @@ public class DocSchemaInfoTest extends CrateDummyClusterServiceUnitTest {
         docSchemaInfo.invalidateFromIndex(new Index("my_index", "asdf"), metaData);
     }
 
+    @Test
+    public void testTableNamesAreUpdatedWithCreatedAndDeletedIndices() throws Exception {
+        MetaData metaData = MetaData.builder()
+            .put(indexMetaData("t1"))
+            .put(indexMetaData("custom.t2"))
+            .put(indexMetaData(".blob_b1"))
+            .put(indexMetaData(".partitioned.t3.0400"))
+            .put(templateMetaData(".partitioned.t3."))
+            .put(indexMetaData(".partitioned.orphan.0400"))
+            .build();
+        ClusterState state = applyMetaData(clusterService.state(), metaData);
+        assertThat(docSchemaInfo.tableNames(), containsInAnyOrder("t1", "t3"));
+
+        metaData = MetaData.builder(metaData)
+            .remove("t1")
+            .put(indexMetaData("t4"))
+            .put(templateMetaData(".partitioned.t5."))
+            .build();
+        applyMetaData(state, metaData);
+        assertThat(docSchemaInfo.tableNames(), containsInAnyOrder("t3", "t4", "t5"));
+    }
+
+    @Test
+    public void testCreatedPartitionOnlyInvalidatesItsTable() throws Exception {
+        Map<String, Integer> createdTableInfos = new HashMap<>();
+        docSchemaInfo = new DocSchemaInfo("doc", clusterService, null, udfService, (ident, state) -> {
+            createdTableInfos.merge(ident.name(), 1, Integer::sum);
+            return mock(DocTableInfo.class);
+        });
+        MetaData metaData = MetaData.builder()
+            .put(indexMetaData("t1"))
+            .put(indexMetaData(".partitioned.t2.0400"))
+            .put(templateMetaData(".partitioned.t2."))
+            .build();
+        ClusterState state = applyMetaData(clusterService.state(), metaData);
+        docSchemaInfo.getTableInfo("t1");
+        docSchemaInfo.getTableInfo("t2");
+
+        metaData = MetaData.builder(metaData)
+            .put(indexMetaData(".partitioned.t2.0401"))
+            .build();
+        applyMetaData(state, metaData);
+        docSchemaInfo.getTableInfo("t1");
+        docSchemaInfo.getTableInfo("t2");
+
+        assertThat(createdTableInfos.get("t1"), is(1));
+        assertThat(createdTableInfos.get("t2"), is(2));
+    }
+
+    @Test
+    public void testPartitionMetaDataChangeInvalidatesTableOnlyIfDefinitionChanged() throws Exception {
+        Map<String, Integer> createdTableInfos = new HashMap<>();
+        docSchemaInfo = new DocSchemaInfo("doc", clusterService, null, udfService, (ident, state) -> {
+            createdTableInfos.merge(ident.name(), 1, Integer::sum);
+            return mock(DocTableInfo.class);
+        });
+        IndexMetaData partition = indexMetaData(".partitioned.t1.0400").build();
+        MetaData metaData = MetaData.builder()
+            .put(partition, false)
+            .put(templateMetaData(".partitioned.t1."))
+            .build();
+        ClusterState state = applyMetaData(clusterService.state(), metaData);
+        docSchemaInfo.getTableInfo("t1");
+
+        // a new primary term doesn't change the table definition
+        metaData = MetaData.builder(metaData)
+            .put(IndexMetaData.builder(partition).primaryTerm(0, 2))
+            .build();
+        state = applyMetaData(state, metaData);
+        docSchemaInfo.getTableInfo("t1");
+        assertThat(createdTableInfos.get("t1"), is(1));
+
+        metaData = MetaData.builder(metaData)
+            .put(IndexMetaData.builder(partition).numberOfReplicas(2))
+            .build();
+        applyMetaData(state, metaData);
+        docSchemaInfo.getTableInfo("t1");
+        assertThat(createdTableInfos.get("t1"), is(2));
+    }
+
+    private ClusterState applyMetaData(ClusterState previousState, MetaData metaData) {
+        ClusterState newState = ClusterState.builder(previousState).metaData(metaData).build();
+        docSchemaInfo.update(new ClusterChangedEvent("test", newState, previousState));
+        return newState;
+    }
+
+    private static IndexMetaData.Builder indexMetaData(String indexName) {
+        return IndexMetaData.builder(indexName)
+            .settings(Settings.builder().put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT))
+            .numberOfShards(1)
+            .numberOfReplicas(0);
+    }
+
+    private static IndexTemplateMetaData.Builder templateMetaData(String templateName) {
+        return IndexTemplateMetaData.builder(templateName).patterns(ImmutableList.of(templateName + "*"));
+    }
 }
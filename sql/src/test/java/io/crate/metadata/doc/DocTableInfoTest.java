@@ -2,6 +2,7 @@ package io.crate.metadata.doc;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.crate.Version;
 import io.crate.expression.symbol.DynamicReference;
 import io.crate.metadata.ColumnIdent;
@@ -39,6 +40,7 @@ public class DocTableInfoTest extends CrateUnitTest {
             ImmutableMap.of(),
             ImmutableMap.of(),
             ImmutableMap.of(),
+            ImmutableSet.of(),
             ImmutableList.of(),
             null,
             false,
@@ -94,6 +96,7 @@ public class DocTableInfoTest extends CrateUnitTest {
             ImmutableMap.of(),
             references,
             ImmutableMap.of(),
+            ImmutableSet.of(),
             ImmutableList.of(),
             null,
             false,
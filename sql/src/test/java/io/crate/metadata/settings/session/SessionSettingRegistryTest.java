@@ -24,6 +24,8 @@ package io.crate.metadata.settings.session;
 
 import io.crate.action.sql.SessionContext;
 import io.crate.data.Row;
+import io.crate.execution.jobs.WorkloadClass;
+import io.crate.expression.scalar.regex.RegexEngine;
 import io.crate.sql.tree.Expression;
 import io.crate.sql.tree.StringLiteral;
 import org.junit.Test;
@@ -63,6 +65,65 @@ public class SessionSettingRegistryTest {
         }
     }
 
+    @Test
+    public void testMaterializedViewRewriteSessionSetting() {
+        SessionContext sessionContext = new SessionContext(null, null, x -> {}, x -> {});
+        SessionSettingApplier applier =
+            SessionSettingRegistry.getApplier(SessionSettingRegistry.MATERIALIZED_VIEW_REWRITE_KEY);
+
+        assertThat(sessionContext.getMaterializedViewRewriteEnabled(), is(false));
+        applier.apply(Row.EMPTY, generateInput("true"), sessionContext);
+        assertThat(sessionContext.getMaterializedViewRewriteEnabled(), is(true));
+        applier.apply(Row.EMPTY, generateInput("false"), sessionContext);
+        assertThat(sessionContext.getMaterializedViewRewriteEnabled(), is(false));
+        try {
+            applier.apply(Row.EMPTY, generateInput("invalid", "input"), sessionContext);
+            fail("Should have failed to apply setting.");
+        } catch (IllegalArgumentException e) {
+            assertThat(sessionContext.getMaterializedViewRewriteEnabled(), is(false));
+        }
+    }
+
+    @Test
+    public void testRegexEngineSessionSetting() {
+        SessionContext sessionContext = new SessionContext(null, null, x -> {}, x -> {});
+        SessionSettingApplier applier = SessionSettingRegistry.getApplier(SessionSettingRegistry.REGEX_ENGINE_KEY);
+
+        assertThat(sessionContext.regexEngine(), is(RegexEngine.BACKTRACKING));
+        applier.apply(Row.EMPTY, generateInput("linear"), sessionContext);
+        assertThat(sessionContext.regexEngine(), is(RegexEngine.LINEAR));
+        applier.apply(Row.EMPTY, generateInput(), sessionContext);
+        assertThat(sessionContext.regexEngine(), is(RegexEngine.BACKTRACKING));
+        applier.apply(Row.EMPTY, generateInput("Linear"), sessionContext);
+        assertThat(sessionContext.regexEngine(), is(RegexEngine.LINEAR));
+        try {
+            applier.apply(Row.EMPTY, generateInput("automaton"), sessionContext);
+            fail("Should have failed to apply setting.");
+        } catch (IllegalArgumentException e) {
+            assertThat(sessionContext.regexEngine(), is(RegexEngine.LINEAR));
+        }
+    }
+
+    @Test
+    public void testWorkloadClassSessionSetting() {
+        SessionContext sessionContext = new SessionContext(null, null, x -> {}, x -> {});
+        SessionSettingApplier applier = SessionSettingRegistry.getApplier(SessionSettingRegistry.WORKLOAD_CLASS_KEY);
+
+        assertThat(sessionContext.workloadClass(), is(WorkloadClass.DEFAULT));
+        applier.apply(Row.EMPTY, generateInput("batch"), sessionContext);
+        assertThat(sessionContext.workloadClass(), is(WorkloadClass.BATCH));
+        applier.apply(Row.EMPTY, generateInput(), sessionContext);
+        assertThat(sessionContext.workloadClass(), is(WorkloadClass.DEFAULT));
+        applier.apply(Row.EMPTY, generateInput("Batch"), sessionContext);
+        assertThat(sessionContext.workloadClass(), is(WorkloadClass.BATCH));
+        try {
+            applier.apply(Row.EMPTY, generateInput("interactive"), sessionContext);
+            fail("Should have failed to apply setting.");
+        } catch (IllegalArgumentException e) {
+            assertThat(sessionContext.workloadClass(), is(WorkloadClass.BATCH));
+        }
+    }
+
     private static List<Expression> generateInput(String... inputs) {
         ArrayList<Expression> expressions = new ArrayList<>(inputs.length);
         for (String input : inputs) {
@@ -0,0 +1,143 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.view;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class MaterializedViewsMetaDataTest extends CrateUnitTest {
+
+    private static final String VIEW_NAME = "doc.daily_visits";
+    private static final String SOURCE_TABLE = "doc.visits";
+    private MaterializedViewsMetaData inputMetaData;
+
+    @Before
+    public void setupMaterializedViewsMetaData() {
+        Map<String, MaterializedView> views = new HashMap<>();
+        views.put(VIEW_NAME, new MaterializedView(
+            VIEW_NAME, SOURCE_TABLE, "SELECT \"day\", count(*) AS \"visits\" FROM \"visits\" GROUP BY \"day\""));
+        inputMetaData = new MaterializedViewsMetaData(views);
+    }
+
+    @Test
+    public void testStreaming() throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        inputMetaData.writeTo(out);
+
+        StreamInput in = out.bytes().streamInput();
+        MaterializedViewsMetaData readMetaData = new MaterializedViewsMetaData(in);
+        assertEquals(inputMetaData, readMetaData);
+    }
+
+    @Test
+    public void testXContentSerialization() throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        builder.startObject();
+
+        inputMetaData.toXContent(builder, ToXContent.EMPTY_PARAMS);
+        builder.endObject();
+
+        XContentParser parser = JsonXContent.jsonXContent.createParser(xContentRegistry(), builder.bytes());
+        parser.nextToken(); // start object
+        MaterializedViewsMetaData readMetaData = MaterializedViewsMetaData.fromXContent(parser);
+        assertEquals(inputMetaData, readMetaData);
+
+        // a metadata custom must consume the surrounded END_OBJECT token, no token must be left
+        assertThat(parser.nextToken(), nullValue());
+    }
+
+    @Test
+    public void testCreateExistingViewThrowsIllegalArgumentException() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Materialized view " + VIEW_NAME + " already exists");
+        inputMetaData.createView(new MaterializedView(VIEW_NAME, "doc.t", "SELECT 1"));
+    }
+
+    @Test
+    public void testDropMissingViewThrowsResourceNotFoundException() {
+        expectedException.expect(ResourceNotFoundException.class);
+        expectedException.expectMessage("Materialized view doc.missing doesn't exist");
+        inputMetaData.dropView("doc.missing");
+    }
+
+    @Test
+    public void testMarkStale() throws IOException {
+        assertThat(inputMetaData.markStale(VIEW_NAME), is(true));
+        assertThat(inputMetaData.views().get(VIEW_NAME).isStale(), is(true));
+        assertThat(inputMetaData.markStale(VIEW_NAME), is(false));
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        inputMetaData.writeTo(out);
+        MaterializedViewsMetaData readMetaData = new MaterializedViewsMetaData(out.bytes().streamInput());
+        assertThat(readMetaData.views().get(VIEW_NAME).isStale(), is(true));
+    }
+
+    @Test
+    public void testMarkMissingViewStaleThrowsResourceNotFoundException() {
+        expectedException.expect(ResourceNotFoundException.class);
+        expectedException.expectMessage("Materialized view doc.missing doesn't exist");
+        inputMetaData.markStale("doc.missing");
+    }
+
+    @Test
+    public void testIsUsedByView() {
+        assertThat(inputMetaData.isUsedByView(VIEW_NAME), is(true));
+        assertThat(inputMetaData.isUsedByView(SOURCE_TABLE), is(true));
+        assertThat(inputMetaData.isUsedByView("doc.t"), is(false));
+    }
+
+    @Test
+    public void testRemoveViewsOfSourceTable() {
+        MaterializedViewsMetaData metaData = MaterializedViewsMetaData.maybeCopyAndRemoveViewsOf(inputMetaData, SOURCE_TABLE);
+        assertThat(metaData, notNullValue());
+        assertThat(metaData.views().isEmpty(), is(true));
+        assertThat(inputMetaData.views().size(), is(1));
+    }
+
+    @Test
+    public void testRemoveViewsOfUnrelatedTableReturnsNull() {
+        assertThat(MaterializedViewsMetaData.maybeCopyAndRemoveViewsOf(inputMetaData, "doc.t"), nullValue());
+    }
+
+    @Test
+    public void testCopyOfNullReturnsNewInstance() {
+        assertThat(MaterializedViewsMetaData.copyOf(null), notNullValue());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.analyze.relations.QueriedRelation;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.crate.testing.SymbolMatchers.isFunction;
+import static io.crate.testing.SymbolMatchers.isLiteral;
+import static io.crate.testing.SymbolMatchers.isReference;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class MaterializedViewRewriterTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private MaterializedViewRewriter rewriter;
+
+    @Before
+    public void prepare() throws Exception {
+        e = SQLExecutor.builder(clusterService)
+            .addTable("create table doc.visits (" +
+                      "   day timestamp not null," +
+                      "   country string not null," +
+                      "   url string," +
+                      "   bytes long" +
+                      ")")
+            .addMaterializedView("daily_visits",
+                "select day, country, count(*) as visits, sum(bytes) as total_bytes " +
+                "from visits group by day, country")
+            .build();
+        rewriter = new MaterializedViewRewriter(e.materializedViews, e.functions());
+    }
+
+    private QueriedRelation rewrite(String statement) {
+        return rewriter.tryRewrite(e.analyze(statement));
+    }
+
+    @Test
+    public void testGroupByOnSubsetOfViewKeysIsRewritten() {
+        QueriedRelation relation = rewrite("select country, count(*), sum(bytes) from visits group by country");
+        assertThat(relation, instanceOf(QueriedDocTable.class));
+        QueriedDocTable viewTable = (QueriedDocTable) relation;
+        assertThat(viewTable.tableRelation().tableInfo().ident().fqn(), is("doc.daily_visits"));
+        assertThat(viewTable.querySpec().groupBy(), contains(isReference("country")));
+        assertThat(viewTable.querySpec().outputs(), contains(
+            isReference("country"),
+            isFunction("coalesce", isFunction("sum", isReference("visits")), isLiteral(0L)),
+            isFunction("sum", isReference("total_bytes"))
+        ));
+    }
+
+    @Test
+    public void testFilterOnViewKeyIsRewritten() {
+        QueriedRelation relation = rewrite("select day, sum(bytes) from visits where country = 'AT' group by day");
+        assertThat(relation, instanceOf(QueriedDocTable.class));
+        QueriedDocTable viewTable = (QueriedDocTable) relation;
+        assertThat(viewTable.querySpec().where().query(),
+            isFunction("op_=", isReference("country"), isLiteral("AT")));
+    }
+
+    @Test
+    public void testGlobalAggregateIsRewritten() {
+        QueriedRelation relation = rewrite("select count(*) from visits");
+        assertThat(relation, instanceOf(QueriedDocTable.class));
+    }
+
+    @Test
+    public void testGroupByOnColumnWhichIsNotAViewKeyIsNotRewritten() {
+        assertThat(rewrite("select url, count(*) from visits group by url"), nullValue());
+    }
+
+    @Test
+    public void testAggregationWhichIsNotInTheViewIsNotRewritten() {
+        assertThat(rewrite("select country, max(bytes) from visits group by country"), nullValue());
+    }
+
+    @Test
+    public void testFilterOnColumnWhichIsNotAViewKeyIsNotRewritten() {
+        assertThat(rewrite("select country, count(*) from visits where bytes > 10 group by country"), nullValue());
+    }
+
+    @Test
+    public void testSelectWithoutAggregationIsNotRewritten() {
+        assertThat(rewrite("select country from visits"), nullValue());
+    }
+}
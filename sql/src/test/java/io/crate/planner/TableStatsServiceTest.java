@@ -26,6 +26,7 @@ import com.carrotsearch.hppc.ObjectLongMap;
 import io.crate.action.sql.Session;
 import io.crate.action.sql.SQLOperations;
 import io.crate.data.RowN;
+import io.crate.metadata.IndexParts;
 import io.crate.metadata.TableIdent;
 import io.crate.plugin.SQLPlugin;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
@@ -121,11 +122,11 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
     public void testRowsToTableStatConversion() throws InterruptedException, ExecutionException, TimeoutException {
         CompletableFuture<ObjectLongMap<TableIdent>> statsFuture = new CompletableFuture<>();
         TableStatsService.TableStatsResultReceiver receiver =
-            new TableStatsService.TableStatsResultReceiver(statsFuture::complete);
+            new TableStatsService.TableStatsResultReceiver(statsFuture::complete, s -> {});
 
-        receiver.setNextRow(new RowN(new Object[]{1L, "custom", "foo"}));
-        receiver.setNextRow(new RowN(new Object[]{2L, "doc", "foo"}));
-        receiver.setNextRow(new RowN(new Object[]{3L, "bar", "foo"}));
+        receiver.setNextRow(new RowN(new Object[]{1L, "custom", "foo", ""}));
+        receiver.setNextRow(new RowN(new Object[]{2L, "doc", "foo", ""}));
+        receiver.setNextRow(new RowN(new Object[]{3L, "bar", "foo", ""}));
         receiver.allFinished(false);
 
         ObjectLongMap<TableIdent> stats = statsFuture.get(10, TimeUnit.SECONDS);
@@ -133,6 +134,29 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
         assertThat(stats.get(new TableIdent("bar", "foo")), is(3L));
     }
 
+    @Test
+    public void testRowsOfPartitionsToTableAndIndexStatConversion() throws Exception {
+        CompletableFuture<ObjectLongMap<TableIdent>> statsFuture = new CompletableFuture<>();
+        CompletableFuture<ObjectLongMap<String>> indexStatsFuture = new CompletableFuture<>();
+        TableStatsService.TableStatsResultReceiver receiver =
+            new TableStatsService.TableStatsResultReceiver(statsFuture::complete, indexStatsFuture::complete);
+
+        receiver.setNextRow(new RowN(new Object[]{1L, "doc", "parted", "04132"}));
+        receiver.setNextRow(new RowN(new Object[]{2L, "doc", "parted", "04134"}));
+        receiver.setNextRow(new RowN(new Object[]{3L, "doc", "foo", ""}));
+        receiver.allFinished(false);
+
+        ObjectLongMap<TableIdent> stats = statsFuture.get(10, TimeUnit.SECONDS);
+        assertThat(stats.get(new TableIdent("doc", "parted")), is(3L));
+        assertThat(stats.get(new TableIdent("doc", "foo")), is(3L));
+
+        ObjectLongMap<String> indexStats = indexStatsFuture.get(10, TimeUnit.SECONDS);
+        assertThat(indexStats.size(), is(3));
+        assertThat(indexStats.get(IndexParts.toIndexName("doc", "parted", "04132")), is(1L));
+        assertThat(indexStats.get(IndexParts.toIndexName("doc", "parted", "04134")), is(2L));
+        assertThat(indexStats.get("foo"), is(3L));
+    }
+
     @Test
     public void testStatsQueriesCorrectly() throws Throwable {
         final SQLOperations sqlOperations = mock(SQLOperations.class);
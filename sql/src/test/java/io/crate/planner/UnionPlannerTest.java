@@ -24,6 +24,7 @@ package io.crate.planner;
 
 import io.crate.analyze.TableDefinitions;
 import io.crate.planner.node.dql.Collect;
+import io.crate.planner.operators.Union;
 import io.crate.execution.dsl.projection.OrderedTopNProjection;
 import io.crate.execution.dsl.projection.TopNProjection;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
@@ -33,6 +34,7 @@ import org.junit.Test;
 
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
 
@@ -58,8 +60,8 @@ public class UnionPlannerTest extends CrateDummyClusterServiceUnitTest {
         UnionExecutionPlan unionExecutionPlan = (UnionExecutionPlan) plan;
         assertThat(unionExecutionPlan.orderBy(), is(nullValue()));
         assertThat(unionExecutionPlan.mergePhase().numInputs(), is(2));
-        assertThat(unionExecutionPlan.left(), instanceOf(Collect.class));
-        assertThat(unionExecutionPlan.right(), instanceOf(Collect.class));
+        assertThat(unionExecutionPlan.sources().get(0), instanceOf(Collect.class));
+        assertThat(unionExecutionPlan.sources().get(1), instanceOf(Collect.class));
     }
 
     @Test
@@ -76,8 +78,8 @@ public class UnionPlannerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(unionExecutionPlan.mergePhase().projections(), contains(
             instanceOf(TopNProjection.class)
         ));
-        assertThat(unionExecutionPlan.left(), instanceOf(Collect.class));
-        assertThat(unionExecutionPlan.right(), instanceOf(Collect.class));
+        assertThat(unionExecutionPlan.sources().get(0), instanceOf(Collect.class));
+        assertThat(unionExecutionPlan.sources().get(1), instanceOf(Collect.class));
     }
 
     @Test
@@ -96,9 +98,53 @@ public class UnionPlannerTest extends CrateDummyClusterServiceUnitTest {
             instanceOf(OrderedTopNProjection.class),
             instanceOf(TopNProjection.class)
         ));
-        assertThat(unionExecutionPlan.left(), instanceOf(Merge.class));
-        Merge merge = (Merge) unionExecutionPlan.left();
+        assertThat(unionExecutionPlan.sources().get(0), instanceOf(Merge.class));
+        Merge merge = (Merge) unionExecutionPlan.sources().get(0);
         assertThat(merge.subPlan(), instanceOf(Collect.class));
-        assertThat(unionExecutionPlan.right(), instanceOf(Collect.class));
+        assertThat(unionExecutionPlan.sources().get(1), instanceOf(Collect.class));
+    }
+
+    @Test
+    public void testNestedUnionIsFlattenedIntoSingleMergePhase() {
+        ExecutionPlan plan = e.plan(
+            "select id from users " +
+            "union all " +
+            "select id from locations " +
+            "union all " +
+            "select id from users");
+        assertThat(plan, instanceOf(UnionExecutionPlan.class));
+        UnionExecutionPlan unionExecutionPlan = (UnionExecutionPlan) plan;
+        assertThat(unionExecutionPlan.mergePhase().numInputs(), is(3));
+        assertThat(unionExecutionPlan.sources(), contains(
+            instanceOf(Collect.class),
+            instanceOf(Collect.class),
+            instanceOf(Collect.class)
+        ));
+    }
+
+    @Test
+    public void testUnionWithMoreSourcesThanAnInputIdCanAddressIsSplitIntoNestedUnions() {
+        int numRelations = Union.MAX_SOURCES + 10;
+        StringBuilder stmt = new StringBuilder("select id from users");
+        for (int i = 1; i < numRelations; i++) {
+            stmt.append(" union all select id from users");
+        }
+        ExecutionPlan plan = e.plan(stmt.toString());
+        assertThat(plan, instanceOf(UnionExecutionPlan.class));
+        assertThat(numCollectSources((UnionExecutionPlan) plan), is(numRelations));
+    }
+
+    private static int numCollectSources(UnionExecutionPlan plan) {
+        assertThat(plan.mergePhase().numInputs(), lessThanOrEqualTo(Union.MAX_SOURCES));
+        int numSources = 0;
+        for (ExecutionPlan source : plan.sources()) {
+            if (source instanceof UnionExecutionPlan) {
+                numSources += numCollectSources((UnionExecutionPlan) source);
+            } else {
+                assertThat(source, instanceOf(Collect.class));
+                numSources++;
+            }
+        }
+        return numSources;
     }
 }
@@ -25,29 +25,44 @@ package io.crate.planner.operators;
 import com.carrotsearch.hppc.ObjectLongHashMap;
 import io.crate.analyze.MultiSourceSelect;
 import io.crate.analyze.TableDefinitions;
+import io.crate.analyze.WhereClause;
 import io.crate.data.Row;
+import io.crate.expression.operator.any.AnyEqOperator;
+import io.crate.expression.symbol.SelectSymbol;
 import io.crate.metadata.Functions;
+import io.crate.metadata.PartitionName;
+import io.crate.metadata.Schemas;
 import io.crate.metadata.TableIdent;
+import io.crate.metadata.table.TestingTableInfo;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.SubqueryPlanner;
 import io.crate.planner.TableStats;
 import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.join.NestedLoop;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collections;
+import java.util.Map;
 
+import static io.crate.testing.SymbolMatchers.isFunction;
+import static io.crate.testing.SymbolMatchers.isReference;
 import static io.crate.testing.TestingHelpers.getFunctions;
 import static java.util.Collections.emptyMap;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 
 public class JoinTest extends CrateDummyClusterServiceUnitTest {
 
+    private static final TableIdent PARTED_IDENT = new TableIdent(Schemas.DOC_SCHEMA_NAME, "parted");
+
     private SQLExecutor e;
     private Functions functions = getFunctions();
     private ProjectionBuilder projectionBuilder = new ProjectionBuilder(functions);
@@ -57,6 +72,14 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
         e = SQLExecutor.builder(clusterService)
             .addDocTable(TableDefinitions.USER_TABLE_INFO)
             .addDocTable(TableDefinitions.TEST_DOC_LOCATIONS_TABLE_INFO)
+            .addDocTable(TestingTableInfo.builder(PARTED_IDENT, TableDefinitions.SHARD_ROUTING)
+                .add("id", DataTypes.INTEGER, null)
+                .add("date", DataTypes.TIMESTAMP, null, true)
+                .addPartitions(
+                    new PartitionName("parted", Collections.singletonList(new BytesRef("1395874800000"))).asIndexName(),
+                    new PartitionName("parted", Collections.singletonList(new BytesRef("1395961200000"))).asIndexName(),
+                    new PartitionName("parted", Collections.singletonList(new BytesRef("1396047600000"))).asIndexName())
+                .build())
             .build();
     }
 
@@ -92,4 +115,67 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
             is(DistributionType.SAME_NODE)
         );
     }
+
+    @Test
+    public void testSelectedPartitionsAreConsideredToDecideWhichSideIsBroadcast() throws Exception {
+        TableStats tableStats = new TableStats();
+        ObjectLongHashMap<TableIdent> rowCountByTable = new ObjectLongHashMap<>();
+        rowCountByTable.put(TableDefinitions.USER_TABLE_IDENT, 10_000);
+        rowCountByTable.put(PARTED_IDENT, 15_000);
+        tableStats.updateTableStats(rowCountByTable);
+
+        PlannerContext context = e.getPlannerContext(clusterService.state());
+        LogicalPlanner logicalPlanner = new LogicalPlanner(functions, tableStats);
+        SubqueryPlanner subqueryPlanner = new SubqueryPlanner((s) -> logicalPlanner.planSubSelect(s, context));
+
+        MultiSourceSelect mss = e.analyze("select * from users, parted where users.id = parted.id");
+        LogicalPlan operator = Join.createNodes(mss, mss.where(), subqueryPlanner).build(tableStats, Collections.emptySet());
+        NestedLoop nl = (NestedLoop) operator.build(
+            context, projectionBuilder, -1, 0, null, null, Row.EMPTY, emptyMap());
+        assertThat(
+            ((Collect) nl.left()).collectPhase().distributionInfo().distributionType(),
+            is(DistributionType.BROADCAST)
+        );
+
+        // only one of three partitions is selected -> 5_000 expected rows on the right side
+        mss = e.analyze("select * from users, parted where users.id = parted.id and parted.date = 1395874800000");
+        operator = Join.createNodes(mss, mss.where(), subqueryPlanner).build(tableStats, Collections.emptySet());
+        nl = (NestedLoop) operator.build(context, projectionBuilder, -1, 0, null, null, Row.EMPTY, emptyMap());
+        assertThat(
+            ((Collect) nl.left()).collectPhase().distributionInfo().distributionType(),
+            is(DistributionType.SAME_NODE)
+        );
+    }
+
+    @Test
+    public void testLargerSideIsFilteredByJoinKeysOfSmallerFilteredSide() throws Exception {
+        TableStats tableStats = new TableStats();
+        ObjectLongHashMap<TableIdent> rowCountByTable = new ObjectLongHashMap<>();
+        rowCountByTable.put(TableDefinitions.USER_TABLE_IDENT, 10);
+        rowCountByTable.put(TableDefinitions.TEST_DOC_LOCATIONS_TABLE_IDENT, 10_000);
+        tableStats.updateTableStats(rowCountByTable);
+
+        PlannerContext context = e.getPlannerContext(clusterService.state());
+        LogicalPlanner logicalPlanner = new LogicalPlanner(functions, tableStats);
+        SubqueryPlanner subqueryPlanner = new SubqueryPlanner((s) -> logicalPlanner.planSubSelect(s, context));
+
+        MultiSourceSelect mss = e.analyze("select users.name, locations.name from users " +
+                                          "join locations on users.id = locations.id " +
+                                          "where users.name = 'Arthur'");
+        LogicalPlan operator = Join.createNodes(mss, mss.where(), subqueryPlanner).build(tableStats, Collections.emptySet());
+        assertThat(operator.dependencies().size(), is(1));
+        SelectSymbol keys = operator.dependencies().values().iterator().next();
+        assertThat(keys.relation().querySpec().outputs(), contains(isReference("id")));
+
+        Map<SelectSymbol, Object> subQueryValues = Collections.singletonMap(keys, new Object[]{1L, 2L});
+        NestedLoop nl = (NestedLoop) operator.build(
+            context, projectionBuilder, -1, 0, null, null, Row.EMPTY, subQueryValues);
+        WhereClause locationsWhere = ((RoutedCollectPhase) ((Collect) nl.right()).collectPhase()).whereClause();
+        assertThat(locationsWhere.query(), isFunction(AnyEqOperator.NAME));
+
+        // without a filter on the smaller side all rows of the larger side could match
+        mss = e.analyze("select users.name, locations.name from users join locations on users.id = locations.id");
+        operator = Join.createNodes(mss, mss.where(), subqueryPlanner).build(tableStats, Collections.emptySet());
+        assertThat(operator.dependencies().isEmpty(), is(true));
+    }
 }
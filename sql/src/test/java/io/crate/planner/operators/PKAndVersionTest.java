@@ -0,0 +1,54 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.operators;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class PKAndVersionTest extends CrateUnitTest {
+
+    @Test
+    public void testEqualsAndHashCode() throws Exception {
+        PKAndVersion pkAndVersion = new PKAndVersion("1", 2L);
+
+        assertThat(pkAndVersion, is(new PKAndVersion("1", 2L)));
+        assertThat(pkAndVersion.hashCode(), is(new PKAndVersion("1", 2L).hashCode()));
+        assertThat(pkAndVersion, not(new PKAndVersion("1", 3L)));
+        assertThat(pkAndVersion, not(new PKAndVersion("2", 2L)));
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        PKAndVersion pkAndVersion = new PKAndVersion("1", 2L);
+        BytesStreamOutput out = new BytesStreamOutput();
+        pkAndVersion.writeTo(out);
+
+        PKAndVersion streamed = new PKAndVersion(out.bytes().streamInput());
+        assertThat(streamed, is(pkAndVersion));
+        assertThat(streamed.hashCode(), is(pkAndVersion.hashCode()));
+    }
+}
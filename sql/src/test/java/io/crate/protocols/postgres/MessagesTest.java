@@ -23,6 +23,7 @@
 package io.crate.protocols.postgres;
 
 import io.crate.data.RowN;
+import io.crate.protocols.postgres.types.PGTypes;
 import io.crate.types.DataTypes;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.embedded.EmbeddedChannel;
@@ -43,7 +44,7 @@ public class MessagesTest {
         Messages.sendDataRow(
             channel,
             new RowN($(10, null)),
-            Arrays.asList(DataTypes.INTEGER, DataTypes.STRING), null
+            PGTypes.get(Arrays.asList(DataTypes.INTEGER, DataTypes.STRING)), null
         );
         channel.flush();
         ByteBuf buffer = channel.readOutbound();
@@ -47,4 +47,13 @@ public class BigIntTypeTest extends BasePGTypeTest<Long> {
         byte[] bytesToRead = String.valueOf(Long.MAX_VALUE).getBytes(StandardCharsets.UTF_8);
         assertBytesReadText(bytesToRead, Long.MAX_VALUE, bytesToRead.length);
     }
+
+    @Test
+    public void testWriteValueText() throws Exception {
+        assertTextWritten(0L, "0");
+        assertTextWritten(-7L, "-7");
+        assertTextWritten(1234567890123L, "1234567890123");
+        assertTextWritten(Long.MAX_VALUE, "9223372036854775807");
+        assertTextWritten(Long.MIN_VALUE, "-9223372036854775808");
+    }
 }
@@ -47,4 +47,12 @@ public class IntegerTypeTest extends BasePGTypeTest<Integer> {
         byte[] bytesToRead = String.valueOf(Integer.MAX_VALUE).getBytes(StandardCharsets.UTF_8);
         assertBytesReadText(bytesToRead, Integer.MAX_VALUE, bytesToRead.length);
     }
+
+    @Test
+    public void testWriteValueText() throws Exception {
+        assertTextWritten(10, "10");
+        assertTextWritten(-120, "-120");
+        assertTextWritten(Integer.MAX_VALUE, "2147483647");
+        assertTextWritten(Integer.MIN_VALUE, "-2147483648");
+    }
 }
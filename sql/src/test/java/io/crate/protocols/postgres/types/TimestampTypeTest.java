@@ -61,4 +61,14 @@ public class TimestampTypeTest extends BasePGTypeTest<Long> {
         expectedException.expectMessage("Cannot parse more than 9 digits for fraction of a second");
         TimestampType.INSTANCE.decodeUTF8Text("2016-06-28 00:00:00.0000000001+05:00".getBytes(Charsets.UTF_8));
     }
+
+    @Test
+    public void testWriteValueText() {
+        assertTextWritten(1467072000000L, "2016-06-28 00:00:00.000+00");
+        assertTextWritten(951868799999L, "2000-02-29 23:59:59.999+00");
+        assertTextWritten(-1L, "1969-12-31 23:59:59.999+00");
+        assertTextWritten(-62135596800000L, "0001-01-01 00:00:00.000+00");
+        assertTextWritten(253402300799999L, "9999-12-31 23:59:59.999+00");
+        assertTextWritten(-93661920000000L, "1000-12-22 00:00:00.000+00 BC");
+    }
 }
@@ -23,6 +23,7 @@
 package io.crate.rest.action;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.crate.expression.symbol.Field;
 import io.crate.expression.symbol.Symbols;
 import io.crate.breaker.RamAccountingContext;
@@ -33,6 +34,7 @@ import io.crate.data.RowN;
 import io.crate.metadata.ColumnIdent;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.DummyRelation;
+import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
@@ -137,4 +139,23 @@ public class RestActionReceiversTest extends CrateUnitTest {
         String s = builder.build().string();
         assertEquals(s, "{\"results\":[{\"rowcount\":1},{\"rowcount\":2},{\"rowcount\":3}]}");
     }
+
+    @Test
+    public void testRowsWrittenWithValueWritersEqualGenericRows() throws Exception {
+        List<DataType> types = ImmutableList.of(DataTypes.BYTE, DataTypes.SHORT, DataTypes.INTEGER, DataTypes.LONG,
+            DataTypes.TIMESTAMP, DataTypes.FLOAT, DataTypes.DOUBLE, DataTypes.BOOLEAN, DataTypes.STRING,
+            DataTypes.STRING, DataTypes.IP, DataTypes.OBJECT);
+        Row row = new RowN(new Object[]{(byte) 1, (short) -2, 3, Long.MIN_VALUE, 1467072000000L, 1.5f, -0.25d, true,
+            new BytesRef("fööbar"), "foo", new BytesRef("127.0.0.1"), ImmutableMap.of("x", 1)});
+        Row nullRow = new RowN(new Object[types.size()]);
+
+        ResultToXContentBuilder typed = ResultToXContentBuilder.builder(JsonXContent.contentBuilder()).startRows();
+        ResultToXContentBuilder generic = ResultToXContentBuilder.builder(JsonXContent.contentBuilder()).startRows();
+        ResultToXContentBuilder.ValueWriter[] valueWriters = ResultToXContentBuilder.valueWriters(types);
+        for (Row r : ImmutableList.of(row, nullRow)) {
+            typed.addRow(r, valueWriters);
+            generic.addRow(r, types.size());
+        }
+        assertXContentBuilder(generic.finishRows().build(), typed.finishRows().build());
+    }
 }
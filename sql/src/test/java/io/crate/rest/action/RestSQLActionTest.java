@@ -27,6 +27,7 @@ import io.crate.action.sql.SQLOperations;
 import io.crate.breaker.CrateCircuitBreakerService;
 import io.crate.auth.AuthSettings;
 import io.crate.auth.user.UserManager;
+import io.crate.plugin.PipelineRegistry;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.DummyUserManager;
 import io.netty.handler.codec.http.HttpHeaderNames;
@@ -57,7 +58,8 @@ public class RestSQLActionTest extends CrateUnitTest {
             restController,
             sqlOperations,
             USER_MANAGER_PROVIDER,
-            circuitBreakerService
+            circuitBreakerService,
+            new PipelineRegistry()
         );
         RestRequest request = new FakeRestRequest.Builder(xContentRegistry())
             .withHeaders(Collections.emptyMap())
@@ -75,7 +77,8 @@ public class RestSQLActionTest extends CrateUnitTest {
             restController,
             sqlOperations,
             USER_MANAGER_PROVIDER,
-            circuitBreakerService
+            circuitBreakerService,
+            new PipelineRegistry()
         );
         RestRequest request = new FakeRestRequest.Builder(xContentRegistry())
             .withHeaders(Collections.emptyMap())
@@ -90,7 +93,8 @@ public class RestSQLActionTest extends CrateUnitTest {
             restController,
             sqlOperations,
             USER_MANAGER_PROVIDER,
-            circuitBreakerService
+            circuitBreakerService,
+            new PipelineRegistry()
         );
         RestRequest request = new FakeRestRequest.Builder(xContentRegistry())
             .withHeaders(
@@ -107,7 +111,8 @@ public class RestSQLActionTest extends CrateUnitTest {
             restController,
             sqlOperations,
             USER_MANAGER_PROVIDER,
-            circuitBreakerService
+            circuitBreakerService,
+            new PipelineRegistry()
         );
         RestRequest request = new FakeRestRequest.Builder(xContentRegistry())
             .withHeaders(Collections.singletonMap(AuthSettings.HTTP_HEADER_USER, Collections.singletonList("other")))
@@ -122,7 +127,8 @@ public class RestSQLActionTest extends CrateUnitTest {
             restController,
             sqlOperations,
             USER_MANAGER_PROVIDER,
-            circuitBreakerService
+            circuitBreakerService,
+            new PipelineRegistry()
         );
         RestRequest request = new FakeRestRequest.Builder(xContentRegistry())
             .withHeaders(ImmutableMap.of(
@@ -61,6 +61,7 @@ import io.crate.metadata.TableIdent;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.blob.BlobSchemaInfo;
 import io.crate.metadata.blob.BlobTableInfo;
+import io.crate.metadata.cluster.DDLClusterStateService;
 import io.crate.metadata.doc.DocSchemaInfo;
 import io.crate.metadata.doc.DocSchemaInfoFactory;
 import io.crate.metadata.doc.DocTableInfo;
@@ -70,6 +71,10 @@ import io.crate.metadata.sys.SysSchemaInfo;
 import io.crate.metadata.table.Operation;
 import io.crate.metadata.table.SchemaInfo;
 import io.crate.metadata.table.TestingTableInfo;
+import io.crate.metadata.view.MaterializedView;
+import io.crate.metadata.view.MaterializedViewDefinition;
+import io.crate.metadata.view.MaterializedViews;
+import io.crate.metadata.view.MaterializedViewsMetaData;
 import io.crate.planner.Plan;
 import io.crate.planner.Planner;
 import io.crate.planner.PlannerContext;
@@ -145,6 +150,7 @@ public class SQLExecutor {
     private final Functions functions;
     public final Analyzer analyzer;
     public final Planner planner;
+    public final MaterializedViews materializedViews;
     private final RelationAnalyzer relAnalyzer;
     private final SessionContext sessionContext;
     private final TransactionContext transactionContext;
@@ -183,6 +189,7 @@ public class SQLExecutor {
         private final CreateTableStatementAnalyzer createTableStatementAnalyzer;
         private final AllocationService allocationService;
         private final UserDefinedFunctionService udfService;
+        private final MaterializedViews materializedViews;
         private final Random random;
         private String defaultSchema = Schemas.DOC_SCHEMA_NAME;
 
@@ -226,6 +233,7 @@ public class SQLExecutor {
                 functions,
                 new NumberOfShards(clusterService)
             );
+            materializedViews = new MaterializedViews(clusterService, functions, schemas, new DDLClusterStateService());
             allocationService = new AllocationService(
                 Settings.EMPTY,
                 new AllocationDeciders(
@@ -298,6 +306,8 @@ public class SQLExecutor {
                 clusterService,
                 new DocSchemaInfoFactory(testingDocTableInfoFactory, functions, udfService)
             );
+            MaterializedViews materializedViews =
+                new MaterializedViews(clusterService, functions, schemas, new DDLClusterStateService());
             return new SQLExecutor(
                 functions,
                 new Analyzer(
@@ -312,14 +322,17 @@ public class SQLExecutor {
                     ),
                     new ModulesBuilder().add(new RepositorySettingsModule())
                         .createInjector()
-                        .getInstance(RepositoryParamValidator.class)
+                        .getInstance(RepositoryParamValidator.class),
+                    materializedViews
                 ),
                 new Planner(
                     Settings.EMPTY,
                     clusterService,
                     functions,
-                    tableStats
+                    tableStats,
+                    materializedViews
                 ),
+                materializedViews,
                 new RelationAnalyzer(functions, schemas),
                 new SessionContext(defaultSchema, null, s -> {}, t -> {}),
                 random
@@ -388,6 +401,25 @@ public class SQLExecutor {
             return this;
         }
 
+        /**
+         * Add a materialized view and the table storing it to the clusterState
+         */
+        public Builder addMaterializedView(String name, String definition) throws IOException {
+            TableIdent ident = new TableIdent(defaultSchema, name);
+            MaterializedViewDefinition view = materializedViews.analyze(ident, definition);
+            addTable(view.createTableStmt());
+
+            ClusterState prevState = clusterService.state();
+            MaterializedViewsMetaData views = MaterializedViewsMetaData.copyOf(
+                prevState.metaData().custom(MaterializedViewsMetaData.TYPE));
+            views.createView(new MaterializedView(ident.fqn(), view.sourceTable().ident().fqn(), definition));
+            ClusterState state = ClusterState.builder(prevState)
+                .metaData(MetaData.builder(prevState.metaData()).putCustom(MaterializedViewsMetaData.TYPE, views))
+                .build();
+            ClusterServiceUtils.setState(clusterService, state);
+            return this;
+        }
+
         public Builder addDocTable(TestingTableInfo.Builder builder) {
             return addDocTable(builder.build(functions));
         }
@@ -414,12 +446,14 @@ public class SQLExecutor {
     private SQLExecutor(Functions functions,
                         Analyzer analyzer,
                         Planner planner,
+                        MaterializedViews materializedViews,
                         RelationAnalyzer relAnalyzer,
                         SessionContext sessionContext,
                         Random random) {
         this.functions = functions;
         this.analyzer = analyzer;
         this.planner = planner;
+        this.materializedViews = materializedViews;
         this.relAnalyzer = relAnalyzer;
         this.sessionContext = sessionContext;
         this.transactionContext = new TransactionContext(sessionContext);
@@ -42,6 +42,7 @@ import io.crate.execution.engine.aggregation.impl.AggregationImplModule;
 import io.crate.expression.operator.OperatorModule;
 import io.crate.expression.predicate.PredicateModule;
 import io.crate.expression.scalar.ScalarFunctionModule;
+import io.crate.expression.scalar.regex.RegexEngine;
 import io.crate.expression.tablefunctions.TableFunctionModule;
 import io.crate.auth.user.User;
 import io.crate.sql.parser.SqlParser;
@@ -130,4 +131,8 @@ public class SqlExpressions {
     public void setDefaultSchema(String schema) {
         this.transactionContext.sessionContext().setDefaultSchema(schema);
     }
+
+    public void setRegexEngine(RegexEngine regexEngine) {
+        this.transactionContext.sessionContext().setRegexEngine(regexEngine);
+    }
 }
@@ -23,6 +23,9 @@ package org.elasticsearch.action.admin.indices.create;
 
 import com.google.common.collect.ImmutableList;
 import io.crate.integrationtests.SQLTransportIntegrationTest;
+import io.crate.metadata.PartitionName;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.ActionFuture;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsResponse;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
@@ -33,7 +36,10 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.is;
@@ -124,4 +130,30 @@ public class TransportCreatePartitionsActionTest extends SQLTransportIntegration
             throw t;
         }
     }
+
+    @Test
+    public void testConcurrentRequestsForSamePartitionsAreCoalesced() throws Exception {
+        execute("create table parted (id int, p int) partitioned by (p) clustered into 1 shards with (number_of_replicas = 0)");
+        String defaultSchema = sqlExecutor.getDefaultSchema();
+        List<String> partitions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            partitions.add(new PartitionName(
+                defaultSchema, "parted", Collections.singletonList(new BytesRef(String.valueOf(i)))).asIndexName());
+        }
+
+        List<ActionFuture<CreatePartitionsResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            List<String> requested = new ArrayList<>(partitions);
+            Collections.rotate(requested, i);
+            responses.add(action.execute(new CreatePartitionsRequest(requested.subList(0, 3), UUID.randomUUID())));
+        }
+        for (ActionFuture<CreatePartitionsResponse> response : responses) {
+            assertThat(response.actionGet().isAcknowledged(), is(true));
+        }
+
+        IndicesExistsResponse indicesExistsResponse = cluster().client().admin()
+            .indices().prepareExists(partitions.toArray(new String[0]))
+            .execute().actionGet();
+        assertThat(indicesExistsResponse.isExists(), is(true));
+    }
 }